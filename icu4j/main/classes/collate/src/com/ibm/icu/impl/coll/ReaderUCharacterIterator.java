@@ -0,0 +1,136 @@
+// © 2018 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+
+package com.ibm.icu.impl.coll;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+import com.ibm.icu.text.UCharacterIterator;
+import com.ibm.icu.util.ICUUncheckedIOException;
+
+/**
+ * UCharacterIterator over the text of a Reader.
+ * Reads the text on demand, in chunks, and keeps what has been read
+ * so that the iterator can move backward.
+ * Only {@link #getLength()} reads the Reader to its end.
+ *
+ * <p>I/O errors are rethrown as {@link ICUUncheckedIOException}
+ * with the original IOException as the cause.
+ */
+public final class ReaderUCharacterIterator extends UCharacterIterator {
+    private static final int CHUNK_SIZE = 1024;
+
+    private final Reader reader;
+    private char[] text;
+    /** Number of chars read so far. */
+    private int length;
+    private int index;
+    private boolean atEnd;
+
+    public ReaderUCharacterIterator(Reader r) {
+        reader = r;
+        text = new char[CHUNK_SIZE];
+    }
+
+    /**
+     * Returns the text that has been read so far.
+     * After the iterator has returned DONE from next(), this is the whole text.
+     */
+    public CharSequence getTextRead() {
+        return CharBuffer.wrap(text, 0, length);
+    }
+
+    /**
+     * Reads more text if possible.
+     * @return true if at least one more char is available
+     */
+    private boolean fill() {
+        if (atEnd) {
+            return false;
+        }
+        if (length == text.length) {
+            char[] newText = new char[2 * text.length];
+            System.arraycopy(text, 0, newText, 0, length);
+            text = newText;
+        }
+        try {
+            int n;
+            do {
+                n = reader.read(text, length, text.length - length);
+            } while (n == 0);
+            if (n < 0) {
+                atEnd = true;
+                return false;
+            }
+            length += n;
+            return true;
+        } catch (IOException e) {
+            throw new ICUUncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int current() {
+        if (index < length || fill()) {
+            return text[index];
+        }
+        return DONE;
+    }
+
+    @Override
+    public int getLength() {
+        while (fill()) {}
+        return length;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public int next() {
+        if (index < length || fill()) {
+            return text[index++];
+        }
+        return DONE;
+    }
+
+    @Override
+    public int previous() {
+        if (index > 0) {
+            return text[--index];
+        }
+        return DONE;
+    }
+
+    @Override
+    public void setIndex(int newIndex) {
+        if (newIndex < 0) {
+            throw new IndexOutOfBoundsException(Integer.toString(newIndex));
+        }
+        while (newIndex > length) {
+            if (!fill()) {
+                throw new IndexOutOfBoundsException(Integer.toString(newIndex));
+            }
+        }
+        index = newIndex;
+    }
+
+    @Override
+    public int getText(char[] fillIn, int offset) {
+        int len = getLength();
+        System.arraycopy(text, 0, fillIn, offset, len);
+        return len;
+    }
+
+    /**
+     * Not supported: The Reader cannot be shared between clones.
+     */
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        throw new CloneNotSupportedException();
+    }
+}
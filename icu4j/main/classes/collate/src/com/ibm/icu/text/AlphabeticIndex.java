@@ -171,11 +171,32 @@ public int compare(Record<V> o1, Record<V> o2) {
      */
     public static final class ImmutableIndex<V> implements Iterable<Bucket<V>> {
         private final BucketList<V> buckets;
-        private final Collator collatorPrimaryOnly;
+        private final RuleBasedCollator collatorPrimaryOnly;
+        /**
+         * First primary weight of each bucket's lower boundary, parallel to buckets.bucketList.
+         */
+        private final long[] boundaryPrimaries;
+        /**
+         * true if a name whose first primary equals boundaryPrimaries[i]
+         * sorts at or after bucket i's lower boundary.
+         */
+        private final boolean[] isBoundaryPrimaryExact;
 
-        private ImmutableIndex(BucketList<V> bucketList, Collator collatorPrimaryOnly) {
+        private ImmutableIndex(BucketList<V> bucketList, RuleBasedCollator collatorPrimaryOnly) {
             this.buckets = bucketList;
             this.collatorPrimaryOnly = collatorPrimaryOnly;
+            int length = bucketList.bucketList.size();
+            boundaryPrimaries = new long[length];
+            isBoundaryPrimaryExact = new boolean[length];
+            // With the case level on, equal primaries do not imply primary-level equality.
+            boolean caseLevel = collatorPrimaryOnly.isCaseLevel();
+            long[] primaries = new long[2];
+            for (int i = 0; i < length; ++i) {
+                collatorPrimaryOnly.internalGetLeadingPrimaries(
+                        bucketList.bucketList.get(i).lowerBoundary, primaries);
+                boundaryPrimaries[i] = primaries[0];
+                isBoundaryPrimaryExact[i] = primaries[1] == 0 && !caseLevel;
+            }
         }
 
         /**
@@ -200,6 +221,71 @@ public int getBucketIndex(CharSequence name) {
             return buckets.getBucketIndex(name, collatorPrimaryOnly);
         }
 
+        /**
+         * Finds the index buckets for the given names and returns their bucket numbers.
+         * Equivalent to calling {@link #getBucketIndex(CharSequence)} for each name,
+         * but for most names compares only the leading primary weight
+         * with precomputed bucket boundary weights.
+         *
+         * @param names the strings to be sorted into index buckets
+         * @return the bucket numbers for the names, parallel to the input array
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public int[] getBucketIndexes(CharSequence[] names) {
+            int[] dest = new int[names.length];
+            getBucketIndexes(names, 0, names.length, dest);
+            return dest;
+        }
+
+        /**
+         * Finds the index buckets for names[start..limit-1]
+         * and writes their bucket numbers into dest[start..limit-1].
+         * Only that range of dest is written, so a caller can split a large input array
+         * into disjoint ranges and process them concurrently with the same ImmutableIndex.
+         *
+         * @param names the strings to be sorted into index buckets
+         * @param start the index of the first name to be processed
+         * @param limit the index after the last name to be processed
+         * @param dest receives the bucket numbers, at the same indexes as the names
+         * @throws IndexOutOfBoundsException if start or limit are out of bounds
+         *         for names or dest
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public void getBucketIndexes(CharSequence[] names, int start, int limit, int[] dest) {
+            if (start < 0 || start > limit || limit > names.length || limit > dest.length) {
+                throw new IndexOutOfBoundsException(
+                        "start " + start + ", limit " + limit +
+                        ", names.length " + names.length + ", dest.length " + dest.length);
+            }
+            long[] primaries = new long[1];
+            for (int i = start; i < limit; ++i) {
+                CharSequence name = names[i];
+                collatorPrimaryOnly.internalGetLeadingPrimaries(name, primaries);
+                long p = primaries[0];
+                // Find the last bucket whose boundary primary is <= p.
+                // Bucket 0 (underflow) has the empty lower boundary with primary 0.
+                int lo = 0;
+                int hi = boundaryPrimaries.length;
+                while ((lo + 1) < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (p < boundaryPrimaries[mid]) {
+                        hi = mid;
+                    } else {
+                        lo = mid;
+                    }
+                }
+                if (boundaryPrimaries[lo] < p || isBoundaryPrimaryExact[lo]) {
+                    dest[i] = buckets.getDisplayIndex(lo);
+                } else {
+                    // The name and the boundary share the first primary,
+                    // and only a full primary-level comparison can tell them apart.
+                    dest[i] = buckets.getBucketIndex(name, collatorPrimaryOnly);
+                }
+            }
+        }
+
         /**
          * Returns the index-th bucket. Returns null if the index is out of range.
          *
@@ -1172,7 +1258,11 @@ private int getBucketIndex(CharSequence name, Collator collatorPrimaryOnly) {
                     start = i;
                 }
             }
-            Bucket<V> bucket = bucketList.get(start);
+            return getDisplayIndex(start);
+        }
+
+        private int getDisplayIndex(int bucketListIndex) {
+            Bucket<V> bucket = bucketList.get(bucketListIndex);
             if (bucket.displayBucket != null) {
                 bucket = bucket.displayBucket;
             }
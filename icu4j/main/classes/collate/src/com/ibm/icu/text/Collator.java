@@ -9,8 +9,10 @@
 package com.ibm.icu.text;
 
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.Locale;
+import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.Set;
 
@@ -858,6 +860,91 @@ public static final Collator getInstance(Locale locale) {
         return getInstance(ULocale.forLocale(locale));
     }
 
+    /**
+     * {@icu} Returns a frozen, thread-safe Collator for the desired locale,
+     * shared among all callers that request the same locale.
+     * Locale keywords for the collation type and attributes are handled
+     * as in {@link #getInstance(ULocale)}, and each distinct set of keywords
+     * yields its own shared instance.
+     *
+     * <p>Unlike {@link #getInstance(ULocale)}, this does not clone a Collator per call.
+     * It is intended for code that compares strings in many short-lived contexts
+     * (for example, once per request) without modifying the Collator.
+     * The returned object must not be modified; use {@link #cloneAsThawed()}
+     * to obtain a modifiable copy.
+     *
+     * <p>Only a limited number of recently used shared instances are cached;
+     * others are recreated as needed.
+     *
+     * @param locale the desired locale; if null, the default locale is used
+     * @return a frozen Collator for the desired locale
+     * @throws UnsupportedOperationException if the Collator for this locale
+     *         was registered by the application and does not support freezing
+     * @see #getInstance(ULocale)
+     * @see #freeze()
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static final Collator getFrozenInstance(ULocale locale) {
+        if (locale == null) {
+            locale = ULocale.getDefault();
+        }
+        String name = locale.getName();
+        Collator coll;
+        synchronized (FROZEN_CACHE) {
+            coll = FROZEN_CACHE.get(name);
+        }
+        if (coll == null) {
+            // Create the collator outside of the lock; loading it can take a while.
+            coll = getInstance(locale);
+            if (!coll.isFrozen()) {
+                coll = coll.freeze();
+            }
+            synchronized (FROZEN_CACHE) {
+                Collator cached = FROZEN_CACHE.get(name);
+                if (cached != null) {
+                    coll = cached;
+                } else {
+                    FROZEN_CACHE.put(name, coll);
+                }
+            }
+        }
+        return coll;
+    }
+
+    /**
+     * {@icu} Returns a frozen, thread-safe Collator for the desired locale,
+     * shared among all callers that request the same locale.
+     * See {@link #getFrozenInstance(ULocale)}.
+     *
+     * @param locale the desired locale; if null, the default locale is used
+     * @return a frozen Collator for the desired locale
+     * @throws UnsupportedOperationException if the Collator for this locale
+     *         was registered by the application and does not support freezing
+     * @see #getInstance(Locale)
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static final Collator getFrozenInstance(Locale locale) {
+        return getFrozenInstance(locale == null ? null : ULocale.forLocale(locale));
+    }
+
+    private static final int FROZEN_CACHE_SIZE = 32;
+
+    /**
+     * The most recently used shared frozen collators, by full locale name.
+     * Access must be synchronized on the map.
+     */
+    private static final Map<String, Collator> FROZEN_CACHE =
+            new LinkedHashMap<String, Collator>(FROZEN_CACHE_SIZE, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Collator> eldest) {
+            return size() > FROZEN_CACHE_SIZE;
+        }
+    };
+
     /**
      * {@icu} Registers a collator as the default collator for the provided locale.  The
      * collator should not be modified after it is registered.
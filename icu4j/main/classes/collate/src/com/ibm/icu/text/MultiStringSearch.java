@@ -0,0 +1,404 @@
+// © 2018 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.text;
+
+import java.text.CharacterIterator;
+import java.text.StringCharacterIterator;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * <tt>MultiStringSearch</tt> finds occurrences of any of a set of patterns
+ * in a target text, comparing primary collation weights.
+ * All patterns are matched in a single pass over the collation elements of the text
+ * (Aho-Corasick automaton over primary weight sequences),
+ * so the cost of a search is largely independent of the number of patterns.
+ *
+ * <p>Matching is done at primary strength, regardless of the strength of the collator:
+ * For example, with a root collator, the pattern "resume" matches "Résumé".
+ * With alternate=shifted, variable characters (spaces and punctuation) are ignored.
+ * Matches are reported at collation element boundaries:
+ * A match never starts or ends in the middle of an expansion,
+ * but trailing primary-ignorable characters (such as combining marks) are not included.
+ * Unlike {@link StringSearch}, no break iterator is used to check match boundaries.
+ * Where exact <tt>StringSearch</tt> semantics are required,
+ * a <tt>MultiStringSearch</tt> can serve as a fast filter for candidate positions.
+ *
+ * <p>A <tt>MultiStringSearch</tt> is immutable and thread-safe.
+ * <pre><code>
+ * MultiStringSearch search = new MultiStringSearch(collator, "fox", "dog");
+ * search.search(text, new MultiStringSearch.MatchHandler() {
+ *     public boolean handleMatch(int patternIndex, int start, int limit) {
+ *         System.out.println(search.getPattern(patternIndex) + " at " + start);
+ *         return true;  // continue
+ *     }
+ * });
+ * </code></pre>
+ *
+ * @see StringSearch
+ * @draft ICU 64
+ * @provisional This API might change or be removed in a future release.
+ */
+public final class MultiStringSearch {
+    /**
+     * Receives the matches found by {@link MultiStringSearch#search(String, MatchHandler)}.
+     *
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public interface MatchHandler {
+        /**
+         * Called for each match, in order of the match limits.
+         * Overlapping matches, and matches of several patterns at the same position,
+         * are all reported.
+         *
+         * @param patternIndex index of the matching pattern in the constructor input
+         * @param start start index of the match in the target text
+         * @param limit limit (exclusive end) index of the match in the target text
+         * @return true to continue searching, false to stop
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        boolean handleMatch(int patternIndex, int start, int limit);
+    }
+
+    private final RuleBasedCollator collator_;
+    private final String[] patterns_;
+    /** Number of primary weights per pattern. */
+    private final int[] patternLengths_;
+    private final int maxPatternLength_;
+
+    // Automaton. Node 0 is the root.
+    private int nodeCount_;
+    private int[] fail_;
+    /** First pattern ending at each node, or -1. */
+    private int[] firstOutput_;
+    /** Next pattern ending at the same node, or -1. */
+    private int[] nextOutput_;
+    /** Nearest node on the failure chain (excluding itself) which has outputs, or -1. */
+    private int[] outputLink_;
+
+    // Goto function: open-addressing hash map from (node, primary) to child node.
+    private long[] edgeKeys_;
+    private int[] edgeValues_;
+    private int edgeCount_;
+    // Children lists and incoming edge labels, only used while building the automaton.
+    private int[] firstChild_;
+    private int[] nextSibling_;
+    private int[] label_;
+
+    /**
+     * Constructs a search for the given patterns.
+     *
+     * @param collator defines the primary weights; it is cloned and set to primary strength
+     * @param patterns the strings to look for
+     * @throws IllegalArgumentException if there are no patterns,
+     *         or if a pattern has no primary collation weights (e.g., an empty string)
+     * @throws UnsupportedOperationException if the collator uses numeric collation
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public MultiStringSearch(RuleBasedCollator collator, String... patterns) {
+        // string search does not really work when numeric collation is turned on
+        if (collator.getNumericCollation()) {
+            throw new UnsupportedOperationException(
+                    "Numeric collation is not supported by MultiStringSearch");
+        }
+        if (patterns.length == 0) {
+            throw new IllegalArgumentException("no patterns");
+        }
+        RuleBasedCollator coll = collator.cloneAsThawed();
+        coll.setStrength(Collator.PRIMARY);
+        collator_ = (RuleBasedCollator) coll.freeze();
+        patterns_ = patterns.clone();
+        patternLengths_ = new int[patterns.length];
+
+        int capacity = 16;
+        fail_ = new int[capacity];
+        firstOutput_ = new int[capacity];
+        outputLink_ = new int[capacity];
+        firstChild_ = new int[capacity];
+        nextSibling_ = new int[capacity];
+        label_ = new int[capacity];
+        edgeKeys_ = new long[64];
+        edgeValues_ = new int[64];
+        Arrays.fill(edgeValues_, -1);
+        nextOutput_ = new int[patterns.length];
+        newNode();  // root
+
+        int maxLength = 0;
+        int[] primaries = new int[16];
+        StringSearch.CollationPCE.Range range = new StringSearch.CollationPCE.Range();
+        for (int i = 0; i < patterns.length; ++i) {
+            CollationElementIterator iter = collator_.getCollationElementIterator(patterns[i]);
+            StringSearch.CollationPCE pce = new StringSearch.CollationPCE(iter);
+            int length = 0;
+            long ce;
+            while ((ce = pce.nextProcessed(range)) != StringSearch.CollationPCE.PROCESSED_NULLORDER) {
+                int p = (int) (ce >>> 48);
+                if (p == 0) {
+                    continue;
+                }
+                if (length == primaries.length) {
+                    primaries = Arrays.copyOf(primaries, 2 * length);
+                }
+                primaries[length++] = p;
+            }
+            if (length == 0) {
+                throw new IllegalArgumentException(
+                        "pattern " + i + " has no primary collation weights: \"" + patterns[i] + "\"");
+            }
+            patternLengths_[i] = length;
+            if (length > maxLength) {
+                maxLength = length;
+            }
+            addPattern(i, primaries, length);
+        }
+        maxPatternLength_ = maxLength;
+        buildFailureLinks();
+        firstChild_ = nextSibling_ = label_ = null;
+    }
+
+    /**
+     * Constructs a search for the given patterns.
+     *
+     * @param collator defines the primary weights; it is cloned and set to primary strength
+     * @param patterns the strings to look for; the pattern index is the iteration order
+     * @throws IllegalArgumentException if there are no patterns,
+     *         or if a pattern has no primary collation weights (e.g., an empty string)
+     * @throws UnsupportedOperationException if the collator uses numeric collation
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public MultiStringSearch(RuleBasedCollator collator, Collection<String> patterns) {
+        this(collator, patterns.toArray(new String[patterns.size()]));
+    }
+
+    /**
+     * Returns the number of patterns.
+     *
+     * @return the number of patterns
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int getPatternCount() {
+        return patterns_.length;
+    }
+
+    /**
+     * Returns a pattern.
+     *
+     * @param patternIndex 0..getPatternCount()-1
+     * @return the pattern string
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public String getPattern(int patternIndex) {
+        return patterns_[patternIndex];
+    }
+
+    /**
+     * Searches the target text for all patterns.
+     *
+     * @param target the text to be searched
+     * @param handler receives each match
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public void search(String target, MatchHandler handler) {
+        search(new StringCharacterIterator(target), handler);
+    }
+
+    /**
+     * Searches the target text for all patterns.
+     * The match indexes are those of the character iterator.
+     *
+     * @param target the text to be searched
+     * @param handler receives each match
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public void search(CharacterIterator target, MatchHandler handler) {
+        CollationElementIterator iter = collator_.getCollationElementIterator(target);
+        StringSearch.CollationPCE pce = new StringSearch.CollationPCE(iter);
+        StringSearch.CollationPCE.Range range = new StringSearch.CollationPCE.Range();
+        // Ring buffer with the start indexes of the most recent primary CEs,
+        // or -1 if a CE continues an expansion and a match cannot start there.
+        int ringSize = maxPatternLength_;
+        int[] starts = new int[ringSize];
+        int count = 0;  // number of primary CEs so far
+        int state = 0;
+        int pendingState = -1;  // state with outputs, reported after looking at the next CE
+        int pendingLimit = 0;
+        for (;;) {
+            long ce = pce.nextProcessed(range);
+            boolean isEnd = ce == StringSearch.CollationPCE.PROCESSED_NULLORDER;
+            // With expansions, the first CE reports the index of the source character,
+            // and all subsequent CEs report the index of the following character.
+            boolean continuesExpansion = !isEnd && range.ixLow_ == range.ixHigh_;
+            if (pendingState >= 0) {
+                // A match must not end in the middle of an expansion.
+                if (!continuesExpansion && !report(pendingState, starts, count, pendingLimit, handler)) {
+                    return;
+                }
+                pendingState = -1;
+            }
+            if (isEnd) {
+                return;
+            }
+            int p = (int) (ce >>> 48);
+            if (p == 0) {
+                continue;
+            }
+            starts[count % ringSize] = continuesExpansion ? -1 : range.ixLow_;
+            ++count;
+            state = next(state, p);
+            if (firstOutput_[state] >= 0 || outputLink_[state] >= 0) {
+                pendingState = state;
+                pendingLimit = range.ixHigh_;
+            }
+        }
+    }
+
+    private boolean report(int state, int[] starts, int count, int limit, MatchHandler handler) {
+        int ringSize = starts.length;
+        do {
+            for (int i = firstOutput_[state]; i >= 0; i = nextOutput_[i]) {
+                int start = starts[(count - patternLengths_[i]) % ringSize];
+                if (start >= 0 && !handler.handleMatch(i, start, limit)) {
+                    return false;
+                }
+            }
+            state = outputLink_[state];
+        } while (state >= 0);
+        return true;
+    }
+
+    private int next(int state, int p) {
+        for (;;) {
+            int child = getChild(state, p);
+            if (child >= 0) {
+                return child;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail_[state];
+        }
+    }
+
+    private int newNode() {
+        if (nodeCount_ == fail_.length) {
+            int capacity = 2 * nodeCount_;
+            fail_ = Arrays.copyOf(fail_, capacity);
+            firstOutput_ = Arrays.copyOf(firstOutput_, capacity);
+            outputLink_ = Arrays.copyOf(outputLink_, capacity);
+            firstChild_ = Arrays.copyOf(firstChild_, capacity);
+            nextSibling_ = Arrays.copyOf(nextSibling_, capacity);
+            label_ = Arrays.copyOf(label_, capacity);
+        }
+        int node = nodeCount_++;
+        fail_[node] = 0;
+        firstOutput_[node] = -1;
+        outputLink_[node] = -1;
+        firstChild_[node] = -1;
+        nextSibling_[node] = -1;
+        return node;
+    }
+
+    private void addPattern(int patternIndex, int[] primaries, int length) {
+        int node = 0;
+        for (int i = 0; i < length; ++i) {
+            int child = getChild(node, primaries[i]);
+            if (child < 0) {
+                child = newNode();
+                putChild(node, primaries[i], child);
+                label_[child] = primaries[i];
+                nextSibling_[child] = firstChild_[node];
+                firstChild_[node] = child;
+            }
+            node = child;
+        }
+        // Keep the outputs in pattern order.
+        nextOutput_[patternIndex] = -1;
+        int last = firstOutput_[node];
+        if (last < 0) {
+            firstOutput_[node] = patternIndex;
+        } else {
+            while (nextOutput_[last] >= 0) { last = nextOutput_[last]; }
+            nextOutput_[last] = patternIndex;
+        }
+    }
+
+    private void buildFailureLinks() {
+        // Breadth-first, so that the failure link targets are done before their users.
+        int[] queue = new int[nodeCount_];
+        int head = 0, tail = 0;
+        for (int child = firstChild_[0]; child >= 0; child = nextSibling_[child]) {
+            fail_[child] = 0;
+            queue[tail++] = child;
+        }
+        while (head < tail) {
+            int node = queue[head++];
+            for (int child = firstChild_[node]; child >= 0; child = nextSibling_[child]) {
+                int p = label_[child];
+                int f = fail_[node];
+                int target;
+                for (;;) {
+                    target = getChild(f, p);
+                    if (target >= 0 || f == 0) {
+                        break;
+                    }
+                    f = fail_[f];
+                }
+                if (target < 0) {
+                    target = 0;
+                }
+                fail_[child] = target;
+                outputLink_[child] = firstOutput_[target] >= 0 ? target : outputLink_[target];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    // Goto function hash map.
+
+    private static long edgeKey(int node, int p) {
+        return ((long) node << 16) | p;
+    }
+
+    private int edgeSlot(long key) {
+        int mask = edgeKeys_.length - 1;
+        int i = (int) ((key * 0x9e3779b97f4a7c15L) >>> 40) & mask;
+        while (edgeValues_[i] >= 0 && edgeKeys_[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private int getChild(int node, int p) {
+        return edgeValues_[edgeSlot(edgeKey(node, p))];
+    }
+
+    private void putChild(int node, int p, int child) {
+        if (2 * (edgeCount_ + 1) > edgeKeys_.length) {
+            long[] oldKeys = edgeKeys_;
+            int[] oldValues = edgeValues_;
+            edgeKeys_ = new long[2 * oldKeys.length];
+            edgeValues_ = new int[2 * oldKeys.length];
+            Arrays.fill(edgeValues_, -1);
+            for (int i = 0; i < oldKeys.length; ++i) {
+                if (oldValues[i] >= 0) {
+                    int slot = edgeSlot(oldKeys[i]);
+                    edgeKeys_[slot] = oldKeys[i];
+                    edgeValues_[slot] = oldValues[i];
+                }
+            }
+        }
+        long key = edgeKey(node, p);
+        int slot = edgeSlot(key);
+        edgeKeys_[slot] = key;
+        edgeValues_[slot] = child;
+        ++edgeCount_;
+    }
+}
@@ -8,6 +8,8 @@
  */
 package com.ibm.icu.text;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.text.CharacterIterator;
@@ -33,11 +35,15 @@
 import com.ibm.icu.impl.coll.CollationSettings;
 import com.ibm.icu.impl.coll.CollationTailoring;
 import com.ibm.icu.impl.coll.ContractionsAndExpansions;
+import com.ibm.icu.impl.coll.FCDIterCollationIterator;
 import com.ibm.icu.impl.coll.FCDUTF16CollationIterator;
+import com.ibm.icu.impl.coll.IterCollationIterator;
+import com.ibm.icu.impl.coll.ReaderUCharacterIterator;
 import com.ibm.icu.impl.coll.SharedObject;
 import com.ibm.icu.impl.coll.TailoredSet;
 import com.ibm.icu.impl.coll.UTF16CollationIterator;
 import com.ibm.icu.lang.UScript;
+import com.ibm.icu.util.ICUUncheckedIOException;
 import com.ibm.icu.util.ULocale;
 import com.ibm.icu.util.VersionInfo;
 
@@ -319,10 +325,10 @@ public boolean isFrozen() {
     @Override
     public Collator freeze() {
         if (!isFrozen()) {
-            frozenLock = new ReentrantLock();
             if (collationBuffer == null) {
                 collationBuffer = new CollationBuffer(data);
             }
+            frozenLock = new ReentrantLock();
         }
         return this;
     }
@@ -1100,6 +1106,276 @@ public RawCollationKey getRawCollationKey(String source, RawCollationKey key) {
         }
     }
 
+    /**
+     * {@icu} Writes at most maxLength bytes of the sort key for the source text.
+     * If the complete sort key (as from {@link #getRawCollationKey(String, RawCollationKey)})
+     * is longer, then the key receives the first maxLength bytes of it
+     * and this method returns true.
+     *
+     * <p>Sort key generation stops soon after maxLength bytes have been produced,
+     * so that bounded keys for very long strings are cheap to compute.
+     * Two keys produced this way order their strings correctly if their bytes
+     * differ before the end of the shorter key.
+     * Otherwise, if either key was truncated, the strings need to be compared
+     * with {@link #compare(String, String)}.
+     *
+     * @param source the text to be transformed into a sort key
+     * @param maxLength the maximum number of sort key bytes; must be positive
+     * @param key receives the sort key bytes; it is given a new byte array
+     *            if its array length differs from maxLength
+     * @return true if the sort key was truncated
+     * @throws IllegalArgumentException if maxLength is not positive
+     * @see #getRawCollationKey(Reader, int, RawCollationKey)
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public boolean getRawCollationKey(CharSequence source, int maxLength, RawCollationKey key) {
+        checkMaxKeyLength(maxLength);
+        CollationBuffer buffer = null;
+        try {
+            buffer = getCollationBuffer();
+            boolean numeric = settings.readOnly().isNumeric();
+            CollationIterator iter;
+            if(settings.readOnly().dontCheckFCD()) {
+                buffer.leftUTF16CollIter.setText(numeric, source, 0);
+                iter = buffer.leftUTF16CollIter;
+            } else {
+                buffer.leftFCDUTF16Iter.setText(numeric, source, 0);
+                iter = buffer.leftFCDUTF16Iter;
+            }
+            return writeBoundedSortKey(iter, source, null, maxLength, key);
+        } finally {
+            releaseCollationBuffer(buffer);
+        }
+    }
+
+    /**
+     * {@icu} Writes at most maxLength bytes of the sort key for the text read from the source.
+     * Like {@link #getRawCollationKey(CharSequence, int, RawCollationKey)},
+     * but reads only as much text as is needed for the first maxLength bytes
+     * (plus a small amount of lookahead) unless the sort key is shorter.
+     * The Reader is not closed.
+     *
+     * @param source provides the text to be transformed into a sort key
+     * @param maxLength the maximum number of sort key bytes; must be positive
+     * @param key receives the sort key bytes; it is given a new byte array
+     *            if its array length differs from maxLength
+     * @return true if the sort key was truncated
+     * @throws IOException if reading the source fails
+     * @throws IllegalArgumentException if maxLength is not positive
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public boolean getRawCollationKey(Reader source, int maxLength, RawCollationKey key)
+            throws IOException {
+        checkMaxKeyLength(maxLength);
+        ReaderUCharacterIterator text = new ReaderUCharacterIterator(source);
+        try {
+            return writeBoundedSortKey(newIterCollationIterator(text), null, text, maxLength, key);
+        } catch (ICUUncheckedIOException e) {
+            throw unwrapIOException(e);
+        }
+    }
+
+    private static void checkMaxKeyLength(int maxLength) {
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("maxLength must be positive: " + maxLength);
+        }
+    }
+
+    /**
+     * Writes the sort key into a fixed-capacity sink.
+     * The text is needed only for the identical level;
+     * it is either the CharSequence or the Reader text which has been completely read
+     * when the lower levels did not overflow.
+     */
+    private boolean writeBoundedSortKey(CollationIterator iter,
+            CharSequence s, ReaderUCharacterIterator readerText,
+            int maxLength, RawCollationKey key) {
+        if (key.bytes == null || key.bytes.length != maxLength) {
+            key.bytes = new byte[maxLength];
+        }
+        BoundedKeyByteSink sink = new BoundedKeyByteSink(key.bytes);
+        // Not preflighting: Stops as soon as the primary level overflows the sink.
+        CollationKeys.writeSortKeyUpToQuaternary(
+                iter, data.compressibleBytes, settings.readOnly(),
+                sink, Collation.PRIMARY_LEVEL,
+                CollationKeys.SIMPLE_LEVEL_FALLBACK, false);
+        if (!sink.Overflowed()) {
+            if(settings.readOnly().getStrength() == IDENTICAL) {
+                if (s == null) {
+                    s = readerText.getTextRead();
+                }
+                RawCollationKey identical = new RawCollationKey(simpleKeyLengthEstimate(s));
+                CollationKeyByteSink identicalSink = new CollationKeyByteSink(identical);
+                writeIdenticalLevel(s, identicalSink);
+                sink.Append(identical.bytes, identicalSink.NumberOfBytesAppended());
+            }
+            sink.Append(Collation.TERMINATOR_BYTE);
+        }
+        int length = sink.NumberOfBytesAppended();
+        if (length > maxLength) {
+            key.size = maxLength;
+            return true;
+        } else {
+            key.size = length;
+            return false;
+        }
+    }
+
+    /**
+     * Sort key sink with a fixed capacity.
+     * Bytes beyond the capacity are counted but dropped.
+     */
+    private static final class BoundedKeyByteSink extends SortKeyByteSink {
+        BoundedKeyByteSink(byte[] dest) {
+            super(dest);
+        }
+
+        @Override
+        protected void AppendBeyondCapacity(byte[] bytes, int start, int n, int length) {
+            // n > 0 && appended_ > capacity_
+            if (length < buffer_.length) {
+                System.arraycopy(bytes, start, buffer_, length, buffer_.length - length);
+            }
+        }
+
+        @Override
+        protected boolean Resize(int appendCapacity, int length) {
+            return false;
+        }
+    }
+
+    /**
+     * {@icu} Returns a 64-bit hash value for the source text which is consistent with
+     * this collator's comparison: If <code>compare(a, b)==0</code> then
+     * <code>getCollationHash(a)==getCollationHash(b)</code>.
+     * Together with {@link #equals(String, String)} this can be used for hash-based
+     * grouping and deduplication under the collator's strength and attributes.
+     *
+     * <p>The hash is computed from the same weights as the sort key,
+     * but the key bytes are hashed as they are generated rather than stored.
+     * This is faster and allocates less than
+     * <code>getCollationKey(source).hashCode()</code>.
+     *
+     * <p>The hash value depends on the collation data and attributes;
+     * it must not be persisted or compared across collators or ICU versions.
+     *
+     * @param source the text to be hashed
+     * @return the collation-consistent hash value
+     * @see #getCollationKey
+     * @see #equals(String, String)
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public long getCollationHash(CharSequence source) {
+        CollationBuffer buffer = null;
+        try {
+            buffer = getCollationBuffer();
+            if (buffer.hashSink == null) {
+                buffer.hashSink = new CollationHashSink();
+            }
+            CollationHashSink sink = buffer.hashSink;
+            sink.reset();
+            boolean numeric = settings.readOnly().isNumeric();
+            CollationIterator iter;
+            if(settings.readOnly().dontCheckFCD()) {
+                buffer.leftUTF16CollIter.setText(numeric, source, 0);
+                iter = buffer.leftUTF16CollIter;
+            } else {
+                buffer.leftFCDUTF16Iter.setText(numeric, source, 0);
+                iter = buffer.leftFCDUTF16Iter;
+            }
+            CollationKeys.writeSortKeyUpToQuaternary(
+                    iter, data.compressibleBytes, settings.readOnly(),
+                    sink, Collation.PRIMARY_LEVEL,
+                    CollationKeys.SIMPLE_LEVEL_FALLBACK, true);
+            if(settings.readOnly().getStrength() == IDENTICAL) {
+                hashIdenticalLevel(source, sink);
+            }
+            return sink.getHash();
+        } finally {
+            releaseCollationBuffer(buffer);
+        }
+    }
+
+    private void hashIdenticalLevel(CharSequence s, CollationHashSink sink) {
+        // The identical level compares the NFD forms of the strings.
+        sink.Append(Collation.LEVEL_SEPARATOR_BYTE);
+        int nfdQCYesLimit = data.nfcImpl.decompose(s, 0, s.length(), null);
+        sink.appendChars(s, 0, nfdQCYesLimit);
+        if(nfdQCYesLimit < s.length()) {
+            StringBuilder nfd = new StringBuilder();
+            data.nfcImpl.decompose(s, nfdQCYesLimit, s.length(), nfd, s.length() - nfdQCYesLimit);
+            sink.appendChars(nfd, 0, nfd.length());
+        }
+    }
+
+    /**
+     * Sort key "sink" which hashes the sort key bytes instead of storing them.
+     * Uses the 64-bit FNV-1a hash with a final bit mixing step.
+     */
+    private static final class CollationHashSink extends SortKeyByteSink {
+        private static final byte[] EMPTY = new byte[0];
+        private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+        private static final long FNV_PRIME = 0x100000001b3L;
+
+        private long hash;
+
+        CollationHashSink() {
+            super(EMPTY);
+        }
+
+        void reset() {
+            hash = FNV_OFFSET_BASIS;
+        }
+
+        @Override
+        public void Append(byte[] bytes, int n) {
+            long h = hash;
+            for (int i = 0; i < n; ++i) {
+                h = (h ^ (bytes[i] & 0xff)) * FNV_PRIME;
+            }
+            hash = h;
+        }
+
+        @Override
+        public void Append(int b) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+
+        void appendChars(CharSequence s, int start, int limit) {
+            long h = hash;
+            for (int i = start; i < limit; ++i) {
+                char c = s.charAt(i);
+                h = (h ^ (c >> 8)) * FNV_PRIME;
+                h = (h ^ (c & 0xff)) * FNV_PRIME;
+            }
+            hash = h;
+        }
+
+        long getHash() {
+            // Finalization mix so that all bits depend on all input bytes.
+            long h = hash;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+
+        @Override
+        protected void AppendBeyondCapacity(byte[] bytes, int start, int n, int length) {
+            // Not used: Append() is overridden and never stores bytes.
+        }
+
+        @Override
+        protected boolean Resize(int appendCapacity, int length) {
+            return false;
+        }
+    }
+
     private static final class CollationKeyByteSink extends SortKeyByteSink {
         CollationKeyByteSink(RawCollationKey key) {
             super(key.bytes);
@@ -1224,6 +1500,50 @@ public long[] internalGetCEs(CharSequence str) {
         }
     }
 
+    /**
+     * Writes the leading primary weights of the string into the array,
+     * in the order in which they are compared at the primary level:
+     * Primary ignorables are skipped, as are variable primaries if alternate=shifted,
+     * and script reordering is applied.
+     * Fetches only as many CEs as needed to fill the array.
+     * Array elements after the last primary of the string are set to 0,
+     * which is lower than any primary weight.
+     */
+    void internalGetLeadingPrimaries(CharSequence str, long[] primaries) {
+        CollationBuffer buffer = null;
+        try {
+            buffer = getCollationBuffer();
+            CollationSettings s = settings.readOnly();
+            boolean numeric = s.isNumeric();
+            CollationIterator iter;
+            if(s.dontCheckFCD()) {
+                buffer.leftUTF16CollIter.setText(numeric, str, 0);
+                iter = buffer.leftUTF16CollIter;
+            } else {
+                buffer.leftFCDUTF16Iter.setText(numeric, str, 0);
+                iter = buffer.leftFCDUTF16Iter;
+            }
+            // Same variable-weight test as in CollationCompare.
+            long variableTop = s.getAlternateHandling() ? s.variableTop + 1 : 0;
+            int i = 0;
+            while(i < primaries.length) {
+                long ce = iter.nextCE();
+                if(ce == Collation.NO_CE) { break; }
+                long p = ce >>> 32;
+                if(p == 0 ||
+                        (p < variableTop && p > Collation.MERGE_SEPARATOR_PRIMARY)) {
+                    continue;
+                }
+                primaries[i++] = s.hasReordering() ? s.reorder(p) : p;
+            }
+            while(i < primaries.length) {
+                primaries[i++] = 0;
+            }
+        } finally {
+            releaseCollationBuffer(buffer);
+        }
+    }
+
     /**
      * Returns this Collator's strength attribute. The strength attribute
      * determines the minimum level of difference considered significant.
@@ -1484,6 +1804,60 @@ public int compare(String source, String target) {
         return doCompare(source, target);
     }
 
+    /**
+     * {@icu} Compares the texts read from two Readers.
+     * Returns the same result as {@link #compare(String, String)} would for the complete texts,
+     * but reads them incrementally and stops reading as soon as the result is determined,
+     * which is usually near the first primary difference.
+     * Only when the texts are equal up to the quaternary level (and the strength
+     * is {@link Collator#IDENTICAL}) are both texts read completely.
+     * The Readers are not closed.
+     *
+     * <p>Long texts that are already in memory can be passed to {@link #compare(Object, Object)}
+     * as CharSequence objects; that comparison also stops at the first difference.
+     *
+     * @param source provides the source text
+     * @param target provides the target text
+     * @return Returns an integer value. Value is less than zero if source is less than target, value is zero if source
+     *         and target are equal, value is greater than zero if source is greater than target.
+     * @throws IOException if reading either text fails
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int compare(Reader source, Reader target) throws IOException {
+        ReaderUCharacterIterator left = new ReaderUCharacterIterator(source);
+        ReaderUCharacterIterator right = new ReaderUCharacterIterator(target);
+        CollationSettings roSettings = settings.readOnly();
+        try {
+            int result = CollationCompare.compareUpToQuaternary(
+                    newIterCollationIterator(left), newIterCollationIterator(right), roSettings);
+            if(result != Collation.EQUAL || roSettings.getStrength() < Collator.IDENTICAL) {
+                return result;
+            }
+            // Equal up to the quaternary level: Both texts have been read completely.
+            return compareIdenticalLevel(left.getTextRead(), right.getTextRead(), 0);
+        } catch (ICUUncheckedIOException e) {
+            throw unwrapIOException(e);
+        }
+    }
+
+    private CollationIterator newIterCollationIterator(UCharacterIterator text) {
+        boolean numeric = settings.readOnly().isNumeric();
+        if(settings.readOnly().dontCheckFCD()) {
+            return new IterCollationIterator(data, numeric, text);
+        } else {
+            return new FCDIterCollationIterator(data, numeric, text, 0);
+        }
+    }
+
+    private static IOException unwrapIOException(ICUUncheckedIOException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        throw e;
+    }
+
     /**
     * Abstract iterator for identical-level string comparisons.
     * Returns FCD code points and handles temporary switching to NFD.
@@ -1701,13 +2075,16 @@ protected int doCompare(CharSequence left, CharSequence right) {
         if(result != Collation.EQUAL || roSettings.getStrength() < Collator.IDENTICAL) {
             return result;
         }
+        return compareIdenticalLevel(left, right, equalPrefixLength);
+    }
 
+    private int compareIdenticalLevel(CharSequence left, CharSequence right, int equalPrefixLength) {
         CollationBuffer buffer = null;
         try {
             buffer = getCollationBuffer();
             // Compare identical level.
             Normalizer2Impl nfcImpl = data.nfcImpl;
-            if(roSettings.dontCheckFCD()) {
+            if(settings.readOnly().dontCheckFCD()) {
                 buffer.leftUTF16NFDIter.setText(left, equalPrefixLength);
                 buffer.rightUTF16NFDIter.setText(right, equalPrefixLength);
                 return compareNFDIter(nfcImpl, buffer.leftUTF16NFDIter, buffer.rightUTF16NFDIter);
@@ -1760,6 +2137,7 @@ final boolean isUnsafe(int c) {
 
     private static final class CollationBuffer {
         private CollationBuffer(CollationData data) {
+            this.data = data;
             leftUTF16CollIter = new UTF16CollationIterator(data);
             rightUTF16CollIter = new UTF16CollationIterator(data);
             leftFCDUTF16Iter = new FCDUTF16CollationIterator(data);
@@ -1770,6 +2148,8 @@ private CollationBuffer(CollationData data) {
             rightFCDUTF16NFDIter = new FCDUTF16NFDIterator();
         }
 
+        final CollationData data;
+
         UTF16CollationIterator leftUTF16CollIter;
         UTF16CollationIterator rightUTF16CollIter;
         FCDUTF16CollationIterator leftFCDUTF16Iter;
@@ -1781,6 +2161,7 @@ private CollationBuffer(CollationData data) {
         FCDUTF16NFDIterator rightFCDUTF16NFDIter;
 
         RawCollationKey rawCollationKey;
+        CollationHashSink hashSink;
     }
 
     /**
@@ -1821,7 +2202,16 @@ public VersionInfo getUCAVersion() {
 
     private final CollationBuffer getCollationBuffer() {
         if (isFrozen()) {
-            frozenLock.lock();
+            if (!frozenLock.tryLock()) {
+                // Another thread is using the shared buffer.
+                // Rather than wait for it, use one that belongs to this thread.
+                CollationBuffer buffer = threadBuffer.get();
+                if (buffer == null || buffer.data != data) {
+                    buffer = new CollationBuffer(data);
+                    threadBuffer.set(buffer);
+                }
+                return buffer;
+            }
         } else if (collationBuffer == null) {
             collationBuffer = new CollationBuffer(data);
         }
@@ -1829,11 +2219,19 @@ private final CollationBuffer getCollationBuffer() {
     }
 
     private final void releaseCollationBuffer(CollationBuffer buffer) {
-        if (isFrozen()) {
+        if (isFrozen() && buffer == collationBuffer) {
             frozenLock.unlock();
         }
     }
 
+    /**
+     * Each thread's buffer for frozen collators,
+     * used only when a collator's shared collationBuffer is locked by another thread.
+     * It is kept for the last collation data that needed it,
+     * so a thread holds at most one such buffer.
+     */
+    private static final ThreadLocal<CollationBuffer> threadBuffer = new ThreadLocal<CollationBuffer>();
+
     /**
      * {@inheritDoc}
      * @draft ICU 53 (retain)
@@ -10,6 +10,7 @@
 
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
+import java.util.Arrays;
 import java.util.Locale;
 
 import com.ibm.icu.util.ICUException;
@@ -776,6 +777,7 @@ private int initializePatternPCETable() {
         pcetable[offset] = 0;
         pattern_.PCE_ = pcetable;
         pattern_.PCELength_ = offset;
+        pattern_.setShiftTable();
 
         return result;
     }
@@ -1040,8 +1042,34 @@ private boolean search(int startIdx, Match m) {
         // For each CE, the lowIndex and highIndex correspond to where this CE begins and ends in the original text.
         // If lowIndex==highIndex, either the CE resulted from an expansion/decomposition of one of the original text
         // characters, or the CE marks the limit of the target text (in which case the CE weight is UCOL_PROCESSED_NULLORDER).
+        // With the standard element comparison, a match in CE space requires
+        // all pattern CEs to be equal to the target CEs.
+        // Check the last CE of each candidate position first (Horspool)
+        // and skip over positions which cannot match.
+        int lastPatIx = pattern_.PCELength_ - 1;
+        boolean useShiftTable = lastPatIx >= 0 &&
+                search_.elementComparisonType_ == ElementComparisonType.STANDARD_ELEMENT_COMPARISON;
+        long lastPatCE = useShiftTable ? pattern_.PCE_[lastPatIx] : 0;
+
         for (targetIx = 0; ; targetIx++) {
             found = true;
+            if (useShiftTable) {
+                // The ring buffer must be filled in sequence.
+                int lastTargetIx = targetIx + lastPatIx;
+                for (int i = ceb.limitIx_; i < lastTargetIx; ++i) {
+                    ceb.get(i);
+                }
+                long lastTargetCE = ceb.get(lastTargetIx).ce_;
+                if (lastTargetCE != lastPatCE) {
+                    if (lastTargetCE == CollationPCE.PROCESSED_NULLORDER) {
+                        // No match at all, the pattern extends beyond the end of the target text.
+                        found = false;
+                        break;
+                    }
+                    targetIx += pattern_.getShift(lastTargetCE) - 1;
+                    continue;
+                }
+            }
             // Inner loop checks for a match beginning at each
             // position from the outer loop.
             int targetIxOffset = 0;
@@ -1622,19 +1650,50 @@ private static final class Pattern {
         // *** Boyer-Moore ***
         // boolean hasPrefixAccents_ = false;
         // boolean hasSuffixAccents_ = false;
-        // int defaultShiftSize_;
-        // char[] shift_;
         // char[] backShift_;
 
+        /**
+         * Horspool shift table for forward searching in PCE space,
+         * indexed by a hash of the target PCE.
+         * Colliding PCEs share the smallest shift, which is always safe.
+         */
+        int[] shift_;
+        int defaultShiftSize_;
+
+        private static final int SHIFT_TABLE_SIZE = 256;
+
         protected Pattern(String pattern) {
             text_ = pattern;
         }
+
+        void setShiftTable() {
+            if (shift_ == null) {
+                shift_ = new int[SHIFT_TABLE_SIZE];
+            }
+            defaultShiftSize_ = PCELength_ > 0 ? PCELength_ : 1;
+            Arrays.fill(shift_, defaultShiftSize_);
+            int last = PCELength_ - 1;
+            for (int i = 0; i < last; ++i) {
+                shift_[shiftIndex(PCE_[i])] = last - i;
+            }
+        }
+
+        int getShift(long pce) {
+            return shift_[shiftIndex(pce)];
+        }
+
+        private static int shiftIndex(long pce) {
+            // The primary weight is in the top 16 bits.
+            int h = (int) (pce >>> 32) ^ (int) pce;
+            h ^= h >>> 16;
+            return (h ^ (h >>> 8)) & (SHIFT_TABLE_SIZE - 1);
+        }
     }
 
     /**
      * Java port of ICU4C UCollationPCE (usrchimp.h)
      */
-    private static class CollationPCE {
+    static class CollationPCE {
         public static final long PROCESSED_NULLORDER = -1;
 
         private static final int DEFAULT_BUFFER_SIZE = 16;
@@ -1956,6 +2015,8 @@ private static class CEBuffer {
 
         StringSearch strSearch_;
 
+        private final CollationPCE.Range range_ = new CollationPCE.Range();
+
         CEBuffer(StringSearch ss) {
             strSearch_ = ss;
             bufSize_ = ss.pattern_.PCELength_ + CEBUFFER_EXTRA;
@@ -2018,7 +2079,7 @@ CEI get(int index) {
                 firstIx_++;
             }
 
-            CollationPCE.Range range = new CollationPCE.Range();
+            CollationPCE.Range range = range_;
             if (buf_[i] == null) {
                 buf_[i] = new CEI();
             }
@@ -2060,7 +2121,7 @@ CEI getPrevious(int index) {
                 firstIx_++;
             }
 
-            CollationPCE.Range range = new CollationPCE.Range();
+            CollationPCE.Range range = range_;
             if (buf_[i] == null) {
                 buf_[i] = new CEI();
             }
@@ -321,6 +321,139 @@ public final int spanBack(CharSequence s, int limit, SpanCondition spanCondition
         return limit + 1;
     }
 
+    /**
+     * Span the initial substring of UTF-8 s[start..limit[ for which each code point c has
+     * spanCondition==contains(c), without decoding to UTF-16.
+     * An ill-formed UTF-8 sequence (maximal subpart) is treated like U+FFFD.
+     *
+     * @return the limit (exclusive end) of the span
+     *
+     * NOTE: The ASCII, two-byte and three-byte lookups use the lead and trail bytes
+     * directly as indexes into latin1Contains[], table7FF[] and bmpBlockBits[].
+     */
+    public final int spanUTF8(byte[] s, int start, int limit, SpanCondition spanCondition) {
+        boolean spanContained = SpanCondition.NOT_CONTAINED != spanCondition;
+        int i = start;
+        while (i < limit) {
+            int b = s[i];
+            if (b >= 0) {
+                // ASCII
+                if (spanContained) {
+                    do {
+                        if (!latin1Contains[b]) {
+                            return i;
+                        } else if (++i == limit) {
+                            return limit;
+                        }
+                        b = s[i];
+                    } while (b >= 0);
+                } else {
+                    do {
+                        if (latin1Contains[b]) {
+                            return i;
+                        } else if (++i == limit) {
+                            return limit;
+                        }
+                        b = s[i];
+                    } while (b >= 0);
+                }
+            }
+            b &= 0xff;
+            int t1, t2;
+            boolean contained;
+            int length;
+            if (b >= 0xe0 && b < 0xf0 && (i + 2) < limit &&
+                    (t1 = s[i + 1] + 0x80) <= 0x3f &&
+                    (b == 0xe0 ? t1 >= 0x20 : b != 0xed || t1 < 0x20) &&
+                    (t2 = s[i + 2] + 0x80) <= 0x3f) {
+                // Well-formed three-byte sequence: U+0800..U+FFFF except surrogates.
+                int lead = b & 0xf;
+                int twoBits = (bmpBlockBits[t1] >> lead) & 0x10001;
+                if (twoBits <= 1) {
+                    // All 64 code points with the same bits 15..6
+                    // are either in the set or not.
+                    contained = twoBits != 0;
+                } else {
+                    // Look up the code point in its 4k block of code points.
+                    contained = containsSlow((lead << 12) | (t1 << 6) | t2,
+                            list4kStarts[lead], list4kStarts[lead + 1]);
+                }
+                length = 3;
+            } else if (b >= 0xc2 && b < 0xe0 && (i + 1) < limit &&
+                    (t1 = s[i + 1] + 0x80) <= 0x3f) {
+                // Well-formed two-byte sequence: U+0080..U+07FF.
+                if (b < 0xc4) {
+                    contained = latin1Contains[((b & 3) << 6) | t1];
+                } else {
+                    contained = (table7FF[t1] & (1 << (b & 0x1f))) != 0;
+                }
+                length = 2;
+            } else {
+                // Supplementary code point or ill-formed sequence.
+                int decoded = UTF8Util.decode(s, i, limit);
+                int c = decoded & 0xffffff;
+                if (c == UTF8Util.ILL_FORMED) {
+                    contained = contains(0xfffd);
+                } else {
+                    contained = containsSlow(c, list4kStarts[0x10], list4kStarts[0x11]);
+                }
+                length = decoded >>> 24;
+            }
+            if (contained != spanContained) {
+                return i;
+            }
+            i += length;
+        }
+        return i;
+    }
+
+    /**
+     * Symmetrical with spanUTF8().
+     * Span the trailing substring of UTF-8 s[start..limit[ for which each code point c has
+     * spanCondition==contains(c). Ill-formed sequences are delimited consistently with spanUTF8().
+     *
+     * @return the start index of the span (i.e. inclusive)
+     */
+    public final int spanBackUTF8(byte[] s, int start, int limit, SpanCondition spanCondition) {
+        boolean spanContained = SpanCondition.NOT_CONTAINED != spanCondition;
+        int i = limit;
+        while (start < i) {
+            int b = s[i - 1];
+            if (b >= 0) {
+                // ASCII
+                if (spanContained) {
+                    do {
+                        if (!latin1Contains[b]) {
+                            return i;
+                        } else if (--i == start) {
+                            return start;
+                        }
+                        b = s[i - 1];
+                    } while (b >= 0);
+                } else {
+                    do {
+                        if (latin1Contains[b]) {
+                            return i;
+                        } else if (--i == start) {
+                            return start;
+                        }
+                        b = s[i - 1];
+                    } while (b >= 0);
+                }
+            }
+            int decoded = UTF8Util.decodeBefore(s, start, i);
+            int c = decoded & 0xffffff;
+            if (c == UTF8Util.ILL_FORMED) {
+                c = 0xfffd;
+            }
+            if (contains(c) != spanContained) {
+                return i;
+            }
+            i -= decoded >>> 24;
+        }
+        return i;
+    }
+
     /**
      * Set bits in a bit rectangle in "vertical" bit organization. start<limit<=0x800
      */
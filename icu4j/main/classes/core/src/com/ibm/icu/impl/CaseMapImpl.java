@@ -3,7 +3,9 @@
 package com.ibm.icu.impl;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.CharacterIterator;
+import java.util.Arrays;
 import java.util.Locale;
 
 import com.ibm.icu.lang.UCharacter;
@@ -423,21 +425,35 @@ private static String applyEdits(CharSequence src, StringBuilder replacementChar
     private static final Trie2_16 CASE_TRIE = UCaseProps.getTrie();
 
     /**
-     * caseLocale >= 0: Lowercases [srcStart..srcLimit[ but takes context [0..srcLength[ into account.
-     * caseLocale < 0: Case-folds [srcStart..srcLimit[.
+     * @return the Latin deltas for lowercasing (caseLocale >= 0) or case folding (caseLocale < 0)
      */
-    private static void internalToLower(int caseLocale, int options,
-            CharSequence src, int srcStart, int srcLimit, StringContextIterator iter,
-            Appendable dest, Edits edits) throws IOException {
-        byte[] latinToLower;
+    private static byte[] getLatinToLower(int caseLocale, int options) {
         if (caseLocale == UCaseProps.LOC_ROOT ||
                 (caseLocale >= 0 ?
                     !(caseLocale == UCaseProps.LOC_TURKISH || caseLocale == UCaseProps.LOC_LITHUANIAN) :
                     (options & UCaseProps.FOLD_CASE_OPTIONS_MASK) == UCharacter.FOLD_CASE_DEFAULT)) {
-            latinToLower = UCaseProps.LatinCase.TO_LOWER_NORMAL;
+            return UCaseProps.LatinCase.TO_LOWER_NORMAL;
         } else {
-            latinToLower = UCaseProps.LatinCase.TO_LOWER_TR_LT;
+            return UCaseProps.LatinCase.TO_LOWER_TR_LT;
         }
+    }
+
+    private static byte[] getLatinToUpper(int caseLocale) {
+        if (caseLocale == UCaseProps.LOC_TURKISH) {
+            return UCaseProps.LatinCase.TO_UPPER_TR;
+        } else {
+            return UCaseProps.LatinCase.TO_UPPER_NORMAL;
+        }
+    }
+
+    /**
+     * caseLocale >= 0: Lowercases [srcStart..srcLimit[ but takes context [0..srcLength[ into account.
+     * caseLocale < 0: Case-folds [srcStart..srcLimit[.
+     */
+    private static void internalToLower(int caseLocale, int options,
+            CharSequence src, int srcStart, int srcLimit, StringContextIterator iter,
+            Appendable dest, Edits edits) throws IOException {
+        byte[] latinToLower = getLatinToLower(caseLocale, options);
         int prev = srcStart;
         int srcIndex = srcStart;
         outerLoop:
@@ -486,6 +502,9 @@ private static void internalToLower(int caseLocale, int options,
             } else {
                 c = lead;
             }
+            // Copy the unchanged text before a mapping string is appended to dest.
+            appendUnchanged(src, prev, cpStart - prev, dest, options, edits);
+            prev = cpStart;
             if (caseLocale >= 0) {
                 if (iter == null) {
                     iter = new StringContextIterator(src, cpStart, srcIndex);
@@ -497,7 +516,6 @@ private static void internalToLower(int caseLocale, int options,
                 c = UCaseProps.INSTANCE.toFullFolding(c, dest, options);
             }
             if (c >= 0) {
-                appendUnchanged(src, prev, cpStart - prev, dest, options, edits);
                 appendResult(c, dest, srcIndex - cpStart, options, edits);
                 prev = srcIndex;
             }
@@ -505,24 +523,21 @@ private static void internalToLower(int caseLocale, int options,
         appendUnchanged(src, prev, srcIndex - prev, dest, options, edits);
     }
 
+    /**
+     * Uppercases [srcStart..srcLimit[ but takes context [0..srcLength[ into account.
+     */
     private static void internalToUpper(int caseLocale, int options,
-            CharSequence src, Appendable dest, Edits edits) throws IOException {
-        StringContextIterator iter = null;
-        byte[] latinToUpper;
-        if (caseLocale == UCaseProps.LOC_TURKISH) {
-            latinToUpper = UCaseProps.LatinCase.TO_UPPER_TR;
-        } else {
-            latinToUpper = UCaseProps.LatinCase.TO_UPPER_NORMAL;
-        }
-        int prev = 0;
-        int srcIndex = 0;
-        int srcLength = src.length();
+            CharSequence src, int srcStart, int srcLimit, StringContextIterator iter,
+            Appendable dest, Edits edits) throws IOException {
+        byte[] latinToUpper = getLatinToUpper(caseLocale);
+        int prev = srcStart;
+        int srcIndex = srcStart;
         outerLoop:
         for (;;) {
             // fast path for simple cases
             char lead;
             for (;;) {
-                if (srcIndex >= srcLength) {
+                if (srcIndex >= srcLimit) {
                     break outerLoop;
                 }
                 lead = src.charAt(srcIndex);
@@ -556,13 +571,16 @@ private static void internalToUpper(int caseLocale, int options,
             int cpStart = srcIndex++;
             char trail;
             int c;
-            if (Character.isHighSurrogate(lead) && srcIndex < srcLength &&
+            if (Character.isHighSurrogate(lead) && srcIndex < srcLimit &&
                     Character.isLowSurrogate(trail = src.charAt(srcIndex))) {
                 c = Character.toCodePoint(lead, trail);
                 ++srcIndex;
             } else {
                 c = lead;
             }
+            // Copy the unchanged text before a mapping string is appended to dest.
+            appendUnchanged(src, prev, cpStart - prev, dest, options, edits);
+            prev = cpStart;
             if (iter == null) {
                 iter = new StringContextIterator(src, cpStart, srcIndex);
             } else {
@@ -570,7 +588,6 @@ private static void internalToUpper(int caseLocale, int options,
             }
             c = UCaseProps.INSTANCE.toFullUpper(c, iter, dest, caseLocale);
             if (c >= 0) {
-                appendUnchanged(src, prev, cpStart - prev, dest, options, edits);
                 appendResult(c, dest, srcIndex - cpStart, options, edits);
                 prev = srcIndex;
             }
@@ -634,7 +651,7 @@ public static <A extends Appendable> A toUpper(int caseLocale, int options,
             if (caseLocale == UCaseProps.LOC_GREEK) {
                 return GreekUpper.toUpper(options, src, dest, edits);
             }
-            internalToUpper(caseLocale, options, src, dest, edits);
+            internalToUpper(caseLocale, options, src, 0, src.length(), null, dest, edits);
             return dest;
         } catch (IOException e) {
             throw new ICUUncheckedIOException(e);
@@ -800,6 +817,523 @@ public static <A extends Appendable> A fold(int options,
         }
     }
 
+    /** Case mapping types for the char[] and UTF-8 functions. */
+    private static final int TO_LOWER = 0, TO_UPPER = 1, FOLD = 2;
+
+    /**
+     * Lowercases src into dest and returns the full length of the result,
+     * which may be larger than dest.length (preflighting).
+     * In that case, only the first dest.length chars are written.
+     */
+    public static int toLower(int caseLocale, int options,
+            CharSequence src, char[] dest, Edits edits) {
+        return toCharArray(TO_LOWER, caseLocale, options, src, dest, edits);
+    }
+
+    /**
+     * Uppercases src into dest like {@link #toLower(int, int, CharSequence, char[], Edits)}.
+     */
+    public static int toUpper(int caseLocale, int options,
+            CharSequence src, char[] dest, Edits edits) {
+        return toCharArray(TO_UPPER, caseLocale, options, src, dest, edits);
+    }
+
+    /**
+     * Case-folds src into dest like {@link #toLower(int, int, CharSequence, char[], Edits)}.
+     */
+    public static int fold(int options, CharSequence src, char[] dest, Edits edits) {
+        return toCharArray(FOLD, -1, options, src, dest, edits);
+    }
+
+    /**
+     * Appendable for writing into a fixed char array with preflighting:
+     * Stores as many chars as fit and counts all of them.
+     */
+    private static final class CharArrayAppendable implements Appendable {
+        private final char[] dest;
+        int length;
+
+        CharArrayAppendable(char[] dest, int length) {
+            this.dest = dest;
+            this.length = length;
+        }
+
+        @Override
+        public CharArrayAppendable append(char c) {
+            if (length < dest.length) {
+                dest[length] = c;
+            }
+            ++length;
+            return this;
+        }
+
+        @Override
+        public CharArrayAppendable append(CharSequence s) {
+            return append(s, 0, s.length());
+        }
+
+        @Override
+        public CharArrayAppendable append(CharSequence s, int start, int end) {
+            for (int i = start; i < end; ++i) {
+                append(s.charAt(i));
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Writes simple (one-to-one, context-independent) mappings of BMP characters
+     * directly into the array, looking up characters below U+017F in the Latin tables
+     * rather than in the case properties trie.
+     * Other characters are mapped one code point at a time by the Appendable implementation.
+     */
+    private static int toCharArray(int type, int caseLocale, int options,
+            CharSequence src, char[] dest, Edits edits) {
+        if ((options & OMIT_UNCHANGED_TEXT) != 0 ||
+                (type == TO_UPPER && caseLocale == UCaseProps.LOC_GREEK)) {
+            CharArrayAppendable app = new CharArrayAppendable(dest, 0);
+            if (type == TO_LOWER) {
+                toLower(caseLocale, options, src, app, edits);
+            } else if (type == TO_UPPER) {
+                toUpper(caseLocale, options, src, app, edits);
+            } else {
+                fold(options, src, app, edits);
+            }
+            return app.length;
+        }
+        if (edits != null) {
+            edits.reset();
+        }
+        byte[] latin = type == TO_UPPER ?
+                getLatinToUpper(caseLocale) : getLatinToLower(caseLocale, options);
+        int capacity = dest.length;
+        int srcLength = src.length();
+        int srcIndex = 0;
+        int destIndex = 0;
+        int unchangedLength = 0;
+        CharArrayAppendable app = null;
+        StringContextIterator iter = null;
+        try {
+            while (srcIndex < srcLength) {
+                char c = src.charAt(srcIndex);
+                boolean simple;
+                int delta = 0;
+                if (c < UCaseProps.LatinCase.LONG_S) {
+                    delta = latin[c];
+                    simple = delta != UCaseProps.LatinCase.EXC;
+                } else if (c >= 0xd800) {
+                    simple = false;  // surrogate or higher
+                } else {
+                    int props = CASE_TRIE.getFromU16SingleLead(c);
+                    simple = !UCaseProps.propsHasException(props);
+                    if (simple && (type == TO_UPPER ?
+                            UCaseProps.getTypeFromProps(props) == UCaseProps.LOWER :
+                            UCaseProps.isUpperOrTitleFromProps(props))) {
+                        delta = UCaseProps.getDelta(props);
+                    }
+                }
+                if (simple) {
+                    if (delta == 0) {
+                        ++unchangedLength;
+                    } else {
+                        if (edits != null) {
+                            if (unchangedLength > 0) {
+                                edits.addUnchanged(unchangedLength);
+                            }
+                            edits.addReplace(1, 1);
+                        }
+                        unchangedLength = 0;
+                        c += delta;
+                    }
+                    if (destIndex < capacity) {
+                        dest[destIndex] = c;
+                    }
+                    ++destIndex;
+                    ++srcIndex;
+                    continue;
+                }
+                // slow path
+                if (edits != null && unchangedLength > 0) {
+                    edits.addUnchanged(unchangedLength);
+                }
+                unchangedLength = 0;
+                int cpLimit = srcIndex + 1;
+                if (Character.isHighSurrogate(c) && cpLimit < srcLength &&
+                        Character.isLowSurrogate(src.charAt(cpLimit))) {
+                    ++cpLimit;
+                }
+                if (app == null) {
+                    app = new CharArrayAppendable(dest, destIndex);
+                    if (type != FOLD) {
+                        iter = new StringContextIterator(src);
+                    }
+                } else {
+                    app.length = destIndex;
+                }
+                if (type == TO_UPPER) {
+                    internalToUpper(caseLocale, options, src, srcIndex, cpLimit, iter, app, edits);
+                } else {
+                    internalToLower(caseLocale, options, src, srcIndex, cpLimit, iter, app, edits);
+                }
+                destIndex = app.length;
+                srcIndex = cpLimit;
+            }
+        } catch (IOException e) {
+            throw new ICUUncheckedIOException(e);
+        }
+        if (edits != null && unchangedLength > 0) {
+            edits.addUnchanged(unchangedLength);
+        }
+        return destIndex;
+    }
+
+    /**
+     * Lowercases UTF-8 src[start..limit[ and writes the UTF-8 result to dest.
+     * Edits record lengths in bytes.
+     */
+    public static void toLowerUTF8(int caseLocale, int options,
+            byte[] src, int start, int limit, OutputStream dest, Edits edits) {
+        new UTF8CaseMapper(TO_LOWER, caseLocale, options, dest, edits).map(src, start, limit);
+    }
+
+    /**
+     * Uppercases UTF-8 text like {@link #toLowerUTF8}.
+     */
+    public static void toUpperUTF8(int caseLocale, int options,
+            byte[] src, int start, int limit, OutputStream dest, Edits edits) {
+        new UTF8CaseMapper(TO_UPPER, caseLocale, options, dest, edits).map(src, start, limit);
+    }
+
+    /**
+     * Case-folds UTF-8 text like {@link #toLowerUTF8}.
+     */
+    public static void foldUTF8(int options,
+            byte[] src, int start, int limit, OutputStream dest, Edits edits) {
+        new UTF8CaseMapper(FOLD, -1, options, dest, edits).map(src, start, limit);
+    }
+
+    /**
+     * Implements the UTF-8 case mapping functions on top of the UTF-16 ones.
+     *
+     * <p>ASCII characters with simple mappings are mapped byte by byte
+     * straight into an output buffer. Other text is split into chunks at characters
+     * that are neither cased nor case-ignorable and have combining class 0.
+     * No case mapping context reaches across such a character, and they do not change,
+     * so each chunk can be mapped separately: It is decoded, mapped and re-encoded,
+     * with its unchanged parts copied verbatim.
+     *
+     * <p>Ill-formed UTF-8 sequences behave like U+FFFD (they are chunk boundaries
+     * and do not change) and are copied unchanged.
+     */
+    private static final class UTF8CaseMapper {
+        /** Non-ASCII chunks end at the next boundary after at least this many bytes. */
+        private static final int MAX_CHUNK_BYTES = 256;
+        private static final int OUT_CAPACITY = 4096;
+        /** ASCII map flag for a character that is neither cased nor case-ignorable. */
+        private static final int BOUNDARY = 0x100;
+        /** ASCII map value for a character without a simple mapping. */
+        private static final int COMPLEX = -1;
+        private static final int[] ASCII_TO_LOWER_NORMAL =
+                makeAsciiMap(UCaseProps.LatinCase.TO_LOWER_NORMAL);
+        private static final int[] ASCII_TO_LOWER_TR_LT =
+                makeAsciiMap(UCaseProps.LatinCase.TO_LOWER_TR_LT);
+        private static final int[] ASCII_TO_UPPER_NORMAL =
+                makeAsciiMap(UCaseProps.LatinCase.TO_UPPER_NORMAL);
+        private static final int[] ASCII_TO_UPPER_TR =
+                makeAsciiMap(UCaseProps.LatinCase.TO_UPPER_TR);
+
+        /**
+         * @return for each ASCII character its mapping, with the BOUNDARY flag if applicable,
+         *         or COMPLEX
+         */
+        private static int[] makeAsciiMap(byte[] latin) {
+            int[] map = new int[0x80];
+            for (int c = 0; c < 0x80; ++c) {
+                if (UCaseProps.INSTANCE.getTypeOrIgnorable(c) == 0) {
+                    map[c] = BOUNDARY | c;
+                } else if (latin[c] == UCaseProps.LatinCase.EXC) {
+                    map[c] = COMPLEX;
+                } else {
+                    map[c] = c + latin[c];
+                }
+            }
+            return map;
+        }
+
+        private final int type;
+        private final int caseLocale;
+        /** Options for mapping chunks; without OMIT_UNCHANGED_TEXT. */
+        private final int options;
+        private final boolean omitUnchanged;
+        private final int[] asciiMap;
+        private final OutputStream dest;
+        private final Edits edits;
+        private final StringBuilder chunk = new StringBuilder();
+        private final StringBuilder mapped = new StringBuilder();
+        private final Edits chunkEdits = new Edits();
+        /**
+         * Output buffer, to write to dest in large pieces.
+         * Grows only for a chunk of ASCII letters that does not fit.
+         */
+        private byte[] out = new byte[OUT_CAPACITY];
+        private int outLength;
+        /**
+         * Start of the text mapped on the fast path whose edits have not been recorded yet,
+         * and the start of its output in the buffer.
+         */
+        private int fastStart, fastOutStart;
+        /**
+         * Start of the current chunk's output in the buffer.
+         * The chunk's output is discarded if it cannot be mapped on the fast path.
+         */
+        private int chunkOutStart;
+        /** Length of the unchanged text not yet recorded in the edits. */
+        private int unchangedLength;
+
+        UTF8CaseMapper(int type, int caseLocale, int options, OutputStream dest, Edits edits) {
+            this.type = type;
+            this.caseLocale = caseLocale;
+            this.options = options & ~OMIT_UNCHANGED_TEXT;
+            omitUnchanged = (options & OMIT_UNCHANGED_TEXT) != 0;
+            byte[] latin = type == TO_UPPER ?
+                    getLatinToUpper(caseLocale) : getLatinToLower(caseLocale, options);
+            if (latin == UCaseProps.LatinCase.TO_LOWER_NORMAL) {
+                asciiMap = ASCII_TO_LOWER_NORMAL;
+            } else if (latin == UCaseProps.LatinCase.TO_LOWER_TR_LT) {
+                asciiMap = ASCII_TO_LOWER_TR_LT;
+            } else if (latin == UCaseProps.LatinCase.TO_UPPER_NORMAL) {
+                asciiMap = ASCII_TO_UPPER_NORMAL;
+            } else {
+                asciiMap = ASCII_TO_UPPER_TR;
+            }
+            this.dest = dest;
+            this.edits = edits;
+        }
+
+        void map(byte[] src, int start, int limit) {
+            if (start < 0 || start > limit || limit > src.length) {
+                throw new IndexOutOfBoundsException(
+                        "start " + start + ", limit " + limit + ", length " + src.length);
+            }
+            if (edits != null) {
+                edits.reset();
+            }
+            int i = start;
+            while (i < limit) {
+                fastStart = i;
+                fastOutStart = chunkOutStart = outLength;
+                int chunkStart = i;
+                // Fast path: ASCII characters with simple mappings.
+                while (i < limit) {
+                    int b = src[i];
+                    int m;
+                    if (b < 0 || (m = asciiMap[b]) == COMPLEX) {
+                        break;
+                    }
+                    if (outLength == out.length) {
+                        makeRoom(src, chunkStart);
+                    }
+                    out[outLength++] = (byte) m;
+                    ++i;
+                    if (m >= BOUNDARY) {
+                        chunkStart = i;
+                        chunkOutStart = outLength;
+                    }
+                }
+                if (i == limit) {
+                    chunkOutStart = outLength;
+                    finishFastPath(src, limit);
+                    break;
+                }
+                finishFastPath(src, chunkStart);
+                // Find the end of the chunk which contains the complex character at i.
+                int boundaryLength = 0;
+                while (i < limit) {
+                    int b = src[i];
+                    if (b >= 0) {
+                        if (asciiMap[b] >= BOUNDARY) {
+                            boundaryLength = 1;
+                            break;
+                        }
+                        ++i;
+                    } else {
+                        int decoded = UTF8Util.decode(src, i, limit);
+                        int c = decoded & 0xffffff;
+                        if (c == UTF8Util.ILL_FORMED) {
+                            boundaryLength = decoded >>> 24;
+                            break;
+                        }
+                        if ((i - chunkStart) >= MAX_CHUNK_BYTES &&
+                                UCaseProps.INSTANCE.getTypeOrIgnorable(c) == 0 &&
+                                UCharacter.getCombiningClass(c) == 0) {
+                            break;
+                        }
+                        i += decoded >>> 24;
+                    }
+                }
+                outLength = chunkOutStart;
+                mapChunk(src, chunkStart, i);
+                // Boundary characters remain unchanged.
+                copy(src, i, i + boundaryLength);
+                i += boundaryLength;
+            }
+            flush();
+            if (edits != null && unchangedLength > 0) {
+                edits.addUnchanged(unchangedLength);
+            }
+        }
+
+        /**
+         * Called when the output buffer is full on the fast path.
+         * Writes the output before the current chunk, which might still be discarded,
+         * and moves the chunk's output to the start of the buffer.
+         */
+        private void makeRoom(byte[] src, int chunkStart) {
+            finishFastPath(src, chunkStart);
+            if (outLength < out.length) {
+                return;  // Omitted unchanged text made room.
+            }
+            if (chunkOutStart == 0) {
+                out = Arrays.copyOf(out, 2 * out.length);
+                return;
+            }
+            write(out, 0, chunkOutStart);
+            outLength -= chunkOutStart;
+            System.arraycopy(out, chunkOutStart, out, 0, outLength);
+            fastOutStart = chunkOutStart = 0;
+        }
+
+        /**
+         * Records the edits for src[fastStart..limit[ which was mapped on the fast path,
+         * where limit is the start of the current chunk,
+         * and removes its unchanged characters from the output if they are to be omitted.
+         */
+        private void finishFastPath(byte[] src, int limit) {
+            if (edits != null || omitUnchanged) {
+                int newLength = fastOutStart;
+                for (int i = fastStart; i < limit; ++i) {
+                    int b = src[i];
+                    int m = asciiMap[b];
+                    if ((m & 0xff) == b) {
+                        ++unchangedLength;
+                    } else {
+                        recordReplace(1, 1);
+                        if (omitUnchanged) {
+                            out[newLength++] = (byte) m;
+                        }
+                    }
+                }
+                if (omitUnchanged && newLength < chunkOutStart) {
+                    int chunkOutLength = outLength - chunkOutStart;
+                    System.arraycopy(out, chunkOutStart, out, newLength, chunkOutLength);
+                    chunkOutStart = newLength;
+                    outLength = newLength + chunkOutLength;
+                }
+            }
+            fastStart = limit;
+            fastOutStart = chunkOutStart;
+        }
+
+        private void recordReplace(int oldLength, int newLength) {
+            if (edits != null) {
+                if (unchangedLength > 0) {
+                    edits.addUnchanged(unchangedLength);
+                    unchangedLength = 0;
+                }
+                edits.addReplace(oldLength, newLength);
+            }
+        }
+
+        /**
+         * Maps the well-formed src[start..limit[ via the UTF-16 implementation.
+         */
+        private void mapChunk(byte[] src, int start, int limit) {
+            chunk.setLength(0);
+            for (int i = start; i < limit;) {
+                int b = src[i];
+                if (b >= 0) {
+                    chunk.append((char) b);
+                    ++i;
+                } else {
+                    int decoded = UTF8Util.decode(src, i, limit);
+                    chunk.appendCodePoint(decoded & 0xffffff);
+                    i += decoded >>> 24;
+                }
+            }
+            mapped.setLength(0);
+            if (type == TO_LOWER) {
+                toLower(caseLocale, options, chunk, mapped, chunkEdits);
+            } else if (type == TO_UPPER) {
+                toUpper(caseLocale, options, chunk, mapped, chunkEdits);
+            } else {
+                fold(options, chunk, mapped, chunkEdits);
+            }
+            if (!chunkEdits.hasChanges()) {
+                copy(src, start, limit);
+                return;
+            }
+            int srcIndex = start;
+            for (Edits.Iterator ei = chunkEdits.getFineIterator(); ei.next();) {
+                int oldLength = UTF8Util.length(
+                        chunk, ei.sourceIndex(), ei.sourceIndex() + ei.oldLength());
+                if (ei.hasChange()) {
+                    int newLength16 = ei.newLength();
+                    if ((out.length - outLength) < 3 * newLength16) {
+                        flush();
+                        if (out.length < 3 * newLength16) {
+                            out = new byte[3 * newLength16];
+                        }
+                    }
+                    int destIndex16 = ei.destinationIndex();
+                    int newLimit = UTF8Util.encode(
+                            mapped, destIndex16, destIndex16 + newLength16, out, outLength);
+                    recordReplace(oldLength, newLimit - outLength);
+                    outLength = newLimit;
+                } else {
+                    copy(src, srcIndex, srcIndex + oldLength);
+                }
+                srcIndex += oldLength;
+            }
+        }
+
+        /**
+         * Copies unchanged text to the output buffer, or directly to dest if it is long.
+         */
+        private void copy(byte[] src, int start, int limit) {
+            int length = limit - start;
+            if (length > 0) {
+                unchangedLength += length;
+                if (omitUnchanged) {
+                    return;
+                }
+                if (length > (out.length - outLength)) {
+                    flush();
+                    if (length > out.length) {
+                        write(src, start, length);
+                        return;
+                    }
+                }
+                System.arraycopy(src, start, out, outLength, length);
+                outLength += length;
+            }
+        }
+
+        private void flush() {
+            write(out, 0, outLength);
+            outLength = 0;
+        }
+
+        private void write(byte[] bytes, int start, int length) {
+            if (length > 0) {
+                try {
+                    dest.write(bytes, start, length);
+                } catch (IOException e) {
+                    throw new ICUUncheckedIOException(e);  // Avoid declaring "throws IOException".
+                }
+            }
+        }
+    }
+
     private static final class GreekUpper {
         // Data bits.
         private static final int UPPER_MASK = 0x3ff;
@@ -970,6 +970,44 @@ public boolean getCanonStartSet(int c, UnicodeSet set) {
 
     // higher-level functionality ------------------------------------------ ***
 
+    /**
+     * Returns the index of the first code unit in s[src..limit[ that is at least minCP, or limit.
+     * Tests blocks of 8 code units with a single branch: All of them are below minCP if
+     * their bitwise OR is below the largest power of two &lt;= minCP.
+     * For normal minimum code points that covers ASCII and often Latin-1 text.
+     * Strings get their own loop to avoid megamorphic charAt() calls.
+     */
+    private static int skipCodeUnitsBelow(CharSequence s, int src, int limit, int minCP) {
+        int blockMask = -Integer.highestOneBit(minCP);
+        if (blockMask == 0 || blockMask == -1) {
+            return src;  // minCP is 0 or 1
+        }
+        if (s instanceof String) {
+            String str = (String) s;
+            while ((limit - src) >= 8 &&
+                    ((str.charAt(src) | str.charAt(src + 1) | str.charAt(src + 2) |
+                        str.charAt(src + 3) | str.charAt(src + 4) | str.charAt(src + 5) |
+                        str.charAt(src + 6) | str.charAt(src + 7)) & blockMask) == 0) {
+                src += 8;
+            }
+            while (src < limit && str.charAt(src) < minCP) {
+                ++src;
+            }
+        } else {
+            while ((limit - src) >= 8 &&
+                    ((s.charAt(src) | s.charAt(src + 1) | s.charAt(src + 2) |
+                        s.charAt(src + 3) | s.charAt(src + 4) | s.charAt(src + 5) |
+                        s.charAt(src + 6) | s.charAt(src + 7)) & blockMask) == 0) {
+                src += 8;
+            }
+            while (src < limit && s.charAt(src) < minCP) {
+                ++src;
+            }
+        }
+        return src;
+    }
+
+
     // NFD without an NFD Normalizer2 instance.
     public Appendable decompose(CharSequence s, StringBuilder dest) {
         decompose(s, 0, s.length(), dest, s.length());
@@ -1007,7 +1045,9 @@ public int decompose(CharSequence s, int src, int limit,
 
         for(;;) {
             // count code units below the minimum or with irrelevant data for the quick check
-            for(prevSrc=src; src!=limit;) {
+            prevSrc=src;
+            src=skipCodeUnitsBelow(s, src, limit, minNoCP);
+            while(src!=limit) {
                 if( (c=s.charAt(src))<minNoCP ||
                     isMostDecompYesAndZeroCC(norm16=normTrie.bmpGet(c))
                 ) {
@@ -1105,6 +1145,7 @@ public boolean compose(CharSequence s, int src, int limit,
             int prevSrc;
             int c = 0;
             int norm16 = 0;
+            src = skipCodeUnitsBelow(s, src, limit, minNoMaybeCP);
             for (;;) {
                 if (src == limit) {
                     if (prevBoundary != limit && doCompose) {
@@ -1344,6 +1385,7 @@ public int composeQuickCheck(CharSequence s, int src, int limit,
             int prevSrc;
             int c = 0;
             int norm16 = 0;
+            src = skipCodeUnitsBelow(s, src, limit, minNoMaybeCP);
             for (;;) {
                 if(src==limit) {
                     return (src<<1)|qcResult;  // "yes" or "maybe"
@@ -1478,7 +1520,12 @@ public int makeFCD(CharSequence s, int src, int limit, ReorderingBuffer buffer)
 
         for(;;) {
             // count code units with lccc==0
-            for(prevSrc=src; src!=limit;) {
+            prevSrc=src;
+            src=skipCodeUnitsBelow(s, src, limit, minLcccCP);
+            if(src!=prevSrc) {
+                prevFCD16=~s.charAt(src-1);
+            }
+            while(src!=limit) {
                 if((c=s.charAt(src))<minLcccCP) {
                     prevFCD16=~c;
                     ++src;
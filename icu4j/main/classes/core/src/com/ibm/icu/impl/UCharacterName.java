@@ -11,6 +11,7 @@
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.MissingResourceException;
 
@@ -1036,6 +1037,14 @@ boolean setGroup(char group[], byte groupstring[])
     private char m_groupoffsets_[] = new char[LINES_PER_GROUP_ + 1];
     private char m_grouplengths_[] = new char[LINES_PER_GROUP_ + 1];
 
+    /**
+    * Lazily built name indexes for getCharFromName(), one per name choice
+    * except EXTENDED_CHAR_NAME.
+    * Built while synchronized; the elements are immutable once set.
+    */
+    private final NameIndex m_nameIndex_[] =
+            new NameIndex[UCharacterNameChoice.CHAR_NAME_CHOICE_COUNT];
+
     /**
     * Default name of the name datafile
     */
@@ -1209,23 +1218,191 @@ private String getAlgName(int ch, int choice)
     * @return character with the tokenized argument name or -1 if character
     *         is not found
     */
-    private synchronized int getGroupChar(String name, int choice)
+    private int getGroupChar(String name, int choice)
     {
-        for (int i = 0; i < m_groupcount_; i ++) {
-            // populating the data set of grouptable
-
-            int startgpstrindex = getGroupLengths(i, m_groupoffsets_,
-                                                  m_grouplengths_);
-
-            // shift out to function
-            int result = getGroupChar(startgpstrindex, m_grouplengths_, name,
-                                      choice);
-            if (result != -1) {
-                return (m_groupinfo_[i * m_groupsize_] << GROUP_SHIFT_)
-                         | result;
+        NameIndex index = m_nameIndex_[choice];
+        if (index == null) {
+            index = getNameIndex(choice);
+        }
+        int hash = name.hashCode();
+        int mask = index.m_chars_.length - 1;
+        char offsets[] = null;
+        char lengths[] = null;
+        for (int i = NameIndex.getSlot(hash, mask);; i = (i + 1) & mask) {
+            int c = index.m_chars_[i];
+            if (c < 0) {
+                return -1;
+            }
+            if (index.m_hashes_[i] == hash) {
+                // Verify the name with the group that contains the candidate.
+                if (offsets == null) {
+                    offsets = new char[LINES_PER_GROUP_ + 1];
+                    lengths = new char[LINES_PER_GROUP_ + 1];
+                }
+                int group = getGroup(c);
+                int startgpstrindex = getGroupLengths(group, offsets, lengths);
+                int result = getGroupChar(startgpstrindex, lengths, name,
+                                          choice);
+                if (result != -1) {
+                    return (getGroupMSB(group) << GROUP_SHIFT_) | result;
+                }
             }
         }
-        return -1;
+    }
+
+    /**
+    * Gets the name index for the choice, building it if necessary.
+    * @param choice name choice, not EXTENDED_CHAR_NAME
+    * @return the name index
+    */
+    private synchronized NameIndex getNameIndex(int choice)
+    {
+        NameIndex index = m_nameIndex_[choice];
+        if (index == null) {
+            index = new NameIndex(this, choice);
+            m_nameIndex_[choice] = index;
+        }
+        return index;
+    }
+
+    /**
+    * Same as getGroupName(index, length, choice) but returns the
+    * String.hashCode() of the name instead of the name, without creating it.
+    * Does not support EXTENDED_CHAR_NAME.
+    * @return the hash code as a non-negative long, or -1 if there is no name
+    */
+    private long getGroupNameHash(int index, int length, int choice)
+    {
+        if (choice != UCharacterNameChoice.UNICODE_CHAR_NAME) {
+            if (';' >= m_tokentable_.length || m_tokentable_[';'] == 0xFFFF) {
+                int fieldIndex= choice==UCharacterNameChoice.ISO_COMMENT_ ? 2 : choice;
+                do {
+                    int oldindex = index;
+                    index += UCharacterUtility.skipByteSubString(m_groupstring_,
+                                                       index, length, (byte)';');
+                    length -= (index - oldindex);
+                } while(--fieldIndex>0);
+            }
+            else {
+                return -1;
+            }
+        }
+
+        int hash = 0;
+        boolean empty = true;
+        for (int i = 0; i < length;) {
+            byte b = m_groupstring_[index + i];
+            i ++;
+
+            if (b >= m_tokentable_.length) {
+                if (b == ';') {
+                    break;
+                }
+                // implicit letter, compared as a char by getGroupChar()
+                hash = 31 * hash + (b & 0x00ff);
+                empty = false;
+            }
+            else {
+                char token = m_tokentable_[b & 0x00ff];
+                if (token == 0xFFFE) {
+                    // this is a lead byte for a double-byte token
+                    token = m_tokentable_[b << 8 |
+                                      (m_groupstring_[index + i] & 0x00ff)];
+                    i ++;
+                }
+                if (token == 0xFFFF) {
+                    if (b == ';') {
+                        break;
+                    }
+                    // explicit letter
+                    hash = 31 * hash + (b & 0x00ff);
+                    empty = false;
+                }
+                else { // token word
+                    for (int t = token; m_tokenstring_[t] != 0; t ++) {
+                        hash = 31 * hash + (m_tokenstring_[t] & 0x00ff);
+                        empty = false;
+                    }
+                }
+            }
+        }
+        return empty ? -1 : hash & 0xffffffffL;
+    }
+
+    /**
+    * Hash table from the hash codes of the group names (not the algorithmic
+    * names) of one name choice to their code points.
+    * It does not store the names themselves; a lookup compares the name with
+    * the group data of each candidate code point with the same hash code.
+    * Code points with equal hash codes are stored in code point order,
+    * so that a lookup finds the same character as a linear search through
+    * the groups.
+    * Immutable once built, so that it can be shared by all threads.
+    */
+    private static final class NameIndex
+    {
+        /**
+        * Code points, or -1 for empty slots
+        */
+        final int m_chars_[];
+        /**
+        * String.hashCode() of the name of each code point
+        */
+        final int m_hashes_[];
+
+        NameIndex(UCharacterName names, int choice)
+        {
+            // Collect the names of all groups.
+            int count = 0;
+            int chars[] = new int[1024];
+            int hashes[] = new int[1024];
+            for (int i = 0; i < names.m_groupcount_; i ++) {
+                int startgpstrindex = names.getGroupLengths(i,
+                        names.m_groupoffsets_, names.m_grouplengths_);
+                int start = getGroupMin(names.getGroupMSB(i));
+                for (int offset = 0; offset < LINES_PER_GROUP_; offset ++) {
+                    long hash = names.getGroupNameHash(
+                            startgpstrindex + names.m_groupoffsets_[offset],
+                            names.m_grouplengths_[offset], choice);
+                    if (hash < 0) {
+                        continue;
+                    }
+                    if (count == chars.length) {
+                        chars = Arrays.copyOf(chars, 2 * count);
+                        hashes = Arrays.copyOf(hashes, 2 * count);
+                    }
+                    chars[count] = start + offset;
+                    hashes[count] = (int) hash;
+                    ++ count;
+                }
+            }
+            // Load factor at most 1/2.
+            int size = 16;
+            while (size < 2 * count) {
+                size <<= 1;
+            }
+            int mask = size - 1;
+            m_chars_ = new int[size];
+            m_hashes_ = new int[size];
+            Arrays.fill(m_chars_, -1);
+            for (int i = 0; i < count; i ++) {
+                int slot = getSlot(hashes[i], mask);
+                while (m_chars_[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                m_chars_[slot] = chars[i];
+                m_hashes_[slot] = hashes[i];
+            }
+        }
+
+        static int getSlot(int hash, int mask)
+        {
+            // Spread the bits because String hash codes of similar names
+            // differ mostly in their low bits.
+            hash ^= (hash >>> 16);
+            hash *= 0x85ebca6b;
+            return (hash ^ (hash >>> 13)) & mask;
+        }
     }
 
     /**
@@ -0,0 +1,149 @@
+// © 2018 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+
+package com.ibm.icu.impl;
+
+/**
+ * UTF-8 decoding and encoding helpers for the functions that work on
+ * UTF-8 byte arrays on top of UTF-16 implementations.
+ */
+public final class UTF8Util {
+    private UTF8Util() {}  // all-static
+
+    /**
+     * Code point value that decode() returns for an ill-formed sequence.
+     */
+    public static final int ILL_FORMED = 0xffffff;
+
+    /**
+     * Decodes the UTF-8 sequence starting with the non-ASCII byte src[i].
+     * @return (length << 24) | code point for a well-formed sequence, or
+     *         (length << 24) | ILL_FORMED with the length of the maximal ill-formed subpart
+     */
+    public static int decode(byte[] src, int i, int limit) {
+        int b0 = src[i] & 0xff;
+        if (b0 < 0xc2 || b0 > 0xf4) {
+            return (1 << 24) | ILL_FORMED;
+        }
+        if (b0 < 0xe0) {
+            if ((i + 1) < limit) {
+                int t1 = (src[i + 1] & 0xff) ^ 0x80;
+                if (t1 <= 0x3f) {
+                    return (2 << 24) | ((b0 & 0x1f) << 6) | t1;
+                }
+            }
+            return (1 << 24) | ILL_FORMED;
+        }
+        // Valid ranges for the second byte exclude overlong forms, surrogates and
+        // code points beyond U+10FFFF.
+        int lower, upper;
+        if (b0 < 0xf0) {
+            lower = b0 == 0xe0 ? 0xa0 : 0x80;
+            upper = b0 == 0xed ? 0x9f : 0xbf;
+        } else {
+            lower = b0 == 0xf0 ? 0x90 : 0x80;
+            upper = b0 == 0xf4 ? 0x8f : 0xbf;
+        }
+        if ((i + 1) >= limit) {
+            return (1 << 24) | ILL_FORMED;
+        }
+        int b1 = src[i + 1] & 0xff;
+        if (b1 < lower || upper < b1) {
+            return (1 << 24) | ILL_FORMED;
+        }
+        if ((i + 2) >= limit) {
+            return (2 << 24) | ILL_FORMED;
+        }
+        int t2 = (src[i + 2] & 0xff) ^ 0x80;
+        if (t2 > 0x3f) {
+            return (2 << 24) | ILL_FORMED;
+        }
+        if (b0 < 0xf0) {
+            return (3 << 24) | ((b0 & 0xf) << 12) | ((b1 & 0x3f) << 6) | t2;
+        }
+        if ((i + 3) >= limit) {
+            return (3 << 24) | ILL_FORMED;
+        }
+        int t3 = (src[i + 3] & 0xff) ^ 0x80;
+        if (t3 > 0x3f) {
+            return (3 << 24) | ILL_FORMED;
+        }
+        return (4 << 24) | ((b0 & 7) << 18) | ((b1 & 0x3f) << 12) | (t2 << 6) | t3;
+    }
+
+    /**
+     * Decodes the UTF-8 sequence that ends with the non-ASCII byte src[i-1],
+     * consistent with forward decoding with {@link #decode(byte[], int, int)}:
+     * A trail byte that does not complete a sequence starting at or after start
+     * is a single-byte ill-formed sequence.
+     * @return (length << 24) | code point for a well-formed sequence, or
+     *         (length << 24) | ILL_FORMED
+     */
+    public static int decodeBefore(byte[] src, int start, int i) {
+        int minStart = Math.max(start, i - 4);
+        for (int j = i - 1; j >= minStart; --j) {
+            int b = src[j];
+            if (b < -0x40) {
+                continue;  // trail byte 80..BF
+            }
+            if (b < 0) {
+                // Lead byte: Does its sequence end at i?
+                int decoded = decode(src, j, i);
+                if ((decoded >>> 24) == (i - j)) {
+                    return decoded;
+                }
+            }
+            break;
+        }
+        return (1 << 24) | ILL_FORMED;
+    }
+
+    /**
+     * Returns the UTF-8 length of s[start..limit[ which contains no unpaired surrogates.
+     */
+    public static int length(CharSequence s, int start, int limit) {
+        int length = 0;
+        for (int i = start; i < limit; ++i) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                ++i;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Writes s[start..limit[ which contains no unpaired surrogates as UTF-8.
+     * dest must have room for at least 3*(limit-start) bytes after destIndex.
+     * @return the dest index after the last written byte
+     */
+    public static int encode(CharSequence s, int start, int limit, byte[] dest, int destIndex) {
+        for (int i = start; i < limit;) {
+            int c = Character.codePointAt(s, i);
+            i += Character.charCount(c);
+            if (c < 0x80) {
+                dest[destIndex++] = (byte) c;
+            } else if (c < 0x800) {
+                dest[destIndex++] = (byte) (0xc0 | (c >> 6));
+                dest[destIndex++] = (byte) (0x80 | (c & 0x3f));
+            } else if (c < 0x10000) {
+                dest[destIndex++] = (byte) (0xe0 | (c >> 12));
+                dest[destIndex++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                dest[destIndex++] = (byte) (0x80 | (c & 0x3f));
+            } else {
+                dest[destIndex++] = (byte) (0xf0 | (c >> 18));
+                dest[destIndex++] = (byte) (0x80 | ((c >> 12) & 0x3f));
+                dest[destIndex++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                dest[destIndex++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return destIndex;
+    }
+}
@@ -27,6 +27,8 @@ private CharacterProperties() {}  // all-static
 
     private static final UnicodeSet sets[] = new UnicodeSet[UProperty.BINARY_LIMIT];
     private static final CodePointMap maps[] = new CodePointMap[UProperty.INT_LIMIT - UProperty.INT_START];
+    /** Values for U+0000..U+00FF, parallel to maps[]. */
+    private static final int latin1Values[][] = new int[maps.length][];
 
     private static UnicodeSet makeSet(int property) {
         UnicodeSet set = new UnicodeSet();
@@ -159,4 +161,195 @@ public static final CodePointMap getIntPropertyMap(int property) {
             return map;
         }
     }
+
+    /**
+     * Returns the values of an enumerated/catalog/int-valued property
+     * for all code points of a range of text, one value per code point.
+     * This is equivalent to calling {@link UCharacter#getIntPropertyValue(int, int)}
+     * for each code point, but much faster for longer strings:
+     * Latin-1 characters are looked up in a small table,
+     * and other code points in the map returned by {@link #getIntPropertyMap(int)}.
+     * (The first call for a property builds that map.)
+     *
+     * <p>A supplementary code point (a well-formed surrogate pair) yields one value.
+     * An unpaired surrogate is looked up as a code point by itself.
+     *
+     * @param property {@link UProperty#INT_START}..{@link UProperty#INT_LIMIT}-1
+     * @param s the text
+     * @param start the index of the first char to be looked up
+     * @param limit the index after the last char to be looked up
+     * @param dest receives the property values
+     * @param destIndex the index in dest for the first value
+     * @return the number of values written, which is the number of code points
+     *         in s[start..limit[
+     * @throws IndexOutOfBoundsException if dest does not have enough space after destIndex
+     *         (some values may have been written)
+     * @see UCharacter#getIntPropertyValue
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static final int getIntPropertyValues(int property, CharSequence s, int start, int limit,
+            int[] dest, int destIndex) {
+        checkRange(s.length(), start, limit);
+        return getValues(property, s, start, limit, dest, null, destIndex);
+    }
+
+    /**
+     * Same as {@link #getIntPropertyValues(int, CharSequence, int, int, int[], int)}
+     * but for a char array.
+     *
+     * @param property {@link UProperty#INT_START}..{@link UProperty#INT_LIMIT}-1
+     * @param s the text
+     * @param start the index of the first char to be looked up
+     * @param limit the index after the last char to be looked up
+     * @param dest receives the property values
+     * @param destIndex the index in dest for the first value
+     * @return the number of values written, which is the number of code points
+     *         in s[start..limit[
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static final int getIntPropertyValues(int property, char[] s, int start, int limit,
+            int[] dest, int destIndex) {
+        checkRange(s.length, start, limit);
+        return getValues(property, s, start, limit, dest, null, destIndex);
+    }
+
+    /**
+     * Same as {@link #getIntPropertyValues(int, CharSequence, int, int, int[], int)}
+     * but writes the values into a byte array, which is more compact
+     * for large amounts of text.
+     * Each value is stored as <code>(byte)value</code>; use <code>dest[i]&amp;0xff</code>
+     * to get it back.
+     * Throws an exception if the property has values greater than 0xff.
+     *
+     * @param property {@link UProperty#INT_START}..{@link UProperty#INT_LIMIT}-1
+     * @param s the text
+     * @param start the index of the first char to be looked up
+     * @param limit the index after the last char to be looked up
+     * @param dest receives the property values
+     * @param destIndex the index in dest for the first value
+     * @return the number of values written, which is the number of code points
+     *         in s[start..limit[
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static final int getIntPropertyValues(int property, CharSequence s, int start, int limit,
+            byte[] dest, int destIndex) {
+        checkRange(s.length(), start, limit);
+        checkByteValues(property);
+        return getValues(property, s, start, limit, null, dest, destIndex);
+    }
+
+    /**
+     * Same as {@link #getIntPropertyValues(int, CharSequence, int, int, byte[], int)}
+     * but for a char array.
+     *
+     * @param property {@link UProperty#INT_START}..{@link UProperty#INT_LIMIT}-1
+     * @param s the text
+     * @param start the index of the first char to be looked up
+     * @param limit the index after the last char to be looked up
+     * @param dest receives the property values
+     * @param destIndex the index in dest for the first value
+     * @return the number of values written, which is the number of code points
+     *         in s[start..limit[
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static final int getIntPropertyValues(int property, char[] s, int start, int limit,
+            byte[] dest, int destIndex) {
+        checkRange(s.length, start, limit);
+        checkByteValues(property);
+        return getValues(property, s, start, limit, null, dest, destIndex);
+    }
+
+    private static void checkRange(int length, int start, int limit) {
+        if (start < 0 || start > limit || limit > length) {
+            throw new IndexOutOfBoundsException(
+                    "start " + start + ", limit " + limit + ", length " + length);
+        }
+    }
+
+    private static void checkByteValues(int property) {
+        if (UCharacter.getIntPropertyMaxValue(property) > 0xff) {
+            throw new IllegalArgumentException("" + property +
+                    " is a UProperty int property with values that do not fit into bytes");
+        }
+    }
+
+    private static int[] getLatin1Values(int property) {
+        CodePointMap map = getIntPropertyMap(property);
+        synchronized(maps) {
+            int[] values = latin1Values[property - UProperty.INT_START];
+            if (values == null) {
+                values = new int[0x100];
+                for (int c = 0; c < 0x100; ++c) {
+                    values[c] = map.get(c);
+                }
+                latin1Values[property - UProperty.INT_START] = values;
+            }
+            return values;
+        }
+    }
+
+    // The two getValues() variants differ only in the text access.
+    // One value is written per code point into either intDest or byteDest.
+
+    private static int getValues(int property, CharSequence s, int start, int limit,
+            int[] intDest, byte[] byteDest, int destIndex) {
+        int[] latin1 = getLatin1Values(property);
+        CodePointMap map = getIntPropertyMap(property);
+        int destStart = destIndex;
+        int i = start;
+        while (i < limit) {
+            int c = s.charAt(i++);
+            int value;
+            if (c <= 0xff) {
+                value = latin1[c];
+            } else {
+                char c2;
+                if (Character.isHighSurrogate((char) c) && i < limit &&
+                        Character.isLowSurrogate(c2 = s.charAt(i))) {
+                    ++i;
+                    c = Character.toCodePoint((char) c, c2);
+                }
+                value = map.get(c);
+            }
+            if (intDest != null) {
+                intDest[destIndex++] = value;
+            } else {
+                byteDest[destIndex++] = (byte) value;
+            }
+        }
+        return destIndex - destStart;
+    }
+
+    private static int getValues(int property, char[] s, int start, int limit,
+            int[] intDest, byte[] byteDest, int destIndex) {
+        int[] latin1 = getLatin1Values(property);
+        CodePointMap map = getIntPropertyMap(property);
+        int destStart = destIndex;
+        int i = start;
+        while (i < limit) {
+            int c = s[i++];
+            int value;
+            if (c <= 0xff) {
+                value = latin1[c];
+            } else {
+                char c2;
+                if (Character.isHighSurrogate((char) c) && i < limit &&
+                        Character.isLowSurrogate(c2 = s[i])) {
+                    ++i;
+                    c = Character.toCodePoint((char) c, c2);
+                }
+                value = map.get(c);
+            }
+            if (intDest != null) {
+                intDest[destIndex++] = value;
+            } else {
+                byteDest[destIndex++] = (byte) value;
+            }
+        }
+        return destIndex - destStart;
+    }
 }
@@ -52,6 +52,10 @@
  * length of the text to be constant. They expect extra spaces to be added
  * or consumed either next to the affected character or at the end of the
  * text.</p>
+ *
+ * <p>An ArabicShaping object is immutable and can be shared among threads.
+ * It is cheaper to reuse one object for many calls with the same options
+ * than to create one per call.</p>
  * @stable ICU 2.0
  */
 public final class ArabicShaping {
@@ -60,6 +64,21 @@ public final class ArabicShaping {
     private boolean spacesRelativeToTextBeginEnd;
     private char tailChar;
 
+    // Values derived from the options once, so that each shape() call
+    // need not recompute them.
+    // Length options, with BEGIN and END swapped for visual LTR text
+    // unless the spaces are relative to the text.
+    private final int lenOptionsLamAlef;
+    private final int lenOptionsTashkeel;
+    private final char digitBase;
+    // Range and delta of the digits that are mapped without context (DIGITS_EN2AN, DIGITS_AN2EN);
+    // digitDelta is 0 if there are none.
+    private final char digitFirst;
+    private final int digitDelta;
+    // True if shaping neither changes the length of the text nor fails,
+    // so that it can work directly in the caller's destination range.
+    private final boolean fixedLength;
+
     /**
      * Convert a range of text in the source array, putting the result
      * into a range of text in the destination array, and return the number
@@ -87,6 +106,16 @@ public final class ArabicShaping {
      */
     public int shape(char[] source, int sourceStart, int sourceLength,
                      char[] dest, int destStart, int destSize) throws ArabicShapingException {
+        return shape(source, sourceStart, sourceLength, dest, destStart, destSize, false);
+    }
+
+    /*
+     * sourceIsScratch: source and dest are private to shape(String),
+     * so that all of dest may be used as working space
+     */
+    private int shape(char[] source, int sourceStart, int sourceLength,
+                      char[] dest, int destStart, int destSize,
+                      boolean sourceIsScratch) throws ArabicShapingException {
         if (source == null) {
             throw new IllegalArgumentException("source can not be null");
         }
@@ -129,7 +158,8 @@ public int shape(char[] source, int sourceStart, int sourceLength,
        if(((options&TASHKEEL_MASK) != 0) && (options&LETTERS_MASK) == LETTERS_UNSHAPE) {
             throw new IllegalArgumentException("Tashkeel replacement should not be enabled in deshaping mode ");
        }
-       return internalShape(source, sourceStart, sourceLength, dest, destStart, destSize);
+       return internalShape(source, sourceStart, sourceLength, dest, destStart, destSize,
+                            sourceIsScratch);
     }
 
     /**
@@ -165,7 +195,7 @@ public String shape(String text) throws ArabicShapingException {
 
             dest = new char[src.length * 2]; // max
         }
-        int len = shape(src, 0, src.length, dest, 0, dest.length);
+        int len = shape(src, 0, src.length, dest, 0, dest.length, true);
 
         return new String(dest, 0, len);
     }
@@ -200,6 +230,63 @@ public ArabicShaping(int options) {
         } else {
             tailChar = OLD_TAIL_CHAR;
         }
+
+        int lamAlef = options & LAMALEF_MASK;
+        int tashkeel = options & TASHKEEL_MASK;
+        if (!isLogical && !spacesRelativeToTextBeginEnd) {
+            switch (lamAlef) {
+            case LAMALEF_BEGIN: lamAlef = LAMALEF_END; break;
+            case LAMALEF_END: lamAlef = LAMALEF_BEGIN; break;
+            default: break;
+            }
+            switch (tashkeel) {
+            case TASHKEEL_BEGIN: tashkeel = TASHKEEL_END; break;
+            case TASHKEEL_END: tashkeel = TASHKEEL_BEGIN; break;
+            default: break;
+            }
+        }
+        lenOptionsLamAlef = lamAlef;
+        lenOptionsTashkeel = tashkeel;
+
+        switch (options & LETTERS_MASK) {
+        case LETTERS_NOOP:
+            fixedLength = true;
+            break;
+        case LETTERS_SHAPE:
+        case LETTERS_SHAPE_TASHKEEL_ISOLATED:
+            fixedLength = lamAlef != LAMALEF_RESIZE && tashkeel != TASHKEEL_RESIZE &&
+                (options & SEEN_MASK) == 0 && (options & YEHHAMZA_MASK) == 0;
+            break;
+        default:
+            fixedLength = false;
+            break;
+        }
+
+        switch (options & DIGIT_TYPE_MASK) {
+        case DIGIT_TYPE_AN:
+            digitBase = '\u0660';  // Arabic-Indic digits
+            break;
+        case DIGIT_TYPE_AN_EXTENDED:
+            digitBase = '\u06f0';  // Eastern Arabic-Indic digits (Persian and Urdu)
+            break;
+        default:
+            digitBase = '\u0030';  // European digits
+            break;
+        }
+        switch (options & DIGITS_MASK) {
+        case DIGITS_EN2AN:
+            digitFirst = '\u0030';
+            digitDelta = digitBase - '\u0030';
+            break;
+        case DIGITS_AN2EN:
+            digitFirst = digitBase;
+            digitDelta = '\u0030' - digitBase;
+            break;
+        default:
+            digitFirst = 0;
+            digitDelta = 0;
+            break;
+        }
     }
 
     /* Seen Tail options */
@@ -1194,10 +1281,10 @@ private int calculateSize(char[] source,
      * Name    : countSpaceSub
      * Function: Counts number of times the subChar appears in the array
      */
-    private static int countSpaceSub(char [] dest,int length, char subChar){
-        int i = 0;
+    private static int countSpaceSub(char [] dest, int start, int length, char subChar){
+        int i = start;
         int count = 0;
-        while (i < length) {
+        while (i < start + length) {
           if (dest[i] == subChar) {
               count++;
               }
@@ -1252,9 +1339,9 @@ private static int flipArray(char [] dest, int start, int e, int w){
      *            Case 3: if the Tashkeel is isolated replace it with Space.
      *
      */
-    private static int handleTashkeelWithTatweel(char[] dest, int sourceLength) {
+    private static int handleTashkeelWithTatweel(char[] dest, int start, int sourceLength) {
                      int i;
-                     for(i = 0; i < sourceLength; i++){
+                     for(i = start; i < start + sourceLength; i++){
                          if((isTashkeelOnTatweelChar(dest[i]) == 1)){
                              dest[i] = TATWEEL_CHAR;
                         }else if((isTashkeelOnTatweelChar(dest[i]) == 2)){
@@ -1288,24 +1375,9 @@ private int handleGeneratedSpaces(char[] dest,
             int start,
             int length) {
 
-      int lenOptionsLamAlef = options & LAMALEF_MASK;
-      int lenOptionsTashkeel = options & TASHKEEL_MASK;
       boolean lamAlefOn = false;
       boolean tashkeelOn = false;
 
-      if (!isLogical & !spacesRelativeToTextBeginEnd) {
-          switch (lenOptionsLamAlef) {
-          case LAMALEF_BEGIN: lenOptionsLamAlef = LAMALEF_END; break;
-          case LAMALEF_END: lenOptionsLamAlef = LAMALEF_BEGIN; break;
-          default: break;
-         }
-          switch (lenOptionsTashkeel){
-          case TASHKEEL_BEGIN: lenOptionsTashkeel = TASHKEEL_END; break;
-          case TASHKEEL_END: lenOptionsTashkeel = TASHKEEL_BEGIN; break;
-          default: break;
-          }
-        }
-
 
       if (lenOptionsLamAlef == LAMALEF_NEAR) {
           for (int i = start, e = i + length; i < e; ++i) {
@@ -1317,8 +1389,8 @@ private int handleGeneratedSpaces(char[] dest,
       } else {
 
           final int e = start + length;
-          int wL = countSpaceSub(dest, length, LAMALEF_SPACE_SUB);
-          int wT = countSpaceSub(dest, length, TASHKEEL_SPACE_SUB);
+          int wL = start + countSpaceSub(dest, start, length, LAMALEF_SPACE_SUB);
+          int wT = start + countSpaceSub(dest, start, length, TASHKEEL_SPACE_SUB);
 
           if (lenOptionsLamAlef == LAMALEF_END){
             lamAlefOn = true;
@@ -1521,19 +1593,10 @@ private int expandCompositChar(char[] dest,
                               int lacount,
                               int shapingMode) throws ArabicShapingException {
 
-        int lenOptionsLamAlef = options & LAMALEF_MASK;
         int lenOptionsSeen = options & SEEN_MASK;
         int lenOptionsYehHamza = options & YEHHAMZA_MASK;
         boolean spaceNotFound = false;
 
-        if (!isLogical && !spacesRelativeToTextBeginEnd) {
-            switch (lenOptionsLamAlef) {
-            case LAMALEF_BEGIN: lenOptionsLamAlef = LAMALEF_END; break;
-            case LAMALEF_END: lenOptionsLamAlef = LAMALEF_BEGIN; break;
-            default: break;
-            }
-        }
-
         if(shapingMode == 1){
             if(lenOptionsLamAlef == LAMALEF_AUTO){
                 if(isLogical){
@@ -1604,20 +1667,53 @@ private int expandCompositChar(char[] dest,
     }
 
 
-    /* Convert the input buffer from FExx Range into 06xx Range
-     * to put all characters into the 06xx range
-     * even the lamalef is converted to the special region in
-     * the 06xx range.  Return the number of lamalef chars found.
-     */
-    private int normalize(char[] dest, int start, int length) {
+    /*
+     * Name    : prepareInput
+     * Function: Prepares the text in dest for shaping in a single pass:
+     *           Reverses logical text into visual order, maps digits without
+     *           context (DIGITS_EN2AN, DIGITS_AN2EN), and if normalizeLetters
+     *           is set, converts the FExx range into the 06xx range like
+     *           deshapeNormalize() but without composing; the lamalef is
+     *           converted to the special region in the 06xx range.
+     *           Mapping digits before letter shaping gives the same result
+     *           because digits do not join.
+     *           Returns the number of lamalef chars found.
+     */
+    private int prepareInput(char[] dest, int start, int length, boolean normalizeLetters) {
         int lacount = 0;
-        for (int i = start, e = i + length; i < e; ++i) {
-            char ch = dest[i];
-            if (ch >= '\uFE70' && ch <= '\uFEFC') {
-                if (isLamAlefChar(ch)) {
-                    ++lacount;
+        for (int i = start, j = start + length - 1; i <= j; ++i, --j) {
+            char ci = dest[i];
+            char cj = dest[j];
+            if (ci >= '\uFE70') {
+                if (normalizeLetters && ci <= '\uFEFC') {
+                    if (isLamAlefChar(ci)) {
+                        ++lacount;
+                    }
+                    ci = (char)convertFEto06[ci - '\uFE70'];
                 }
-                dest[i] = (char)convertFEto06[ch - '\uFE70'];
+            } else if (digitDelta != 0 && ci >= digitFirst && ci <= digitFirst + 9) {
+                ci += digitDelta;
+            }
+            if (i == j) {
+                dest[i] = ci;
+                break;
+            }
+            if (cj >= '\uFE70') {
+                if (normalizeLetters && cj <= '\uFEFC') {
+                    if (isLamAlefChar(cj)) {
+                        ++lacount;
+                    }
+                    cj = (char)convertFEto06[cj - '\uFE70'];
+                }
+            } else if (digitDelta != 0 && cj >= digitFirst && cj <= digitFirst + 9) {
+                cj += digitDelta;
+            }
+            if (isLogical) {
+                dest[i] = cj;
+                dest[j] = ci;
+            } else {
+                dest[i] = ci;
+                dest[j] = cj;
             }
         }
         return lacount;
@@ -1644,10 +1740,10 @@ private int deshapeNormalize(char[] dest, int start, int length) {
             char ch = dest[i];
 
         if( (yehHamzaComposeEnabled == 1) && ((ch == HAMZA06_CHAR) || (ch == HAMZAFE_CHAR))
-               && (i < (length - 1)) && isAlefMaksouraChar(dest[i+1] )) {
+               && (i < (e - 1)) && isAlefMaksouraChar(dest[i+1] )) {
                 dest[i] = SPACE_CHAR;
                 dest[i+1] = YEH_HAMZA_CHAR;
-       } else if ( (seenComposeEnabled == 1) && (isTailChar(ch)) && (i< (length - 1))
+       } else if ( (seenComposeEnabled == 1) && (isTailChar(ch)) && (i< (e - 1))
                        && (isSeenTailFamilyChar(dest[i+1])==1) ) {
                dest[i] = SPACE_CHAR;
        }
@@ -1664,15 +1760,15 @@ else if (ch >= '\uFE70' && ch <= '\uFEFC') {
     /*
      * Name    : shapeUnicode
      * Function: Converts an Arabic Unicode buffer in 06xx Range into a shaped
-     *           arabic Unicode buffer in FExx Range
+     *           arabic Unicode buffer in FExx Range;
+     *           the buffer was normalized by prepareInput()
      */
     private int shapeUnicode(char[] dest,
                              int start,
                              int length,
                              int destSize,
-                             int tashkeelFlag)throws ArabicShapingException {
-
-        int lamalef_count = normalize(dest, start, length);
+                             int tashkeelFlag,
+                             int lamalef_count)throws ArabicShapingException {
 
         // resolve the link between the characters.
         // Arabic characters have four forms: Isolated, Initial, Medial and Final.
@@ -1691,13 +1787,13 @@ private int shapeUnicode(char[] dest,
         int nx = -2;
         int nw = 0;
 
-        while (i >= 0) {
+        while (i >= start) {
             // If high byte of currLink != 0 then there might be more than one shape
             if ((currLink & '\uFF00') != 0 || isTashkeelChar(dest[i])) {
                 nw = i - 1;
                 nx = -2;
                 while (nx < 0) { // we need to know about next char
-                    if (nw == -1) {
+                    if (nw < start) {
                         nextLink = 0;
                         nx = Integer.MAX_VALUE;
                     } else {
@@ -1723,7 +1819,7 @@ private int shapeUnicode(char[] dest,
                     lastLink = prevLink;
                     currLink = getLink(wLamalef); // requires '\u0000', unfortunately
                 }
-                if ((i > 0) && (dest[i-1] == SPACE_CHAR))
+                if ((i > start) && (dest[i-1] == SPACE_CHAR))
                 {
                     if ( isSeenFamilyChar(dest[i]) == 1){
                         seenfam_found = true;
@@ -1731,7 +1827,7 @@ private int shapeUnicode(char[] dest,
                         yehhamza_found = true;
                     }
                 }
-                else if(i==0){
+                else if(i==start){
                     if ( isSeenFamilyChar(dest[i]) == 1){
                         seenfam_found = true;
                     } else if (dest[i] == YEH_HAMZA_CHAR) {
@@ -1796,7 +1892,7 @@ else if(i==0){
             if (i == nx) {
                 currLink = nextLink;
                 nx = -2;
-            } else if (i != -1) {
+            } else if (i >= start) {
                 currLink = getLink(dest[i]);
             }
         }
@@ -1842,7 +1938,8 @@ private int internalShape(char[] source,
                               int sourceLength,
                               char[] dest,
                               int destStart,
-                              int destSize) throws ArabicShapingException {
+                              int destSize,
+                              boolean sourceIsScratch) throws ArabicShapingException {
 
         if (sourceLength == 0) {
             return 0;
@@ -1858,39 +1955,57 @@ private int internalShape(char[] source,
             }
         }
 
-        // always use temp buffer
-        char[] temp = new char[sourceLength * 2]; // all lamalefs requiring expansion
-        System.arraycopy(source, sourceStart, temp, 0, sourceLength);
-
-        if (isLogical) {
-            invertBuffer(temp, 0, sourceLength);
+        // Work directly in the destination when dest is private to shape(String),
+        // or when the output has the length of the source and shaping cannot fail,
+        // so that no chars other than the output are written to the caller's buffer.
+        // Otherwise work in a temporary buffer.
+        int lettersOption = options & LETTERS_MASK;
+        int workSize = sourceLength;
+        if (lettersOption == LETTERS_UNSHAPE && lenOptionsLamAlef == LAMALEF_RESIZE) {
+            workSize = sourceLength * 2; // all lamalefs requiring expansion
+        }
+        char[] temp;
+        int start;
+        if (destSize >= workSize && (sourceIsScratch || fixedLength)) {
+            temp = dest;
+            start = destStart;
+        } else {
+            temp = new char[sourceLength * 2];
+            start = 0;
+        }
+        if (temp != source || start != sourceStart) {
+            System.arraycopy(source, sourceStart, temp, start, sourceLength);
         }
 
+        boolean normalizeLetters =
+            lettersOption == LETTERS_SHAPE || lettersOption == LETTERS_SHAPE_TASHKEEL_ISOLATED;
+        int lamalefCount = prepareInput(temp, start, sourceLength, normalizeLetters);
+
         int outputSize = sourceLength;
 
-        switch (options & LETTERS_MASK) {
+        switch (lettersOption) {
         case LETTERS_SHAPE_TASHKEEL_ISOLATED:
-            outputSize = shapeUnicode(temp, 0, sourceLength, destSize, 1);
+            outputSize = shapeUnicode(temp, start, sourceLength, destSize, 1, lamalefCount);
             break;
 
         case LETTERS_SHAPE:
             if( ((options&TASHKEEL_MASK) != 0) &&
                 ((options&TASHKEEL_MASK) !=TASHKEEL_REPLACE_BY_TATWEEL)) {
                    /* Call the shaping function with tashkeel flag == 2 for removal of tashkeel */
-                outputSize = shapeUnicode(temp, 0, sourceLength, destSize, 2);
+                outputSize = shapeUnicode(temp, start, sourceLength, destSize, 2, lamalefCount);
                 }else {
                    //default Call the shaping function with tashkeel flag == 1 */
-                    outputSize = shapeUnicode(temp, 0, sourceLength, destSize, 0);
+                    outputSize = shapeUnicode(temp, start, sourceLength, destSize, 0, lamalefCount);
 
                    /*After shaping text check if user wants to remove tashkeel and replace it with tatweel*/
                    if( (options&TASHKEEL_MASK) == TASHKEEL_REPLACE_BY_TATWEEL){
-                       outputSize = handleTashkeelWithTatweel(temp,sourceLength);
+                       outputSize = handleTashkeelWithTatweel(temp, start, sourceLength);
                    }
                }
             break;
 
         case LETTERS_UNSHAPE:
-            outputSize = deShapeUnicode(temp, 0, sourceLength, destSize);
+            outputSize = deShapeUnicode(temp, start, sourceLength, destSize);
             break;
 
         default:
@@ -1901,65 +2016,27 @@ private int internalShape(char[] source,
             throw new ArabicShapingException("not enough room for result data");
         }
 
-        if ((options & DIGITS_MASK) != DIGITS_NOOP) {
-            char digitBase = '\u0030'; // European digits
-            switch (options & DIGIT_TYPE_MASK) {
-            case DIGIT_TYPE_AN:
-                digitBase = '\u0660';  // Arabic-Indic digits
-                break;
-
-            case DIGIT_TYPE_AN_EXTENDED:
-                digitBase = '\u06f0';  // Eastern Arabic-Indic digits (Persian and Urdu)
-                break;
-
-            default:
-                break;
-            }
-
-            switch (options & DIGITS_MASK) {
-            case DIGITS_EN2AN:
-                {
-                    int digitDelta = digitBase - '\u0030';
-                    for (int i = 0; i < outputSize; ++i) {
-                        char ch = temp[i];
-                        if (ch <= '\u0039' && ch >= '\u0030') {
-                            temp[i] += digitDelta;
-                        }
-                    }
-                }
-                break;
-
-            case DIGITS_AN2EN:
-                {
-                    char digitTop = (char)(digitBase + 9);
-                    int digitDelta = '\u0030' - digitBase;
-                    for (int i = 0; i < outputSize; ++i) {
-                        char ch = temp[i];
-                        if (ch <= digitTop && ch >= digitBase) {
-                            temp[i] += digitDelta;
-                        }
-                    }
-                }
-                break;
-
-            case DIGITS_EN2AN_INIT_LR:
-                shapeToArabicDigitsWithContext(temp, 0, outputSize, digitBase, false);
-                break;
+        // DIGITS_EN2AN and DIGITS_AN2EN were handled by prepareInput().
+        switch (options & DIGITS_MASK) {
+        case DIGITS_EN2AN_INIT_LR:
+            shapeToArabicDigitsWithContext(temp, start, outputSize, digitBase, false);
+            break;
 
-            case DIGITS_EN2AN_INIT_AL:
-                shapeToArabicDigitsWithContext(temp, 0, outputSize, digitBase, true);
-                break;
+        case DIGITS_EN2AN_INIT_AL:
+            shapeToArabicDigitsWithContext(temp, start, outputSize, digitBase, true);
+            break;
 
-            default:
-                break;
-            }
+        default:
+            break;
         }
 
         if (isLogical) {
-            invertBuffer(temp, 0, outputSize);
+            invertBuffer(temp, start, outputSize);
         }
 
-        System.arraycopy(temp, 0, dest, destStart, outputSize);
+        if (temp != dest) {
+            System.arraycopy(temp, 0, dest, destStart, outputSize);
+        }
 
         return outputSize;
     }
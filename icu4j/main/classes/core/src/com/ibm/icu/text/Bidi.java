@@ -29,6 +29,7 @@
 
 import java.awt.font.NumericShaper;
 import java.awt.font.TextAttribute;
+import java.io.IOException;
 import java.lang.reflect.Array;
 import java.text.AttributedCharacterIterator;
 import java.util.Arrays;
@@ -37,6 +38,7 @@
 import com.ibm.icu.lang.UCharacter;
 import com.ibm.icu.lang.UCharacterDirection;
 import com.ibm.icu.lang.UProperty;
+import com.ibm.icu.util.ICUUncheckedIOException;
 
 /**
  *
@@ -1123,6 +1125,20 @@ Within resolveImplicitLevels(), this is the index of the current isolates
     /* customized class provider */
     BidiClassifier      customClassifier = null;
 
+    /* work memory reused by setPara(), allocated when first needed */
+    private int[]       isolateStartStack;
+    private byte[]      previousStateStack;
+    private short[]     explicitStack;
+    private BracketData bracketData;
+    private LevState    levState;
+    /* buffer for setPara() with a text slice */
+    private char[]      textMemory;
+    /* scratch buffer for getVisualMap(int[]) */
+    private int[]       visualMapMemory;
+
+    private static final byte[] EMPTY_BYTES = new byte[0];
+    private static final BidiRun[] EMPTY_RUNS = new BidiRun[0];
+
     /* for inverse Bidi with insertion of directional marks */
     InsertPoints        insertPoints = new InsertPoints();
 
@@ -1179,6 +1195,21 @@ boolean testDirPropFlagAt(int flag, int index) {
     /* types that are neutrals or could becomes neutrals in (Wn) */
     static final int MASK_POSSIBLE_N = DirPropFlag(ON)|DirPropFlag(CS)|DirPropFlag(ES)|DirPropFlag(ET)|MASK_WS;
 
+    /* types that cannot make a paragraph without explicit levels mixed-directional
+       unless its paragraph level is odd: no strong RTL, no AN, no explicit or isolate codes,
+       and no B or BN which need the paragraph and surrogate handling of getDirProps() */
+    static final int MASK_LTR_ONLY = DirPropFlag(L)|DirPropFlag(EN)|DirPropFlag(ES)|DirPropFlag(ET)|
+                                     DirPropFlag(CS)|DirPropFlag(S)|DirPropFlag(WS)|DirPropFlag(ON)|
+                                     DirPropFlag(NSM);
+
+    /* directional properties of the ASCII characters, for the fast paths */
+    private static final byte[] ASCII_DIR_PROPS = new byte[0x80];
+    static {
+        for (int c = 0; c < 0x80; ++c) {
+            ASCII_DIR_PROPS[c] = (byte)UBiDiProps.INSTANCE.getClass(c);
+        }
+    }
+
     /*
      * These types may be changed to "e",
      * the embedding type (L or R) of the run,
@@ -1340,21 +1371,16 @@ private Object getMemory(String label, Object array, Class<?> arrayClass,
     {
         int len = Array.getLength(array);
 
-        /* we have at least enough memory and must not allocate */
-        if (sizeNeeded == len) {
+        /* we have at least enough memory: reuse it, relying on this.length */
+        if (sizeNeeded <= len) {
             return array;
         }
         if (!mayAllocate) {
             /* we must not allocate */
-            if (sizeNeeded <= len) {
-                return array;
-            }
             throw new OutOfMemoryError("Failed to allocate memory for "
                                        + label);
         }
-        /* we may try to grow or shrink */
-        /* FOOD FOR THOUGHT: when shrinking it should be possible to avoid
-           the allocation altogether and rely on this.length */
+        /* we may try to grow */
         try {
             return Array.newInstance(arrayClass, sizeNeeded);
         } catch (Exception e) {
@@ -1834,10 +1860,14 @@ private void getDirProps()
        lastStack is reset to -1 on paragraph boundaries. */
     /* The following stack contains the position of the initiator of
        each open isolate sequence */
-        int[] isolateStartStack= new int[MAX_EXPLICIT_LEVEL+1];
+        if (isolateStartStack == null) {
+            isolateStartStack = new int[MAX_EXPLICIT_LEVEL+1];
+            previousStateStack = new byte[MAX_EXPLICIT_LEVEL+1];
+        }
+        int[] isolateStartStack = this.isolateStartStack;
     /* The following stack contains the last known state before
        encountering the initiator of an isolate sequence */
-        byte[] previousStateStack = new byte[MAX_EXPLICIT_LEVEL+1];
+        byte[] previousStateStack = this.previousStateStack;
         int  stackLast=-1;
 
         if ((reorderingOptions & OPTION_STREAMING) != 0)
@@ -2018,6 +2048,97 @@ else if (state == SEEKING_STRONG_FOR_FSI) {
         }
     }
 
+    /*
+     * Fast path of getDirProps() for text which has only characters with types in
+     * MASK_LTR_ONLY, as is the case for most text.
+     * Such text is a single paragraph without surrogate pairs, isolates or strong RTL,
+     * so the paragraph level and flags follow directly from the types,
+     * without the state machine of getDirProps().
+     * Returns false as soon as a character needs the full getDirProps();
+     * dirProps[] may then be partially set, and the caller must call getDirProps().
+     */
+    private boolean getDirPropsLTROnly()
+    {
+        boolean isDefaultLevel = IsDefaultLevel(paraLevel);
+        if (customClassifier != null || (reorderingOptions & OPTION_STREAMING) != 0 ||
+                (isDefaultLevel && prologue != null)) {
+            return false;
+        }
+        boolean removeBidiControls = (reorderingOptions & OPTION_REMOVE_CONTROLS) != 0;
+        int controlCount = 0;
+        int flags = 0;
+        char[] text = this.text;
+        byte[] dirProps = this.dirProps;
+        for (int i = 0; i < originalLength; ++i) {
+            char c = text[i];
+            byte dirProp;
+            if (c < 0x80) {
+                dirProp = ASCII_DIR_PROPS[c];
+            } else {
+                if (UTF16.isSurrogate(c)) {
+                    return false;       /* getDirProps() handles supplementary code points */
+                }
+                int dir = bdp.getClass(c);
+                if (dir > PDI) {        /* not a class known to this implementation */
+                    dir = ON;
+                }
+                dirProp = (byte)dir;
+                if (removeBidiControls && IsBidiControlChar(c)) {
+                    controlCount++;     /* only LRM is in MASK_LTR_ONLY */
+                }
+            }
+            if ((DirPropFlag(dirProp) & MASK_LTR_ONLY) == 0) {
+                return false;
+            }
+            flags |= DirPropFlag(dirProp);
+            dirProps[i] = dirProp;
+        }
+        lastArabicPos = -1;
+        this.controlCount = controlCount;
+        paras_limit[0] = originalLength;
+        if (isDefaultLevel) {
+            /* the first strong character can only be L */
+            paraLevel = (flags & DirPropFlag(L)) != 0 ? 0 : (byte)(paraLevel & 1);
+        }
+        paras_level[0] = paraLevel;
+        this.flags = flags | DirPropFlagLR(paraLevel);
+        return true;
+    }
+
+    /*
+     * Returns true if text[start..limit[ has only characters with types in MASK_LTR_ONLY
+     * or paragraph separators (B), with default classification.
+     * Each paragraph of such text is resolved to all-LTR at any even paragraph level,
+     * in any reordering mode, so that reordering does not change the text.
+     */
+    static boolean isLTROnly(CharSequence text, int start, int limit)
+    {
+        final int mask = MASK_LTR_ONLY | DirPropFlag(B);
+        UBiDiProps bdp = UBiDiProps.INSTANCE;
+        for (int i = start; i < limit;) {
+            int c = text.charAt(i++);
+            int dir;
+            if (c < 0x80) {
+                dir = ASCII_DIR_PROPS[c];
+            } else {
+                char c2;
+                if (UTF16.isLeadSurrogate((char)c) && i < limit &&
+                        UTF16.isTrailSurrogate(c2 = text.charAt(i))) {
+                    c = Character.toCodePoint((char)c, c2);
+                    ++i;
+                }
+                dir = bdp.getClass(c);
+                if (dir > PDI) {        /* not a class known to this implementation */
+                    dir = ON;
+                }
+            }
+            if (((1 << dir) & mask) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /* determine the paragraph level at position index */
     byte GetParaLevelAt(int pindex)
     {
@@ -2048,15 +2169,24 @@ byte GetParaLevelAt(int pindex)
        encountered strong character, since these will be needed to resolve
        the level of paired brackets.  */
 
+    private BracketData getBracketData() {
+        if (bracketData == null) {
+            bracketData = new BracketData();
+        }
+        return bracketData;
+    }
+
     private void bracketInit(BracketData bd) {
         bd.isoRunLast = 0;
-        bd.isoRuns[0] = new IsoRun();
+        if (bd.isoRuns[0] == null) {
+            bd.isoRuns[0] = new IsoRun();
+        }
         bd.isoRuns[0].start = 0;
         bd.isoRuns[0].limit = 0;
         bd.isoRuns[0].level = GetParaLevelAt(0);
         bd.isoRuns[0].lastStrong = bd.isoRuns[0].lastBase = bd.isoRuns[0].contextDir = (byte)(GetParaLevelAt(0) & 1);
         bd.isoRuns[0].contextPos = 0;
-        bd.openings = new Opening[SIMPLE_OPENINGS_COUNT];
+        /* the openings array and its entries are reused; entries are set when they are added */
         bd.isNumbersSpecial = reorderingMode == REORDER_NUMBERS_SPECIAL ||
                               reorderingMode == REORDER_INVERSE_FOR_NUMBERS_SPECIAL;
     }
@@ -2463,7 +2593,7 @@ private byte resolveExplicitLevels() {
             /* no embeddings, set all levels to the paragraph level */
             /* we still have to perform bracket matching */
             int paraIndex, start, limit;
-            BracketData bracketData = new BracketData();
+            BracketData bracketData = getBracketData();
             bracketInit(bracketData);
             for (paraIndex = 0; paraIndex < paraCount; paraIndex++) {
                 if (paraIndex == 0)
@@ -2500,13 +2630,16 @@ private byte resolveExplicitLevels() {
 
         /* The following stack remembers the embedding level and the ISOLATE flag of level runs.
            stackLast points to its current entry. */
-        short[] stack = new short[MAX_EXPLICIT_LEVEL + 2];  /* we never push anything >= MAX_EXPLICIT_LEVEL
-                                                               but we need one more entry as base */
+        if (explicitStack == null) {
+            explicitStack = new short[MAX_EXPLICIT_LEVEL + 2];  /* we never push anything >= MAX_EXPLICIT_LEVEL
+                                                                   but we need one more entry as base */
+        }
+        short[] stack = explicitStack;
         int stackLast = 0;
         int overflowIsolateCount = 0;
         int overflowEmbeddingCount = 0;
         int validIsolateCount = 0;
-        BracketData bracketData = new BracketData();
+        BracketData bracketData = getBracketData();
         bracketInit(bracketData);
         stack[0] = level;       /* initialize base entry to para level, no override, no isolate */
 
@@ -3403,7 +3536,11 @@ private byte firstL_R_AL_EN_AN() {
     private void resolveImplicitLevels(int start, int limit, short sor, short eor)
     {
         byte dirProp;
-        LevState levState = new LevState();
+        if (levState == null) {
+            levState = new LevState();
+        }
+        /* all fields are initialized below */
+        LevState levState = this.levState;
         int i, start1, start2;
         short oldStateImp, stateImp, actionImp;
         short gprop, resProp, cell;
@@ -3717,8 +3854,7 @@ void setParaRunsOnly(char[] parmText, byte parmParaLevel) {
         /* we cannot access directly levels since it is not yet set if
          * direction is not MIXED
          */
-        saveLevels = new byte[this.length];
-        System.arraycopy(getLevels(), 0, saveLevels, 0, this.length);
+        saveLevels = getLevels();
         saveTrailingWSStart = trailingWSStart;
 
         /* FOOD FOR THOUGHT: instead of writing the visual text, we could use
@@ -3758,8 +3894,12 @@ void setParaRunsOnly(char[] parmText, byte parmParaLevel) {
         if (addedRuns > 0) {
             getRunsMemory(oldRunCount + addedRuns);
             if (runCount == 1) {
-                /* because we switch from UBiDi.simpleRuns to UBiDi.runs */
-                runsMemory[0] = runs[0];
+                /* because we switch from UBiDi.simpleRuns to UBiDi.runs;
+                 * copy rather than share, simpleRuns[0] is reused later */
+                if (runsMemory[0] == null) {
+                    runsMemory[0] = new BidiRun();
+                }
+                runsMemory[0].copyFrom(runs[0]);
             } else {
                 System.arraycopy(runs, 0, runsMemory, 0, runCount);
             }
@@ -3921,9 +4061,70 @@ public void setPara(String text, byte paraLevel, byte[] embeddingLevels)
     {
         if (text == null) {
             setPara(new char[0], paraLevel, embeddingLevels);
-        } else {
+        } else if (reorderingMode == REORDER_RUNS_ONLY) {
             setPara(text.toCharArray(), paraLevel, embeddingLevels);
+        } else {
+            /* copy the text into the reused buffer rather than into a new array */
+            int textLength = text.length();
+            char[] chars = getTextMemory(textLength);
+            text.getChars(0, textLength, chars, 0);
+            setPara(chars, textLength, paraLevel, embeddingLevels);
+        }
+    }
+
+    /**
+     * Perform the Unicode Bidi algorithm on a part of a character array.
+     * This is the same as <code>setPara(char[], byte, byte[])</code>
+     * for the characters <code>chars[start..limit-1]</code>;
+     * all indexes of the <code>Bidi</code> object are relative to <code>start</code>.
+     *
+     * <p>The characters are copied into a buffer which this <code>Bidi</code> object
+     * keeps and reuses for subsequent paragraphs, like its other internal arrays.
+     * Repeated calls with texts that are not longer than earlier ones
+     * therefore do not allocate memory for the text, directional properties or levels.
+     * A reference to <code>chars</code> is not stored, and the caller may modify
+     * or reuse the array after this call.
+     *
+     * @param chars contains the text that the Bidi algorithm will be performed on
+     * @param start the index of the first character of the text in <code>chars</code>
+     * @param limit the index after the last character of the text in <code>chars</code>
+     * @param paraLevel specifies the default level for the text;
+     *        see <code>setPara(char[], byte, byte[])</code>
+     * @param embeddingLevels (in) may be used to preset the embedding and
+     *        override levels; see <code>setPara(char[], byte, byte[])</code>.
+     *        If not null, it must have one entry for each character of the text,
+     *        starting at index 0 for <code>chars[start]</code>.
+     *
+     * @throws IllegalArgumentException if the values in embeddingLevels are
+     *         not within the allowed range, or if <code>start</code> and
+     *         <code>limit</code> are not in the range
+     *         <code>0&lt;=start&lt;=limit&lt;=chars.length</code>
+     *
+     * @see #setPara(char[], byte, byte[])
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public void setPara(char[] chars, int start, int limit, byte paraLevel, byte[] embeddingLevels)
+    {
+        verifyRange(limit, 0, chars.length + 1);
+        verifyRange(start, 0, limit + 1);
+        if (reorderingMode == REORDER_RUNS_ONLY) {
+            /* the runs-only algorithm needs its own copy of the text */
+            setPara(Arrays.copyOfRange(chars, start, limit), paraLevel, embeddingLevels);
+            return;
+        }
+        int textLength = limit - start;
+        char[] text = getTextMemory(textLength);
+        System.arraycopy(chars, start, text, 0, textLength);
+        setPara(text, textLength, paraLevel, embeddingLevels);
+    }
+
+    private char[] getTextMemory(int len)
+    {
+        if (textMemory == null || textMemory.length < len) {
+            textMemory = new char[len];
         }
+        return textMemory;
     }
 
     /**
@@ -4003,14 +4204,20 @@ public void setPara(String text, byte paraLevel, byte[] embeddingLevels)
      * @stable ICU 3.8
      */
     public void setPara(char[] chars, byte paraLevel, byte[] embeddingLevels)
+    {
+        if (chars == null) {
+            chars = new char[0];
+        }
+        setPara(chars, chars.length, paraLevel, embeddingLevels);
+    }
+
+    /* chars[textLength..] are ignored; see getText() */
+    private void setPara(char[] chars, int textLength, byte paraLevel, byte[] embeddingLevels)
     {
         /* check the argument values */
         if (paraLevel < LEVEL_DEFAULT_LTR) {
             verifyRange(paraLevel, 0, MAX_EXPLICIT_LEVEL + 1);
         }
-        if (chars == null) {
-            chars = new char[0];
-        }
 
         /* special treatment for RUNS_ONLY mode */
         if (reorderingMode == REORDER_RUNS_ONLY) {
@@ -4021,7 +4228,7 @@ public void setPara(char[] chars, byte paraLevel, byte[] embeddingLevels)
         /* initialize the Bidi object */
         this.paraBidi = null;          /* mark unfinished setPara */
         this.text = chars;
-        this.length = this.originalLength = this.resultLength = text.length;
+        this.length = this.originalLength = this.resultLength = textLength;
         this.paraLevel = paraLevel;
         this.direction = (byte)(paraLevel & 1);
         this.paraCount = 1;
@@ -4029,9 +4236,9 @@ public void setPara(char[] chars, byte paraLevel, byte[] embeddingLevels)
         /* Allocate zero-length arrays instead of setting to null here; then
          * checks for null in various places can be eliminated.
          */
-        dirProps = new byte[0];
-        levels = new byte[0];
-        runs = new BidiRun[0];
+        dirProps = EMPTY_BYTES;
+        levels = EMPTY_BYTES;
+        runs = EMPTY_RUNS;
         isGoodLogicalToVisualRunsMap = false;
         insertPoints.size = 0;          /* clean up from last call */
         insertPoints.confirmed = 0;     /* clean up from last call */
@@ -4067,7 +4274,9 @@ public void setPara(char[] chars, byte paraLevel, byte[] embeddingLevels)
          */
         getDirPropsMemory(length);
         dirProps = dirPropsMemory;
-        getDirProps();
+        if (!getDirPropsLTROnly()) {
+            getDirProps();
+        }
         /* the processed length may have changed if OPTION_STREAMING is set */
         trailingWSStart = length;  /* the levels[] will reflect the WS run */
 
@@ -4419,7 +4628,7 @@ public byte getDirection()
     public String getTextAsString()
     {
         verifyValidParaOrLine();
-        return new String(text);
+        return new String(text, 0, originalLength);
     }
 
     /**
@@ -4438,6 +4647,10 @@ public String getTextAsString()
     public char[] getText()
     {
         verifyValidParaOrLine();
+        if (text == textMemory) {
+            /* do not expose the buffer which is reused for the next paragraph */
+            return Arrays.copyOf(text, originalLength);
+        }
         return text;
     }
 
@@ -4808,8 +5021,8 @@ public byte getLevelAt(int charIndex)
     /**
      * Get an array of levels for each character.<p>
      *
-     * Note that this method may allocate memory under some
-     * circumstances, unlike <code>getLevelAt()</code>.
+     * Note that this method allocates a new array,
+     * unlike <code>getLevelAt()</code>.
      *
      * @return The levels array for the text,
      *         or <code>null</code> if an error occurs.
@@ -5105,6 +5318,38 @@ public int[] getLogicalMap()
         return BidiLine.getLogicalMap(this);
     }
 
+    /**
+     * Get a logical-to-visual index map for the characters in the
+     * <code>Bidi</code> (paragraph or line) object, written into a caller-provided array.
+     * This is the same as <code>getLogicalMap()</code> but does not allocate memory,
+     * so that the array can be reused for many paragraphs.
+     *
+     * @param indexMap receives <code>getProcessedLength()</code> indexes, starting at index 0;
+     *        must have at least that many entries
+     * @return the number of indexes written, which is <code>getProcessedLength()</code>
+     *
+     * @throws IllegalStateException if this call is not preceded by a successful
+     *         call to <code>setPara</code> or <code>setLine</code>
+     * @throws IllegalArgumentException if <code>indexMap</code> is too short
+     *
+     * @see #getLogicalMap()
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int getLogicalMap(int[] indexMap)
+    {
+        /* countRuns() checks successful call to setPara/setLine */
+        countRuns();
+        if (indexMap.length < length) {
+            throw new IllegalArgumentException("indexMap has " + indexMap.length +
+                                               " entries but needs " + length);
+        }
+        if (length > 0) {
+            BidiLine.getLogicalMap(this, indexMap);
+        }
+        return length;
+    }
+
     /**
      * Get a visual-to-logical index map (array) for the characters in the
      * <code>Bidi</code> (paragraph or line) object.
@@ -5147,6 +5392,48 @@ public int[] getVisualMap()
         return BidiLine.getVisualMap(this);
     }
 
+    /**
+     * Get a visual-to-logical index map for the characters in the
+     * <code>Bidi</code> (paragraph or line) object, written into a caller-provided array.
+     * This is the same as <code>getVisualMap()</code> but does not allocate memory
+     * except for a work buffer that is kept for reuse when Bidi controls are removed,
+     * so that the array can be reused for many paragraphs.
+     *
+     * @param indexMap receives <code>getResultLength()</code> indexes, starting at index 0;
+     *        must have at least that many entries
+     * @return the number of indexes written, which is <code>getResultLength()</code>
+     *
+     * @throws IllegalStateException if this call is not preceded by a successful
+     *         call to <code>setPara</code> or <code>setLine</code>
+     * @throws IllegalArgumentException if <code>indexMap</code> is too short
+     *
+     * @see #getVisualMap()
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int getVisualMap(int[] indexMap)
+    {
+        /* countRuns() checks successful call to setPara/setLine */
+        countRuns();
+        if (indexMap.length < resultLength) {
+            throw new IllegalArgumentException("indexMap has " + indexMap.length +
+                                               " entries but needs " + resultLength);
+        }
+        if (resultLength > 0) {
+            if (indexMap.length >= length) {
+                BidiLine.getVisualMap(this, indexMap);
+            } else {
+                /* the map is built with one entry per character before removing controls */
+                if (visualMapMemory == null || visualMapMemory.length < length) {
+                    visualMapMemory = new int[length];
+                }
+                BidiLine.getVisualMap(this, visualMapMemory);
+                System.arraycopy(visualMapMemory, 0, indexMap, 0, resultLength);
+            }
+        }
+        return resultLength;
+    }
+
     /**
      * This is a convenience method that does not use a <code>Bidi</code> object.
      * It is intended to be used for when an application has determined the levels
@@ -5408,9 +5695,7 @@ public Bidi(char[] text,
         if (textStart == 0 && paragraphLength == text.length) {
             setPara(text, paraLvl, paraEmbeddings);
         } else {
-            char[] paraText = new char[paragraphLength];
-            System.arraycopy(text, textStart, paraText, 0, paragraphLength);
-            setPara(paraText, paraLvl, paraEmbeddings);
+            setPara(text, textStart, textStart + paragraphLength, paraLvl, paraEmbeddings);
         }
     }
 
@@ -5760,6 +6045,44 @@ public String writeReordered(int options)
         return BidiWriter.writeReordered(this, options);
     }
 
+    /**
+     * Take a <code>Bidi</code> object containing the reordering
+     * information for a piece of text (one or more paragraphs) set by
+     * <code>setPara()</code> or for a line of text set by <code>setLine()</code>
+     * and append a reordered string to the destination.
+     * This is the same as <code>writeReordered(int)</code> but writes the runs
+     * directly to <code>dest</code>, without creating a string for the result
+     * or for any run, so that a <code>StringBuilder</code> can be reused for many paragraphs.
+     *
+     * @param options A bit set of options for the reordering that control
+     *                how the reordered text is written;
+     *                see <code>writeReordered(int)</code>.
+     * @param dest A buffer for the reordered text. Must not be null.
+     * @return dest with the reordered text appended.
+     *
+     * @throws IllegalStateException if this call is not preceded by a successful
+     *         call to <code>setPara</code> or <code>setLine</code>
+     * @throws com.ibm.icu.util.ICUUncheckedIOException if appending to dest throws an IOException
+     *
+     * @see #writeReordered(int)
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public <A extends Appendable> A writeReordered(int options, A dest)
+    {
+        verifyValidParaOrLine();
+        if (length == 0) {
+            /* nothing to do */
+            return dest;
+        }
+        try {
+            BidiWriter.writeReordered(this, options, dest);
+        } catch (IOException e) {
+            throw new ICUUncheckedIOException(e);
+        }
+        return dest;
+    }
+
     /**
      * Reverse a Right-To-Left run of Unicode text.
      *
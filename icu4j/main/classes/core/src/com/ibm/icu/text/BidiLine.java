@@ -267,12 +267,8 @@ static byte[] getLevels(Bidi bidi)
             /* this new levels array is set for the line and reflects the WS run */
             bidi.trailingWSStart = length;
         }
-        if (length < bidi.levels.length) {
-            byte[] levels = new byte[length];
-            System.arraycopy(bidi.levels, 0, levels, 0, length);
-            return levels;
-        }
-        return bidi.levels;
+        /* the levels memory is reused by the next setPara(), so return a copy */
+        return Arrays.copyOf(bidi.levels, length);
     }
 
     static BidiRun getLogicalRun(Bidi bidi, int logicalPosition)
@@ -324,7 +320,7 @@ static void getSingleRun(Bidi bidi, byte level) {
         bidi.runCount = 1;
 
         /* fill and reorder the single run */
-        bidi.runs[0] = new BidiRun(0, bidi.length, level);
+        bidi.runs[0].set(0, bidi.length, level);
     }
 
     /* reorder the runs array (L2) ---------------------------------------------- */
@@ -475,6 +471,15 @@ static int getRunFromLogicalIndex(Bidi bidi, int logicalIndex) {
      * If option OPTION_REMOVE_CONTROLS is set, insertRemove will contain the
      * negative number of BiDi control characters within this run.
      */
+    /* reuse the run objects from previous paragraphs */
+    private static void setRun(BidiRun[] runs, int index, int start, int limit, byte level) {
+        if (runs[index] == null) {
+            runs[index] = new BidiRun(start, limit, level);
+        } else {
+            runs[index].set(start, limit, level);
+        }
+    }
+
     static void getRuns(Bidi bidi) {
         /*
          * This method returns immediately if the runs are already set. This
@@ -563,13 +568,13 @@ static void getRuns(Bidi bidi) {
                     while (++i < limit && levels[i] == level) {}
 
                     /* i is another run limit */
-                    runs[runIndex] = new BidiRun(start, i - start, level);
+                    setRun(runs, runIndex, start, i - start, level);
                     ++runIndex;
                 } while (i < limit);
 
                 if (limit < length) {
                     /* there is a separate WS run */
-                    runs[runIndex] = new BidiRun(limit, length - limit, bidi.paraLevel);
+                    setRun(runs, runIndex, limit, length - limit, bidi.paraLevel);
                     /* For the trailing WS run, bidi.paraLevel is ok even
                        if contextual multiple paragraphs.                   */
                     if (bidi.paraLevel < minLevel) {
@@ -1015,13 +1020,20 @@ else if (bidi.controlCount > 0) {
     }
 
     static int[] getLogicalMap(Bidi bidi)
+    {
+        int[] indexMap = new int[bidi.length];
+        getLogicalMap(bidi, indexMap);
+        return indexMap;
+    }
+
+    /* indexMap must have at least bidi.length entries */
+    static void getLogicalMap(Bidi bidi, int[] indexMap)
     {
         /* fill a logical-to-visual index map using the runs[] */
         BidiRun[] runs = bidi.runs;
         int logicalStart, visualStart, logicalLimit, visualLimit;
-        int[] indexMap = new int[bidi.length];
         if (bidi.length > bidi.resultLength) {
-            Arrays.fill(indexMap, Bidi.MAP_NOWHERE);
+            Arrays.fill(indexMap, 0, bidi.length, Bidi.MAP_NOWHERE);
         }
 
         visualStart = 0;
@@ -1102,17 +1114,31 @@ else if (bidi.controlCount > 0) {
                 }
             }
         }
-        return indexMap;
     }
 
     static int[] getVisualMap(Bidi bidi)
     {
-        /* fill a visual-to-logical index map using the runs[] */
-        BidiRun[] runs = bidi.runs;
-        int logicalStart, visualStart, visualLimit;
         int allocLength = bidi.length > bidi.resultLength ? bidi.length
                                                           : bidi.resultLength;
         int[] indexMap = new int[allocLength];
+        getVisualMap(bidi, indexMap);
+        if (allocLength == bidi.resultLength) {
+            return indexMap;
+        }
+        int[] newMap = new int[bidi.resultLength];
+        System.arraycopy(indexMap, 0, newMap, 0, bidi.resultLength);
+        return newMap;
+    }
+
+    /*
+     * indexMap must have at least max(bidi.length, bidi.resultLength) entries;
+     * the first bidi.resultLength entries are the result.
+     */
+    static void getVisualMap(Bidi bidi, int[] indexMap)
+    {
+        /* fill a visual-to-logical index map using the runs[] */
+        BidiRun[] runs = bidi.runs;
+        int logicalStart, visualStart, visualLimit;
 
         visualStart = 0;
         int idx = 0;
@@ -1201,12 +1227,6 @@ else if (bidi.controlCount > 0) {
                 }
             }
         }
-        if (allocLength == bidi.resultLength) {
-            return indexMap;
-        }
-        int[] newMap = new int[bidi.resultLength];
-        System.arraycopy(indexMap, 0, newMap, 0, bidi.resultLength);
-        return newMap;
     }
 
     static int[] invertMap(int[] srcMap)
@@ -3,7 +3,11 @@
 
 package com.ibm.icu.text;
 
+import java.io.IOException;
+
 import com.ibm.icu.lang.UCharacter;
+import com.ibm.icu.lang.UCharacterDirection;
+import com.ibm.icu.util.ICUUncheckedIOException;
 
 /**
  * Bidi Layout Transformation Engine.
@@ -103,6 +107,10 @@ public enum Mirroring {
     private String text;
     private int reorderingOptions;
     private int shapingOptions;
+    /* The shapers used last, and their options; reused by later calls with
+       the same options. At most two are in use per transformation. */
+    private ArabicShaping shaper, otherShaper;
+    private int shaperOptions, otherShaperOptions;
 
     /**
      * <code>{@link BidiTransform}</code> default constructor.
@@ -227,14 +235,109 @@ public String transform(CharSequence text,
             throw new IllegalArgumentException();
         }
         this.text = text.toString();
+        transform(inParaLevel, inOrder, outParaLevel, outOrder, doMirroring, shapingOptions);
+        return this.text;
+    }
+
+    /**
+     * Performs the transformation of
+     * <code>{@link #transform(CharSequence, byte, Order, byte, Order, Mirroring, int)}</code>
+     * one paragraph at a time, and appends the result to <code>dest</code>.
+     * <p>
+     * Each paragraph is shaped and reordered separately, and is appended to
+     * <code>dest</code> before the next one is processed, so that the memory
+     * needed does not grow with the length of the text. The internal
+     * <code>{@link Bidi}</code> object is reused for all paragraphs.
+     * <p>
+     * Unlike with the String version, paragraph separators (as in
+     * <code>{@link Bidi#setPara(String, byte, byte[])}</code>) are copied
+     * to the output unchanged and the paragraphs remain in their original
+     * order, as with <code>{@link Bidi#orderParagraphsLTR}(true)</code>.
+     * A default input level is resolved for each paragraph from its first
+     * strong directional character.
+     *
+     * @param text An input character sequence that the Bidi layout
+     *        transformations will be performed on.
+     * @param inParaLevel A base embedding level of the input; see
+     *        <code>{@link #transform(CharSequence, byte, Order, byte, Order, Mirroring, int)}</code>.
+     * @param inOrder An order of the input, which can be one of the
+     *        <code>{@link Order}</code> values.
+     * @param outParaLevel A base embedding level of the output; see
+     *        <code>{@link #transform(CharSequence, byte, Order, byte, Order, Mirroring, int)}</code>.
+     * @param outOrder An order of the output, which can be one of the
+     *        <code>{@link Order}</code> values.
+     * @param doMirroring Indicates whether or not to perform character
+     *        mirroring, and can accept one of the
+     *        <code>{@link Mirroring}</code> values.
+     * @param shapingOptions Arabic digit and letter shaping options defined in
+     *        the <code>{@link ArabicShaping}</code> documentation.
+     * @param dest The destination Appendable for the transformed text.
+     * @return dest
+     * @throws IllegalArgumentException if <code>text</code>,
+     *        <code>inOrder</code>, <code>outOrder</code>,
+     *        <code>doMirroring</code> or <code>dest</code> is <code>null</code>.
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public <A extends Appendable> A transform(CharSequence text,
+            byte inParaLevel, Order inOrder,
+            byte outParaLevel, Order outOrder,
+            Mirroring doMirroring, int shapingOptions, A dest)
+    {
+        if (text == null || inOrder == null || outOrder == null || doMirroring == null ||
+                dest == null) {
+            throw new IllegalArgumentException();
+        }
+        try {
+            int length = text.length();
+            int start = 0;
+            while (start < length) {
+                int limit = start;
+                while (limit < length && !isParagraphSeparator(text.charAt(limit))) {
+                    ++limit;
+                }
+                int separatorLimit = limit;
+                if (separatorLimit < length) {
+                    if (text.charAt(separatorLimit++) == '\r' &&
+                            separatorLimit < length && text.charAt(separatorLimit) == '\n') {
+                        ++separatorLimit;
+                    }
+                }
+                if (start < limit) {
+                    this.text = text.subSequence(start, limit).toString();
+                    transform(inParaLevel, inOrder, outParaLevel, outOrder, doMirroring, shapingOptions);
+                    dest.append(this.text);
+                }
+                dest.append(text, limit, separatorLimit);
+                start = separatorLimit;
+            }
+        } catch (IOException e) {
+            throw new ICUUncheckedIOException(e);
+        } finally {
+            this.text = null;
+        }
+        return dest;
+    }
 
+    /**
+     * Transforms <code>{@link #text}</code> in place.
+     */
+    private void transform(byte inParaLevel, Order inOrder,
+            byte outParaLevel, Order outOrder,
+            Mirroring doMirroring, int shapingOptions)
+    {
         byte[] levels = {inParaLevel, outParaLevel};
         resolveBaseDirection(levels);
 
+        if (isUnchangedLTR(levels, shapingOptions)) {
+            return;
+        }
         ReorderingScheme currentScheme = findMatchingScheme(levels[0], inOrder,
                 levels[1], outOrder);
         if (currentScheme != null) {
-            this.bidi = new Bidi();
+            if (this.bidi == null) {
+                this.bidi = new Bidi();
+            }
             this.reorderingOptions = Mirroring.ON.equals(doMirroring)
                     ? Bidi.DO_MIRRORING : Bidi.REORDER_DEFAULT;
 
@@ -243,7 +346,35 @@ public String transform(CharSequence text,
             this.shapingOptions = shapingOptions & ~ArabicShaping.TEXT_DIRECTION_MASK;
             currentScheme.doTransform(this);
         }
-        return this.text;
+    }
+
+    /**
+     * Fast path for the most common case: left-to-right text between
+     * left-to-right ordering schemes.
+     * Logical and visual order are the same for such text, nothing is mirrored,
+     * and shaping does not change it if it has no digit shaping and no Arabic
+     * characters for letter shaping.
+     *
+     * @return true if the transformation would return the text unchanged
+     */
+    private boolean isUnchangedLTR(byte[] levels, int shapingOptions) {
+        if (!IsLTR(levels[0]) || !IsLTR(levels[1]) ||
+                (shapingOptions & ArabicShaping.DIGITS_MASK) != ArabicShaping.DIGITS_NOOP) {
+            return false;
+        }
+        if ((shapingOptions & ArabicShaping.LETTERS_MASK) != ArabicShaping.LETTERS_NOOP) {
+            for (int i = 0; i < text.length(); ++i) {
+                if (text.charAt(i) >= 0x600) {
+                    return false;   /* possibly Arabic */
+                }
+            }
+        }
+        return Bidi.isLTROnly(text, 0, text.length());
+    }
+
+    private static boolean isParagraphSeparator(char c) {
+        return c < 0x80 ? (c == '\n' || c == '\r' || (0x1c <= c && c <= 0x1e))
+                : UCharacter.getDirection(c) == UCharacterDirection.BLOCK_SEPARATOR;
     }
 
     /**
@@ -366,14 +497,29 @@ private void shapeArabic(int digitsDir, int lettersDir) {
      */
     private void shapeArabic(int options) {
         if (options != 0) {
-            ArabicShaping shaper = new ArabicShaping(options);
             try {
-                text = shaper.shape(text);
+                text = getShaper(options).shape(text);
             } catch(ArabicShapingException e) {
             }
         }
     }
 
+    private ArabicShaping getShaper(int options) {
+        if (shaper == null || shaperOptions != options) {
+            ArabicShaping s = otherShaper;
+            int o = otherShaperOptions;
+            otherShaper = shaper;
+            otherShaperOptions = shaperOptions;
+            if (s != null && o == options) {
+                shaper = s;
+            } else {
+                shaper = new ArabicShaping(options);
+            }
+            shaperOptions = options;
+        }
+        return shaper;
+    }
+
     private enum ReorderingScheme {
         LOG_LTR_TO_VIS_LTR {
             @Override
@@ -12,7 +12,10 @@
 
 package com.ibm.icu.text;
 
+import java.io.IOException;
+
 import com.ibm.icu.lang.UCharacter;
+import com.ibm.icu.util.ICUUncheckedIOException;
 
 final class BidiWriter {
 
@@ -30,6 +33,14 @@ private static boolean IsCombining(int type)
                  1<<UCharacter.ENCLOSING_MARK)) != 0);
     }
 
+    private static void appendCodePoint(Appendable dest, int c) throws IOException {
+        if (c <= 0xffff) {
+            dest.append((char)c);
+        } else {
+            dest.append(UTF16.getLeadSurrogate(c)).append(UTF16.getTrailSurrogate(c));
+        }
+    }
+
     /*
      * When we have OUTPUT_REVERSE set on writeReordered(), then we
      * semantically write RTL runs in reverse and later reverse them again.
@@ -38,67 +49,73 @@ private static boolean IsCombining(int type)
      * since the implicit second reversal must not do it.
      * It looks strange to do mirroring in LTR output, but it is only because
      * we are writing RTL output in reverse.
+     *
+     * The runs are appended to dest directly, without intermediate strings.
      */
-    private static String doWriteForward(String src, int options) {
+    private static void doWriteForward(char[] text, int start, int limit,
+                                       int options, Appendable dest) throws IOException
+    {
         /* optimize for several combinations of options */
         switch(options&(Bidi.REMOVE_BIDI_CONTROLS|Bidi.DO_MIRRORING)) {
         case 0: {
-            /* simply return the LTR run */
-            return src;
+            /* simply copy the LTR run */
+            for (int i = start; i < limit; ++i) {
+                dest.append(text[i]);
+            }
+            break;
         }
         case Bidi.DO_MIRRORING: {
-            StringBuffer dest = new StringBuffer(src.length());
-
             /* do mirroring */
-            int i=0;
+            int i = start;
             int c;
 
-            do {
-                c = UTF16.charAt(src, i);
-                i += UTF16.getCharCount(c);
-                UTF16.append(dest, UCharacter.getMirror(c));
-            } while(i < src.length());
-            return dest.toString();
+            while (i < limit) {
+                c = Character.codePointAt(text, i, limit);
+                i += Character.charCount(c);
+                appendCodePoint(dest, UCharacter.getMirror(c));
+            }
+            break;
         }
         case Bidi.REMOVE_BIDI_CONTROLS: {
-            StringBuilder dest = new StringBuilder(src.length());
-
             /* copy the LTR run and remove any Bidi control characters */
-            int i = 0;
             char c;
-            do {
-                c = src.charAt(i++);
+            for (int i = start; i < limit; ++i) {
+                c = text[i];
                 if(!Bidi.IsBidiControlChar(c)) {
                     dest.append(c);
                 }
-            } while(i < src.length());
-            return dest.toString();
+            }
+            break;
         }
         default: {
-            StringBuffer dest = new StringBuffer(src.length());
-
             /* remove Bidi control characters and do mirroring */
-            int i = 0;
+            int i = start;
             int c;
-            do {
-                c = UTF16.charAt(src, i);
-                i += UTF16.getCharCount(c);
+            while (i < limit) {
+                c = Character.codePointAt(text, i, limit);
+                i += Character.charCount(c);
                 if(!Bidi.IsBidiControlChar(c)) {
-                    UTF16.append(dest, UCharacter.getMirror(c));
+                    appendCodePoint(dest, UCharacter.getMirror(c));
                 }
-            } while(i < src.length());
-            return dest.toString();
+            }
+            break;
         }
         } /* end of switch */
     }
 
-    private static String doWriteForward(char[] text, int start, int limit,
-                                         int options)
-    {
-        return doWriteForward(new String(text, start, limit - start), options);
+    static String writeReverse(String src, int options) {
+        StringBuilder dest = new StringBuilder(src.length());
+        try {
+            doWriteReverse(src.toCharArray(), 0, src.length(), options, dest);
+        } catch (IOException e) {
+            throw new ICUUncheckedIOException(e);  // Cannot happen with a StringBuilder.
+        }
+        return dest.toString();
     }
 
-    static String writeReverse(String src, int options) {
+    static void doWriteReverse(char[] text, int start, int limit, int options,
+                               Appendable dest) throws IOException
+    {
         /*
          * RTL run -
          *
@@ -117,7 +134,7 @@ static String writeReverse(String src, int options) {
          * whether characters should be replaced by their mirror-image
          * equivalent Unicode characters.
          */
-        StringBuffer dest = new StringBuffer(src.length());
+        int srcLength = limit;
 
         /* optimize for several combinations of options */
         switch (options &
@@ -131,25 +148,22 @@ static String writeReverse(String src, int options) {
              * run will have the same length as the source run,
              * and there is no mirroring and no keeping combining characters
              * with their base characters.
-             *
-             * XXX: or dest = UTF16.reverse(new StringBuffer(src));
              */
 
-            int srcLength = src.length();
-
             /* preserve character integrity */
-            do {
+            while (srcLength > start) {
                 /* i is always after the last code unit known to need to be kept
                  *  in this segment */
                 int i = srcLength;
 
                 /* collect code units for one base character */
-                srcLength -= UTF16.getCharCount(UTF16.charAt(src,
-                                                             srcLength - 1));
+                srcLength -= Character.charCount(Character.codePointBefore(text, srcLength, start));
 
                 /* copy this base character */
-                dest.append(src.substring(srcLength, i));
-            } while(srcLength > 0);
+                for (int j = srcLength; j < i; ++j) {
+                    dest.append(text[j]);
+                }
+            }
             break;
 
         case Bidi.KEEP_BASE_COMBINING:
@@ -160,10 +174,9 @@ static String writeReverse(String src, int options) {
              * We do need to keep combining characters with their base
              * characters.
              */
-            srcLength = src.length();
 
             /* preserve character integrity */
-            do {
+            while (srcLength > start) {
                 /* i is always after the last code unit known to need to be kept
                  *  in this segment */
                 int c;
@@ -172,13 +185,15 @@ static String writeReverse(String src, int options) {
                 /* collect code units and modifier letters for one base
                  * character */
                 do {
-                    c = UTF16.charAt(src, srcLength - 1);
-                    srcLength -= UTF16.getCharCount(c);
-                } while(srcLength > 0 && IsCombining(UCharacter.getType(c)));
+                    c = Character.codePointBefore(text, srcLength, start);
+                    srcLength -= Character.charCount(c);
+                } while(srcLength > start && IsCombining(UCharacter.getType(c)));
 
                 /* copy this "user character" */
-                dest.append(src.substring(srcLength, i));
-            } while(srcLength > 0);
+                for (int j = srcLength; j < i; ++j) {
+                    dest.append(text[j]);
+                }
+            }
             break;
 
         default:
@@ -189,22 +204,21 @@ static String writeReverse(String src, int options) {
              * keep combining characters with their base characters
              * as requested.
              */
-            srcLength = src.length();
 
             /* preserve character integrity */
-            do {
+            while (srcLength > start) {
                 /* i is always after the last code unit known to need to be kept
                  *  in this segment */
                 int i = srcLength;
 
                 /* collect code units for one base character */
-                int c = UTF16.charAt(src, srcLength - 1);
-                srcLength -= UTF16.getCharCount(c);
+                int c = Character.codePointBefore(text, srcLength, start);
+                srcLength -= Character.charCount(c);
                 if ((options & Bidi.KEEP_BASE_COMBINING) != 0) {
                     /* collect modifier letters for this base character */
-                    while(srcLength > 0 && IsCombining(UCharacter.getType(c))) {
-                        c = UTF16.charAt(src, srcLength - 1);
-                        srcLength -= UTF16.getCharCount(c);
+                    while(srcLength > start && IsCombining(UCharacter.getType(c))) {
+                        c = Character.codePointBefore(text, srcLength, start);
+                        srcLength -= Character.charCount(c);
                     }
                 }
 
@@ -219,26 +233,43 @@ static String writeReverse(String src, int options) {
                 if((options & Bidi.DO_MIRRORING) != 0) {
                     /* mirror only the base character */
                     c = UCharacter.getMirror(c);
-                    UTF16.append(dest, c);
-                    j += UTF16.getCharCount(c);
+                    appendCodePoint(dest, c);
+                    j += Character.charCount(c);
                 }
-                dest.append(src.substring(j, i));
-            } while(srcLength > 0);
+                for (; j < i; ++j) {
+                    dest.append(text[j]);
+                }
+            }
             break;
         } /* end of switch */
+    }
 
+    static String writeReordered(Bidi bidi, int options)
+    {
+        StringBuilder dest = new StringBuilder(
+                (options & Bidi.INSERT_LRM_FOR_NUMERIC) != 0 ? bidi.length * 2 : bidi.length);
+        try {
+            writeReordered(bidi, options, dest);
+        } catch (IOException e) {
+            throw new ICUUncheckedIOException(e);  // Cannot happen with a StringBuilder.
+        }
         return dest.toString();
     }
 
-    static String doWriteReverse(char[] text, int start, int limit, int options)
+    /*
+     * Get the logical limit of a visual run, like getVisualRun() but without
+     * creating a BidiRun object.
+     */
+    private static int getVisualRunLimit(Bidi bidi, int runIndex)
     {
-        return writeReverse(new String(text, start, limit - start), options);
+        BidiRun[] runs = bidi.runs;
+        return runs[runIndex].start + runs[runIndex].limit -
+                (runIndex > 0 ? runs[runIndex - 1].limit : 0);
     }
 
-    static String writeReordered(Bidi bidi, int options)
+    static void writeReordered(Bidi bidi, int options, Appendable dest) throws IOException
     {
         int run, runCount;
-        StringBuilder dest;
         char[] text = bidi.text;
         runCount = bidi.countRuns();
 
@@ -268,8 +299,6 @@ static String writeReordered(Bidi bidi, int options)
             (bidi.reorderingMode != Bidi.REORDER_RUNS_ONLY)) {
             options &= ~Bidi.INSERT_LRM_FOR_NUMERIC;
         }
-        dest = new StringBuilder((options & Bidi.INSERT_LRM_FOR_NUMERIC) != 0 ?
-                                 bidi.length * 2 : bidi.length);
         /*
          * Iterate through all visual runs and copy the run text segments to
          * the destination, according to the options.
@@ -284,14 +313,15 @@ static String writeReordered(Bidi bidi, int options)
             if ((options & Bidi.INSERT_LRM_FOR_NUMERIC) == 0) {
                 /* do not insert Bidi controls */
                 for (run = 0; run < runCount; ++run) {
-                    BidiRun bidiRun = bidi.getVisualRun(run);
+                    BidiRun bidiRun = bidi.runs[run];
+                    int runStart = bidiRun.start, runLimit = getVisualRunLimit(bidi, run);
                     if (bidiRun.isEvenRun()) {
-                        dest.append(doWriteForward(text, bidiRun.start,
-                                                   bidiRun.limit,
-                                                   options & ~Bidi.DO_MIRRORING));
+                        doWriteForward(text, runStart,
+                                       runLimit,
+                                       options & ~Bidi.DO_MIRRORING, dest);
                      } else {
-                        dest.append(doWriteReverse(text, bidiRun.start,
-                                                   bidiRun.limit, options));
+                        doWriteReverse(text, runStart,
+                                       runLimit, options, dest);
                      }
                 }
             } else {
@@ -301,7 +331,8 @@ static String writeReordered(Bidi bidi, int options)
                 int markFlag;
 
                 for (run = 0; run < runCount; ++run) {
-                    BidiRun bidiRun = bidi.getVisualRun(run);
+                    BidiRun bidiRun = bidi.runs[run];
+                    int runStart = bidiRun.start, runLimit = getVisualRunLimit(bidi, run);
                     markFlag=0;
                     /* check if something relevant in insertPoints */
                     markFlag = bidi.runs[run].insertRemove;
@@ -310,7 +341,7 @@ static String writeReordered(Bidi bidi, int options)
                     }
                     if (bidiRun.isEvenRun()) {
                         if (bidi.isInverse() &&
-                                dirProps[bidiRun.start] != Bidi.L) {
+                                dirProps[runStart] != Bidi.L) {
                             markFlag |= Bidi.LRM_BEFORE;
                         }
                         if ((markFlag & Bidi.LRM_BEFORE) != 0) {
@@ -323,12 +354,12 @@ static String writeReordered(Bidi bidi, int options)
                         if (uc != 0) {
                             dest.append(uc);
                         }
-                        dest.append(doWriteForward(text,
-                                                   bidiRun.start, bidiRun.limit,
-                                                   options & ~Bidi.DO_MIRRORING));
+                        doWriteForward(text,
+                                       runStart, runLimit,
+                                       options & ~Bidi.DO_MIRRORING, dest);
 
                         if (bidi.isInverse() &&
-                             dirProps[bidiRun.limit - 1] != Bidi.L) {
+                             dirProps[runLimit - 1] != Bidi.L) {
                             markFlag |= Bidi.LRM_AFTER;
                         }
                         if ((markFlag & Bidi.LRM_AFTER) != 0) {
@@ -344,7 +375,7 @@ static String writeReordered(Bidi bidi, int options)
                     } else { /* RTL run */
                         if (bidi.isInverse() &&
                             !bidi.testDirPropFlagAt(MASK_R_AL,
-                                                    bidiRun.limit - 1)) {
+                                                    runLimit - 1)) {
                             markFlag |= Bidi.RLM_BEFORE;
                         }
                         if ((markFlag & Bidi.LRM_BEFORE) != 0) {
@@ -357,11 +388,11 @@ static String writeReordered(Bidi bidi, int options)
                         if (uc != 0) {
                             dest.append(uc);
                         }
-                        dest.append(doWriteReverse(text, bidiRun.start,
-                                                   bidiRun.limit, options));
+                        doWriteReverse(text, runStart,
+                                       runLimit, options, dest);
 
                         if(bidi.isInverse() &&
-                                (MASK_R_AL & Bidi.DirPropFlag(dirProps[bidiRun.start])) == 0) {
+                                (MASK_R_AL & Bidi.DirPropFlag(dirProps[runStart])) == 0) {
                             markFlag |= Bidi.RLM_AFTER;
                         }
                         if ((markFlag & Bidi.LRM_AFTER) != 0) {
@@ -382,14 +413,15 @@ static String writeReordered(Bidi bidi, int options)
             if((options & Bidi.INSERT_LRM_FOR_NUMERIC) == 0) {
                 /* do not insert Bidi controls */
                 for(run = runCount; --run >= 0; ) {
-                    BidiRun bidiRun = bidi.getVisualRun(run);
+                    BidiRun bidiRun = bidi.runs[run];
+                    int runStart = bidiRun.start, runLimit = getVisualRunLimit(bidi, run);
                     if (bidiRun.isEvenRun()) {
-                        dest.append(doWriteReverse(text,
-                                                   bidiRun.start, bidiRun.limit,
-                                                   options & ~Bidi.DO_MIRRORING));
+                        doWriteReverse(text,
+                                       runStart, runLimit,
+                                       options & ~Bidi.DO_MIRRORING, dest);
                     } else {
-                        dest.append(doWriteForward(text, bidiRun.start,
-                                                   bidiRun.limit, options));
+                        doWriteForward(text, runStart,
+                                       runLimit, options, dest);
                     }
                 }
             } else {
@@ -399,34 +431,33 @@ static String writeReordered(Bidi bidi, int options)
 
                 for (run = runCount; --run >= 0; ) {
                     /* reverse output */
-                    BidiRun bidiRun = bidi.getVisualRun(run);
+                    BidiRun bidiRun = bidi.runs[run];
+                    int runStart = bidiRun.start, runLimit = getVisualRunLimit(bidi, run);
                     if (bidiRun.isEvenRun()) {
-                        if (dirProps[bidiRun.limit - 1] != Bidi.L) {
+                        if (dirProps[runLimit - 1] != Bidi.L) {
                             dest.append(LRM_CHAR);
                         }
 
-                        dest.append(doWriteReverse(text, bidiRun.start,
-                                bidiRun.limit, options & ~Bidi.DO_MIRRORING));
+                        doWriteReverse(text, runStart,
+                                       runLimit, options & ~Bidi.DO_MIRRORING, dest);
 
-                        if (dirProps[bidiRun.start] != Bidi.L) {
+                        if (dirProps[runStart] != Bidi.L) {
                             dest.append(LRM_CHAR);
                         }
                     } else {
-                        if ((MASK_R_AL & Bidi.DirPropFlag(dirProps[bidiRun.start])) == 0) {
+                        if ((MASK_R_AL & Bidi.DirPropFlag(dirProps[runStart])) == 0) {
                             dest.append(RLM_CHAR);
                         }
 
-                        dest.append(doWriteForward(text, bidiRun.start,
-                                                   bidiRun.limit, options));
+                        doWriteForward(text, runStart,
+                                       runLimit, options, dest);
 
-                        if ((MASK_R_AL & Bidi.DirPropFlag(dirProps[bidiRun.limit - 1])) == 0) {
+                        if ((MASK_R_AL & Bidi.DirPropFlag(dirProps[runLimit - 1])) == 0) {
                             dest.append(RLM_CHAR);
                         }
                     }
                 }
             }
         }
-
-        return dest.toString();
     }
 }
@@ -84,6 +84,39 @@ public int matches(CharacterIterator text_, int maxLength, int[] lengths, int[]
         return numChars;
     }
 
+    @Override
+    public int matches(int[] codePoints, int start, int limit, int maxLength, int[] lengths,
+            int maxCount, int[] values) {
+        if (start >= limit) {
+            return 0;
+        }
+        BytesTrie bt = new BytesTrie(characters, 0);
+        Result result = bt.first(transform(codePoints[start]));
+        int end = Math.min(limit, start + maxLength);
+        int count = 0;
+        for (int i = start + 1;; ++i) {
+            if (result.hasValue()) {
+                if (count < maxCount) {
+                    if (values != null) {
+                        values[count] = bt.getValue();
+                    }
+                    lengths[count] = i - start;
+                    count++;
+                }
+                if (result == Result.FINAL_VALUE) {
+                    break;
+                }
+            } else if (result == Result.NO_MATCH) {
+                break;
+            }
+            if (i >= end) {
+                break;
+            }
+            result = bt.next(transform(codePoints[i]));
+        }
+        return count;
+    }
+
     @Override
     public int getType() {
         return DictionaryData.TRIE_TYPE_BYTES;
@@ -2,11 +2,13 @@
 // License & terms of use: http://www.unicode.org/copyright.html#License
 package com.ibm.icu.text;
 
+import java.io.OutputStream;
 import java.util.Locale;
 
 import com.ibm.icu.impl.CaseMapImpl;
 import com.ibm.icu.impl.UCaseProps;
 import com.ibm.icu.lang.UCharacter;
+import com.ibm.icu.util.ICUUncheckedIOException;
 import com.ibm.icu.util.ULocale;
 
 /**
@@ -122,6 +124,64 @@ public <A extends Appendable> A apply(
                  Locale locale, CharSequence src, A dest, Edits edits) {
              return CaseMapImpl.toLower(getCaseLocale(locale), internalOptions, src, dest, edits);
          }
+
+        /**
+         * Lowercases a string into a char array and optionally records edits
+         * (see {@link #omitUnchangedText}), without allocating a result string.
+         * Casing is locale-dependent and context-sensitive.
+         * The result may be longer or shorter than the original.
+         *
+         * <p>Returns the length of the full result. If that is greater than dest.length,
+         * then only the first dest.length chars are written; call again with a larger array.
+         * (Preflighting: Call with an empty array to get only the result length.)
+         * Runs of characters with simple one-to-one mappings, including all of ASCII
+         * and most of Latin-1, are mapped in a fast loop without per-character
+         * case properties lookups.
+         *
+         * @param locale    The locale ID. Can be null for {@link Locale#getDefault}.
+         *                  (See {@link ULocale#toLocale}.)
+         * @param src       The original string.
+         * @param dest      A buffer for the result string. Must not be null.
+         * @param edits     Records edits for index mapping, working with styled text,
+         *                  and getting only changes (if any).
+         *                  This function calls edits.reset() first. edits can be null.
+         * @return the length of the result string (or of only the changes).
+         *
+         * @see UCharacter#toLowerCase(Locale, String)
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public int apply(Locale locale, CharSequence src, char[] dest, Edits edits) {
+            return CaseMapImpl.toLower(getCaseLocale(locale), internalOptions, src, dest, edits);
+        }
+
+        /**
+         * Lowercases UTF-8 text and writes the UTF-8 result to dest.
+         * Equivalent to converting src to a String, case-mapping it, and converting the
+         * result back to UTF-8, but ASCII text is mapped byte by byte,
+         * and unchanged spans of the input are copied to dest verbatim.
+         *
+         * <p>Ill-formed UTF-8 sequences are copied unchanged.
+         * If edits is not null, then it is reset and then records the changes,
+         * with lengths in bytes.
+         * An IOException from dest is rethrown as an {@link ICUUncheckedIOException}.
+         *
+         * @param locale    The locale ID. Can be null for {@link Locale#getDefault}.
+         *                  (See {@link ULocale#toLocale}.)
+         * @param src       UTF-8 input bytes
+         * @param start     index of the first input byte
+         * @param limit     index after the last input byte
+         * @param dest      receives the UTF-8 result (or only changes)
+         * @param edits     Records edits for index mapping, working with styled text,
+         *                  and getting only changes (if any); can be null.
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public void applyUTF8(Locale locale, byte[] src, int start, int limit,
+                OutputStream dest, Edits edits) {
+            CaseMapImpl.toLowerUTF8(getCaseLocale(locale), internalOptions,
+                    src, start, limit, dest, edits);
+        }
     }
 
     /**
@@ -182,6 +242,64 @@ public <A extends Appendable> A apply(
                  Locale locale, CharSequence src, A dest, Edits edits) {
              return CaseMapImpl.toUpper(getCaseLocale(locale), internalOptions, src, dest, edits);
          }
+
+        /**
+         * Uppercases a string into a char array and optionally records edits
+         * (see {@link #omitUnchangedText}), without allocating a result string.
+         * Casing is locale-dependent and context-sensitive.
+         * The result may be longer or shorter than the original.
+         *
+         * <p>Returns the length of the full result. If that is greater than dest.length,
+         * then only the first dest.length chars are written; call again with a larger array.
+         * (Preflighting: Call with an empty array to get only the result length.)
+         * Runs of characters with simple one-to-one mappings, including all of ASCII
+         * and most of Latin-1, are mapped in a fast loop without per-character
+         * case properties lookups.
+         *
+         * @param locale    The locale ID. Can be null for {@link Locale#getDefault}.
+         *                  (See {@link ULocale#toLocale}.)
+         * @param src       The original string.
+         * @param dest      A buffer for the result string. Must not be null.
+         * @param edits     Records edits for index mapping, working with styled text,
+         *                  and getting only changes (if any).
+         *                  This function calls edits.reset() first. edits can be null.
+         * @return the length of the result string (or of only the changes).
+         *
+         * @see UCharacter#toUpperCase(Locale, String)
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public int apply(Locale locale, CharSequence src, char[] dest, Edits edits) {
+            return CaseMapImpl.toUpper(getCaseLocale(locale), internalOptions, src, dest, edits);
+        }
+
+        /**
+         * Uppercases UTF-8 text and writes the UTF-8 result to dest.
+         * Equivalent to converting src to a String, case-mapping it, and converting the
+         * result back to UTF-8, but ASCII text is mapped byte by byte,
+         * and unchanged spans of the input are copied to dest verbatim.
+         *
+         * <p>Ill-formed UTF-8 sequences are copied unchanged.
+         * If edits is not null, then it is reset and then records the changes,
+         * with lengths in bytes.
+         * An IOException from dest is rethrown as an {@link ICUUncheckedIOException}.
+         *
+         * @param locale    The locale ID. Can be null for {@link Locale#getDefault}.
+         *                  (See {@link ULocale#toLocale}.)
+         * @param src       UTF-8 input bytes
+         * @param start     index of the first input byte
+         * @param limit     index after the last input byte
+         * @param dest      receives the UTF-8 result (or only changes)
+         * @param edits     Records edits for index mapping, working with styled text,
+         *                  and getting only changes (if any); can be null.
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public void applyUTF8(Locale locale, byte[] src, int start, int limit,
+                OutputStream dest, Edits edits) {
+            CaseMapImpl.toUpperUTF8(getCaseLocale(locale), internalOptions,
+                    src, start, limit, dest, edits);
+        }
     }
 
     /**
@@ -452,5 +570,57 @@ public String apply(CharSequence src) {
          public <A extends Appendable> A apply(CharSequence src, A dest, Edits edits) {
              return CaseMapImpl.fold(internalOptions, src, dest, edits);
          }
+
+        /**
+         * Case-folds a string into a char array and optionally records edits
+         * (see {@link #omitUnchangedText}), without allocating a result string.
+         * The result may be longer or shorter than the original.
+         *
+         * <p>Returns the length of the full result. If that is greater than dest.length,
+         * then only the first dest.length chars are written; call again with a larger array.
+         * (Preflighting: Call with an empty array to get only the result length.)
+         * Runs of characters with simple one-to-one mappings, including all of ASCII
+         * and most of Latin-1, are mapped in a fast loop without per-character
+         * case properties lookups.
+         *
+         * @param src       The original string.
+         * @param dest      A buffer for the result string. Must not be null.
+         * @param edits     Records edits for index mapping, working with styled text,
+         *                  and getting only changes (if any).
+         *                  This function calls edits.reset() first. edits can be null.
+         * @return the length of the result string (or of only the changes).
+         *
+         * @see UCharacter#foldCase(String, int)
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public int apply(CharSequence src, char[] dest, Edits edits) {
+            return CaseMapImpl.fold(internalOptions, src, dest, edits);
+        }
+
+        /**
+         * Case-folds UTF-8 text and writes the UTF-8 result to dest.
+         * Equivalent to converting src to a String, case-mapping it, and converting the
+         * result back to UTF-8, but ASCII text is mapped byte by byte,
+         * and unchanged spans of the input are copied to dest verbatim.
+         *
+         * <p>Ill-formed UTF-8 sequences are copied unchanged.
+         * If edits is not null, then it is reset and then records the changes,
+         * with lengths in bytes.
+         * An IOException from dest is rethrown as an {@link ICUUncheckedIOException}.
+         *
+         * @param src       UTF-8 input bytes
+         * @param start     index of the first input byte
+         * @param limit     index after the last input byte
+         * @param dest      receives the UTF-8 result (or only changes)
+         * @param edits     Records edits for index mapping, working with styled text,
+         *                  and getting only changes (if any); can be null.
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public void applyUTF8(byte[] src, int start, int limit,
+                OutputStream dest, Edits edits) {
+            CaseMapImpl.foldUTF8(internalOptions, src, start, limit, dest, edits);
+        }
     }
 }
@@ -9,6 +9,7 @@
 package com.ibm.icu.text;
 
 import java.text.CharacterIterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.ibm.icu.util.BytesTrie.Result;
 import com.ibm.icu.util.CharsTrie;
@@ -16,10 +17,38 @@
 class CharsDictionaryMatcher extends DictionaryMatcher {
     private CharSequence characters;
 
+    /**
+     * For each BMP code point that starts a word, the trie state after matching it;
+     * null for the others. Built in blocks of 256 code points when first needed.
+     * Matching the first character in the large root branch node is the most expensive
+     * part of looking up words starting at many positions.
+     */
+    private final AtomicReferenceArray<CharsTrie.State[]> firstStates =
+            new AtomicReferenceArray<CharsTrie.State[]>(0x100);
+
     public CharsDictionaryMatcher(CharSequence chars) {
         characters = chars;
     }
 
+    private CharsTrie.State getFirstState(int c) {
+        CharsTrie.State[] block = firstStates.get(c >> 8);
+        if (block == null) {
+            // Racing threads may build equivalent blocks.
+            block = new CharsTrie.State[0x100];
+            CharsTrie uct = new CharsTrie(characters, 0);
+            int start = c & ~0xff;
+            for (int i = 0; i < 0x100; ++i) {
+                if (!UTF16.isSurrogate((char) (start + i)) && uct.first(start + i) != Result.NO_MATCH) {
+                    CharsTrie.State state = new CharsTrie.State();
+                    uct.saveState(state);
+                    block[i] = state;
+                }
+            }
+            firstStates.set(c >> 8, block);
+        }
+        return block[c & 0xff];
+    }
+
     @Override
     public int matches(CharacterIterator text_, int maxLength, int[] lengths, int[] count_, int limit, int[] values) {
         UCharacterIterator text = UCharacterIterator.getInstance(text_);
@@ -63,6 +92,49 @@ public int matches(CharacterIterator text_, int maxLength, int[] lengths, int[]
         return numChars;
     }
 
+    @Override
+    public int matches(int[] codePoints, int start, int limit, int maxLength, int[] lengths,
+            int maxCount, int[] values) {
+        if (start >= limit) {
+            return 0;
+        }
+        CharsTrie uct = new CharsTrie(characters, 0);
+        int c = codePoints[start];
+        Result result;
+        if (0 <= c && c <= 0xffff) {
+            CharsTrie.State state = getFirstState(c);
+            if (state == null) {
+                return 0;
+            }
+            result = uct.resetToState(state).current();
+        } else {
+            result = uct.firstForCodePoint(c);
+        }
+        int end = Math.min(limit, start + maxLength);
+        int count = 0;
+        for (int i = start + 1;; ++i) {
+            if (result.hasValue()) {
+                if (count < maxCount) {
+                    if (values != null) {
+                        values[count] = uct.getValue();
+                    }
+                    lengths[count] = i - start;
+                    count++;
+                }
+                if (result == Result.FINAL_VALUE) {
+                    break;
+                }
+            } else if (result == Result.NO_MATCH) {
+                break;
+            }
+            if (i >= end) {
+                break;
+            }
+            result = uct.nextForCodePoint(codePoints[i]);
+        }
+        return count;
+    }
+
     @Override
     public int getType() {
         return DictionaryData.TRIE_TYPE_UCHARS;
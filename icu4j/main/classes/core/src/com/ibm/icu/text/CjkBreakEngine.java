@@ -9,8 +9,6 @@
 package com.ibm.icu.text;
 
 import static com.ibm.icu.impl.CharacterIteration.DONE32;
-import static com.ibm.icu.impl.CharacterIteration.current32;
-import static com.ibm.icu.impl.CharacterIteration.next32;
 
 import java.io.IOException;
 import java.text.CharacterIterator;
@@ -70,8 +68,8 @@ public int hashCode() {
     private static final int kMaxKatakanaGroupLength = 20;
     private static final int maxSnlp = 255;
     private static final int kint32max = Integer.MAX_VALUE;
+    private static final int katakanaCost[] =  new int[] { 8192, 984, 408, 240, 204, 252, 300, 372, 480 };
     private static int getKatakanaCost(int wordlength) {
-        int katakanaCost[] =  new int[] { 8192, 984, 408, 240, 204, 252, 300, 372, 480 };
         return (wordlength > kMaxKatakanaLength) ? 8192 : katakanaCost[wordlength];
     }
 
@@ -87,34 +85,35 @@ public int divideUpDictionaryRange(CharacterIterator inText, int startPos, int e
             return 0;
         }
 
-        inText.setIndex(startPos);
-
         int inputLength = endPos - startPos;
-        int[] charPositions = new int[inputLength + 1];
-        StringBuffer s = new StringBuffer("");
+        char[] chars = new char[inputLength];
         inText.setIndex(startPos);
-        while (inText.getIndex() < endPos) {
-            s.append(inText.current());
+        for (int i = 0; i < inputLength; ++i) {
+            chars[i] = inText.current();
             inText.next();
         }
-        String prenormstr = s.toString();
+        String prenormstr = new String(chars);
         boolean isNormalized = Normalizer.quickCheck(prenormstr, Normalizer.NFKC) == Normalizer.YES ||
                                Normalizer.isNormalized(prenormstr, Normalizer.NFKC, 0);
-        CharacterIterator text;
+        // The text as code points, and for each code point the index of its start
+        // in the range of the input text.
+        // The dictionary is matched on the code points, without an iterator per position.
+        int[] codePoints;
+        int[] charPositions;
         int numCodePts = 0;
         if (isNormalized) {
-            text = new java.text.StringCharacterIterator(prenormstr);
+            codePoints = new int[inputLength];
+            charPositions = new int[inputLength + 1];
             int index = 0;
             charPositions[0] = 0;
-            while (index < prenormstr.length()) {
+            while (index < inputLength) {
                 int codepoint = prenormstr.codePointAt(index);
                 index += Character.charCount(codepoint);
-                numCodePts++;
+                codePoints[numCodePts++] = codepoint;
                 charPositions[numCodePts] = index;
             }
         } else {
             String normStr = Normalizer.normalize(prenormstr, Normalizer.NFKC);
-            text = new java.text.StringCharacterIterator(normStr);
             charPositions = new int[normStr.length() + 1];
             Normalizer normalizer = new Normalizer(prenormstr, Normalizer.NFKC, 0);
             int index = 0;
@@ -125,6 +124,21 @@ public int divideUpDictionaryRange(CharacterIterator inText, int startPos, int e
                 index = normalizer.getIndex();
                 charPositions[numCodePts] = index;
             }
+            codePoints = new int[numCodePts];
+            index = 0;
+            for (int i = 0; i < numCodePts; ++i) {
+                if (index < normStr.length()) {
+                    int codepoint = normStr.codePointAt(index);
+                    index += Character.charCount(codepoint);
+                    codePoints[i] = codepoint;
+                } else {
+                    codePoints[i] = DONE32;
+                }
+            }
+        }
+        int codePointsLimit = numCodePts;
+        while (codePointsLimit > 0 && codePoints[codePointsLimit - 1] == DONE32) {
+            --codePointsLimit;
         }
 
         // From here on out, do the algorithm. Note that our indices
@@ -141,34 +155,26 @@ public int divideUpDictionaryRange(CharacterIterator inText, int startPos, int e
         }
 
         final int maxWordSize = 20;
-        int values[] = new int[numCodePts];
-        int lengths[] = new int[numCodePts];
+        int values[] = new int[maxWordSize + 1];
+        int lengths[] = new int[maxWordSize + 1];
         // dynamic programming to find the best segmentation
-
-        // In outer loop, i  is the code point index,
-        //                ix is the corresponding code unit index.
-        //    They differ when the string contains supplementary characters.
-        int ix = 0;
-        text.setIndex(ix);
         boolean is_prev_katakana = false;
-        for (int i = 0; i < numCodePts; i++, text.setIndex(ix), next32(text)) {
-            ix = text.getIndex();
+        for (int i = 0; i < numCodePts; i++) {
+            int c = codePoints[i];
             if (bestSnlp[i] == kint32max) {
                 continue;
             }
 
             int maxSearchLength = (i + maxWordSize < numCodePts) ? maxWordSize : (numCodePts - i);
-            int[] count_ = new int[1];
-            fDictionary.matches(text, maxSearchLength, lengths, count_, maxSearchLength, values);
-            int count = count_[0];
+            int count = fDictionary.matches(codePoints, i, codePointsLimit, maxSearchLength,
+                    lengths, maxSearchLength, values);
 
             // if there are no single character matches found in the dictionary
             // starting with this character, treat character as a 1-character word
             // with the highest value possible (i.e. the least likely to occur).
             // Exclude Korean characters from this treatment, as they should be
             // left together by default.
-            text.setIndex(ix);  // fDictionary.matches() advances the text position; undo that.
-            if ((count == 0 || lengths[0] != 1) && current32(text) != DONE32 && !fHangulWordSet.contains(current32(text))) {
+            if ((count == 0 || lengths[0] != 1) && c != DONE32 && !fHangulWordSet.contains(c)) {
                 values[count] = maxSnlp;
                 lengths[count] = 1;
                 count++;
@@ -187,12 +193,10 @@ public int divideUpDictionaryRange(CharacterIterator inText, int startPos, int e
             // run of Katakana characters is considered a candidate word with
             // a default cost specified in the katakanaCost table according
             // to its length.
-            boolean is_katakana = isKatakana(current32(text));
+            boolean is_katakana = isKatakana(c);
             if (!is_prev_katakana && is_katakana) {
                 int j = i + 1;
-                next32(text);
-                while (j < numCodePts && (j - i) < kMaxKatakanaGroupLength && isKatakana(current32(text))) {
-                    next32(text);
+                while (j < numCodePts && (j - i) < kMaxKatakanaGroupLength && isKatakana(codePoints[j])) {
                     ++j;
                 }
 
@@ -224,11 +228,13 @@ public int divideUpDictionaryRange(CharacterIterator inText, int startPos, int e
             t_boundary[numBreaks++] = 0;
         }
 
+        // The positions are ascending, and so are the breaks found for preceding ranges.
+        // Checking the last break is sufficient to avoid duplicates.
         int correctedNumBreaks = 0;
         for (int i = numBreaks - 1; i >= 0; i--) {
             int pos = charPositions[t_boundary[i]] + startPos;
-            if (!(foundBreaks.contains(pos) || pos == startPos)) {
-                foundBreaks.push(charPositions[t_boundary[i]] + startPos);
+            if (pos != startPos && (foundBreaks.isEmpty() || foundBreaks.peek() < pos)) {
+                foundBreaks.push(pos);
                 correctedNumBreaks++;
             }
         }
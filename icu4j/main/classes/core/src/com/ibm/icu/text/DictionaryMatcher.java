@@ -35,6 +35,31 @@ public int matches(CharacterIterator text, int maxLength, int[] lengths,
         return matches(text, maxLength, lengths, count, limit, null);
     }
 
+    /**
+     * Find dictionary words that are prefixes of codePoints[start..limit[.
+     * Same as matches(CharacterIterator, ...) but for text that has been split into
+     * code points once, for callers that look up words at many consecutive positions.
+     *
+     * @param codePoints The text as code points.
+     * @param start The index of the first code point to match.
+     * @param limit The index after the last code point that may be matched.
+     * @param maxLength The maximum number of code points to match.
+     * @param lengths An array that is filled with the lengths of words that matched, in code points.
+     * @param maxCount The maximum amount of words to output. Must be less than or equal to lengths.length.
+     * @param values Filled with the weight values associated with the various words.
+     * @return The number of words that matched, i.e., the number of elements output in lengths.
+     */
+    public int matches(int[] codePoints, int start, int limit, int maxLength, int[] lengths,
+            int maxCount, int[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = start; i < limit && (i - start) < maxLength; ++i) {
+            sb.appendCodePoint(codePoints[i]);
+        }
+        int[] count = new int[1];
+        matches(new java.text.StringCharacterIterator(sb.toString()), maxLength, lengths, count, maxCount, values);
+        return count[0];
+    }
+
     /**
      * @return the kind of dictionary that this matcher is using
      */
@@ -11,6 +11,8 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.nio.ByteBuffer;
 
 import com.ibm.icu.impl.ICUBinary;
@@ -256,6 +258,80 @@ public String normalize(CharSequence src) {
      */
     public abstract Appendable normalize(CharSequence src, Appendable dest);
 
+    /**
+     * Reads the source text, normalizes it, and appends the result to the destination.
+     * The text is read and normalized in chunks; only a short unnormalized tail
+     * is carried from one chunk to the next, so that the input need not fit into memory.
+     * The Reader is not closed.
+     *
+     * @param src provides the source text
+     * @param dest destination Appendable; gets the normalized text appended
+     * @throws IOException if reading the source or appending to the destination fails
+     * @see NormalizingWriter
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public void normalize(Reader src, Appendable dest) throws IOException {
+        NormalizingWriter writer = new NormalizingWriter(this, dest);
+        char[] buffer = new char[8192];
+        int length;
+        while ((length = src.read(buffer)) >= 0) {
+            writer.write(buffer, 0, length);
+        }
+        writer.finish();
+    }
+
+    /**
+     * Normalizes UTF-8 text and writes the result as UTF-8 to dest.
+     * Equivalent to converting src to a String, normalizing it, and converting the
+     * result back to UTF-8, but much faster for text that is mostly normalized already:
+     * Unchanged spans of the input are copied to dest verbatim,
+     * without being decoded and re-encoded.
+     *
+     * <p>Ill-formed UTF-8 sequences are copied unchanged;
+     * they are treated like U+FFFD for normalization.
+     *
+     * <p>If edits is not null, then it is reset and then records the changes,
+     * with lengths in bytes.
+     * An IOException from dest is rethrown as an {@link ICUUncheckedIOException}.
+     *
+     * @param src UTF-8 input bytes
+     * @param start index of the first input byte
+     * @param limit index after the last input byte
+     * @param dest receives the normalized UTF-8 text
+     * @param edits records edits for index mapping, working with styled text,
+     *              and getting only changes (if any); can be null
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public void normalizeUTF8(byte[] src, int start, int limit, OutputStream dest, Edits edits) {
+        new Normalizer2UTF8(this).normalize(src, start, limit, dest, edits);
+    }
+
+    /**
+     * Normalizes the remaining UTF-8 text of the ByteBuffer and writes the result to dest.
+     * Consumes the remaining bytes: On return, the buffer's position is at its limit.
+     * Otherwise the same as {@link #normalizeUTF8(byte[], int, int, OutputStream, Edits)}.
+     *
+     * @param src UTF-8 input bytes, from the position to the limit
+     * @param dest receives the normalized UTF-8 text
+     * @param edits records edits for index mapping, working with styled text,
+     *              and getting only changes (if any); can be null
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public void normalizeUTF8(ByteBuffer src, OutputStream dest, Edits edits) {
+        if (src.hasArray()) {
+            int start = src.arrayOffset() + src.position();
+            normalizeUTF8(src.array(), start, start + src.remaining(), dest, edits);
+            src.position(src.limit());
+        } else {
+            byte[] bytes = new byte[src.remaining()];
+            src.get(bytes);
+            normalizeUTF8(bytes, 0, bytes.length, dest, edits);
+        }
+    }
+
     /**
      * Appends the normalized form of the second string to the first string
      * (merging them at the boundary) and returns the first string.
@@ -369,6 +445,59 @@ public abstract StringBuilder normalizeSecondAndAppend(
      */
     public abstract Normalizer.QuickCheckResult quickCheck(CharSequence s);
 
+    /**
+     * Tests if the UTF-8 text is normalized, without converting it to UTF-16.
+     * Ill-formed UTF-8 sequences are treated like U+FFFD.
+     * Otherwise the same as {@link #isNormalized(CharSequence)}.
+     *
+     * @param src UTF-8 input bytes
+     * @param start index of the first input byte
+     * @param limit index after the last input byte
+     * @return true if the text is normalized
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public boolean isNormalizedUTF8(byte[] src, int start, int limit) {
+        return new Normalizer2UTF8(this).isNormalized(src, start, limit);
+    }
+
+    /**
+     * Tests if the remaining UTF-8 text of the ByteBuffer is normalized.
+     * Does not change the buffer's position.
+     * Otherwise the same as {@link #isNormalizedUTF8(byte[], int, int)}.
+     *
+     * @param src UTF-8 input bytes, from the position to the limit
+     * @return true if the text is normalized
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public boolean isNormalizedUTF8(ByteBuffer src) {
+        if (src.hasArray()) {
+            int start = src.arrayOffset() + src.position();
+            return isNormalizedUTF8(src.array(), start, start + src.remaining());
+        } else {
+            byte[] bytes = new byte[src.remaining()];
+            src.duplicate().get(bytes);
+            return isNormalizedUTF8(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Quick-checks the UTF-8 text, without converting it to UTF-16.
+     * Ill-formed UTF-8 sequences are treated like U+FFFD.
+     * Otherwise the same as {@link #quickCheck(CharSequence)}.
+     *
+     * @param src UTF-8 input bytes
+     * @param start index of the first input byte
+     * @param limit index after the last input byte
+     * @return the quick check result
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public Normalizer.QuickCheckResult quickCheckUTF8(byte[] src, int start, int limit) {
+        return new Normalizer2UTF8(this).quickCheck(src, start, limit);
+    }
+
     /**
      * Returns the end of the normalized substring of the input string.
      * In other words, with <code>end=spanQuickCheckYes(s);</code>
@@ -446,4 +575,19 @@ public abstract StringBuilder normalizeSecondAndAppend(
     @Deprecated
     protected Normalizer2() {
     }
+
+    /**
+     * Returns a bit set of the ASCII characters which pass the quick check
+     * and have a normalization boundary before them; used by the UTF-8 functions.
+     * Computed on first use.
+     */
+    long[] getUTF8AsciiYes() {
+        long[] mask = utf8AsciiYes;
+        if (mask == null) {
+            utf8AsciiYes = mask = Normalizer2UTF8.computeAsciiYes(this);
+        }
+        return mask;
+    }
+
+    private volatile long[] utf8AsciiYes;
 }
@@ -0,0 +1,209 @@
+// © 2018 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+
+package com.ibm.icu.text;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.ibm.icu.impl.UTF8Util;
+import com.ibm.icu.util.ICUUncheckedIOException;
+
+/**
+ * Implements the Normalizer2 UTF-8 functions on top of the UTF-16 API.
+ *
+ * <p>Runs of ASCII characters which pass the quick check and have a normalization
+ * boundary before them are skipped with a byte-only loop, and are copied verbatim.
+ * Other text is decoded one segment at a time, where segments start at
+ * normalization boundaries, and only segments that fail the quick check are normalized.
+ *
+ * <p>Ill-formed UTF-8 sequences behave like U+FFFD for normalization
+ * (they are normalization boundaries and do not change) and are copied unchanged.
+ */
+final class Normalizer2UTF8 {
+    /** Slow-path segments end at the next boundary after at least this many bytes. */
+    private static final int MAX_SEGMENT_BYTES = 256;
+
+    private static final int NO = 0, MAYBE = 1, YES = 2;
+
+    private final Normalizer2 norm2;
+    /** ASCII characters that pass the quick check and have a boundary before them. */
+    private final long[] asciiYes;
+    private final StringBuilder segment = new StringBuilder();
+    private byte[] scratch;
+
+    private OutputStream dest;
+    private Edits edits;
+
+    Normalizer2UTF8(Normalizer2 norm2) {
+        this.norm2 = norm2;
+        asciiYes = norm2.getUTF8AsciiYes();
+    }
+
+    /**
+     * Computes the bit set for Normalizer2.getUTF8AsciiYes().
+     */
+    static long[] computeAsciiYes(Normalizer2 norm2) {
+        long[] mask = new long[2];
+        for (int c = 0; c < 0x80; ++c) {
+            if (norm2.hasBoundaryBefore(c) &&
+                    norm2.quickCheck(String.valueOf((char) c)) == Normalizer.YES) {
+                mask[c >> 6] |= 1L << c;
+            }
+        }
+        return mask;
+    }
+
+    void normalize(byte[] src, int start, int limit, OutputStream out, Edits e) {
+        dest = out;
+        edits = e;
+        if (edits != null) {
+            edits.reset();
+        }
+        run(src, start, limit, false);
+    }
+
+    boolean isNormalized(byte[] src, int start, int limit) {
+        return run(src, start, limit, false) == YES;
+    }
+
+    Normalizer.QuickCheckResult quickCheck(byte[] src, int start, int limit) {
+        int result = run(src, start, limit, true);
+        return result == YES ? Normalizer.YES : result == MAYBE ? Normalizer.MAYBE : Normalizer.NO;
+    }
+
+    /**
+     * Normalizes (if dest != null), quick-checks or checks src[start..limit[.
+     * @return NO/MAYBE/YES, or YES when normalizing
+     */
+    private int run(byte[] src, int start, int limit, boolean quickCheck) {
+        if (start < 0 || start > limit || limit > src.length) {
+            throw new IndexOutOfBoundsException(
+                    "start " + start + ", limit " + limit + ", length " + src.length);
+        }
+        boolean normalize = dest != null;
+        int result = YES;
+        // Start of the text that has been checked but not yet copied to dest.
+        int prevLimit = start;
+        int i = start;
+        for (;;) {
+            // Fast path: ASCII characters that are normalized and have a boundary before them.
+            int fastStart = i;
+            while (i < limit) {
+                int b = src[i];
+                if (b < 0 || (asciiYes[b >> 6] & (1L << b)) == 0) {
+                    break;
+                }
+                ++i;
+            }
+            if (i == limit) {
+                break;
+            }
+            // The last of those characters might combine with the following text.
+            int segmentStart = i > fastStart ? i - 1 : i;
+            // Collect a segment which ends at a boundary.
+            segment.setLength(0);
+            int segmentLimit = segmentStart;
+            int illFormedLength = 0;
+            while (segmentLimit < limit) {
+                int b = src[segmentLimit];
+                int c, length;
+                if (b >= 0) {
+                    if (segmentLimit > i && (asciiYes[b >> 6] & (1L << b)) != 0) {
+                        break;  // Continue with the fast path.
+                    }
+                    c = b;
+                    length = 1;
+                } else {
+                    int decoded = UTF8Util.decode(src, segmentLimit, limit);
+                    c = decoded & 0xffffff;
+                    length = decoded >>> 24;
+                    if (c == UTF8Util.ILL_FORMED) {
+                        illFormedLength = length;
+                        break;
+                    }
+                }
+                if ((segmentLimit - segmentStart) >= MAX_SEGMENT_BYTES &&
+                        norm2.hasBoundaryBefore(c)) {
+                    break;
+                }
+                segment.appendCodePoint(c);
+                segmentLimit += length;
+            }
+            if (segmentStart < segmentLimit) {
+                if (normalize) {
+                    prevLimit = normalizeSegment(src, prevLimit, segmentStart, segmentLimit);
+                } else if (quickCheck) {
+                    Normalizer.QuickCheckResult qc = norm2.quickCheck(segment);
+                    if (qc == Normalizer.NO) {
+                        return NO;
+                    } else if (qc == Normalizer.MAYBE) {
+                        result = MAYBE;
+                    }
+                } else if (!norm2.isNormalized(segment)) {
+                    return NO;
+                }
+            }
+            // Ill-formed sequences are boundaries and remain unchanged.
+            i = segmentLimit + illFormedLength;
+        }
+        if (normalize) {
+            copy(src, prevLimit, limit);
+        }
+        return result;
+    }
+
+    /**
+     * Normalizes the segment which was decoded from src[segmentStart..segmentLimit[.
+     * @return the new start of the not-yet-copied text
+     */
+    private int normalizeSegment(byte[] src, int prevLimit, int segmentStart, int segmentLimit) {
+        int spanLength = norm2.spanQuickCheckYes(segment);
+        if (spanLength == segment.length()) {
+            return prevLimit;
+        }
+        String rest = segment.substring(spanLength);
+        String normalized = norm2.normalize(rest);
+        if (normalized.equals(rest)) {
+            return prevLimit;
+        }
+        int changeStart = segmentStart + UTF8Util.length(segment, 0, spanLength);
+        copy(src, prevLimit, changeStart);
+        int newLength = encode(normalized);
+        try {
+            dest.write(scratch, 0, newLength);
+        } catch (IOException e) {
+            throw new ICUUncheckedIOException(e);  // Avoid declaring "throws IOException".
+        }
+        if (edits != null) {
+            edits.addReplace(segmentLimit - changeStart, newLength);
+        }
+        return segmentLimit;
+    }
+
+    private void copy(byte[] src, int start, int limit) {
+        if (start < limit) {
+            try {
+                dest.write(src, start, limit - start);
+            } catch (IOException e) {
+                throw new ICUUncheckedIOException(e);  // Avoid declaring "throws IOException".
+            }
+            if (edits != null) {
+                edits.addUnchanged(limit - start);
+            }
+        }
+    }
+
+    /**
+     * Writes s as UTF-8 into the scratch buffer.
+     * Unpaired surrogates cannot occur because the input segments are well-formed.
+     * @return the number of bytes
+     */
+    private int encode(String s) {
+        int capacity = 3 * s.length();
+        if (scratch == null || scratch.length < capacity) {
+            scratch = new byte[Math.max(capacity, 64)];
+        }
+        return UTF8Util.encode(s, 0, s.length(), scratch, 0);
+    }
+}
@@ -0,0 +1,232 @@
+// © 2018 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+
+package com.ibm.icu.text;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer that normalizes the text written to it and appends the result to
+ * another Appendable, for example a Writer or a StringBuilder.
+ * Text can be pushed in arbitrary chunks (char arrays, Strings, CharBuffers),
+ * including chunks that split combining sequences or surrogate pairs;
+ * the output is the same as the normalization of the concatenated input.
+ *
+ * <p>Each chunk is normalized up to its last normalization boundary
+ * as determined by {@link Normalizer2#hasBoundaryBefore(int)} and
+ * {@link Normalizer2#hasBoundaryAfter(int)}.
+ * Only the text after that boundary is held back until more text is written,
+ * or until {@link #finish()} or {@link #close()} is called.
+ * For normal text, this is at most a few characters, so that memory use
+ * does not grow with the length of the input.
+ * (Text without any normalization boundary, such as a very long sequence
+ * of combining marks, is buffered until a boundary is found.)
+ *
+ * <p>{@link #flush()} does not write held-back text, because that text
+ * may still interact with following input; it only flushes the destination.
+ *
+ * <p>Any {@link java.io.IOException} from the destination is passed through.
+ * This class is not thread-safe.
+ *
+ * @see Normalizer2#normalize(java.io.Reader, Appendable)
+ * @draft ICU 64
+ * @provisional This API might change or be removed in a future release.
+ */
+public final class NormalizingWriter extends Writer {
+    private final Normalizer2 norm2;
+    private final Appendable dest;
+    /** Input text that has not been normalized yet. */
+    private final StringBuilder pending = new StringBuilder();
+    /** Reused output buffer. */
+    private final StringBuilder normalized = new StringBuilder();
+    private boolean closed;
+
+    /**
+     * Constructs a NormalizingWriter.
+     *
+     * @param norm2 the normalizer to be used
+     * @param dest receives the normalized text
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public NormalizingWriter(Normalizer2 norm2, Appendable dest) {
+        if (norm2 == null || dest == null) {
+            throw new NullPointerException();
+        }
+        this.norm2 = norm2;
+        this.dest = dest;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        if (len > 0) {
+            int oldLength = pending.length();
+            pending.append(cbuf, off, len);
+            normalizeToLastBoundary(oldLength);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        ensureOpen();
+        if (len > 0) {
+            int oldLength = pending.length();
+            pending.append(str, off, off + len);
+            normalizeToLastBoundary(oldLength);
+        }
+    }
+
+    /**
+     * Writes the characters of the CharSequence, for example the remaining
+     * contents of a {@link java.nio.CharBuffer}, without converting it to a String.
+     *
+     * @param csq the characters to be written; null writes "null" like {@link Writer#append(CharSequence)}
+     * @return this
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public NormalizingWriter append(CharSequence csq) throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+        return append(csq, 0, csq.length());
+    }
+
+    /**
+     * Writes a subsequence of the CharSequence.
+     *
+     * @param csq the characters to be written; null writes from "null" like {@link Writer#append(CharSequence, int, int)}
+     * @param start the index of the first character to be written
+     * @param end the index after the last character to be written
+     * @return this
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public NormalizingWriter append(CharSequence csq, int start, int end) throws IOException {
+        ensureOpen();
+        if (csq == null) {
+            csq = "null";
+        }
+        if (start < 0 || start > end || end > csq.length()) {
+            throw new IndexOutOfBoundsException(
+                    "start " + start + ", end " + end + ", length " + csq.length());
+        }
+        if (start < end) {
+            int oldLength = pending.length();
+            pending.append(csq, start, end);
+            normalizeToLastBoundary(oldLength);
+        }
+        return this;
+    }
+
+    /**
+     * Normalizes and writes all held-back text.
+     * Call this at the end of the input if the destination is to remain open;
+     * otherwise call {@link #close()}.
+     * Text written after finish() is normalized independently of the text before it.
+     *
+     * @throws IOException if the destination throws one
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public void finish() throws IOException {
+        ensureOpen();
+        normalizeAndWrite(pending.length());
+    }
+
+    /**
+     * Flushes the destination if it is {@link Flushable}.
+     * Does not write held-back text; see the class documentation.
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (dest instanceof Flushable) {
+            ((Flushable) dest).flush();
+        }
+    }
+
+    /**
+     * Calls {@link #finish()} and then closes the destination if it is {@link Closeable}.
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        finish();
+        closed = true;
+        if (dest instanceof Closeable) {
+            ((Closeable) dest).close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("NormalizingWriter is closed");
+        }
+    }
+
+    /**
+     * Normalizes the pending text up to its last normalization boundary.
+     * @param oldLength the length of the pending text before the latest chunk was appended;
+     *        there is no boundary inside the pending text before that
+     */
+    private void normalizeToLastBoundary(int oldLength) throws IOException {
+        int i = pending.length();
+        char last = pending.charAt(i - 1);
+        if (Character.isHighSurrogate(last)) {
+            // Might combine with a trail surrogate in the next chunk.
+            --i;
+        } else if (norm2.hasBoundaryAfter(Character.codePointBefore(pending, i))) {
+            normalizeAndWrite(i);
+            return;
+        }
+        // A lead surrogate at the end of the old pending text can now be part of
+        // a supplementary code point that starts at oldLength-1.
+        int scanLimit = oldLength > 0 ? oldLength - 1 : 0;
+        while (i > scanLimit) {
+            int c = Character.codePointBefore(pending, i);
+            int start = i - Character.charCount(c);
+            if (start > 0 && norm2.hasBoundaryBefore(c)) {
+                normalizeAndWrite(start);
+                return;
+            }
+            i = start;
+        }
+    }
+
+    /**
+     * Normalizes pending[0..limit[, writes the result to the destination,
+     * and removes that text from the pending buffer.
+     */
+    private void normalizeAndWrite(int limit) throws IOException {
+        if (limit == 0) {
+            return;
+        }
+        CharSequence src = limit == pending.length() ? pending : pending.subSequence(0, limit);
+        norm2.normalize(src, normalized);
+        pending.delete(0, limit);
+        dest.append(normalized);
+    }
+}
@@ -14,22 +14,39 @@
 import static com.ibm.icu.impl.CharacterIteration.nextTrail32;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.CharacterIterator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import com.ibm.icu.impl.CharacterIteration;
 import com.ibm.icu.impl.ICUBinary;
 import com.ibm.icu.impl.ICUDebug;
 import com.ibm.icu.impl.RBBIDataWrapper;
+import com.ibm.icu.impl.SoftCache;
 import com.ibm.icu.impl.Trie2;
 import com.ibm.icu.lang.UCharacter;
 import com.ibm.icu.lang.UProperty;
 import com.ibm.icu.lang.UScript;
+import com.ibm.icu.util.ICUException;
+import com.ibm.icu.util.Output;
+import com.ibm.icu.util.ULocale;
+import com.ibm.icu.util.VersionInfo;
 
 /**
  * Rule Based Break Iterator
@@ -118,6 +135,538 @@ public RuleBasedBreakIterator(String rules)  {
         }
     }
 
+    /**
+     * Creates a lightweight iterator which shares the segmenter's rules and break engines.
+     */
+    private RuleBasedBreakIterator(Segmenter segmenter) {
+        fRData = segmenter.fRData;
+        fBreakEngines = segmenter.fBreakEngines;
+        setLocale(segmenter.fValidLocale, segmenter.fActualLocale);
+    }
+
+    /**
+     * Immutable, thread-safe break rules from which lightweight RuleBasedBreakIterator
+     * instances are created.
+     * <p>
+     * A segmenter holds the compiled rules and the dictionary break engines,
+     * and can be shared by any number of threads.
+     * Each thread creates its own iterators with {@link #newIterator()}, which is cheaper than
+     * cloning a break iterator and does not synchronize with other threads.
+     * An iterator can be reused for any number of texts via <code>setText()</code>,
+     * but like any BreakIterator it must not be used concurrently.
+     *
+     * <pre>
+     * static final RuleBasedBreakIterator.Segmenter WORDS =
+     *         RuleBasedBreakIterator.Segmenter.getInstance(ULocale.ENGLISH, BreakIterator.KIND_WORD);
+     * ...
+     * RuleBasedBreakIterator bi = WORDS.newIterator();
+     * bi.setText(text);
+     * </pre>
+     *
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static final class Segmenter {
+        /** getAllBoundaries() segments texts shorter than two chunks sequentially. */
+        private static final int MIN_CHUNK_LENGTH = 0x8000;
+
+        private final RBBIDataWrapper fRData;
+        /**
+         * Break engines shared by all iterators created from this segmenter.
+         * They add engines as they instantiate them, without locking for iteration.
+         */
+        private final List<LanguageBreakEngine> fBreakEngines;
+        private final ULocale fValidLocale;
+        private final ULocale fActualLocale;
+
+        private Segmenter(RuleBasedBreakIterator prototype) {
+            fRData = prototype.fRData;
+            synchronized (gAllBreakEngines) {
+                fBreakEngines = new CopyOnWriteArrayList<>(gAllBreakEngines);
+            }
+            fValidLocale = prototype.getLocale(ULocale.VALID_LOCALE);
+            fActualLocale = prototype.getLocale(ULocale.ACTUAL_LOCALE);
+        }
+
+        /**
+         * Returns a segmenter with the break rules for the locale and kind of break iterator.
+         * Segmenters are cached, so that repeated calls with the same arguments are cheap.
+         *
+         * @param where the locale
+         * @param kind one of BreakIterator.KIND_CHARACTER, KIND_WORD, KIND_LINE, KIND_SENTENCE, KIND_TITLE
+         * @return the segmenter
+         * @throws IllegalArgumentException if the break iterator for this locale and kind
+         *         is not a plain RuleBasedBreakIterator; for example, if sentence break
+         *         suppressions are requested with the "ss" keyword
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public static Segmenter getInstance(ULocale where, int kind) {
+            if (where == null) {
+                throw new NullPointerException("Specified locale is null");
+            }
+            if (kind < KIND_CHARACTER || kind > KIND_TITLE) {
+                throw new IllegalArgumentException("Illegal break iterator kind " + kind);
+            }
+            return SEGMENTER_CACHE.getInstance(where.toString() + '/' + kind,
+                    new SegmenterCache.Request(where, kind));
+        }
+
+        /**
+         * Returns a segmenter with the same break rules as the given iterator.
+         * The segmenter does not share any iteration state with the prototype.
+         *
+         * @param prototype a break iterator
+         * @return the segmenter
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public static Segmenter getInstance(RuleBasedBreakIterator prototype) {
+            return new Segmenter(prototype);
+        }
+
+        /**
+         * Returns a new break iterator with this segmenter's rules.
+         * Its text is empty until setText() is called.
+         *
+         * @return the new break iterator
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public RuleBasedBreakIterator newIterator() {
+            return new RuleBasedBreakIterator(this);
+        }
+
+        /**
+         * Finds all of the boundaries in the text, and their rule status values,
+         * segmenting chunks of a long text concurrently.
+         * The results are identical to those of
+         * {@link RuleBasedBreakIterator#getAllBoundaries(Output, Output)}
+         * with an iterator from this segmenter.
+         * <p>
+         * Chunks start after paragraph separators where possible, otherwise at the boundaries
+         * found via the safe reverse rules. If the segmentation of one chunk does not continue
+         * exactly at the start of the next one, then the next chunk is segmented again sequentially.
+         * <p>
+         * ICU does not create any threads; the chunks are segmented as tasks on the given pool.
+         *
+         * @param text the text
+         * @param boundaries Output: Its value is set to an array with the boundaries
+         *                   in ascending order, including the start and the end of the text.
+         *                   An input value that is not null is reused if it is long enough.
+         * @param ruleStatuses Output: If not null, its value is set to an array with the
+         *                   <code>getRuleStatus()</code> value for each boundary.
+         *                   An input value that is not null is reused if it is long enough.
+         * @param pool the pool for segmenting the chunks; if null, then the text is segmented sequentially
+         * @return the number of boundaries
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public int getAllBoundaries(String text, Output<int[]> boundaries, Output<int[]> ruleStatuses,
+                ForkJoinPool pool) {
+            return getAllBoundaries(text, boundaries, ruleStatuses, pool, MIN_CHUNK_LENGTH);
+        }
+
+        /**
+         * Same as {@link #getAllBoundaries(String, Output, Output, ForkJoinPool)}
+         * but with a given minimum chunk length, for testing.
+         * @internal
+         * @deprecated This API is ICU internal only.
+         */
+        @Deprecated
+        public int getAllBoundaries(String text, Output<int[]> boundaries, Output<int[]> ruleStatuses,
+                ForkJoinPool pool, int minChunkLength) {
+            RuleBasedBreakIterator bi = newIterator();
+            bi.setText(text);
+            int length = text.length();
+            int numChunks = pool == null ? 1 :
+                Math.min(length / Math.max(minChunkLength, 1), 4 * pool.getParallelism());
+            if (numChunks <= 1) {
+                return bi.getAllBoundaries(boundaries, ruleStatuses);
+            }
+
+            // Choose the chunk starts. They need not be boundaries; see the stitching below.
+            int[] starts = new int[numChunks];
+            int count = 1;  // starts[0] = 0
+            for (int i = 1; i < numChunks; ++i) {
+                int target = (int)((long)length * i / numChunks);
+                int limit = (int)((long)length * (i + 1) / numChunks);
+                int start = findChunkStart(bi, text, target, limit);
+                if (start > starts[count - 1] && start < length) {
+                    starts[count++] = start;
+                }
+            }
+            ChunkTask.Chunks chunks = new ChunkTask.Chunks(this, text, starts, count, ruleStatuses != null);
+            pool.invoke(new ChunkTask(chunks, 0, count));
+
+            // Stitch the chunks together.
+            // Each chunk's segmentation ends at the first boundary at or after the next chunk's start
+            // from which the rules continue. If that is the next chunk's start, then sequential
+            // segmentation would continue exactly like that chunk's. Otherwise segment it again.
+            BoundaryList list = new BoundaryList(boundaries, ruleStatuses, length / 4 + 2);
+            list.add(0, bi.getRuleStatusValue(0));
+            int end = 0;
+            for (int i = 0; i < count; ++i) {
+                if (end == starts[i]) {
+                    list.addAll(chunks.lists[i]);
+                    end = chunks.ends[i];
+                } else {
+                    end = bi.addBoundaries(end, i + 1 < count ? starts[i + 1] : Integer.MAX_VALUE, list);
+                }
+            }
+            list.copyTo(boundaries, ruleStatuses);
+            return list.length;
+        }
+
+        /**
+         * Returns the position after the first paragraph separator in text[target..limit[,
+         * or else the boundary following target.
+         */
+        private static int findChunkStart(RuleBasedBreakIterator bi, String text, int target, int limit) {
+            for (int i = target; i < limit; ++i) {
+                char c = text.charAt(i);
+                if (c == '\n' || c == '\u000B' || c == '\u000C' || c == '\u0085' ||
+                        c == '\u2028' || c == '\u2029' ||
+                        (c == '\r' && (i + 1) < text.length() && text.charAt(i + 1) != '\n')) {
+                    return i + 1;
+                }
+            }
+            int start = bi.following(target);
+            return start == BreakIterator.DONE ? text.length() : start;
+        }
+    }
+
+    /**
+     * Segments a range of chunks for Segmenter.getAllBoundaries(),
+     * splitting it in halves until there is only one chunk.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        static final class Chunks {
+            final Segmenter segmenter;
+            final String text;
+            final int[] starts;
+            final int count;
+            final boolean withStatuses;
+            final BoundaryList[] lists;
+            final int[] ends;
+
+            Chunks(Segmenter segmenter, String text, int[] starts, int count, boolean withStatuses) {
+                this.segmenter = segmenter;
+                this.text = text;
+                this.starts = starts;
+                this.count = count;
+                this.withStatuses = withStatuses;
+                lists = new BoundaryList[count];
+                ends = new int[count];
+            }
+        }
+
+        private final Chunks chunks;
+        private final int first;
+        private final int limit;
+
+        ChunkTask(Chunks chunks, int first, int limit) {
+            this.chunks = chunks;
+            this.first = first;
+            this.limit = limit;
+        }
+
+        @Override
+        protected void compute() {
+            if ((limit - first) > 1) {
+                int middle = (first + limit) >>> 1;
+                invokeAll(new ChunkTask(chunks, first, middle), new ChunkTask(chunks, middle, limit));
+                return;
+            }
+            int start = chunks.starts[first];
+            boolean isLast = first + 1 == chunks.count;
+            int stop = isLast ? Integer.MAX_VALUE : chunks.starts[first + 1];
+            int chunkLength = (isLast ? chunks.text.length() : stop) - start;
+            RuleBasedBreakIterator bi = chunks.segmenter.newIterator();
+            bi.setText(chunks.text);
+            BoundaryList list = new BoundaryList(chunkLength / 4 + 2, chunks.withStatuses);
+            chunks.ends[first] = bi.addBoundaries(start, stop, list);
+            chunks.lists[first] = list;
+        }
+    }
+
+    private static final class SegmenterCache
+            extends SoftCache<String, Segmenter, SegmenterCache.Request> {
+        static final class Request {
+            final ULocale where;
+            final int kind;
+
+            Request(ULocale where, int kind) {
+                this.where = where;
+                this.kind = kind;
+            }
+        }
+
+        @Override
+        protected Segmenter createInstance(String key, Request request) {
+            BreakIterator bi;
+            switch (request.kind) {
+            case KIND_CHARACTER:
+                bi = BreakIterator.getCharacterInstance(request.where);
+                break;
+            case KIND_WORD:
+                bi = BreakIterator.getWordInstance(request.where);
+                break;
+            case KIND_LINE:
+                bi = BreakIterator.getLineInstance(request.where);
+                break;
+            case KIND_SENTENCE:
+                bi = BreakIterator.getSentenceInstance(request.where);
+                break;
+            case KIND_TITLE:
+                bi = BreakIterator.getTitleInstance(request.where);
+                break;
+            default:
+                throw new IllegalArgumentException("Illegal break iterator kind " + request.kind);
+            }
+            if (!(bi instanceof RuleBasedBreakIterator)) {
+                throw new IllegalArgumentException(
+                        "The break iterator for " + key + " is not a RuleBasedBreakIterator");
+            }
+            return new Segmenter((RuleBasedBreakIterator) bi);
+        }
+    }
+
+    private static final SegmenterCache SEGMENTER_CACHE = new SegmenterCache();
+
+    /**
+     * Cache of compiled break rules, for applications that create break iterators
+     * from their own source rules.
+     * <p>
+     * Compiling source rules is much slower than loading compiled rules.
+     * The first request for a set of rules compiles them; later requests with the same rules
+     * reuse the compiled form. The compiled rules are kept in memory,
+     * and optionally also in a directory as binary files,
+     * so that later runs of the application only load them.
+     * Each file holds the source rules and the ICU version, followed by the rules
+     * in the format written by {@link RuleBasedBreakIterator#compileRules(String, OutputStream)}.
+     * <p>
+     * Entries are keyed by a hash of the source rules and of the ICU version,
+     * because compiled rules are not guaranteed to be compatible between versions of ICU.
+     * Files that cannot be read, or that hold other rules or come from another version of ICU,
+     * are replaced.
+     * Failures to write files are ignored; the rules are then compiled again in the next run.
+     * <p>
+     * A cache is thread-safe. The in-memory entries are never evicted.
+     *
+     * <pre>
+     * static final RuleBasedBreakIterator.CompiledRulesCache RULES_CACHE =
+     *         new RuleBasedBreakIterator.CompiledRulesCache(new File(cacheDir, "brk"));
+     * ...
+     * RuleBasedBreakIterator bi = RULES_CACHE.getInstance(myRules);
+     * </pre>
+     *
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static final class CompiledRulesCache {
+        private static final String FILE_SUFFIX = ".brk";
+        /** "RBcr" (RBBI cached rules) at the start of each file. */
+        private static final int FILE_MAGIC = 0x52426372;
+        private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+        private final File fDirectory;
+        private final ConcurrentHashMap<String, Segmenter> fSegmenters = new ConcurrentHashMap<>();
+
+        /**
+         * Creates a cache which keeps compiled rules only in memory.
+         *
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public CompiledRulesCache() {
+            fDirectory = null;
+        }
+
+        /**
+         * Creates a cache which keeps compiled rules in memory and in the given directory.
+         * The directory is created when the first rules are written to it.
+         *
+         * @param directory the directory for the compiled rules files
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public CompiledRulesCache(File directory) {
+            if (directory == null) {
+                throw new NullPointerException("directory is null");
+            }
+            fDirectory = directory;
+        }
+
+        /**
+         * Returns a new break iterator for the source rules,
+         * compiling them only if they are not yet in the cache.
+         *
+         * @param rules the source break rules
+         * @return the new break iterator
+         * @throws IllegalArgumentException if the rules have a syntax error
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public RuleBasedBreakIterator getInstance(String rules) {
+            return getSegmenter(rules).newIterator();
+        }
+
+        /**
+         * Returns a segmenter for the source rules,
+         * compiling them only if they are not yet in the cache.
+         *
+         * @param rules the source break rules
+         * @return the segmenter, which is shared by all callers with the same rules
+         * @throws IllegalArgumentException if the rules have a syntax error
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public Segmenter getSegmenter(String rules) {
+            String key = getKey(rules);
+            Segmenter segmenter = fSegmenters.get(key);
+            if (segmenter == null) {
+                RuleBasedBreakIterator prototype = new RuleBasedBreakIterator();
+                prototype.fRData = getData(key, rules);
+                segmenter = new Segmenter(prototype);
+                Segmenter prev = fSegmenters.putIfAbsent(key, segmenter);
+                if (prev != null) {
+                    segmenter = prev;
+                }
+            }
+            return segmenter;
+        }
+
+        private RBBIDataWrapper getData(String key, String rules) {
+            File file = null;
+            if (fDirectory != null) {
+                file = new File(fDirectory, key + FILE_SUFFIX);
+                if (file.isFile()) {
+                    try {
+                        ByteBuffer bytes =
+                                ICUBinary.getByteBufferFromInputStreamAndCloseStream(new FileInputStream(file));
+                        if (readHeader(bytes, rules)) {
+                            return RBBIDataWrapper.get(bytes.slice());
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        // Truncated or otherwise corrupt file: Compile the rules and replace it.
+                    }
+                }
+            }
+            byte[] bytes;
+            RBBIDataWrapper data;
+            try {
+                ByteArrayOutputStream ruleOS = new ByteArrayOutputStream();
+                compileRules(rules, ruleOS);
+                bytes = ruleOS.toByteArray();
+                data = RBBIDataWrapper.get(ByteBuffer.wrap(bytes));
+            } catch (IOException e) {
+                ///CLOVER:OFF
+                // Same as in the RuleBasedBreakIterator(String rules) constructor.
+                throw new RuntimeException("RuleBasedBreakIterator rule compilation internal error: "
+                        + e.getMessage());
+                ///CLOVER:ON
+            }
+            if (file != null) {
+                write(file, rules, bytes);
+            }
+            return data;
+        }
+
+        /**
+         * Reads the file header, and checks that it is for the rules and for this version of ICU.
+         * Leaves the buffer at the start of the compiled rules.
+         */
+        private static boolean readHeader(ByteBuffer bytes, String rules) {
+            if (bytes.getInt() != FILE_MAGIC || bytes.getInt() != getVersions() ||
+                    bytes.getInt() != rules.length()) {
+                return false;
+            }
+            for (int i = 0; i < rules.length(); ++i) {
+                if (bytes.getChar() != rules.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the ICU version and the data format version in one int.
+         */
+        private static int getVersions() {
+            VersionInfo v = VersionInfo.ICU_VERSION;
+            return (v.getMajor() << 24) | (v.getMinor() << 16) | (v.getMilli() << 8)
+                    | (RBBIDataWrapper.FORMAT_VERSION >>> 24);
+        }
+
+        /**
+         * Writes the file via a temporary file in the same directory,
+         * so that concurrent readers never see a partial file.
+         */
+        private void write(File file, String rules, byte[] bytes) {
+            File temp = null;
+            try {
+                fDirectory.mkdirs();
+                temp = File.createTempFile(file.getName(), ".tmp", fDirectory);
+                try (DataOutputStream os = new DataOutputStream(new FileOutputStream(temp))) {
+                    os.writeInt(FILE_MAGIC);
+                    os.writeInt(getVersions());
+                    os.writeInt(rules.length());
+                    os.writeChars(rules);
+                    os.write(bytes);
+                }
+                boolean renamed = temp.renameTo(file);
+                if (!renamed) {
+                    // Some platforms do not rename onto an existing file.
+                    file.delete();
+                    renamed = temp.renameTo(file);
+                }
+                if (renamed) {
+                    temp = null;
+                }
+            } catch (IOException | SecurityException e) {
+                // Caching on disk is best-effort.
+            } finally {
+                if (temp != null) {
+                    temp.delete();
+                }
+            }
+        }
+
+        /**
+         * Returns the hex SHA-256 hash of the ICU version, the data format version and the rules.
+         * The rules are hashed as UTF-16 code units so that strings with unpaired surrogates
+         * do not share a key.
+         */
+        private static String getKey(String rules) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                ///CLOVER:OFF
+                throw new ICUException(e);  // Every Java platform supports SHA-256.
+                ///CLOVER:ON
+            }
+            String versions = VersionInfo.ICU_VERSION.toString() + '/'
+                    + Integer.toHexString(RBBIDataWrapper.FORMAT_VERSION) + '\n';
+            digest.update(versions.getBytes(UTF_8));
+            byte[] units = new byte[2 * rules.length()];
+            for (int i = 0; i < rules.length(); ++i) {
+                char c = rules.charAt(i);
+                units[2 * i] = (byte) (c >> 8);
+                units[2 * i + 1] = (byte) c;
+            }
+            digest.update(units);
+            StringBuilder key = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return key.toString();
+        }
+    }
+
     //=======================================================================
     // Boilerplate
     //=======================================================================
@@ -221,6 +770,12 @@ public int hashCode()
      */
     private CharacterIterator   fText = new java.text.StringCharacterIterator("");
 
+    /**
+     * The text as a String, if it was set as one; otherwise null.
+     * The state machines then read the String directly rather than through fText.
+     */
+    private String fString = "";
+
     /**
      * The rule data for this BreakIterator instance.
      * Not intended for public use. Declared public for testing purposes only.
@@ -616,6 +1171,166 @@ public int getRuleStatusVec(int[] fillInArray) {
         return numStatusVals;
     }
 
+    /**
+     * Finds all of the boundaries in the text, and their rule status values, in one call.
+     * The results are the same as those from iterating with <code>first()</code> and
+     * <code>next()</code> and calling <code>getRuleStatus()</code> at each boundary,
+     * but the rules and the dictionary break engines run in a tight loop
+     * without per-boundary caching.
+     * <p>
+     * The output arrays are reused if they are long enough, otherwise they are replaced
+     * with longer ones. Only the first (return value) array elements are set.
+     * <p>
+     * This function leaves the iterator positioned at the start of the text.
+     *
+     * @param boundaries Output: Its value is set to an array with the boundaries
+     *                   in ascending order, including the start and the end of the text.
+     *                   An input value that is not null is reused if it is long enough.
+     * @param ruleStatuses Output: If not null, its value is set to an array with the
+     *                   <code>getRuleStatus()</code> value for each boundary.
+     *                   An input value that is not null is reused if it is long enough.
+     * @return the number of boundaries, which is at least 1 because the start of the text
+     *         is always a boundary; 0 only if the text was set to null
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int getAllBoundaries(Output<int[]> boundaries, Output<int[]> ruleStatuses) {
+        if (fText == null) {
+            return 0;
+        }
+        int textBegin = fText.getBeginIndex();
+        BoundaryList list = new BoundaryList(boundaries, ruleStatuses,
+                (fText.getEndIndex() - textBegin) / 4 + 2);
+        // The start of the text has rule status index 0, like after first().
+        list.add(textBegin, getRuleStatusValue(0));
+        addBoundaries(textBegin, Integer.MAX_VALUE, list);
+        list.copyTo(boundaries, ruleStatuses);
+        // Restore a consistent iteration state; the break cache was not modified.
+        first();
+        return list.length;
+    }
+
+    private int getRuleStatusValue(int ruleStatusIdx) {
+        int[] statusTable = fRData.fStatusTable;
+        return statusTable[ruleStatusIdx + statusTable[ruleStatusIdx]];
+    }
+
+    /**
+     * Adds the boundaries following fromPosition, which must be a boundary,
+     * as found by iterating with next(). Stops after the first boundary at or after stopPosition
+     * from which the rules continue, rather than one from inside a dictionary range.
+     * Segmentation continues from such a boundary the same way regardless of the preceding text.
+     *
+     * @return the last boundary that was added, or fromPosition if there was none
+     */
+    private int addBoundaries(int fromPosition, int stopPosition, BoundaryList list) {
+        int prevPosition = fromPosition;
+        int prevRuleStatusIdx = 0;
+        fPosition = fromPosition;
+        while (prevPosition < stopPosition) {
+            int pos = handleNext();
+            if (pos == BreakIterator.DONE) {
+                break;
+            }
+            int ruleStatusIdx = fRuleStatusIndex;
+            if (fDictionaryCharCount > 0) {
+                // Subdivide the segment with the dictionaries, as in BreakCache.populateFollowing().
+                // Dictionary matching may extend beyond the end of the rule-based segment.
+                DictionaryCache dc = fDictionaryCache;
+                dc.populateDictionary(prevPosition, pos, prevRuleStatusIdx, ruleStatusIdx);
+                if (dc.fPositionInCache >= 0 && dc.fStart <= prevPosition && prevPosition < dc.fLimit) {
+                    DictionaryBreakEngine.DequeI breaks = dc.fBreaks;
+                    int otherStatus = getRuleStatusValue(dc.fOtherRuleStatusIndex);
+                    int size = breaks.size();
+                    for (int i = 0; i < size; ++i) {
+                        int r = breaks.elementAt(i);
+                        if (r > prevPosition) {
+                            list.add(r, otherStatus);
+                        }
+                    }
+                    prevPosition = fPosition = dc.fLimit;
+                    prevRuleStatusIdx = dc.fOtherRuleStatusIndex;
+                    continue;
+                }
+            }
+            list.add(pos, getRuleStatusValue(ruleStatusIdx));
+            prevPosition = pos;
+            prevRuleStatusIdx = ruleStatusIdx;
+        }
+        return prevPosition;
+    }
+
+    /**
+     * Growable boundary and rule status arrays for getAllBoundaries().
+     */
+    private static final class BoundaryList {
+        int[] boundaries;
+        /** null if the rule statuses are not needed. */
+        int[] statuses;
+        int length;
+
+        BoundaryList(int capacity, boolean withStatuses) {
+            capacity = Math.max(16, capacity);
+            boundaries = new int[capacity];
+            if (withStatuses) {
+                statuses = new int[capacity];
+            }
+        }
+
+        /**
+         * Starts with the output arrays if they are not empty.
+         */
+        BoundaryList(Output<int[]> boundaries, Output<int[]> ruleStatuses, int capacity) {
+            this(capacity, ruleStatuses != null);
+            if (boundaries.value != null && boundaries.value.length != 0) {
+                this.boundaries = boundaries.value;
+            }
+            if (ruleStatuses != null && ruleStatuses.value != null && ruleStatuses.value.length != 0) {
+                statuses = ruleStatuses.value;
+            }
+        }
+
+        void add(int boundary, int status) {
+            if (length == boundaries.length) {
+                boundaries = grow(boundaries, length + 1);
+            }
+            boundaries[length] = boundary;
+            if (statuses != null) {
+                if (length == statuses.length) {
+                    statuses = grow(statuses, length + 1);
+                }
+                statuses[length] = status;
+            }
+            ++length;
+        }
+
+        void addAll(BoundaryList other) {
+            int newLength = length + other.length;
+            if (newLength > boundaries.length) {
+                boundaries = grow(boundaries, newLength);
+            }
+            System.arraycopy(other.boundaries, 0, boundaries, length, other.length);
+            if (statuses != null) {
+                if (newLength > statuses.length) {
+                    statuses = grow(statuses, newLength);
+                }
+                System.arraycopy(other.statuses, 0, statuses, length, other.length);
+            }
+            length = newLength;
+        }
+
+        void copyTo(Output<int[]> boundariesOut, Output<int[]> ruleStatusesOut) {
+            boundariesOut.value = boundaries;
+            if (ruleStatusesOut != null) {
+                ruleStatusesOut.value = statuses;
+            }
+        }
+
+        private static int[] grow(int[] array, int minCapacity) {
+            return Arrays.copyOf(array, Math.max(minCapacity, 2 * array.length));
+        }
+    }
+
     /**
      * Returns a CharacterIterator over the text being analyzed.
      * <p>
@@ -653,6 +1368,43 @@ public CharacterIterator getText() {
      */
     @Override
     public void setText(CharacterIterator newText) {
+        setText(newText, null);
+    }
+
+    /**
+     * Sets the iterator to analyze a new piece of text.
+     * The break rules then read the String directly,
+     * unless this is a subclass, which gets the text via {@link #setText(CharacterIterator)}.
+     *
+     * @param newText The text to analyze.
+     * @stable ICU 2.0
+     */
+    @Override
+    public void setText(String newText) {
+        if (getClass() == RuleBasedBreakIterator.class) {
+            setText(new java.text.StringCharacterIterator(newText), newText);
+        } else {
+            super.setText(newText);
+        }
+    }
+
+    /**
+     * Sets the iterator to analyze a new piece of text.
+     * Like {@link #setText(String)} if the text is a String.
+     *
+     * @param newText The text to analyze.
+     * @stable ICU 60
+     */
+    @Override
+    public void setText(CharSequence newText) {
+        if (newText instanceof String) {
+            setText((String) newText);
+        } else {
+            super.setText(newText);
+        }
+    }
+
+    private void setText(CharacterIterator newText, String newString) {
         if (newText != null) {
             fBreakCache.reset(newText.getBeginIndex(), 0);
         } else {
@@ -660,6 +1412,7 @@ public void setText(CharacterIterator newText) {
         }
         fDictionaryCache.reset();
         fText = newText;
+        fString = newString;
         this.first();
     }
 
@@ -689,7 +1442,7 @@ private LanguageBreakEngine getLanguageBreakEngine(int c) {
             // desired engine.
             for (LanguageBreakEngine candidate : gAllBreakEngines) {
                 if (candidate.handles(c)) {
-                    fBreakEngines.add(candidate);
+                    addBreakEngine(candidate);
                     return candidate;
                 }
             }
@@ -734,12 +1487,22 @@ private LanguageBreakEngine getLanguageBreakEngine(int c) {
 
             if (eng != null && eng != gUnhandledBreakEngine) {
                 gAllBreakEngines.add(eng);
-                fBreakEngines.add(eng);
+                addBreakEngine(eng);
             }
             return eng;
         }   // end synchronized(gAllBreakEngines)
     }
 
+    private void addBreakEngine(LanguageBreakEngine eng) {
+        if (fBreakEngines instanceof CopyOnWriteArrayList) {
+            // Shared with the other iterators of a Segmenter, one of which
+            // may have added the same engine since our lookup.
+            ((CopyOnWriteArrayList<LanguageBreakEngine>) fBreakEngines).addIfAbsent(eng);
+        } else {
+            fBreakEngines.add(eng);
+        }
+    }
+
     private static final int kMaxLookaheads = 8;
     private static class LookAheadResults {
         int      fUsedSlotLimit;
@@ -821,26 +1584,36 @@ private int handleNext() {
 
         // caches for quicker access
         CharacterIterator text = fText;
+        String s = fString;
         Trie2 trie = fRData.fTrie;
 
         short[] stateTable  = fRData.fFTable.fTable;
+        int rowLength       = fRData.fHeader.fCatCount + 4;  // see RBBIDataWrapper.getRowIndex()
         int initialPosition = fPosition;
-        text.setIndex(initialPosition);
         int result          = initialPosition;
-
-        // Set up the starting char
-        int c = text.current();
-        if (c >= UTF16.LEAD_SURROGATE_MIN_VALUE) {
-            c = nextTrail32(text, c);
-            if (c == DONE32) {
-                fDone = true;
-                return BreakIterator.DONE;
+        int ruleStatusIndex = 0;
+
+        // Set up the starting char.
+        // pos is the text index of c, and of the lead surrogate of a supplementary c.
+        int pos = initialPosition;
+        int c;
+        if (s != null) {
+            c = pos < s.length() ? s.codePointAt(pos) : DONE32;
+        } else {
+            text.setIndex(initialPosition);
+            c = text.current();
+            if (c >= UTF16.LEAD_SURROGATE_MIN_VALUE) {
+                c = nextTrail32(text, c);
             }
         }
+        if (c == DONE32) {
+            fDone = true;
+            return BreakIterator.DONE;
+        }
 
         // Set the initial state for the state machine
         int state           = START_STATE;
-        int row             = fRData.getRowIndex(state);
+        int row             = state * rowLength;
         short category      = 3;
         int flagsState      = fRData.fFTable.fFlags;
         int mode            = RBBI_RUN;
@@ -848,7 +1621,7 @@ private int handleNext() {
             category = 2;
             mode     = RBBI_START;
             if (TRACE) {
-                System.out.print("            " +  RBBIDataWrapper.intToString(text.getIndex(), 5));
+                System.out.print("            " +  RBBIDataWrapper.intToString(pos, 5));
                 System.out.print(RBBIDataWrapper.intToHexString(c, 10));
                 System.out.println(RBBIDataWrapper.intToString(state,7) + RBBIDataWrapper.intToString(category,6));
             }
@@ -892,7 +1665,7 @@ else if (mode == RBBI_RUN) {
                 }
 
                 if (TRACE) {
-                    System.out.print("            " +  RBBIDataWrapper.intToString(text.getIndex(), 5));
+                    System.out.print("            " +  RBBIDataWrapper.intToString(pos, 5));
                     System.out.print(RBBIDataWrapper.intToHexString(c, 10));
                     System.out.println(RBBIDataWrapper.intToString(state,7) + RBBIDataWrapper.intToString(category,6));
                 }
@@ -900,9 +1673,20 @@ else if (mode == RBBI_RUN) {
                 // Advance to the next character.
                 // If this is a beginning-of-input loop iteration, don't advance.
                 //    The next iteration will be processing the first real input character.
-                c = text.next();
-                if (c >= UTF16.LEAD_SURROGATE_MIN_VALUE) {
-                    c = nextTrail32(text, c);
+                if (s != null) {
+                    pos += Character.charCount(c);
+                    c = pos < s.length() ? s.codePointAt(pos) : DONE32;
+                } else {
+                    c = text.next();
+                    if (c >= UTF16.LEAD_SURROGATE_MIN_VALUE) {
+                        c = nextTrail32(text, c);
+                    }
+                    pos = text.getIndex();
+                    if (c >= UTF16.SUPPLEMENTARY_MIN_VALUE && c <= UTF16.CODEPOINT_MAX_VALUE) {
+                        // The iterator has been left in the middle of a surrogate pair.
+                        // We want the start of it.
+                        pos--;
+                    }
                 }
             }
             else {
@@ -911,19 +1695,14 @@ else if (mode == RBBI_RUN) {
 
             // look up a state transition in the state table
             state = stateTable[row + RBBIDataWrapper.NEXTSTATES + category];
-            row   = fRData.getRowIndex(state);
+            row   = state * rowLength;
 
             if (stateTable[row + RBBIDataWrapper.ACCEPTING] == -1) {
                 // Match found, common case
-                result = text.getIndex();
-                if (c >= UTF16.SUPPLEMENTARY_MIN_VALUE && c <= UTF16.CODEPOINT_MAX_VALUE) {
-                    // The iterator has been left in the middle of a surrogate pair.
-                    // We want the start of it.
-                    result--;
-                }
+                result = pos;
 
                 //  Remember the break status (tag) values.
-                fRuleStatusIndex = stateTable[row + RBBIDataWrapper.TAGIDX];
+                ruleStatusIndex = stateTable[row + RBBIDataWrapper.TAGIDX];
             }
 
             int completedRule = stateTable[row + RBBIDataWrapper.ACCEPTING];
@@ -940,12 +1719,6 @@ else if (mode == RBBI_RUN) {
             int rule =  stateTable[row + RBBIDataWrapper.LOOKAHEAD];
             if (rule != 0) {
                 // At the position of a '/' in a look-ahead match. Record it.
-                int  pos = text.getIndex();
-                if (c >= UTF16.SUPPLEMENTARY_MIN_VALUE && c <= UTF16.CODEPOINT_MAX_VALUE) {
-                    // The iterator has been left in the middle of a surrogate pair.
-                    // We want the beginning  of it.
-                    pos--;
-                }
                 fLookAheadMatches.setPosition(rule, pos);
             }
 
@@ -962,16 +1735,21 @@ else if (mode == RBBI_RUN) {
             if (TRACE) {
                 System.out.println("Iterator did not move. Advancing by 1.");
             }
-            text.setIndex(initialPosition);
-            next32(text);
-            result = text.getIndex();
-            fRuleStatusIndex = 0;
+            if (s != null) {
+                result = s.offsetByCodePoints(initialPosition, 1);
+            } else {
+                text.setIndex(initialPosition);
+                next32(text);
+                result = text.getIndex();
+            }
+            ruleStatusIndex = 0;
         }
 
         // Leave the iterator at our result position.
         //   (we may have advanced beyond the last accepting position chasing after
         //    longer matches that never completed.)
         fPosition = result;
+        fRuleStatusIndex = ruleStatusIndex;
 
         if (TRACE) {
             System.out.println("result = " + result);
@@ -991,6 +1769,9 @@ else if (mode == RBBI_RUN) {
      * @internal
      */
     private int handleSafePrevious(int fromPosition) {
+        if (fString != null) {
+            return handleSafePrevious(fString, fromPosition);
+        }
         int             state;
         short           category = 0;
         int             result = 0;
@@ -1052,6 +1833,52 @@ private int handleSafePrevious(int fromPosition) {
         return result;
     }
 
+    /**
+     * handleSafePrevious() on String text, with direct access to its chars.
+     */
+    private int handleSafePrevious(String s, int fromPosition) {
+        Trie2 trie = fRData.fTrie;
+        short[] stateTable  = fRData.fRTable.fTable;
+
+        // Pin the position to the text, and move it off a trail surrogate, like CISetIndex32().
+        int pos = fromPosition;
+        if (pos <= 0) {
+            return BreakIterator.DONE;
+        } else if (pos >= s.length()) {
+            pos = s.length();
+        } else if (Character.isLowSurrogate(s.charAt(pos)) &&
+                Character.isHighSurrogate(s.charAt(pos - 1))) {
+            --pos;
+            if (pos == 0) {
+                return BreakIterator.DONE;
+            }
+        }
+
+        int rowLength = fRData.fHeader.fCatCount + 4;  // see RBBIDataWrapper.getRowIndex()
+        int state = START_STATE;
+        int row = state * rowLength;
+        while (pos > 0) {
+            int c = s.codePointBefore(pos);
+            pos -= Character.charCount(c);
+            // And off the dictionary flag bit. For reverse iteration it is not used.
+            short category = (short) trie.get(c);
+            category &= ~0x4000;
+            if (TRACE) {
+                System.out.print("            " +  RBBIDataWrapper.intToString(pos, 5));
+                System.out.print(RBBIDataWrapper.intToHexString(c, 10));
+                System.out.println(RBBIDataWrapper.intToString(state,7) + RBBIDataWrapper.intToString(category,6));
+            }
+            assert(category < fRData.fHeader.fCatCount);
+            state = stateTable[row + RBBIDataWrapper.NEXTSTATES + category];
+            row   = state * rowLength;
+            if (state == STOP_STATE) {
+                // Transition to state zero means we have found a safe point.
+                break;
+            }
+        }
+        return pos;
+    }
+
     /**
      * Set the index of a CharacterIterator.
      * Pin the index to the valid range range of BeginIndex <= index <= EndIndex.
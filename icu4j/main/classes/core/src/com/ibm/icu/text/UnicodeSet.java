@@ -9,8 +9,10 @@
 package com.ibm.icu.text;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.text.ParsePosition;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -21,10 +23,12 @@
 import com.ibm.icu.impl.CharacterPropertiesImpl;
 import com.ibm.icu.impl.PatternProps;
 import com.ibm.icu.impl.RuleCharacterIterator;
+import com.ibm.icu.impl.SoftCache;
 import com.ibm.icu.impl.SortedSetRelation;
 import com.ibm.icu.impl.StringRange;
 import com.ibm.icu.impl.UCaseProps;
 import com.ibm.icu.impl.UPropertyAliases;
+import com.ibm.icu.impl.UTF8Util;
 import com.ibm.icu.impl.UnicodeSetStringSpan;
 import com.ibm.icu.impl.Utility;
 import com.ibm.icu.lang.CharSequences;
@@ -302,6 +306,19 @@ public class UnicodeSet extends UnicodeFilter implements Iterable<String>, Compa
 
     private static XSymbolTable XSYMBOL_TABLE = null; // for overriding the the function processing
 
+    /**
+     * Frozen sets for getFrozen(pattern), held via soft references.
+     * Replaced when the default XSymbolTable changes how patterns are parsed.
+     */
+    private static volatile FrozenCache FROZEN_CACHE = new FrozenCache();
+
+    private static final class FrozenCache extends SoftCache<String, UnicodeSet, Void> {
+        @Override
+        protected UnicodeSet createInstance(String pattern, Void unused) {
+            return new UnicodeSet(pattern).freeze();
+        }
+    }
+
     private static final int LOW = 0x000000; // LOW <= all valid values. ZERO for codepoints
     private static final int HIGH = 0x110000; // HIGH > all valid values. 10000 for code units.
     // 110000 for codepoints
@@ -340,6 +357,8 @@ public class UnicodeSet extends UnicodeFilter implements Iterable<String>, Compa
 
     private static final int START_EXTRA = 16;         // initial storage. Must be >= 0
     private static final int GROW_EXTRA = START_EXTRA; // extra amount for growth. Must be >= 0
+    private static final int INITIAL_CAPACITY = 25;
+    private static final int MAX_LENGTH = HIGH + 1; // maximum inversion list length
 
     // Special property set IDs
     private static final String ANY_ID   = "ANY";   // [\u0000-\U0010FFFF]
@@ -1181,6 +1200,53 @@ public UnicodeSet addAll(int start, int end) {
         return add_unchecked(start, end);
     }
 
+    /**
+     * Adds all of the given code points to this set.
+     * The code points need not be sorted and may contain duplicates.
+     * This sorts a copy of the array once and merges the resulting ranges
+     * into this set in a single pass, rather than inserting each code point
+     * into the middle of the inversion list.
+     *
+     * @param codePoints code points to be added to this set
+     * @return this object, for chaining
+     * @throws IllegalArgumentException if one of the values is not a code point
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public UnicodeSet addAll(int[] codePoints) {
+        checkFrozen();
+        int n = codePoints.length;
+        if (n == 0) {
+            return this;
+        }
+        int[] sorted = codePoints.clone();
+        Arrays.sort(sorted);
+        if (sorted[0] < MIN_VALUE) {
+            throw new IllegalArgumentException("Invalid code point U+" + Utility.hex(sorted[0], 6));
+        }
+        if (sorted[n - 1] > MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid code point U+" + Utility.hex(sorted[n - 1], 6));
+        }
+        // Build an inversion list from the sorted code points.
+        int[] other = new int[2 * n + 1];
+        int otherLen = 0;
+        for (int c : sorted) {
+            if (otherLen > 0 && c <= other[otherLen - 1]) {
+                if (c == other[otherLen - 1]) {
+                    ++other[otherLen - 1];  // Extend the last range.
+                }  // else duplicate
+            } else {
+                other[otherLen++] = c;
+                other[otherLen++] = c + 1;
+            }
+        }
+        if (other[otherLen - 1] < HIGH) {
+            other[otherLen++] = HIGH;
+        }  // else the last range ends at HIGH which also terminates the list
+        add(other, otherLen, 0);
+        return this;
+    }
+
     // for internal use, after checkFrozen has been called
     private UnicodeSet add_unchecked(int start, int end) {
         if (start < MIN_VALUE || start > MAX_VALUE) {
@@ -1190,6 +1256,35 @@ private UnicodeSet add_unchecked(int start, int end) {
             throw new IllegalArgumentException("Invalid code point U+" + Utility.hex(end, 6));
         }
         if (start < end) {
+            int limit = end + 1;
+            // Fast path for adding a new range after the last one,
+            // as when building a set from ascending property value ranges.
+            // Odd list length: [..., lastStart, lastLimit, HIGH]
+            if ((len & 1) != 0) {
+                // If the list is empty, set lastLimit low enough to not be adjacent to 0.
+                int lastLimit = len == 1 ? -2 : list[len - 2];
+                if (lastLimit <= start) {
+                    if (lastLimit == start) {
+                        // Extend the last range.
+                        list[len - 2] = limit;
+                        if (limit == HIGH) {
+                            --len;
+                        }
+                    } else {
+                        list[len - 1] = start;
+                        if (limit < HIGH) {
+                            ensureCapacity(len + 2);
+                            list[len++] = limit;
+                            list[len++] = HIGH;
+                        } else {  // limit == HIGH
+                            ensureCapacity(len + 1);
+                            list[len++] = HIGH;
+                        }
+                    }
+                    pat = null;
+                    return this;
+                }
+            }
             add(range(start, end), 2, 0);
         } else if (start == end) {
             add(start);
@@ -2921,11 +3016,23 @@ public UnicodeSet addAll(Iterable<?> source) {
 
     private void ensureCapacity(int newLen) {
         if (newLen <= list.length) return;
-        int[] temp = new int[newLen + GROW_EXTRA];
+        int[] temp = new int[nextCapacity(newLen)];
         System.arraycopy(list, 0, temp, 0, len);
         list = temp;
     }
 
+    private static int nextCapacity(int minCapacity) {
+        // Grow exponentially to reduce the frequency of allocations
+        // when many ranges are appended one at a time.
+        if (minCapacity < INITIAL_CAPACITY) {
+            return minCapacity + INITIAL_CAPACITY;
+        } else if (minCapacity <= 2500) {
+            return 5 * minCapacity;
+        } else {
+            return Math.min(2 * minCapacity, MAX_LENGTH);
+        }
+    }
+
     private void ensureBufferCapacity(int newLen) {
         if (buffer != null && newLen <= buffer.length) return;
         buffer = new int[newLen + GROW_EXTRA];
@@ -4004,6 +4111,23 @@ public UnicodeSet freeze() {
         return this;
     }
 
+    /**
+     * Returns a frozen set for the pattern, equal to {@code new UnicodeSet(pattern).freeze()}.
+     * Frozen sets are cached by pattern string (via soft references),
+     * so code that builds the same sets repeatedly does not parse the pattern
+     * and evaluate its properties each time.
+     * The returned set is shared; use {@link #cloneAsThawed()} to modify a copy.
+     *
+     * @param pattern a string specifying what characters are in the set
+     * @return the frozen set
+     * @throws java.lang.IllegalArgumentException if the pattern contains a syntax error.
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static UnicodeSet getFrozen(String pattern) {
+        return FROZEN_CACHE.getInstance(pattern, null);
+    }
+
     /**
      * Span a string using this UnicodeSet.
      * <p>To replace, count elements, or delete spans, see {@link com.ibm.icu.text.UnicodeSetSpanner UnicodeSetSpanner}.
@@ -4170,6 +4294,206 @@ public int spanBack(CharSequence s, int fromIndex, SpanCondition spanCondition)
         return prev;
     }
 
+    /**
+     * Span UTF-8 text using this UnicodeSet, without converting it to UTF-16.
+     * Returns the index after the longest initial part of src[start..limit[
+     * which consists of set elements (or non-elements) according to the span condition,
+     * like {@link #span(CharSequence, int, SpanCondition)} on the equivalent UTF-16 string.
+     *
+     * <p>An ill-formed UTF-8 sequence (a maximal subpart of a well-formed one)
+     * is treated like U+FFFD.
+     * This is fastest on a frozen set whose strings, if any, are not relevant for spanning.
+     *
+     * @param src The UTF-8 bytes to be spanned
+     * @param start The start index that the span begins
+     * @param limit The end index of the text (exclusive)
+     * @param spanCondition The span condition
+     * @return the byte index which ends the span (i.e. exclusive)
+     * @throws IndexOutOfBoundsException if start or limit are out of bounds
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int spanUTF8(byte[] src, int start, int limit, SpanCondition spanCondition) {
+        checkUTF8Bounds(src, start, limit);
+        if (start == limit) {
+            return limit;
+        }
+        if (bmpSet != null) {
+            // Frozen set without strings, or no string is relevant for spanning.
+            return bmpSet.spanUTF8(src, start, limit, spanCondition);
+        }
+        if (!strings.isEmpty()) {
+            return spanUTF8AsUTF16(src, start, limit, spanCondition, false);
+        }
+        boolean spanContained = (spanCondition != SpanCondition.NOT_CONTAINED);
+        int i = start;
+        do {
+            int b = src[i];
+            int c, length;
+            if (b >= 0) {
+                c = b;
+                length = 1;
+            } else {
+                int decoded = UTF8Util.decode(src, i, limit);
+                c = decoded & 0xffffff;
+                length = decoded >>> 24;
+                if (c == UTF8Util.ILL_FORMED) {
+                    c = 0xfffd;
+                }
+            }
+            if (spanContained != contains(c)) {
+                break;
+            }
+            i += length;
+        } while (i < limit);
+        return i;
+    }
+
+    /**
+     * Span UTF-8 text using this UnicodeSet, from the buffer's position to its limit.
+     * Otherwise the same as {@link #spanUTF8(byte[], int, int, SpanCondition)}.
+     * Does not change the buffer's position.
+     *
+     * @param src The UTF-8 bytes to be spanned
+     * @param spanCondition The span condition
+     * @return the buffer index which ends the span (i.e. exclusive)
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int spanUTF8(ByteBuffer src, SpanCondition spanCondition) {
+        int position = src.position();
+        if (src.hasArray()) {
+            int offset = src.arrayOffset();
+            return spanUTF8(src.array(), offset + position, offset + src.limit(), spanCondition) -
+                    offset;
+        }
+        byte[] bytes = new byte[src.remaining()];
+        src.duplicate().get(bytes);
+        return position + spanUTF8(bytes, 0, bytes.length, spanCondition);
+    }
+
+    /**
+     * Span UTF-8 text backwards (from the limit) using this UnicodeSet, without converting it to UTF-16.
+     * Returns the start of the longest final part of src[start..limit[
+     * which consists of set elements (or non-elements) according to the span condition,
+     * like {@link #spanBack(CharSequence, int, SpanCondition)} on the equivalent UTF-16 string.
+     * Ill-formed UTF-8 sequences are treated like U+FFFD, as in
+     * {@link #spanUTF8(byte[], int, int, SpanCondition)}.
+     *
+     * @param src The UTF-8 bytes to be spanned
+     * @param start The start index of the text
+     * @param limit The index (exclusive) that the text should be spanned backwards from
+     * @param spanCondition The span condition
+     * @return the byte index which starts the span (i.e. inclusive)
+     * @throws IndexOutOfBoundsException if start or limit are out of bounds
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int spanBackUTF8(byte[] src, int start, int limit, SpanCondition spanCondition) {
+        checkUTF8Bounds(src, start, limit);
+        if (start == limit) {
+            return start;
+        }
+        if (bmpSet != null) {
+            // Frozen set without strings, or no string is relevant for spanning.
+            return bmpSet.spanBackUTF8(src, start, limit, spanCondition);
+        }
+        if (!strings.isEmpty()) {
+            return spanUTF8AsUTF16(src, start, limit, spanCondition, true);
+        }
+        boolean spanContained = (spanCondition != SpanCondition.NOT_CONTAINED);
+        int i = limit;
+        do {
+            int b = src[i - 1];
+            int c, length;
+            if (b >= 0) {
+                c = b;
+                length = 1;
+            } else {
+                int decoded = UTF8Util.decodeBefore(src, start, i);
+                c = decoded & 0xffffff;
+                length = decoded >>> 24;
+                if (c == UTF8Util.ILL_FORMED) {
+                    c = 0xfffd;
+                }
+            }
+            if (spanContained != contains(c)) {
+                break;
+            }
+            i -= length;
+        } while (i > start);
+        return i;
+    }
+
+    /**
+     * Span UTF-8 text backwards using this UnicodeSet, from the buffer's limit to its position.
+     * Otherwise the same as {@link #spanBackUTF8(byte[], int, int, SpanCondition)}.
+     * Does not change the buffer's position.
+     *
+     * @param src The UTF-8 bytes to be spanned
+     * @param spanCondition The span condition
+     * @return the buffer index which starts the span (i.e. inclusive)
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int spanBackUTF8(ByteBuffer src, SpanCondition spanCondition) {
+        int position = src.position();
+        if (src.hasArray()) {
+            int offset = src.arrayOffset();
+            return spanBackUTF8(src.array(), offset + position, offset + src.limit(), spanCondition) -
+                    offset;
+        }
+        byte[] bytes = new byte[src.remaining()];
+        src.duplicate().get(bytes);
+        return position + spanBackUTF8(bytes, 0, bytes.length, spanCondition);
+    }
+
+    private static void checkUTF8Bounds(byte[] src, int start, int limit) {
+        if (start < 0 || start > limit || limit > src.length) {
+            throw new IndexOutOfBoundsException(
+                    "start " + start + ", limit " + limit + ", length " + src.length);
+        }
+    }
+
+    /**
+     * Spans UTF-8 text with relevant strings:
+     * There is no UTF-8 string span implementation,
+     * so this decodes the text, spans the UTF-16 string,
+     * and maps the UTF-16 span index back to the UTF-8 index.
+     */
+    private int spanUTF8AsUTF16(byte[] src, int start, int limit,
+            SpanCondition spanCondition, boolean back) {
+        StringBuilder s = new StringBuilder(limit - start);
+        for (int i = start; i < limit;) {
+            int b = src[i];
+            if (b >= 0) {
+                s.append((char) b);
+                ++i;
+            } else {
+                int decoded = UTF8Util.decode(src, i, limit);
+                int c = decoded & 0xffffff;
+                s.appendCodePoint(c == UTF8Util.ILL_FORMED ? 0xfffd : c);
+                i += decoded >>> 24;
+            }
+        }
+        int index16 = back ? spanBack(s, s.length(), spanCondition) : span(s, 0, spanCondition);
+        // Spans end on code point boundaries: Count UTF-16 units per UTF-8 sequence.
+        int i = start;
+        for (int length16 = 0; length16 < index16;) {
+            int b = src[i];
+            if (b >= 0) {
+                ++length16;
+                ++i;
+            } else {
+                int decoded = UTF8Util.decode(src, i, limit);
+                int c = decoded & 0xffffff;
+                length16 += (0x10000 <= c && c <= 0x10ffff) ? 2 : 1;
+                i += decoded >>> 24;
+            }
+        }
+        return i;
+    }
+
     /**
      * Clone a thawed version of this class, according to the Freezable interface.
      * @return the clone, not frozen
@@ -4193,6 +4517,227 @@ private void checkFrozen() {
     // Additional methods for integration with Generics and Collections
     // ************************
 
+    /**
+     * Builds a UnicodeSet from many sets and code points with one k-way merge
+     * of their inversion lists, rather than with pairwise
+     * {@link UnicodeSet#addAll(UnicodeSet)}, {@link UnicodeSet#retainAll(UnicodeSet)}
+     * and {@link UnicodeSet#removeAll(UnicodeSet)} calls which each rewrite the whole list.
+     *
+     * <p>The result contains the union of all added sets, ranges and code points,
+     * intersected with each retained set, minus the union of all removed sets.
+     * It does not depend on the order of the calls.
+     * The sets are read by {@link #build()}; they must not be modified until then.
+     *
+     * <pre>
+     * UnicodeSet allowed = new UnicodeSet.Builder()
+     *         .addAll(letters).addAll(digits).addAll(extraCodePoints)
+     *         .removeAll(unassigned)
+     *         .build();
+     * </pre>
+     *
+     * @draft ICU 64
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static final class Builder {
+        private static final int ADD = 0, RETAIN = 1, REMOVE = 2;
+
+        private final ArrayList<UnicodeSet> added = new ArrayList<>();
+        private final ArrayList<UnicodeSet> retained = new ArrayList<>();
+        private final ArrayList<UnicodeSet> removed = new ArrayList<>();
+        /** Individually added code points and ranges. */
+        private final UnicodeSet codePoints = new UnicodeSet();
+
+        /**
+         * Constructs an empty builder.
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public Builder() {}
+
+        /**
+         * Adds the elements of the set to the result.
+         * @param set the set to be added
+         * @return this object, for chaining
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public Builder addAll(UnicodeSet set) {
+            added.add(set);
+            return this;
+        }
+
+        /**
+         * Adds the code points start..end (inclusive) to the result.
+         * @param start first code point of the range
+         * @param end last code point of the range
+         * @return this object, for chaining
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public Builder add(int start, int end) {
+            codePoints.add(start, end);
+            return this;
+        }
+
+        /**
+         * Adds the code point to the result.
+         * @param c the code point
+         * @return this object, for chaining
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public Builder add(int c) {
+            codePoints.add(c);
+            return this;
+        }
+
+        /**
+         * Adds the code points to the result, see {@link UnicodeSet#addAll(int[])}.
+         * @param cps code points in any order
+         * @return this object, for chaining
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public Builder addAll(int[] cps) {
+            codePoints.addAll(cps);
+            return this;
+        }
+
+        /**
+         * Restricts the result to elements of the set.
+         * @param set the set to be intersected with
+         * @return this object, for chaining
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public Builder retainAll(UnicodeSet set) {
+            retained.add(set);
+            return this;
+        }
+
+        /**
+         * Removes the elements of the set from the result.
+         * @param set the set to be subtracted
+         * @return this object, for chaining
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public Builder removeAll(UnicodeSet set) {
+            removed.add(set);
+            return this;
+        }
+
+        /**
+         * Returns a new, modifiable set with the result of the operations so far.
+         * The builder can continue to be used.
+         * @return the new set
+         * @draft ICU 64
+         * @provisional This API might change or be removed in a future release.
+         */
+        public UnicodeSet build() {
+            ArrayList<UnicodeSet> sets = new ArrayList<>(added);
+            sets.add(codePoints);
+            int numAdded = sets.size();
+            sets.addAll(retained);
+            sets.addAll(removed);
+            int k = sets.size();
+            int[][] lists = new int[k][];
+            int[] roles = new int[k];
+            // The result boundaries are a subset of the input boundaries.
+            int capacity = 1;
+            for (int i = 0; i < k; ++i) {
+                UnicodeSet set = sets.get(i);
+                lists[i] = set.list;
+                roles[i] = i < numAdded ? ADD : i < (numAdded + retained.size()) ? RETAIN : REMOVE;
+                capacity += set.len - 1;
+            }
+
+            // Walk all boundaries in ascending order with a heap of list indexes,
+            // and count for each role how many of the lists contain the current range.
+            int[] pos = new int[k];
+            int[] heap = new int[k];
+            int heapSize = 0;
+            for (int i = 0; i < k; ++i) {
+                if (lists[i][0] < HIGH) {
+                    heap[heapSize++] = i;
+                }
+            }
+            for (int h = heapSize / 2 - 1; h >= 0; --h) {
+                siftDown(heap, heapSize, h, lists, pos);
+            }
+            int numInAdded = 0;
+            int numNotInRetained = retained.size();
+            int numInRemoved = 0;
+            int[] result = new int[capacity];
+            int resultLen = 0;
+            boolean inResult = false;
+            while (heapSize > 0) {
+                int c = lists[heap[0]][pos[heap[0]]];
+                do {
+                    int i = heap[0];
+                    // Even index: range start; odd index: range limit.
+                    int delta = (pos[i] & 1) == 0 ? 1 : -1;
+                    switch (roles[i]) {
+                    case ADD: numInAdded += delta; break;
+                    case RETAIN: numNotInRetained -= delta; break;
+                    default: numInRemoved += delta; break;
+                    }
+                    if (lists[i][++pos[i]] == HIGH) {
+                        heap[0] = heap[--heapSize];
+                    }
+                    siftDown(heap, heapSize, 0, lists, pos);
+                } while (heapSize > 0 && lists[heap[0]][pos[heap[0]]] == c);
+                boolean in = numInAdded > 0 && numNotInRetained == 0 && numInRemoved == 0;
+                if (in != inResult) {
+                    result[resultLen++] = c;
+                    inResult = in;
+                }
+            }
+            result[resultLen++] = HIGH;
+
+            UnicodeSet set = new UnicodeSet();
+            set.list = result;
+            set.len = resultLen;
+            for (int i = 0; i < numAdded; ++i) {
+                set.strings.addAll(sets.get(i).strings);
+            }
+            if (!set.strings.isEmpty()) {
+                for (UnicodeSet r : retained) {
+                    set.strings.retainAll(r.strings);
+                }
+                for (UnicodeSet r : removed) {
+                    set.strings.removeAll(r.strings);
+                }
+            }
+            return set;
+        }
+
+        private static void siftDown(int[] heap, int heapSize, int h, int[][] lists, int[] pos) {
+            int i = heap[h];
+            int c = lists[i][pos[i]];
+            for (;;) {
+                int child = 2 * h + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                int childC = lists[heap[child]][pos[heap[child]]];
+                if ((child + 1) < heapSize) {
+                    int rightC = lists[heap[child + 1]][pos[heap[child + 1]]];
+                    if (rightC < childC) {
+                        ++child;
+                        childC = rightC;
+                    }
+                }
+                if (c <= childC) {
+                    break;
+                }
+                heap[h] = heap[child];
+                h = child;
+            }
+            heap[h] = i;
+        }
+    }
+
     /**
      * A struct-like class used for iteration through ranges, for faster iteration than by String.
      * Read about the restrictions on usage in {@link UnicodeSet#ranges()}.
@@ -4860,6 +5405,7 @@ public static void setDefaultXSymbolTable(XSymbolTable xSymbolTable) {
         // TODO: Check if the Unicode Tools or Unicode Utilities really need this.
         CharacterPropertiesImpl.clear();
         XSYMBOL_TABLE = xSymbolTable;
+        FROZEN_CACHE = new FrozenCache();
     }
 }
 //eof
@@ -22,6 +22,10 @@
  * Iterate over those source ranges; for each of them iterate over this trie;
  * add the source value into the value of each trie range.
  *
+ * <p>A MutableCodePointTrie is not thread-safe. Clones share no mutable state,
+ * and buildImmutable() compacts with working memory of its own for each call,
+ * so different instances can be built into immutable tries at the same time.
+ *
  * @draft ICU 63
  * @provisional This API might change or be removed in a future release.
  */
@@ -526,34 +530,6 @@ private static boolean allValuesSameAs(int[] p, int pi, int length, int value) {
     }
 
     /** Search for an identical block. */
-    private static int findSameBlock(int[] p, int pStart, int length,
-            int[] q, int qStart, int blockLength) {
-        // Ensure that we do not even partially get past length.
-        length -= blockLength;
-
-        while (pStart <= length) {
-            if (equalBlocks(p, pStart, q, qStart, blockLength)) {
-                return pStart;
-            }
-            ++pStart;
-        }
-        return -1;
-    }
-
-    private static int findSameBlock(char[] p, int pStart, int length,
-            int[] q, int qStart, int blockLength) {
-        // Ensure that we do not even partially get past length.
-        length -= blockLength;
-
-        while (pStart <= length) {
-            if (equalBlocks(p, pStart, q, qStart, blockLength)) {
-                return pStart;
-            }
-            ++pStart;
-        }
-        return -1;
-    }
-
     private static int findSameBlock(char[] p, int pStart, int length,
             char[] q, int qStart, int blockLength) {
         // Ensure that we do not even partially get past length.
@@ -738,6 +714,216 @@ int findMostUsed() {
         private int[] refCounts = new int[CAPACITY];
     }
 
+    /**
+     * Hash table for finding an earlier occurrence of a block of values
+     * anywhere in the compacted data or index array, not just at block boundaries.
+     * This replaces a linear search at each position, which made compaction
+     * quadratic in the length of the array.
+     *
+     * <p>Each table entry stores the upper bits of a block's hash code and
+     * the array index of the earliest block with that content, plus 1
+     * (0 is reserved for empty entries).
+     * Equal blocks are compared value by value; the earliest occurrence wins,
+     * which gives the same results as the linear search.
+     */
+    private static final class MixedBlocks {
+        private int[] table;
+        private int length;
+        private int shift;
+        private int mask;
+        private int blockLength;
+
+        void init(int maxLength, int newBlockLength) {
+            // We store actual data indexes + 1 to reserve 0 for empty entries.
+            int maxDataIndex = maxLength - newBlockLength + 1;
+            int newLength;
+            if (maxDataIndex <= 0xfff) {  // 4k
+                newLength = 6007;
+                shift = 12;
+                mask = 0xfff;
+            } else if (maxDataIndex <= 0x7fff) {  // 32k
+                newLength = 50021;
+                shift = 15;
+                mask = 0x7fff;
+            } else if (maxDataIndex <= 0x1ffff) {  // 128k
+                newLength = 200003;
+                shift = 17;
+                mask = 0x1ffff;
+            } else {
+                // maxDataIndex up to around MAX_DATA_LENGTH, ca. 1.1M
+                newLength = 1500007;
+                shift = 21;
+                mask = 0x1fffff;
+            }
+            if (table == null || newLength > table.length) {
+                table = new int[newLength];
+            } else {
+                Arrays.fill(table, 0, newLength, 0);
+            }
+            length = newLength;
+            blockLength = newBlockLength;
+        }
+
+        /**
+         * Adds the blocks that start at minStart or later
+         * and end within data[0..newDataLength[ but did not end within data[0..prevDataLength[.
+         */
+        void extend(int[] data, int minStart, int prevDataLength, int newDataLength) {
+            int start = prevDataLength - blockLength;
+            if (start >= minStart) {
+                ++start;  // Skip the last block that we added last time.
+            } else {
+                start = minStart;  // Begin with the first full block.
+            }
+            for (int end = newDataLength - blockLength; start <= end; ++start) {
+                int hashCode = makeHashCode(data, start);
+                addEntry(data, null, start, hashCode, start);
+            }
+        }
+
+        void extend(char[] data, int minStart, int prevDataLength, int newDataLength) {
+            int start = prevDataLength - blockLength;
+            if (start >= minStart) {
+                ++start;  // Skip the last block that we added last time.
+            } else {
+                start = minStart;  // Begin with the first full block.
+            }
+            for (int end = newDataLength - blockLength; start <= end; ++start) {
+                int hashCode = makeHashCode(data, start);
+                addEntry(null, data, start, hashCode, start);
+            }
+        }
+
+        int findBlock(int[] data, int[] blockData, int blockStart) {
+            int hashCode = makeHashCode(blockData, blockStart);
+            int entryIndex = findEntry(data, null, blockData, null, blockStart, hashCode);
+            if (entryIndex >= 0) {
+                return (table[entryIndex] & mask) - 1;
+            } else {
+                return -1;
+            }
+        }
+
+        int findBlock(char[] data, int[] blockData, int blockStart) {
+            int hashCode = makeHashCode(blockData, blockStart);
+            int entryIndex = findEntry(null, data, blockData, null, blockStart, hashCode);
+            if (entryIndex >= 0) {
+                return (table[entryIndex] & mask) - 1;
+            } else {
+                return -1;
+            }
+        }
+
+        int findBlock(char[] data, char[] blockData, int blockStart) {
+            int hashCode = makeHashCode(blockData, blockStart);
+            int entryIndex = findEntry(null, data, null, blockData, blockStart, hashCode);
+            if (entryIndex >= 0) {
+                return (table[entryIndex] & mask) - 1;
+            } else {
+                return -1;
+            }
+        }
+
+        int findAllSameBlock(int[] data, int blockValue) {
+            int hashCode = makeHashCode(blockValue);
+            int entryIndex = findEntry(data, blockValue, hashCode);
+            if (entryIndex >= 0) {
+                return (table[entryIndex] & mask) - 1;
+            } else {
+                return -1;
+            }
+        }
+
+        private int makeHashCode(int[] blockData, int blockStart) {
+            int blockLimit = blockStart + blockLength;
+            int hashCode = blockData[blockStart++];
+            do {
+                hashCode = 37 * hashCode + blockData[blockStart++];
+            } while (blockStart < blockLimit);
+            return hashCode;
+        }
+
+        private int makeHashCode(char[] blockData, int blockStart) {
+            int blockLimit = blockStart + blockLength;
+            int hashCode = blockData[blockStart++];
+            do {
+                hashCode = 37 * hashCode + blockData[blockStart++];
+            } while (blockStart < blockLimit);
+            return hashCode;
+        }
+
+        private int makeHashCode(int blockValue) {
+            int hashCode = blockValue;
+            for (int i = 1; i < blockLength; ++i) {
+                hashCode = 37 * hashCode + blockValue;
+            }
+            return hashCode;
+        }
+
+        private void addEntry(int[] data32, char[] data16, int blockStart, int hashCode, int dataIndex) {
+            assert(0 <= dataIndex && dataIndex < mask);
+            int entryIndex = findEntry(data32, data16, data32, data16, blockStart, hashCode);
+            if (entryIndex < 0) {
+                table[~entryIndex] = (hashCode << shift) | (dataIndex + 1);
+            }
+        }
+
+        private int findEntry(int[] data32, char[] data16,
+                int[] blockData32, char[] blockData16, int blockStart, int hashCode) {
+            int shiftedHashCode = hashCode << shift;
+            int initialEntryIndex = modulo(hashCode, length - 1) + 1;  // 1..length-1
+            for (int entryIndex = initialEntryIndex;;) {
+                int entry = table[entryIndex];
+                if (entry == 0) {
+                    return ~entryIndex;
+                }
+                if ((entry & ~mask) == shiftedHashCode) {
+                    int dataIndex = (entry & mask) - 1;
+                    if (data32 != null ?
+                            equalBlocks(data32, dataIndex, blockData32, blockStart, blockLength) :
+                            blockData32 != null ?
+                                equalBlocks(data16, dataIndex, blockData32, blockStart, blockLength) :
+                                equalBlocks(data16, dataIndex, blockData16, blockStart, blockLength)) {
+                        return entryIndex;
+                    }
+                }
+                entryIndex = nextIndex(initialEntryIndex, entryIndex);
+            }
+        }
+
+        private int findEntry(int[] data, int blockValue, int hashCode) {
+            int shiftedHashCode = hashCode << shift;
+            int initialEntryIndex = modulo(hashCode, length - 1) + 1;  // 1..length-1
+            for (int entryIndex = initialEntryIndex;;) {
+                int entry = table[entryIndex];
+                if (entry == 0) {
+                    return ~entryIndex;
+                }
+                if ((entry & ~mask) == shiftedHashCode) {
+                    int dataIndex = (entry & mask) - 1;
+                    if (allValuesSameAs(data, dataIndex, blockLength, blockValue)) {
+                        return entryIndex;
+                    }
+                }
+                entryIndex = nextIndex(initialEntryIndex, entryIndex);
+            }
+        }
+
+        private int nextIndex(int initialEntryIndex, int entryIndex) {
+            assert(0 < initialEntryIndex && initialEntryIndex < length);
+            return (entryIndex + initialEntryIndex) % length;
+        }
+
+        /** Ensures non-negative n % m (that is, 0..m-1). */
+        private int modulo(int n, int m) {
+            int i = n % m;
+            if (i < 0) {
+                i += m;
+            }
+            return i;
+        }
+    }
+
     private int compactWholeDataBlocks(int fastILimit, AllSameBlocks allSameBlocks) {
         // ASCII data will be stored as a linear table, even if the following code
         // does not yet count it that way.
@@ -836,7 +1022,7 @@ private int compactWholeDataBlocks(int fastILimit, AllSameBlocks allSameBlocks)
      *
      * It does not try to find an optimal order of writing, deduplicating, and overlapping blocks.
      */
-    private int compactData(int fastILimit, int[] newData, int dataNullIndex) {
+    private int compactData(int fastILimit, int[] newData, int dataNullIndex, MixedBlocks mixedBlocks) {
         // The linear ASCII data has been copied into newData already.
         int newDataLength = 0;
         for (int i = 0; newDataLength < ASCII_LIMIT;
@@ -844,8 +1030,11 @@ private int compactData(int fastILimit, int[] newData, int dataNullIndex) {
             index[i] = newDataLength;
         }
 
-        int iLimit = highStart >> CodePointTrie.SHIFT_3;
         int blockLength = CodePointTrie.FAST_DATA_BLOCK_LENGTH;
+        mixedBlocks.init(newData.length, blockLength);
+        mixedBlocks.extend(newData, 0, 0, newDataLength);
+
+        int iLimit = highStart >> CodePointTrie.SHIFT_3;
         int inc = SMALL_DATA_BLOCKS_PER_BMP_BLOCK;
         int fastLength = 0;
         for (int i = ASCII_I_LIMIT; i < iLimit; i += inc) {
@@ -853,11 +1042,14 @@ private int compactData(int fastILimit, int[] newData, int dataNullIndex) {
                 blockLength = CodePointTrie.SMALL_DATA_BLOCK_LENGTH;
                 inc = 1;
                 fastLength = newDataLength;
+                mixedBlocks.init(newData.length, blockLength);
+                mixedBlocks.extend(newData, 0, 0, newDataLength);
             }
             if (flags[i] == ALL_SAME) {
                 int value = index[i];
                 // Find an earlier part of the data array of length blockLength
                 // that is filled with this value.
+                int n = mixedBlocks.findAllSameBlock(newData, value);
                 // If we find a match, and the current block is the data null block,
                 // and it is not a fast block but matches the start of a fast block,
                 // then we need to continue looking.
@@ -865,34 +1057,35 @@ private int compactData(int fastILimit, int[] newData, int dataNullIndex) {
                 // and not all of the rest of the fast block is filled with this value.
                 // Otherwise trie.getRange() would detect that the fast block starts at
                 // dataNullOffset and assume incorrectly that it is filled with the null value.
-                int n;
-                for (int start = 0;
-                        (n = findAllSameBlock(newData, start, newDataLength,
-                                    value, blockLength)) >= 0 &&
-                                i == dataNullIndex && i >= fastILimit && n < fastLength &&
-                                isStartOfSomeFastBlock(n, index, fastILimit);
-                        start = n + 1) {}
+                while (n >= 0 && i == dataNullIndex && i >= fastILimit && n < fastLength &&
+                        isStartOfSomeFastBlock(n, index, fastILimit)) {
+                    n = findAllSameBlock(newData, n + 1, newDataLength, value, blockLength);
+                }
                 if (n >= 0) {
                     index[i] = n;
                 } else {
                     n = getAllSameOverlap(newData, newDataLength, value, blockLength);
                     index[i] = newDataLength - n;
+                    int prevDataLength = newDataLength;
                     while (n < blockLength) {
                         newData[newDataLength++] = value;
                         ++n;
                     }
+                    mixedBlocks.extend(newData, 0, prevDataLength, newDataLength);
                 }
             } else if (flags[i] == MIXED) {
                 int block = index[i];
-                int n = findSameBlock(newData, 0, newDataLength, data, block, blockLength);
+                int n = mixedBlocks.findBlock(newData, data, block);
                 if (n >= 0) {
                     index[i] = n;
                 } else {
                     n = getOverlap(newData, newDataLength, data, block, blockLength);
                     index[i] = newDataLength - n;
+                    int prevDataLength = newDataLength;
                     while (n < blockLength) {
                         newData[newDataLength++] = data[block + n++];
                     }
+                    mixedBlocks.extend(newData, 0, prevDataLength, newDataLength);
                 }
             } else /* SAME_AS */ {
                 int j = index[i];
@@ -903,7 +1096,7 @@ private int compactData(int fastILimit, int[] newData, int dataNullIndex) {
         return newDataLength;
     }
 
-    private int compactIndex(int fastILimit) {
+    private int compactIndex(int fastILimit, MixedBlocks mixedBlocks) {
         int fastIndexLength = fastILimit >> (CodePointTrie.FAST_SHIFT - CodePointTrie.SHIFT_3);
         if ((highStart >> CodePointTrie.FAST_SHIFT) <= fastIndexLength) {
             // Only the linear fast index, no multi-stage index tables.
@@ -952,6 +1145,11 @@ private int compactIndex(int fastILimit) {
         // Otherwise, the multi-stage index covers all of Unicode.
         int iStart = fastILimit < BMP_I_LIMIT ? 0 : BMP_I_LIMIT;
         int iLimit = highStart >> CodePointTrie.SHIFT_3;
+
+        // Set up the hash table for finding index-3 blocks in the fast index.
+        mixedBlocks.init(fastIndexLength, CodePointTrie.INDEX_3_BLOCK_LENGTH);
+        mixedBlocks.extend(fastIndex, 0, 0, fastIndexLength);
+
         for (int i = iStart; i < iLimit;) {
             int j = i;
             int jLimit = i + CodePointTrie.INDEX_3_BLOCK_LENGTH;
@@ -976,8 +1174,7 @@ private int compactIndex(int fastILimit) {
                 }
             } else {
                 if (oredI3 <= 0xffff) {
-                    int n = findSameBlock(fastIndex, 0, fastIndexLength,
-                                              index, i, CodePointTrie.INDEX_3_BLOCK_LENGTH);
+                    int n = mixedBlocks.findBlock(fastIndex, index, i);
                     if (n >= 0) {
                         flags[i] = I3_BMP;
                         index[i] = n;
@@ -1009,6 +1206,11 @@ private int compactIndex(int fastILimit) {
         i3FirstNull = index3NullOffset;
         int index3Start = fastIndexLength + index1Length;
         int indexLength = index3Start;
+
+        // Set up the hash tables for finding index-3 blocks in the index-3 table.
+        // 18-bit index-3 blocks are longer, and are rare; they are searched linearly.
+        mixedBlocks.init(index16.length, CodePointTrie.INDEX_3_BLOCK_LENGTH);
+
         for (int i = iStart; i < iLimit; i += CodePointTrie.INDEX_3_BLOCK_LENGTH) {
             int i3;
             byte f = flags[i];
@@ -1022,8 +1224,7 @@ private int compactIndex(int fastILimit) {
             } else if (f == I3_BMP) {
                 i3 = index[i];
             } else if (f == I3_16) {
-                int n = findSameBlock(index16, index3Start, indexLength,
-                                          index, i, CodePointTrie.INDEX_3_BLOCK_LENGTH);
+                int n = mixedBlocks.findBlock(index16, index, i);
                 if (n >= 0) {
                     i3 = n;
                 } else {
@@ -1035,9 +1236,11 @@ private int compactIndex(int fastILimit) {
                                        index, i, CodePointTrie.INDEX_3_BLOCK_LENGTH);
                     }
                     i3 = indexLength - n;
+                    int prevIndexLength = indexLength;
                     while (n < CodePointTrie.INDEX_3_BLOCK_LENGTH) {
                         index16[indexLength++] = (char)index[i + n++];
                     }
+                    mixedBlocks.extend(index16, index3Start, prevIndexLength, indexLength);
                 }
             } else {
                 assert(f == I3_18);
@@ -1086,6 +1289,7 @@ private int compactIndex(int fastILimit) {
                                        index16, indexLength, INDEX_3_18BIT_BLOCK_LENGTH);
                     }
                     i3 = (indexLength - n) | 0x8000;
+                    int prevIndexLength = indexLength;
                     if (n > 0) {
                         int start = indexLength;
                         while (n < INDEX_3_18BIT_BLOCK_LENGTH) {
@@ -1094,6 +1298,7 @@ private int compactIndex(int fastILimit) {
                     } else {
                         indexLength += INDEX_3_18BIT_BLOCK_LENGTH;
                     }
+                    mixedBlocks.extend(index16, index3Start, prevIndexLength, indexLength);
                 }
             }
             if (index3NullOffset < 0 && i3FirstNull >= 0) {
@@ -1116,6 +1321,8 @@ private int compactIndex(int fastILimit) {
         }
 
         // Compact the index-2 table and write the index-1 table.
+        // The index-3 hash table is still valid because the block lengths are the same.
+        assert(CodePointTrie.INDEX_2_BLOCK_LENGTH == CodePointTrie.INDEX_3_BLOCK_LENGTH);
         int blockLength = CodePointTrie.INDEX_2_BLOCK_LENGTH;
         int i1 = fastIndexLength;
         for (int i = 0; i < i2Length; i += blockLength) {
@@ -1124,8 +1331,13 @@ private int compactIndex(int fastILimit) {
                 blockLength = i2Length - i;
             }
             int i2;
-            int n = findSameBlock(index16, index3Start, indexLength,
-                                      index2, i, blockLength);
+            int n;
+            if (blockLength == CodePointTrie.INDEX_2_BLOCK_LENGTH) {
+                n = mixedBlocks.findBlock(index16, index2, i);
+            } else {
+                n = findSameBlock(index16, index3Start, indexLength,
+                                  index2, i, blockLength);
+            }
             if (n >= 0) {
                 i2 = n;
             } else {
@@ -1136,9 +1348,11 @@ private int compactIndex(int fastILimit) {
                     n = getOverlap(index16, indexLength, index2, i, blockLength);
                 }
                 i2 = indexLength - n;
+                int prevIndexLength = indexLength;
                 while (n < blockLength) {
                     index16[indexLength++] = index2[i + n++];
                 }
+                mixedBlocks.extend(index16, index3Start, prevIndexLength, indexLength);
             }
             // Set the index-1 table entry.
             index16[i1++] = (char)i2;
@@ -1186,7 +1400,8 @@ private int compactTrie(int fastILimit) {
         int[] newData = Arrays.copyOf(asciiData, newDataCapacity);
 
         int dataNullIndex = allSameBlocks.findMostUsed();
-        int newDataLength = compactData(fastILimit, newData, dataNullIndex);
+        MixedBlocks mixedBlocks = new MixedBlocks();
+        int newDataLength = compactData(fastILimit, newData, dataNullIndex, mixedBlocks);
         assert(newDataLength <= newDataCapacity);
         data = newData;
         dataLength = newDataLength;
@@ -1203,7 +1418,7 @@ private int compactTrie(int fastILimit) {
             dataNullOffset = CodePointTrie.NO_DATA_NULL_OFFSET;
         }
 
-        int indexLength = compactIndex(fastILimit);
+        int indexLength = compactIndex(fastILimit, mixedBlocks);
         highStart = realHighStart;
         return indexLength;
     }
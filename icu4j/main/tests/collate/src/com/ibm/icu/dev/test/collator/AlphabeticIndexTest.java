@@ -14,6 +14,7 @@
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -1006,6 +1007,62 @@ public void TestSchSt() {
         }
     }
 
+    /**
+     * The bulk getBucketIndexes() must match getBucketIndex() for each name,
+     * including names that share the first primary with a multi-primary label.
+     */
+    @Test
+    public void TestBulkBucketIndexes() throws Exception {
+        String chars = "aAbcCdeæÆhHsStTzZ-'. 1\u03B1\u0416\u4E00\uAC00\u0301\uFFFF";
+        Random random = new Random(20181018);
+        String[] names = new String[2000];
+        for (int i = 0; i < names.length; ++i) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(6);
+            for (int j = 0; j < length; ++j) {
+                sb.append(chars.charAt(random.nextInt(chars.length())));
+            }
+            names[i] = sb.toString();
+        }
+        names[0] = "";
+        names[1] = "Sch";
+        names[2] = "Sc";
+        names[3] = "St";
+        for (int variant = 0; variant < 3; ++variant) {
+            RuleBasedCollator coll = new RuleBasedCollator("&s<<<ſ");
+            if (variant == 1) {
+                coll.setAlternateHandlingShifted(true);
+            } else if (variant == 2) {
+                coll.setCaseLevel(true);
+            }
+            AlphabeticIndex<Integer> index = new AlphabeticIndex<Integer>(coll);
+            index.addLabels(new UnicodeSet("[A-Z\u00C6{Sch*}{St*}\u0391-\u03A9]"));
+            ImmutableIndex<Integer> immIndex = index.buildImmutableIndex();
+            int[] bulk = immIndex.getBucketIndexes(names);
+            assertEquals("bulk length", names.length, bulk.length);
+            for (int i = 0; i < names.length; ++i) {
+                if (bulk[i] != immIndex.getBucketIndex(names[i])) {
+                    errln("variant " + variant + ": getBucketIndexes()[" + i + "]=" + bulk[i] +
+                            " but getBucketIndex(" + names[i] + ")=" +
+                            immIndex.getBucketIndex(names[i]));
+                }
+            }
+            // Range version only writes its range.
+            int[] dest = new int[names.length];
+            Arrays.fill(dest, -1);
+            immIndex.getBucketIndexes(names, 10, 20, dest);
+            assertEquals("untouched before range", -1, dest[9]);
+            assertEquals("untouched after range", -1, dest[20]);
+            assertEquals("range start", bulk[10], dest[10]);
+            assertEquals("range end", bulk[19], dest[19]);
+            try {
+                immIndex.getBucketIndexes(names, 0, names.length + 1, new int[names.length + 1]);
+                errln("getBucketIndexes(limit > names.length) did not throw");
+            } catch (IndexOutOfBoundsException expected) {
+            }
+        }
+    }
+
     /**
      * With no real labels, there should be only the underflow label.
      */
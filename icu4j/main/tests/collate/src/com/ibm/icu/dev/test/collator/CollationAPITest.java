@@ -14,10 +14,14 @@
 
 package com.ibm.icu.dev.test.collator;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.MissingResourceException;
 import java.util.Set;
@@ -438,6 +442,208 @@ public void TestHashCode() {
         doAssert(sortk2.hashCode() == sortk3.hashCode(), "Hash result not equal" );
     }
 
+    /**
+     * Tests that Collator.getFrozenInstance() shares one frozen instance per locale.
+     */
+    @Test
+    public void TestGetFrozenInstance() {
+        Collator frozen = Collator.getFrozenInstance(ULocale.ROOT);
+        assertTrue("frozen", frozen.isFrozen());
+        assertTrue("same instance", frozen == Collator.getFrozenInstance(ULocale.ROOT));
+        assertEquals("same as getInstance()", Collator.getInstance(ULocale.ROOT), frozen);
+        try {
+            frozen.setStrength(Collator.PRIMARY);
+            errln("setStrength() on a shared frozen collator did not throw");
+        } catch (UnsupportedOperationException expected) {
+        }
+        Collator thawed = frozen.cloneAsThawed();
+        thawed.setStrength(Collator.PRIMARY);
+        assertEquals("shared instance unchanged", Collator.TERTIARY, frozen.getStrength());
+
+        // Keywords select a different shared instance.
+        ULocale primaryLocale = new ULocale("@colStrength=primary");
+        Collator primary = Collator.getFrozenInstance(primaryLocale);
+        assertTrue("keyword instance frozen", primary.isFrozen());
+        assertTrue("keyword instance differs", primary != frozen);
+        assertTrue("same keyword instance", primary == Collator.getFrozenInstance(primaryLocale));
+        assertEquals("keyword strength", Collator.PRIMARY, primary.getStrength());
+        assertEquals("keyword compare", 0, primary.compare("a", "A"));
+        assertTrue("tertiary compare", frozen.compare("a", "A") < 0);
+    }
+
+    /**
+     * Tests that RuleBasedCollator.getCollationHash() is consistent with compare().
+     */
+    @Test
+    public void TestCollationHash() throws Exception {
+        String[] strings = {
+            "", "a", "A", "\u00E0", "a\u0300", "\u00C0", "ab", "aB", "Ab", "b",
+            "\u00E5", "a\u030A", "\u00C5", "\u212B", "co-op", "coop", "co op",
+            "\u30A2", "\u30A1", "\u3042", "\uAC00", "\u1100\u1161", "\uD835\uDC00",
+            "x\u0000y", "xy", "\u4E00", "\u4E01"
+        };
+        RuleBasedCollator coll = new RuleBasedCollator("&a<<<\u3042");
+        int[] strengths = { Collator.PRIMARY, Collator.SECONDARY, Collator.TERTIARY,
+                Collator.QUATERNARY, Collator.IDENTICAL };
+        for (int strength : strengths) {
+            for (int shifted = 0; shifted <= 1; ++shifted) {
+                coll.setStrength(strength);
+                coll.setAlternateHandlingShifted(shifted != 0);
+                for (String s : strings) {
+                    for (String t : strings) {
+                        long hs = coll.getCollationHash(s);
+                        long ht = coll.getCollationHash(t);
+                        boolean equal = coll.compare(s, t) == 0;
+                        if (equal && hs != ht) {
+                            errln("strength " + strength + " shifted " + shifted + ": \"" +
+                                    Utility.hex(s) + "\" == \"" + Utility.hex(t) +
+                                    "\" but hashes differ");
+                        }
+                        if (!equal && hs == ht) {
+                            // Not required, but a collision on this tiny set indicates a bad hash.
+                            errln("strength " + strength + " shifted " + shifted + ": \"" +
+                                    Utility.hex(s) + "\" != \"" + Utility.hex(t) +
+                                    "\" but hashes are equal");
+                        }
+                    }
+                }
+            }
+        }
+        // The frozen collator must return the same values.
+        Collator frozen = coll.cloneAsThawed().freeze();
+        for (String s : strings) {
+            assertEquals("frozen hash", coll.getCollationHash(s),
+                    ((RuleBasedCollator) frozen).getCollationHash(s));
+        }
+    }
+
+    private static final String[] LONG_TEST_STRINGS = {
+        "", "a", "A", "\u00E0", "a\u0300", "ab", "aB", "b", "co-op", "coop", "co op",
+        "\u30A2", "\u3042", "\uAC00", "\u1100\u1161", "\uD835\uDC00", "x\u0000y", "xy",
+        "\u0F73\u0F71", "\u0F71\u0F72\u0F74", "a\u0327\u0301", "a\u0301\u0327"
+    };
+
+    private static String makeLongString(String prefix, String suffix) {
+        StringBuilder sb = new StringBuilder(prefix);
+        for (int i = 0; i < 3000; ++i) {
+            sb.append("abc\u00E9 ");
+        }
+        return sb.append(suffix).toString();
+    }
+
+    /**
+     * Tests that bounded sort keys are prefixes of the full sort keys.
+     */
+    @Test
+    public void TestBoundedSortKey() throws Exception {
+        RuleBasedCollator coll = new RuleBasedCollator("&a<<<\u3042");
+        List<String> strings = new ArrayList<String>(Arrays.asList(LONG_TEST_STRINGS));
+        strings.add(makeLongString("x", "y"));
+        strings.add(makeLongString("x", "Y"));
+        int[] strengths = { Collator.PRIMARY, Collator.TERTIARY, Collator.IDENTICAL };
+        int[] maxLengths = { 1, 2, 5, 8, 30, 100000 };
+        RawCollationKey bounded = new RawCollationKey();
+        for (int strength : strengths) {
+            coll.setStrength(strength);
+            for (int j = 0; j < strings.size(); ++j) {
+                String s = strings.get(j);
+                RawCollationKey full = coll.getRawCollationKey(s, null);
+                for (int maxLength : maxLengths) {
+                    boolean truncated = coll.getRawCollationKey(s, maxLength, bounded);
+                    String msg = "strength " + strength + " strings[" + j + "] maxLength " + maxLength;
+                    assertEquals(msg + " truncated", full.size > maxLength, truncated);
+                    assertEquals(msg + " size", Math.min(full.size, maxLength), bounded.size);
+                    for (int i = 0; i < bounded.size; ++i) {
+                        if (bounded.bytes[i] != full.bytes[i]) {
+                            errln(msg + ": bounded key differs from full key at byte " + i);
+                            break;
+                        }
+                    }
+                    boolean readerTruncated = coll.getRawCollationKey(
+                            new StringReader(s), maxLength, bounded);
+                    assertEquals(msg + " Reader truncated", truncated, readerTruncated);
+                    assertEquals(msg + " Reader size", Math.min(full.size, maxLength), bounded.size);
+                    for (int i = 0; i < bounded.size; ++i) {
+                        if (bounded.bytes[i] != full.bytes[i]) {
+                            errln(msg + ": Reader key differs from full key at byte " + i);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        try {
+            coll.getRawCollationKey("a", 0, bounded);
+            errln("getRawCollationKey(maxLength=0) did not throw");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /**
+     * Reader that counts how many chars it has returned.
+     */
+    private static final class CountingReader extends StringReader {
+        int count;
+
+        CountingReader(String s) {
+            super(s);
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int n = super.read(cbuf, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Tests that compare(Reader, Reader) agrees with compare(String, String)
+     * and stops reading at an early difference.
+     */
+    @Test
+    public void TestCompareReaders() throws Exception {
+        RuleBasedCollator coll = new RuleBasedCollator("&a<<<\u3042");
+        List<String> strings = new ArrayList<String>(Arrays.asList(LONG_TEST_STRINGS));
+        strings.add(makeLongString("x", "y"));
+        strings.add(makeLongString("x", "Y"));
+        strings.add(makeLongString("x", "y\u0301"));
+        int[] strengths = { Collator.PRIMARY, Collator.SECONDARY, Collator.TERTIARY,
+                Collator.QUATERNARY, Collator.IDENTICAL };
+        for (int strength : strengths) {
+            for (int shifted = 0; shifted <= 1; ++shifted) {
+                coll.setStrength(strength);
+                coll.setAlternateHandlingShifted(shifted != 0);
+                for (String s : strings) {
+                    for (String t : strings) {
+                        int expected = Integer.signum(coll.compare(s, t));
+                        int actual = Integer.signum(
+                                coll.compare(new StringReader(s), new StringReader(t)));
+                        if (expected != actual) {
+                            errln("strength " + strength + " shifted " + shifted +
+                                    ": compare(Reader, Reader)=" + actual +
+                                    " but compare(String, String)=" + expected +
+                                    " for " + Utility.hex(s) + " vs. " + Utility.hex(t));
+                        }
+                    }
+                }
+            }
+        }
+
+        // A primary difference near the start must not read the whole texts.
+        coll.setStrength(Collator.TERTIARY);
+        CountingReader left = new CountingReader(makeLongString("a", ""));
+        CountingReader right = new CountingReader(makeLongString("b", ""));
+        assertTrue("a... < b...", coll.compare(left, right) < 0);
+        assertTrue("read only a prefix", left.count < 10000 && right.count < 10000);
+        RawCollationKey key = new RawCollationKey();
+        CountingReader source = new CountingReader(makeLongString("a", ""));
+        assertTrue("truncated", coll.getRawCollationKey(source, 20, key));
+        assertTrue("bounded key read only a prefix", source.count < 10000);
+    }
+
     /**
      * This tests the properties of a collator object.
      * - constructor
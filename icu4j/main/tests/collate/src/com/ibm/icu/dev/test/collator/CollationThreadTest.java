@@ -290,4 +290,24 @@ public void testFrozen() {
 
         runThreads(threads, control);
     }
+
+    @org.junit.Test
+    public void testFrozenInstance() {
+        // All threads share the one cached instance.
+        final Collator theCollator = Collator.getFrozenInstance(new Locale("pl", "", ""));
+        final Random r = new Random();
+        Control control = new Control();
+
+        Thread[] threads = new Thread[10];
+        for (int i = 0; i < threads.length; ++i) {
+            Test test = new Test("Shared frozen collation test thread " + i, threadTestData.clone(),
+                    Collator.getFrozenInstance(new Locale("pl", "", "")), r, control);
+            threads[i] = new Thread(test);
+        }
+
+        runThreads(threads, control);
+        if (Collator.getFrozenInstance(new Locale("pl", "", "")) != theCollator) {
+            errln("getFrozenInstance(pl) did not return the shared instance");
+        }
+    }
 }
@@ -25,7 +25,10 @@
 
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -35,6 +38,7 @@
 import com.ibm.icu.dev.test.TestFmwk;
 import com.ibm.icu.text.BreakIterator;
 import com.ibm.icu.text.Collator;
+import com.ibm.icu.text.MultiStringSearch;
 import com.ibm.icu.text.RuleBasedCollator;
 import com.ibm.icu.text.SearchIterator;
 import com.ibm.icu.text.SearchIterator.ElementComparisonType;
@@ -2249,4 +2253,97 @@ public void TestLongPattern() {
             errln("Error initializing a new StringSearch object");
         }
     }
+
+    // Compares forward matches with String.indexOf() on text where the collation
+    // elements correspond 1:1 to the characters, exercising the CE skip table.
+    @Test
+    public void TestSkipTable() throws Exception {
+        RuleBasedCollator coll = new RuleBasedCollator("");
+        Random random = new Random(20181018);
+        String alphabet = "abcd";
+        for (int count = 0; count < 200; ++count) {
+            StringBuilder text = new StringBuilder();
+            int textLength = 1 + random.nextInt(200);
+            for (int i = 0; i < textLength; ++i) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            StringBuilder pattern = new StringBuilder();
+            int patternLength = 1 + random.nextInt(6);
+            for (int i = 0; i < patternLength; ++i) {
+                pattern.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            boolean overlap = (count & 1) != 0;
+            StringSearch strsrch = new StringSearch(pattern.toString(),
+                    new StringCharacterIterator(text.toString()), coll);
+            strsrch.setOverlapping(overlap);
+            int expected = text.indexOf(pattern.toString());
+            int offset;
+            for (offset = strsrch.first(); offset != SearchIterator.DONE; offset = strsrch.next()) {
+                if (offset != expected || strsrch.getMatchLength() != patternLength) {
+                    errln("Error: pattern " + pattern + " in " + text + " overlap=" + overlap +
+                            " expected match at " + expected + ", got " + offset);
+                    break;
+                }
+                expected = text.indexOf(pattern.toString(), overlap ? offset + 1 : offset + patternLength);
+            }
+            if (offset == SearchIterator.DONE && expected >= 0) {
+                errln("Error: pattern " + pattern + " in " + text + " overlap=" + overlap +
+                        " missing match at " + expected);
+            }
+        }
+    }
+
+    @Test
+    public void TestMultiStringSearch() throws Exception {
+        RuleBasedCollator coll = new RuleBasedCollator("");
+        MultiStringSearch search = new MultiStringSearch(coll, "fox", "dog", "og", "resume", "ae");
+        assertEquals("pattern count", 5, search.getPatternCount());
+        assertEquals("pattern 1", "dog", search.getPattern(1));
+
+        final List<String> matches = new ArrayList<String>();
+        MultiStringSearch.MatchHandler handler = new MultiStringSearch.MatchHandler() {
+            @Override
+            public boolean handleMatch(int patternIndex, int start, int limit) {
+                matches.add(patternIndex + ":" + start + "-" + limit);
+                return true;
+            }
+        };
+        search.search("The quick brown Fox jumps over the lazy DOG.", handler);
+        assertEquals("fox/dog matches", "[0:16-19, 1:40-43, 2:41-43]", matches.toString());
+
+        // Primary strength: Accents are ignored.
+        matches.clear();
+        search.search("My R\u00E9sum\u00E9, resume", handler);
+        assertEquals("resume matches", "[3:3-9, 3:11-17]", matches.toString());
+
+        // A match must neither start nor end inside an expansion.
+        MultiStringSearch ae = new MultiStringSearch(coll, "a", "e", "ae");
+        matches.clear();
+        ae.search("\u00E6", handler);
+        assertEquals("ae expansion", "[2:0-1]", matches.toString());
+
+        // Stop when the handler returns false.
+        matches.clear();
+        search.search("dog dog dog", new MultiStringSearch.MatchHandler() {
+            @Override
+            public boolean handleMatch(int patternIndex, int start, int limit) {
+                matches.add(patternIndex + ":" + start + "-" + limit);
+                return patternIndex != 1;
+            }
+        });
+        assertEquals("stop", "[1:0-3]", matches.toString());
+
+        // Alternate=shifted ignores punctuation.
+        RuleBasedCollator shifted = coll.cloneAsThawed();
+        shifted.setAlternateHandlingShifted(true);
+        matches.clear();
+        new MultiStringSearch(shifted, "coop").search("a co-op", handler);
+        assertEquals("shifted", "[0:2-7]", matches.toString());
+
+        try {
+            new MultiStringSearch(coll, "a", "");
+            errln("MultiStringSearch with an empty pattern should fail");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
 }
@@ -14,6 +14,7 @@
 import org.junit.Test;
 
 import com.ibm.icu.text.Bidi;
+import com.ibm.icu.text.BidiClassifier;
 import com.ibm.icu.text.BidiRun;
 
 /**
@@ -590,4 +591,150 @@ public void testExplicitLevel0() {
         assertEquals("java.text resolved level at 0", 1, jb.getLevelAt(0));
         assertEquals("java.text resolved level at 1", 1, jb.getLevelAt(1));
     }
+
+    @Test
+    public void testReuseBuffers() {
+        // A reused Bidi object must give the same results as a new one
+        // for each paragraph, with texts getting longer and shorter.
+        String[] texts = {
+            "abc \u05d0\u05d1\u05d2 123 def",
+            "\u05d0",
+            "",
+            "(\u0627\u0644\u0639\u0631\u0628\u064a\u0629 [abc] 12.5%) \u202b\u05d3\u05d4\u202c xyz\u200f",
+            "plain left-to-right text",
+            "\u2067\u05d0 abc\u2069 \u05d1\u05d2 456\u05d3",
+            "x"
+        };
+        int[] optionsList = { Bidi.OPTION_DEFAULT, Bidi.OPTION_INSERT_MARKS, Bidi.OPTION_REMOVE_CONTROLS };
+        int writeOptions = Bidi.DO_MIRRORING | Bidi.REMOVE_BIDI_CONTROLS;
+        char[] buffer = new char[200];
+        int[] map = new int[200];
+        StringBuilder dest = new StringBuilder();
+        for (int options : optionsList) {
+            Bidi reused = new Bidi();
+            reused.setReorderingOptions(options);
+            for (int round = 0; round < 2; ++round) {
+                for (String text : texts) {
+                    Bidi bidi = new Bidi();
+                    bidi.setReorderingOptions(options);
+                    bidi.setPara(text, Bidi.LEVEL_DEFAULT_LTR, null);
+                    // Put the text into the middle of a larger array.
+                    Arrays.fill(buffer, '\u05d0');
+                    text.getChars(0, text.length(), buffer, 7);
+                    if (round == 0) {
+                        reused.setPara(text, Bidi.LEVEL_DEFAULT_LTR, null);
+                    } else {
+                        reused.setPara(buffer, 7, 7 + text.length(), Bidi.LEVEL_DEFAULT_LTR, null);
+                    }
+                    String message = "options " + options + " round " + round + " text " + text;
+                    assertEquals(message + " getTextAsString", text, reused.getTextAsString());
+                    assertEquals(message + " getText", text, new String(reused.getText()));
+                    assertEquals(message + " getDirection", bidi.getDirection(), reused.getDirection());
+                    assertEquals(message + " countRuns", bidi.countRuns(), reused.countRuns());
+                    assertEquals(message + " getResultLength", bidi.getResultLength(), reused.getResultLength());
+                    assertTrue(message + " getLevels", Arrays.equals(bidi.getLevels(), reused.getLevels()));
+                    String expected = bidi.writeReordered(writeOptions);
+                    assertEquals(message + " writeReordered", expected, reused.writeReordered(writeOptions));
+                    dest.setLength(0);
+                    dest.append("prefix");
+                    reused.writeReordered(writeOptions, dest);
+                    assertEquals(message + " writeReordered(Appendable)", "prefix" + expected, dest.toString());
+
+                    int[] expectedMap = bidi.getLogicalMap();
+                    assertEquals(message + " getLogicalMap(int[]) length",
+                            expectedMap.length, reused.getLogicalMap(map));
+                    assertTrue(message + " getLogicalMap(int[])",
+                            Arrays.equals(expectedMap, Arrays.copyOf(map, expectedMap.length)));
+                    expectedMap = bidi.getVisualMap();
+                    assertEquals(message + " getVisualMap(int[]) length",
+                            expectedMap.length, reused.getVisualMap(map));
+                    assertTrue(message + " getVisualMap(int[])",
+                            Arrays.equals(expectedMap, Arrays.copyOf(map, expectedMap.length)));
+                    // An exact-size visual map may be shorter than the text when controls are removed.
+                    int[] exactMap = new int[expectedMap.length];
+                    reused.getVisualMap(exactMap);
+                    assertTrue(message + " getVisualMap(exact int[])", Arrays.equals(expectedMap, exactMap));
+                }
+            }
+        }
+        Bidi bidi = new Bidi();
+        // getLevels() must not return memory that the next setPara() overwrites.
+        bidi.setPara("a\u05d0", Bidi.LTR, null);
+        byte[] levels = bidi.getLevels();
+        bidi.setPara("\u05d0a", Bidi.LTR, null);
+        assertTrue("getLevels() after the next setPara()", Arrays.equals(new byte[] { 0, 1 }, levels));
+        bidi.setPara("abc", Bidi.LTR, null);
+        try {
+            bidi.getLogicalMap(new int[2]);
+            errln("getLogicalMap(int[]) with a short array did not throw an exception");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            bidi.setPara(buffer, 5, 4, Bidi.LTR, null);
+            errln("setPara(char[], start, limit) with start>limit did not throw an exception");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testLTROnlyFastPath() {
+        // Left-to-right text takes a fast path in setPara() which must give the same
+        // results as the full algorithm. A classifier disables the fast path.
+        String[] texts = {
+            "Plain text, with digits 123 and 4.5% and tab\there.",
+            "x",
+            " ",
+            "123 + 456",
+            "\u00e9t\u00e9 \u0915\u093f\u0924\u093e\u092c \u4e2d\u6587 (\u0301) \u200e!",
+            "trailing spaces   ",
+            "Supplementary \ud835\udc00 letter",
+            "Hebrew at the end \u05d0",
+            "Arabic digit \u0661",
+            "paragraphs\nand more",
+            "ZWJ\u200d control",
+            "\u2067isolate\u2069"
+        };
+        byte[] paraLevels = { Bidi.LTR, Bidi.RTL, 2, Bidi.LEVEL_DEFAULT_LTR, Bidi.LEVEL_DEFAULT_RTL };
+        int[] modes = { Bidi.REORDER_DEFAULT, Bidi.REORDER_NUMBERS_SPECIAL, Bidi.REORDER_INVERSE_LIKE_DIRECT };
+        int[] optionsList = { Bidi.OPTION_DEFAULT, Bidi.OPTION_INSERT_MARKS, Bidi.OPTION_REMOVE_CONTROLS };
+        BidiClassifier defaultClassifier = new BidiClassifier(null);
+        Bidi fast = new Bidi();
+        Bidi full = new Bidi();
+        full.setCustomClassifier(defaultClassifier);
+        for (String text : texts) {
+            for (byte paraLevel : paraLevels) {
+                for (int mode : modes) {
+                    for (int options : optionsList) {
+                        String message = "text " + text + " level " + paraLevel +
+                                " mode " + mode + " options " + options;
+                        fast.setReorderingMode(mode);
+                        fast.setReorderingOptions(options);
+                        full.setReorderingMode(mode);
+                        full.setReorderingOptions(options);
+                        fast.setPara(text, paraLevel, null);
+                        full.setPara(text, paraLevel, null);
+                        assertEquals(message + " getDirection", full.getDirection(), fast.getDirection());
+                        assertEquals(message + " getParaLevel", full.getParaLevel(), fast.getParaLevel());
+                        assertEquals(message + " countParagraphs", full.countParagraphs(), fast.countParagraphs());
+                        assertTrue(message + " getLevels", Arrays.equals(full.getLevels(), fast.getLevels()));
+                        assertEquals(message + " countRuns", full.countRuns(), fast.countRuns());
+                        assertEquals(message + " getResultLength", full.getResultLength(), fast.getResultLength());
+                        assertEquals(message + " writeReordered",
+                                full.writeReordered(Bidi.DO_MIRRORING | Bidi.INSERT_LRM_FOR_NUMERIC),
+                                fast.writeReordered(Bidi.DO_MIRRORING | Bidi.INSERT_LRM_FOR_NUMERIC));
+                        assertTrue(message + " getVisualMap",
+                                Arrays.equals(full.getVisualMap(), fast.getVisualMap()));
+                        if (text.length() > 2 && full.countParagraphs() == 1) {
+                            Bidi fullLine = full.setLine(1, text.length() - 1);
+                            Bidi fastLine = fast.setLine(1, text.length() - 1);
+                            assertEquals(message + " line getDirection",
+                                    fullLine.getDirection(), fastLine.getDirection());
+                            assertTrue(message + " line getLevels",
+                                    Arrays.equals(fullLine.getLevels(), fastLine.getLevels()));
+                        }
+                    }
+                }
+            }
+        }
+    }
 }
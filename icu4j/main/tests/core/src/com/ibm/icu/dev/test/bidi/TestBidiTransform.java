@@ -49,6 +49,67 @@ public void testBidiTransform() {
         logln("\nExiting TestBidiTransform\n");
     }
 
+    @Test
+    public void testTransformAppendable() {
+        // The Appendable version transforms each paragraph like the String version.
+        String[] paragraphs = {
+            "abc \u05d0\u05d1 (123)",
+            "plain left-to-right 42",
+            "",
+            "\u0630\u0631 \u0632 12 [x]",
+            "\u05d0 <-> abc"
+        };
+        String[] separators = { "\n", "\r\n", "\u2029", "\r", "" };
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < paragraphs.length; ++i) {
+            text.append(paragraphs[i]).append(separators[i]);
+        }
+        byte[] levels = { Bidi.LTR, Bidi.RTL, Bidi.LEVEL_DEFAULT_LTR, Bidi.LEVEL_DEFAULT_RTL };
+        int[] shapingOptionsList = {
+            0,
+            ArabicShaping.LETTERS_SHAPE,
+            ArabicShaping.DIGITS_EN2AN | ArabicShaping.DIGIT_TYPE_AN
+        };
+        BidiTransform transform = new BidiTransform();
+        for (byte inLevel : levels) {
+            for (byte outLevel : levels) {
+                for (Order inOrder : Order.values()) {
+                    for (Order outOrder : Order.values()) {
+                        for (int shapingOptions : shapingOptionsList) {
+                            StringBuilder expected = new StringBuilder();
+                            for (int i = 0; i < paragraphs.length; ++i) {
+                                expected.append(new BidiTransform().transform(paragraphs[i],
+                                        inLevel, inOrder, outLevel, outOrder, Mirroring.ON, shapingOptions));
+                                expected.append(separators[i]);
+                            }
+                            StringBuilder dest = new StringBuilder("<");
+                            transform.transform(text, inLevel, inOrder, outLevel, outOrder,
+                                    Mirroring.ON, shapingOptions, dest);
+                            assertEquals("levels " + inLevel + "/" + outLevel +
+                                    " order " + inOrder + "/" + outOrder + " shaping " + shapingOptions,
+                                    "<" + expected, dest.toString());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLTROnlyText() {
+        // Left-to-right text is returned unchanged, unless its digits are shaped.
+        BidiTransform transform = new BidiTransform();
+        String text = "Left-to-right (text) 123 <b>";
+        assertEquals("LTR to LTR", text, transform.transform(text,
+                Bidi.LEVEL_DEFAULT_LTR, Order.LOGICAL, Bidi.LTR, Order.VISUAL,
+                Mirroring.ON, ArabicShaping.LETTERS_SHAPE));
+        assertEquals("digit shaping", "Left-to-right (text) \u0661\u0662\u0663 <b>",
+                transform.transform(text, Bidi.LTR, Order.LOGICAL, Bidi.LTR, Order.VISUAL,
+                        Mirroring.ON, ArabicShaping.DIGITS_EN2AN | ArabicShaping.DIGIT_TYPE_AN));
+        assertEquals("LTR to visual RTL", ">b< 321 )txet( thgir-ot-tfeL", transform.transform(text,
+                Bidi.LTR, Order.LOGICAL, Bidi.RTL, Order.VISUAL, Mirroring.OFF, 0));
+    }
+
     /**
      * Tests various combinations of base directions, with the input either
      * <code>Bidi.LEVEL_DEFAULT_LTR</code> or
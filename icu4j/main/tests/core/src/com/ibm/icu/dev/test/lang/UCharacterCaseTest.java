@@ -12,10 +12,14 @@
 
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Random;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -1503,6 +1507,228 @@ public void TestCaseMapGreekExtended() {
         assertEquals("title", "\u1F88\u1F80\u1FF3", result);
     }
 
+    /** Characters with simple, complex and context-sensitive mappings, and boundaries. */
+    private static final String[] CASE_MAP_PIECES_ = {
+        "a", "Z", "i", "I", "J", " ", ".", "'", "ß", "À", "ÿ", "İ", "ı",
+        "ſ", "ǅ", "Σ", "σ", "Ά", "ΐ", "́", "̇",
+        "ͅ", "ﬃ", "中", "𐐀", "𐐨", "\ud800"
+    };
+
+    private static String randomCaseMapString(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        // Fewer spaces in some strings, for long runs without ASCII boundaries.
+        int spaceLimit = random.nextInt(3) == 0 ? 1 : 8;
+        while (sb.length() < length) {
+            String piece = CASE_MAP_PIECES_[random.nextInt(CASE_MAP_PIECES_.length)];
+            if (piece.equals(" ") && random.nextInt(8) >= spaceLimit) {
+                continue;
+            }
+            sb.append(piece);
+        }
+        return sb.toString();
+    }
+
+    private void checkSameEdits(String message, Edits expected, Edits actual) {
+        Edits.Iterator ei1 = expected.getFineIterator();
+        Edits.Iterator ei2 = actual.getFineIterator();
+        for (;;) {
+            boolean hasNext = ei1.next();
+            assertEquals(message + " same number of edits", hasNext, ei2.next());
+            if (!hasNext) {
+                break;
+            }
+            if (ei1.hasChange() != ei2.hasChange() ||
+                    ei1.oldLength() != ei2.oldLength() || ei1.newLength() != ei2.newLength()) {
+                errln(message + " different edit at source index " + ei1.sourceIndex());
+                break;
+            }
+        }
+    }
+
+    @Test
+    public void TestCaseMapStringAfterUnchanged() {
+        // A mapping to a string after unchanged non-Latin-1 text must follow that text.
+        assertEquals("toLower(ſİ)", "ſi\u0307",
+                CaseMap.toLower().apply(Locale.ROOT, "ſİ", new StringBuilder(), null).toString());
+        assertEquals("toUpper(中ß)", "中SS",
+                CaseMap.toUpper().apply(Locale.ROOT, "中ß", new StringBuilder(), null).toString());
+        assertEquals("toUpper(ǅß)", "ǄSS",
+                CaseMap.toUpper().apply(Locale.ROOT, "ǅß", new StringBuilder(), null).toString());
+        assertEquals("fold(Ϊß)", "ϊss",
+                CaseMap.fold().apply("Ϊß", new StringBuilder(), null).toString());
+    }
+
+    @Test
+    public void TestCaseMapCharArray() {
+        Random random = new Random(20181102);
+        Edits expectedEdits = new Edits();
+        Edits edits = new Edits();
+        for (int iteration = 0; iteration < 300; ++iteration) {
+            String s = randomCaseMapString(random, random.nextInt(80));
+            boolean omit = (iteration & 1) != 0;
+            for (Locale locale : CASE_MAP_LOCALES_) {
+                CaseMap.Lower lower = omit ? CaseMap.toLower().omitUnchangedText() : CaseMap.toLower();
+                CaseMap.Upper upper = omit ? CaseMap.toUpper().omitUnchangedText() : CaseMap.toUpper();
+                CaseMap.Fold fold = omit ? CaseMap.fold().omitUnchangedText() : CaseMap.fold();
+                for (int type = 0; type < 3; ++type) {
+                    String name = "type " + type + " omit=" + omit + " " + locale + " " +
+                            Utility.hex(s);
+                    StringBuilder sb = new StringBuilder();
+                    char[] dest = new char[2 * s.length()];
+                    int length;
+                    if (type == 0) {
+                        lower.apply(locale, s, sb, expectedEdits);
+                        length = lower.apply(locale, s, dest, edits);
+                    } else if (type == 1) {
+                        upper.apply(locale, s, sb, expectedEdits);
+                        length = upper.apply(locale, s, dest, edits);
+                    } else {
+                        fold.apply(s, sb, expectedEdits);
+                        length = fold.apply(s, dest, edits);
+                    }
+                    String expected = sb.toString();
+                    if (length > dest.length) {
+                        assertEquals(name + " preflight length", expected.length(), length);
+                        continue;
+                    }
+                    assertEquals(name, expected, new String(dest, 0, length));
+                    checkSameEdits(name, expectedEdits, edits);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TestCaseMapCharArrayPreflight() {
+        String s = "Straße İstanbul";
+        String expected = "STRASSE İSTANBUL";
+        assertEquals("preflight with empty array", expected.length(),
+                CaseMap.toUpper().apply(Locale.ROOT, s, new char[0], null));
+        char[] dest = new char[6];
+        assertEquals("result length", expected.length(),
+                CaseMap.toUpper().apply(Locale.ROOT, s, dest, null));
+        assertEquals("prefix", expected.substring(0, 6), new String(dest));
+        dest = new char[expected.length()];
+        Edits edits = new Edits();
+        assertEquals("exact capacity", expected.length(),
+                CaseMap.toUpper().apply(Locale.ROOT, s, dest, edits));
+        assertEquals("full result", expected, new String(dest));
+        assertEquals("lengthDelta", 1, edits.lengthDelta());
+        assertEquals("lower tr", "ıstanbul",
+                new String(dest, 0, CaseMap.toLower().apply(TURKISH_LOCALE_, "ISTANBUL", dest, null)));
+    }
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private void checkUTF8Edits(String message, byte[] src, byte[] dest, Edits edits) {
+        ByteArrayOutputStream applied = new ByteArrayOutputStream();
+        for (Edits.Iterator ei = edits.getFineIterator(); ei.next();) {
+            if (ei.hasChange()) {
+                applied.write(dest, ei.destinationIndex(), ei.newLength());
+            } else {
+                applied.write(src, ei.sourceIndex(), ei.oldLength());
+            }
+        }
+        assertEquals(message + " edits.lengthDelta()",
+                dest.length - src.length, edits.lengthDelta());
+        assertTrue(message + " edits applied to source",
+                Arrays.equals(dest, applied.toByteArray()));
+    }
+
+    /**
+     * The UTF-8 functions must give the same results as the UTF-16 functions,
+     * and their Edits must map the input to the output.
+     */
+    @Test
+    public void TestCaseMapUTF8() {
+        Random random = new Random(20181103);
+        Edits edits = new Edits();
+        StringBuilder longWord = new StringBuilder();
+        while (longWord.length() < 10000) {
+            longWord.append("aBcDe");
+        }
+        for (int iteration = 0; iteration < 300; ++iteration) {
+            // Long enough for several chunks, sometimes for several output buffers,
+            // and sometimes with a word that does not fit into one;
+            // unpaired surrogates become '?'.
+            String s = randomCaseMapString(random, random.nextInt(iteration % 10 == 0 ? 9000 : 700));
+            if (iteration % 50 == 1) {
+                s = s + longWord + s;
+            } else if (iteration % 50 == 2) {
+                s = s + longWord + 'Σ' + s;
+            }
+            byte[] src = s.getBytes(UTF_8);
+            s = new String(src, UTF_8);
+            for (Locale locale : CASE_MAP_LOCALES_) {
+                for (int type = 0; type < 3; ++type) {
+                    String name = "type " + type + " " + locale + " " + Utility.hex(s);
+                    ByteArrayOutputStream dest = new ByteArrayOutputStream();
+                    String expected;
+                    if (type == 0) {
+                        expected = CaseMap.toLower().apply(locale, s);
+                        CaseMap.toLower().applyUTF8(locale, src, 0, src.length, dest, edits);
+                    } else if (type == 1) {
+                        expected = CaseMap.toUpper().apply(locale, s);
+                        CaseMap.toUpper().applyUTF8(locale, src, 0, src.length, dest, edits);
+                    } else {
+                        expected = CaseMap.fold().apply(s);
+                        CaseMap.fold().applyUTF8(src, 0, src.length, dest, edits);
+                    }
+                    String result = new String(dest.toByteArray(), UTF_8);
+                    if (!expected.equals(result)) {
+                        errln(name + " applyUTF8()=" + Utility.hex(result) +
+                                " != " + Utility.hex(expected));
+                        continue;
+                    }
+                    checkUTF8Edits(name, src, dest.toByteArray(), edits);
+
+                    // Only changes.
+                    dest.reset();
+                    if (type == 0) {
+                        expected = CaseMap.toLower().omitUnchangedText().apply(locale, s);
+                        CaseMap.toLower().omitUnchangedText().applyUTF8(
+                                locale, src, 0, src.length, dest, null);
+                    } else if (type == 1) {
+                        expected = CaseMap.toUpper().omitUnchangedText().apply(locale, s);
+                        CaseMap.toUpper().omitUnchangedText().applyUTF8(
+                                locale, src, 0, src.length, dest, null);
+                    } else {
+                        expected = CaseMap.fold().omitUnchangedText().apply(s);
+                        CaseMap.fold().omitUnchangedText().applyUTF8(src, 0, src.length, dest, null);
+                    }
+                    assertEquals(name + " omitUnchangedText", expected,
+                            new String(dest.toByteArray(), UTF_8));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TestCaseMapUTF8IllFormed() {
+        // A, ill-formed FF, Σ, truncated 3-byte sequence, surrogate code point, ß
+        byte[] src = {
+            0x41, (byte) 0xff, (byte) 0xce, (byte) 0xa3, (byte) 0xe4, (byte) 0xb8,
+            (byte) 0xed, (byte) 0xa0, (byte) 0x80, (byte) 0xc3, (byte) 0x9f
+        };
+        byte[] expected = {
+            0x61, (byte) 0xff, (byte) 0xcf, (byte) 0x83, (byte) 0xe4, (byte) 0xb8,
+            (byte) 0xed, (byte) 0xa0, (byte) 0x80, (byte) 0xc3, (byte) 0x9f
+        };
+        ByteArrayOutputStream dest = new ByteArrayOutputStream();
+        Edits edits = new Edits();
+        CaseMap.toLower().applyUTF8(Locale.ROOT, src, 0, src.length, dest, edits);
+        assertTrue("ill-formed sequences are copied unchanged",
+                Arrays.equals(expected, dest.toByteArray()));
+        checkUTF8Edits("ill-formed", src, dest.toByteArray(), edits);
+        assertEquals("number of changes", 2, edits.numberOfChanges());
+
+        // Only changes: a, σ
+        dest.reset();
+        CaseMap.toLower().omitUnchangedText().applyUTF8(Locale.ROOT, src, 0, src.length, dest, edits);
+        assertEquals("omitUnchangedText", "aσ", new String(dest.toByteArray(), UTF_8));
+        assertEquals("omitUnchangedText lengthDelta", 0, edits.lengthDelta());
+    }
+
     // private data members - test data --------------------------------------
 
     private static final Locale TURKISH_LOCALE_ = new Locale("tr", "TR");
@@ -1511,6 +1737,9 @@ public void TestCaseMapGreekExtended() {
     private static final Locale ENGLISH_LOCALE_ = new Locale("en", "US");
     private static final Locale LITHUANIAN_LOCALE_ = new Locale("lt", "LT");
     private static final Locale DUTCH_LOCALE_ = new Locale("nl");
+    private static final Locale[] CASE_MAP_LOCALES_ = {
+        Locale.ROOT, TURKISH_LOCALE_, GREEK_LOCALE_, LITHUANIAN_LOCALE_
+    };
 
     private static final int CHARACTER_UPPER_[] =
                       {0x41, 0x0042, 0x0043, 0x0044, 0x0045, 0x0046, 0x0047,
@@ -13,6 +13,7 @@
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.Random;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -3706,4 +3707,86 @@ public void TestIntCharacterProperties() {
                     UCharacter.getIntPropertyValue(end, prop), range.getValue());
         }
     }
+
+    @Test
+    public void TestIntPropertyValues() {
+        StringBuilder sb = new StringBuilder("abc \u00e4\u00df\u0300\u4e00\u0e01");
+        sb.appendCodePoint(0x1f600).append('\ud800').append("x\udc00").appendCodePoint(0x20000);
+        Random random = new Random(20181018);
+        for (int i = 0; i < 300; ++i) {
+            // Mostly BMP, some supplementary and unpaired surrogates.
+            int c = random.nextInt(8) == 0 ? random.nextInt(0x110000) : random.nextInt(0x10000);
+            sb.appendCodePoint(c);
+        }
+        String s = sb.toString();
+        char[] chars = s.toCharArray();
+        int[] props = {
+            UProperty.GENERAL_CATEGORY, UProperty.SCRIPT, UProperty.LINE_BREAK,
+            UProperty.BIDI_CLASS, UProperty.WORD_BREAK, UProperty.CANONICAL_COMBINING_CLASS
+        };
+        for (int prop : props) {
+            for (int start = 0; start <= 20; start += 5) {
+                int limit = s.length() - start / 2;
+                int count = s.codePointCount(start, limit);
+                int[] intValues = new int[count + 1];
+                byte[] byteValues = new byte[count + 1];
+                int[] charsIntValues = new int[count + 1];
+                byte[] charsByteValues = new byte[count + 1];
+                assertEquals("int[] count", count,
+                        CharacterProperties.getIntPropertyValues(prop, s, start, limit, intValues, 1));
+                assertEquals("byte[] count", count,
+                        CharacterProperties.getIntPropertyValues(prop, s, start, limit, byteValues, 1));
+                assertEquals("char[] int[] count", count,
+                        CharacterProperties.getIntPropertyValues(prop, chars, start, limit, charsIntValues, 1));
+                assertEquals("char[] byte[] count", count,
+                        CharacterProperties.getIntPropertyValues(prop, chars, start, limit, charsByteValues, 1));
+                int j = 1;
+                for (int i = start; i < limit; ++j) {
+                    int c = Character.codePointAt(chars, i, limit);
+                    int expected = UCharacter.getIntPropertyValue(c, prop);
+                    if (intValues[j] != expected || (byteValues[j] & 0xff) != expected ||
+                            charsIntValues[j] != expected || (charsByteValues[j] & 0xff) != expected) {
+                        errln("getIntPropertyValues(" + prop + ") wrong for " + Utility.hex(c) +
+                                " at index " + i + ": expected " + expected);
+                        break;
+                    }
+                    i += Character.charCount(c);
+                }
+            }
+        }
+        try {
+            CharacterProperties.getIntPropertyValues(UProperty.INT_LIMIT, s, 0, 1, new int[1], 0);
+            fail("getIntPropertyValues(INT_LIMIT) did not throw an exception");
+        } catch(IllegalArgumentException expected) {
+        }
+        try {
+            CharacterProperties.getIntPropertyValues(UProperty.SCRIPT, s, 1, 0, new int[1], 0);
+            fail("getIntPropertyValues(start>limit) did not throw an exception");
+        } catch(IndexOutOfBoundsException expected) {
+        }
+    }
+
+    @Test
+    public void TestCharFromNameRoundTrip() {
+        // All characters with names stored in the data, in both directions.
+        // Hangul syllable names are algorithmic and slow to look up.
+        for (int c = 0; c <= 0x10ffff; c = c == 0xabff ? 0xd7a4 : c + 1) {
+            String name = UCharacter.getName(c);
+            if (name != null && UCharacter.getCharFromName(name) != c) {
+                errln("getCharFromName(\"" + name + "\") != " + Utility.hex(c));
+                break;
+            }
+            String alias = UCharacter.getNameAlias(c);
+            if (alias != null && UCharacter.getCharFromNameAlias(alias) != c) {
+                errln("getCharFromNameAlias(\"" + alias + "\") != " + Utility.hex(c));
+                break;
+            }
+        }
+        assertEquals("lowercase name", 0x1f600, UCharacter.getCharFromName("grinning face"));
+        assertEquals("alias via extended name", 0x1a2,
+                UCharacter.getCharFromExtendedName("LATIN CAPITAL LETTER GHA"));
+        assertEquals("name prefix", -1, UCharacter.getCharFromName("LATIN SMALL LETTER"));
+        assertEquals("name with suffix", -1, UCharacter.getCharFromName("LATIN SMALL LETTER AX"));
+        assertEquals("alias is not a name", -1, UCharacter.getCharFromName("LATIN CAPITAL LETTER GHA"));
+    }
 }
@@ -60,6 +60,51 @@ public void TestUCharactersGetName() throws InterruptedException {
         }
       }
 
+    //
+    //  Test multi-threaded parallel calls to UCharacter.getCharFromName(name)
+    //  while the name index is being built.
+    //
+    @Test
+    public void TestUCharactersGetCharFromName() throws InterruptedException {
+        List threads = new LinkedList();
+        for(int t=0; t<20; t++) {
+          int codePoint = 0x3b1 + t;
+          GetCharFromNameThread thread = new GetCharFromNameThread(codePoint, UCharacter.getName(codePoint));
+          thread.start();
+          threads.add(thread);
+        }
+        ListIterator i = threads.listIterator();
+        while (i.hasNext()) {
+            GetCharFromNameThread thread = (GetCharFromNameThread)i.next();
+            thread.join();
+            if (thread.codePoint != thread.actualCodePoint) {
+                errln("FAIL, expected " + Integer.toHexString(thread.codePoint) +
+                        " for \"" + thread.name + "\", got " + Integer.toHexString(thread.actualCodePoint));
+            }
+        }
+      }
+
+      private static class GetCharFromNameThread extends Thread {
+        private final int codePoint;
+        private final String name;
+        private int actualCodePoint;
+
+        GetCharFromNameThread(int codePoint, String name) {
+           this.codePoint = codePoint;
+           this.name = name;
+        }
+
+        @Override
+        public void run() {
+          for(int i=0; i<1000; i++) {
+            actualCodePoint = UCharacter.getCharFromName(name);
+            if (actualCodePoint != codePoint) {
+              break;
+            }
+          }
+        }
+      }
+
       private static class GetNameThread extends Thread {
         private final int codePoint;
         private final String correctName;
@@ -8,6 +8,9 @@
  */
 package com.ibm.icu.dev.test.lang;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.text.NumberFormat;
 import java.text.ParsePosition;
 import java.util.ArrayList;
@@ -20,6 +23,7 @@
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -2792,4 +2796,281 @@ public void TestDeepPattern() {
         } catch(RuntimeException expected) {
         }
     }
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String[] SPAN_UTF8_PIECES_ = {
+        "a", "Z", " ", "-", "\u00E9", "\u00FF", "\u0100", "\u0416", "\u07FF",
+        "\u0800", "\u4E00", "\uD7FF", "\uE000", "\uFFFD", "\uFFFF",
+        "\uD800\uDC00", "\uD83D\uDE00", "\uDBFF\uDFFF"
+    };
+
+    // Ill-formed sequences and fragments of well-formed ones.
+    private static final byte[][] SPAN_UTF8_ILL_FORMED_ = {
+        { (byte) 0x80 }, { (byte) 0xbf }, { (byte) 0xc0 }, { (byte) 0xc1, (byte) 0xbf },
+        { (byte) 0xc3 }, { (byte) 0xe4, (byte) 0xb8 }, { (byte) 0xe0, (byte) 0x80 },
+        { (byte) 0xed, (byte) 0xa0, (byte) 0x80 }, { (byte) 0xf0, (byte) 0x9f, (byte) 0x98 },
+        { (byte) 0xf4, (byte) 0x90 }, { (byte) 0xf5 }, { (byte) 0xff }
+    };
+
+    private static byte[] randomSpanUTF8Bytes(Random random, boolean illFormed) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int n = random.nextInt(20);
+        for (int i = 0; i < n; ++i) {
+            if (illFormed && random.nextInt(4) == 0) {
+                byte[] bytes = SPAN_UTF8_ILL_FORMED_[random.nextInt(SPAN_UTF8_ILL_FORMED_.length)];
+                out.write(bytes, 0, bytes.length);
+            } else {
+                byte[] bytes = SPAN_UTF8_PIECES_[random.nextInt(SPAN_UTF8_PIECES_.length)].getBytes(UTF_8);
+                out.write(bytes, 0, bytes.length);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static final SpanCondition[] SPAN_CONDITIONS_ = {
+        SpanCondition.NOT_CONTAINED, SpanCondition.CONTAINED, SpanCondition.SIMPLE
+    };
+
+    @Test
+    public void TestSpanUTF8() {
+        String[] patterns = {
+            "[a-z]", "[^a-z]", "[\\u0000-\\u007F]", "[:L:]", "[\\u00E9\\u0416\\u4E00\\U0001F600]",
+            "[\\u0080-\\u07FF\\U00010000]", "[\\uFFFD]", "[^\\uFFFD]", "[\\u0800-\\uFFFF]",
+            "[a-z{ab}{xyz}]", "[a-c{ade}{\\u4E00\\u0416}]", "[\\uFFFD{\\uFFFD\\u00E9}]"
+        };
+        Random random = new Random(39);
+        for (String pattern : patterns) {
+            UnicodeSet set = new UnicodeSet(pattern);
+            UnicodeSet frozen = set.cloneAsThawed().freeze();
+            for (int n = 0; n < 300; ++n) {
+                // Well-formed text: Compare with spanning the UTF-16 string.
+                byte[] bytes = randomSpanUTF8Bytes(random, false);
+                String s = new String(bytes, UTF_8);
+                for (SpanCondition condition : SPAN_CONDITIONS_) {
+                    String message = pattern + " " + condition + " " + Utility.hex(s);
+                    int expected = s.substring(0, set.span(s, condition)).getBytes(UTF_8).length;
+                    assertEquals(message + " spanUTF8", expected,
+                            set.spanUTF8(bytes, 0, bytes.length, condition));
+                    assertEquals(message + " frozen spanUTF8", expected,
+                            frozen.spanUTF8(bytes, 0, bytes.length, condition));
+                    expected = s.substring(0, set.spanBack(s, condition)).getBytes(UTF_8).length;
+                    assertEquals(message + " spanBackUTF8", expected,
+                            set.spanBackUTF8(bytes, 0, bytes.length, condition));
+                    assertEquals(message + " frozen spanBackUTF8", expected,
+                            frozen.spanBackUTF8(bytes, 0, bytes.length, condition));
+                }
+                // Ill-formed text: The frozen and unfrozen implementations must agree,
+                // also on subranges.
+                bytes = randomSpanUTF8Bytes(random, true);
+                int start = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+                int limit = start + random.nextInt(bytes.length - start + 1);
+                for (SpanCondition condition : SPAN_CONDITIONS_) {
+                    String message = pattern + " " + condition + " " + Arrays.toString(bytes) +
+                            " [" + start + ".." + limit + "[";
+                    assertEquals(message + " spanUTF8",
+                            set.spanUTF8(bytes, start, limit, condition),
+                            frozen.spanUTF8(bytes, start, limit, condition));
+                    assertEquals(message + " spanBackUTF8",
+                            set.spanBackUTF8(bytes, start, limit, condition),
+                            frozen.spanBackUTF8(bytes, start, limit, condition));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TestSpanUTF8IllFormed() {
+        UnicodeSet set = new UnicodeSet("[a\\u00E9\\uFFFD]").freeze();
+        UnicodeSet notFFFD = new UnicodeSet("[a\\u00E9]").freeze();
+        // a, <C3 A9>=U+00E9, <E4 B8> truncated, a, <80> stray trail, <F0 9F 98> truncated, a
+        byte[] bytes = {
+            'a', (byte) 0xc3, (byte) 0xa9, (byte) 0xe4, (byte) 0xb8, 'a', (byte) 0x80,
+            (byte) 0xf0, (byte) 0x9f, (byte) 0x98, 'a'
+        };
+        assertEquals("span all", 11, set.spanUTF8(bytes, 0, 11, SpanCondition.SIMPLE));
+        assertEquals("spanBack all", 0, set.spanBackUTF8(bytes, 0, 11, SpanCondition.SIMPLE));
+        assertEquals("span to ill-formed", 3, notFFFD.spanUTF8(bytes, 0, 11, SpanCondition.SIMPLE));
+        assertEquals("span not from truncated", 5,
+                notFFFD.spanUTF8(bytes, 3, 11, SpanCondition.NOT_CONTAINED));
+        assertEquals("spanBack to truncated", 10,
+                notFFFD.spanBackUTF8(bytes, 0, 11, SpanCondition.SIMPLE));
+        assertEquals("spanBack not over truncated 4-byte and stray trail", 6,
+                notFFFD.spanBackUTF8(bytes, 0, 10, SpanCondition.NOT_CONTAINED));
+        assertEquals("spanBack over stray trail", 5,
+                set.spanBackUTF8(bytes, 5, 7, SpanCondition.SIMPLE));
+        // A trail byte at the start of the range is ill-formed even if the lead byte is before it.
+        assertEquals("span not from trail", 5,
+                notFFFD.spanUTF8(bytes, 2, 11, SpanCondition.NOT_CONTAINED));
+        assertEquals("spanBack not to trail", 2,
+                notFFFD.spanBackUTF8(bytes, 2, 3, SpanCondition.NOT_CONTAINED));
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, 4);
+        assertEquals("span ByteBuffer", 3, notFFFD.spanUTF8(buffer, SpanCondition.SIMPLE));
+        assertEquals("spanBack ByteBuffer", 3, notFFFD.spanBackUTF8(buffer, SpanCondition.NOT_CONTAINED));
+        assertEquals("ByteBuffer position", 1, buffer.position());
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).position(1);
+        assertEquals("span direct ByteBuffer", 3, notFFFD.spanUTF8(direct, SpanCondition.SIMPLE));
+        assertEquals("spanBack direct ByteBuffer", 10,
+                notFFFD.spanBackUTF8(direct, SpanCondition.SIMPLE));
+
+        try {
+            set.spanUTF8(bytes, 5, 12, SpanCondition.SIMPLE);
+            fail("spanUTF8() limit out of bounds did not throw an exception");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    @Test
+    public void TestGetFrozen() {
+        String[] patterns = { "[[:L:][:Nd:]]", "[a-z{ab}]", "[:age=3.2:]", "[^\\u0000-\\U0010FFFF]" };
+        for (String pattern : patterns) {
+            UnicodeSet frozen = UnicodeSet.getFrozen(pattern);
+            assertTrue(pattern + " is frozen", frozen.isFrozen());
+            assertEquals(pattern, new UnicodeSet(pattern), frozen);
+            assertTrue(pattern + " cached", frozen == UnicodeSet.getFrozen(pattern));
+        }
+        try {
+            UnicodeSet.getFrozen("[a-");
+            fail("getFrozen([a-) did not throw an exception");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void TestAddAscendingRanges() {
+        // add(start, end) appends ranges after the last one without merging.
+        int[][] cases = {
+            // ranges, expected pattern
+            { 0, 0, 2, 5, 6, 9, 0x20, 0x7e },
+            { 0x41, 0x5a, 0x100, 0xffff, 0x10000, 0x10fffe, 0x10ffff, 0x10ffff },
+            { 0, 0x10ffff },
+            { 0x61, 0x7a, 0x7b, 0x10ffff }
+        };
+        String[] expected = {
+            "[\\u0000\\u0002-\\u0009\\u0020-\\u007E]",
+            "[A-Z\\u0100-\\U0010FFFF]",
+            "[\\u0000-\\U0010FFFF]",
+            "[a-\\U0010FFFF]"
+        };
+        for (int i = 0; i < cases.length; ++i) {
+            int[] ranges = cases[i];
+            UnicodeSet set = new UnicodeSet();
+            for (int j = 0; j < ranges.length; j += 2) {
+                set.add(ranges[j], ranges[j + 1]);
+            }
+            UnicodeSet exp = new UnicodeSet(expected[i]);
+            assertEquals(expected[i], exp, set);
+            assertEquals(expected[i] + " range count", exp.getRangeCount(), set.getRangeCount());
+            // Adding before the last range still works.
+            set.add(1, 1);
+            assertTrue(expected[i] + " add(1, 1)", set.contains(1) && set.containsAll(exp));
+        }
+    }
+
+    private static UnicodeSet randomRangeSet(Random random) {
+        UnicodeSet set = new UnicodeSet();
+        int n = random.nextInt(8);
+        for (int i = 0; i < n; ++i) {
+            // Mostly small code points so that ranges overlap and touch.
+            int start = random.nextInt(4) == 0 ? random.nextInt(0x110000) : random.nextInt(0x200);
+            int end = Math.min(start + random.nextInt(40), 0x10ffff);
+            set.add(start, end);
+        }
+        if (random.nextInt(4) == 0) {
+            set.add(random.nextBoolean() ? "ab" : "xy");
+        }
+        return set;
+    }
+
+    @Test
+    public void TestBuilder() {
+        Random random = new Random(41);
+        for (int n = 0; n < 500; ++n) {
+            UnicodeSet.Builder builder = new UnicodeSet.Builder();
+            UnicodeSet added = new UnicodeSet();
+            List<UnicodeSet> retained = new ArrayList<UnicodeSet>();
+            List<UnicodeSet> removed = new ArrayList<UnicodeSet>();
+            int numOps = random.nextInt(12);
+            for (int i = 0; i < numOps; ++i) {
+                UnicodeSet set = randomRangeSet(random);
+                switch (random.nextInt(6)) {
+                case 0:
+                    builder.retainAll(set);
+                    retained.add(set);
+                    break;
+                case 1:
+                    builder.removeAll(set);
+                    removed.add(set);
+                    break;
+                case 2:
+                    int start = random.nextInt(0x300);
+                    builder.add(start, start + 3);
+                    added.add(start, start + 3);
+                    break;
+                case 3:
+                    int[] cps = { random.nextInt(0x300), 0x10ffff, random.nextInt(0x300) };
+                    builder.addAll(cps);
+                    added.addAll(cps);
+                    break;
+                default:
+                    builder.addAll(set);
+                    added.addAll(set);
+                    break;
+                }
+            }
+            UnicodeSet expected = new UnicodeSet(added);
+            for (UnicodeSet set : retained) {
+                expected.retainAll(set);
+            }
+            for (UnicodeSet set : removed) {
+                expected.removeAll(set);
+            }
+            UnicodeSet actual = builder.build();
+            if (!expected.equals(actual) || expected.getRangeCount() != actual.getRangeCount()) {
+                errln("UnicodeSet.Builder: expected " + expected.toPattern(true) +
+                        " but got " + actual.toPattern(true));
+            }
+            // The result is an ordinary, modifiable set.
+            actual.add(0x61);
+            expected.add(0x61);
+            assertEquals("modified build() result", expected, actual);
+        }
+        // Frozen sets are read without modification.
+        UnicodeSet result = new UnicodeSet.Builder()
+                .addAll(UnicodeSet.getFrozen("[:L:]")).addAll(UnicodeSet.getFrozen("[:Nd:]"))
+                .add('_').removeAll(UnicodeSet.getFrozen("[:Cn:]"))
+                .build();
+        assertEquals("letters, digits, underscore", new UnicodeSet("[[:L:][:Nd:]_]"), result);
+    }
+
+    @Test
+    public void TestAddAllCodePoints() {
+        Random random = new Random(41);
+        for (int n = 0; n < 200; ++n) {
+            UnicodeSet set = randomRangeSet(random);
+            UnicodeSet expected = new UnicodeSet(set);
+            int[] cps = new int[random.nextInt(50)];
+            for (int i = 0; i < cps.length; ++i) {
+                cps[i] = random.nextInt(3) == 0 ? 0x10ffff - random.nextInt(4) : random.nextInt(0x200);
+                expected.add(cps[i]);
+            }
+            int[] copy = cps.clone();
+            set.addAll(cps);
+            assertEquals("addAll(int[])", expected, set);
+            assertEquals("addAll(int[]) range count", expected.getRangeCount(), set.getRangeCount());
+            assertTrue("addAll(int[]) does not modify its argument", Arrays.equals(copy, cps));
+        }
+        try {
+            new UnicodeSet().addAll(new int[] { 0x61, 0x110000 });
+            fail("addAll(int[]) with 0x110000 did not throw an exception");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            UnicodeSet.getFrozen("[a-z]").addAll(new int[] { 0x61 });
+            fail("addAll(int[]) on a frozen set did not throw an exception");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
 }
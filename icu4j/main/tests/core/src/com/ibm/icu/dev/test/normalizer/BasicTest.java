@@ -9,7 +9,15 @@
 
 package com.ibm.icu.dev.test.normalizer;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
 import java.text.StringCharacterIterator;
+import java.util.Arrays;
 import java.util.Random;
 
 import org.junit.Test;
@@ -24,9 +32,11 @@
 import com.ibm.icu.lang.UCharacter;
 import com.ibm.icu.lang.UCharacterCategory;
 import com.ibm.icu.lang.UProperty;
+import com.ibm.icu.text.Edits;
 import com.ibm.icu.text.FilteredNormalizer2;
 import com.ibm.icu.text.Normalizer;
 import com.ibm.icu.text.Normalizer2;
+import com.ibm.icu.text.NormalizingWriter;
 import com.ibm.icu.text.UCharacterIterator;
 import com.ibm.icu.text.UTF16;
 import com.ibm.icu.text.UnicodeSet;
@@ -2923,6 +2933,200 @@ public void TestFCD() {
         assertEquals("fcd impl.getQuickCheck(ä)", 0, impl.getQuickCheck('ä'));
     }
 
+    private static final String STREAMING_TEST_CHARS =
+        "aAeo \u00C5\u00E9\u0300\u0301\u0302\u0308\u0323\u0327\u0345" +
+        "\u1100\u1161\u11A8\uAC00\u0F71\u0F72\u0F73\u0F80\uFB2C\u00B4\u1FFE" +
+        "\u2126\u212B\u3099\u304B\u1E9B\uFB01\u00BD" +
+        "\uD834\uDD5E\uD834\uDD65\uD804\uDC99\uD804\uDCBA\uD800\uDC00";
+
+    private static String randomStreamingTestString(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < length) {
+            int i = random.nextInt(STREAMING_TEST_CHARS.length());
+            char c = STREAMING_TEST_CHARS.charAt(i);
+            if (Character.isLowSurrogate(c)) {
+                c = STREAMING_TEST_CHARS.charAt(--i);
+            }
+            sb.append(c);
+            if (Character.isHighSurrogate(c)) {
+                // Mostly keep pairs together, but also test unpaired surrogates.
+                if (random.nextInt(8) != 0) {
+                    sb.append(STREAMING_TEST_CHARS.charAt(i + 1));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * NormalizingWriter and normalize(Reader, Appendable) must produce
+     * the same result as normalizing the whole text at once,
+     * regardless of where the text is split into chunks.
+     */
+    @Test
+    public void TestStreamingNormalize() throws IOException {
+        Normalizer2[] norms = {
+            Normalizer2.getNFCInstance(), Normalizer2.getNFDInstance(),
+            Normalizer2.getNFKCInstance(), Normalizer2.getNFKDInstance(),
+            Normalizer2.getNFKCCasefoldInstance(),
+            Normalizer2.getInstance(null, "nfc", Normalizer2.Mode.FCD),
+            Normalizer2.getInstance(null, "nfc", Normalizer2.Mode.COMPOSE_CONTIGUOUS),
+            new FilteredNormalizer2(Normalizer2.getNFCInstance(), new UnicodeSet("[^\u0300]"))
+        };
+        Random random = new Random(20181018);
+        for (int n = 0; n < norms.length; ++n) {
+            Normalizer2 norm2 = norms[n];
+            for (int iteration = 0; iteration < 200; ++iteration) {
+                String s = randomStreamingTestString(random, 1 + random.nextInt(60));
+                String expected = norm2.normalize(s);
+                // Random chunks through the different write methods.
+                StringBuilder dest = new StringBuilder();
+                NormalizingWriter writer = new NormalizingWriter(norm2, dest);
+                int start = 0;
+                while (start < s.length()) {
+                    int limit = Math.min(s.length(), start + 1 + random.nextInt(5));
+                    switch (random.nextInt(3)) {
+                    case 0:
+                        writer.write(s.toCharArray(), start, limit - start);
+                        break;
+                    case 1:
+                        writer.write(s, start, limit - start);
+                        break;
+                    default:
+                        writer.append(CharBuffer.wrap(s, start, limit));
+                        break;
+                    }
+                    start = limit;
+                }
+                writer.finish();
+                if (!expected.equals(dest.toString())) {
+                    errln("norms[" + n + "] NormalizingWriter(" + Utility.hex(s) + ")=" +
+                            Utility.hex(dest.toString()) + " != " + Utility.hex(expected));
+                }
+                StringWriter sw = new StringWriter();
+                norm2.normalize(new StringReader(s), sw);
+                if (!expected.equals(sw.toString())) {
+                    errln("norms[" + n + "] normalize(Reader, Appendable)(" + Utility.hex(s) + ")=" +
+                            Utility.hex(sw.toString()) + " != " + Utility.hex(expected));
+                }
+            }
+        }
+    }
+
+    /**
+     * NormalizingWriter must hold back only a short tail of the input.
+     */
+    @Test
+    public void TestStreamingNormalizeHoldsBackTail() throws IOException {
+        StringBuilder dest = new StringBuilder();
+        NormalizingWriter writer = new NormalizingWriter(Normalizer2.getNFCInstance(), dest);
+        for (int i = 0; i < 1000; ++i) {
+            writer.write("abcde\u0327");
+            // Only the last e+cedilla is held back: It may combine with following marks.
+            assertEquals("held back only a tail", 5 * (i + 1) - 1, dest.length());
+        }
+        writer.write("\u0306");
+        writer.close();
+        assertEquals("final length", 5 * 1000, dest.length());
+        assertEquals("last char", "\u1E1D", dest.substring(dest.length() - 1));
+        try {
+            writer.write("a");
+            errln("write() after close() did not throw");
+        } catch (IOException expected) {
+        }
+    }
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * The UTF-8 functions must give the same results as the UTF-16 functions,
+     * and their Edits must map the input to the output.
+     */
+    @Test
+    public void TestNormalizeUTF8() {
+        Normalizer2[] norms = {
+            Normalizer2.getNFCInstance(), Normalizer2.getNFDInstance(),
+            Normalizer2.getNFKCInstance(), Normalizer2.getNFKDInstance(),
+            Normalizer2.getNFKCCasefoldInstance(),
+            Normalizer2.getInstance(null, "nfc", Normalizer2.Mode.FCD),
+            Normalizer2.getInstance(null, "nfc", Normalizer2.Mode.COMPOSE_CONTIGUOUS),
+            new FilteredNormalizer2(Normalizer2.getNFCInstance(), new UnicodeSet("[^\u0300]"))
+        };
+        Random random = new Random(20181019);
+        Edits edits = new Edits();
+        for (int n = 0; n < norms.length; ++n) {
+            Normalizer2 norm2 = norms[n];
+            for (int iteration = 0; iteration < 200; ++iteration) {
+                // Long enough for several segments; unpaired surrogates become '?'.
+                String s = randomStreamingTestString(random, 1 + random.nextInt(400));
+                byte[] src = s.getBytes(UTF_8);
+                s = new String(src, UTF_8);
+                String expected = norm2.normalize(s);
+                ByteArrayOutputStream dest = new ByteArrayOutputStream();
+                norm2.normalizeUTF8(src, 0, src.length, dest, edits);
+                String result = new String(dest.toByteArray(), UTF_8);
+                if (!expected.equals(result)) {
+                    errln("norms[" + n + "] normalizeUTF8(" + Utility.hex(s) + ")=" +
+                            Utility.hex(result) + " != " + Utility.hex(expected));
+                    continue;
+                }
+                checkUTF8Edits("norms[" + n + "] normalizeUTF8(" + Utility.hex(s) + ")",
+                        src, dest.toByteArray(), edits);
+                assertEquals("norms[" + n + "] isNormalizedUTF8(" + Utility.hex(s) + ")",
+                        norm2.isNormalized(s), norm2.isNormalizedUTF8(src, 0, src.length));
+                assertEquals("norms[" + n + "] quickCheckUTF8(" + Utility.hex(s) + ")",
+                        norm2.quickCheck(s), norm2.quickCheckUTF8(src, 0, src.length));
+                assertEquals("norms[" + n + "] isNormalizedUTF8(ByteBuffer)",
+                        norm2.isNormalized(s), norm2.isNormalizedUTF8(ByteBuffer.wrap(src)));
+            }
+        }
+    }
+
+    private void checkUTF8Edits(String message, byte[] src, byte[] dest, Edits edits) {
+        ByteArrayOutputStream applied = new ByteArrayOutputStream();
+        Edits.Iterator ei = edits.getCoarseIterator();
+        while (ei.next()) {
+            if (ei.hasChange()) {
+                applied.write(dest, ei.destinationIndex(), ei.newLength());
+            } else {
+                applied.write(src, ei.sourceIndex(), ei.oldLength());
+            }
+        }
+        assertEquals(message + " edits.lengthDelta()",
+                dest.length - src.length, edits.lengthDelta());
+        assertTrue(message + " edits applied to source",
+                Arrays.equals(dest, applied.toByteArray()));
+    }
+
+    @Test
+    public void TestNormalizeUTF8IllFormed() {
+        Normalizer2 nfc = Normalizer2.getNFCInstance();
+        // a, ill-formed FF, e+combining acute, truncated 3-byte sequence,
+        // surrogate code point, c+combining cedilla
+        byte[] src = {
+            0x61, (byte) 0xff, 0x65, (byte) 0xcc, (byte) 0x81, (byte) 0xe4, (byte) 0xb8,
+            (byte) 0xed, (byte) 0xa0, (byte) 0x80, 0x63, (byte) 0xcc, (byte) 0xa7
+        };
+        byte[] expected = {
+            0x61, (byte) 0xff, (byte) 0xc3, (byte) 0xa9, (byte) 0xe4, (byte) 0xb8,
+            (byte) 0xed, (byte) 0xa0, (byte) 0x80, (byte) 0xc3, (byte) 0xa7
+        };
+        ByteArrayOutputStream dest = new ByteArrayOutputStream();
+        Edits edits = new Edits();
+        nfc.normalizeUTF8(ByteBuffer.wrap(src), dest, edits);
+        assertTrue("ill-formed sequences are copied unchanged",
+                Arrays.equals(expected, dest.toByteArray()));
+        checkUTF8Edits("ill-formed", src, dest.toByteArray(), edits);
+        assertEquals("number of changes", 2, edits.numberOfChanges());
+        assertFalse("not normalized", nfc.isNormalizedUTF8(src, 0, src.length));
+        assertTrue("normalized", nfc.isNormalizedUTF8(expected, 0, expected.length));
+        // Unchanged text is copied without any edits.
+        dest.reset();
+        nfc.normalizeUTF8(expected, 0, expected.length, dest, edits);
+        assertFalse("no changes", edits.hasChanges());
+        assertTrue("unchanged", Arrays.equals(expected, dest.toByteArray()));
+    }
+
     @Test
     public void TestNoneNormalizer() {
         // Use the deprecated Mode Normalizer.NONE for coverage of the internal NoopNormalizer2
@@ -16,10 +16,17 @@
 //          Much of the remaining data has been moved into the rbbitst.txt test data file,
 //            which is common between ICU4C and ICU4J.  The remaining test data should also be moved,
 //            or simply retired if it is no longer interesting.
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.text.CharacterIterator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -29,6 +36,7 @@
 import com.ibm.icu.impl.RBBIDataWrapper;
 import com.ibm.icu.text.BreakIterator;
 import com.ibm.icu.text.RuleBasedBreakIterator;
+import com.ibm.icu.util.Output;
 import com.ibm.icu.util.ULocale;
 
 @RunWith(JUnit4.class)
@@ -655,4 +663,399 @@ public void TestTableRebuild() {
             assertTrue("Reverse Table",      RBBIDataWrapper.equals(bi.fRData.fRTable, bi2.fRData.fRTable));
         }
     }
+
+    private static final String[] TEXT_PATH_PIECES = {
+        "The", "quick", "fox", "U.S.A.", " ", "  ", ".", "? ", "! ", ", ", "\"", "(", ")",
+        "123", "3.14", "e\u0301", "\r\n", "\n", "\u00A0", "\u1100\u1161\u11A8", "\u0645\u0631\u062D\u0628\u0627",
+        "\uD83D\uDC4D", "\uD83D\uDC68\u200D\uD83D\uDC69", "\uD83C\uDDFA\uD83C\uDDF8", "\uD800", "\uDC00", "\uFFFF", "-"
+    };
+
+    private static List<RuleBasedBreakIterator> getEnglishBreakIterators() {
+        List<RuleBasedBreakIterator> breakIterators = new ArrayList<RuleBasedBreakIterator>();
+        breakIterators.add((RuleBasedBreakIterator)BreakIterator.getCharacterInstance(Locale.ENGLISH));
+        breakIterators.add((RuleBasedBreakIterator)BreakIterator.getWordInstance(Locale.ENGLISH));
+        breakIterators.add((RuleBasedBreakIterator)BreakIterator.getSentenceInstance(Locale.ENGLISH));
+        breakIterators.add((RuleBasedBreakIterator)BreakIterator.getLineInstance(Locale.ENGLISH));
+        return breakIterators;
+    }
+
+    /** TEXT_PATH_PIECES plus Thai and CJK words for the dictionary break engines, and paragraph separators. */
+    private static final String[] DICTIONARY_TEXT_PIECES;
+    static {
+        String[] dictionaryPieces = {
+            "\u0e01\u0e32\u0e23\u0e17\u0e14\u0e25\u0e2d\u0e07",
+            "\u4e2d\u534e\u4eba\u6c11\u5171\u548c\u56fd",
+            "\u3053\u3093\u306b\u3061\u306f\u4e16\u754c",
+            "\r", "\u2029"
+        };
+        DICTIONARY_TEXT_PIECES = Arrays.copyOf(TEXT_PATH_PIECES, TEXT_PATH_PIECES.length + dictionaryPieces.length);
+        System.arraycopy(dictionaryPieces, 0, DICTIONARY_TEXT_PIECES, TEXT_PATH_PIECES.length, dictionaryPieces.length);
+    }
+
+    /** Returns a concatenation of up to 29 random pieces. */
+    private static String getRandomText(java.util.Random random, String[] pieces) {
+        return getRandomText(random, pieces, 29);
+    }
+
+    /** Returns a concatenation of up to maxPieces random pieces. */
+    private static String getRandomText(java.util.Random random, String[] pieces, int maxPieces) {
+        StringBuilder sb = new StringBuilder();
+        int numPieces = random.nextInt(maxPieces + 1);
+        for (int i = 0; i < numPieces; ++i) {
+            sb.append(pieces[random.nextInt(pieces.length)]);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void TestStringTextPath() {
+        // Break rules read String text directly, and other text via the CharacterIterator.
+        // Both paths must find the same boundaries and rule statuses.
+        List<RuleBasedBreakIterator> breakIterators = getEnglishBreakIterators();
+        java.util.Random random = new java.util.Random(42);
+        for (int n = 0; n < 200; ++n) {
+            String text = getRandomText(random, TEXT_PATH_PIECES);
+            for (RuleBasedBreakIterator bi : breakIterators) {
+                RuleBasedBreakIterator ciBI = (RuleBasedBreakIterator)bi.clone();
+                bi.setText(text);
+                ciBI.setText(new java.text.StringCharacterIterator(text));
+                String message = "text \"" + com.ibm.icu.impl.Utility.hex(text) + "\"";
+                for (int b = bi.first(), ciB = ciBI.first();; b = bi.next(), ciB = ciBI.next()) {
+                    assertEquals(message + " next()", ciB, b);
+                    assertEquals(message + " getRuleStatus()", ciBI.getRuleStatus(), bi.getRuleStatus());
+                    if (b == BreakIterator.DONE) {
+                        break;
+                    }
+                }
+                for (int b = bi.last(), ciB = ciBI.last();; b = bi.previous(), ciB = ciBI.previous()) {
+                    assertEquals(message + " previous()", ciB, b);
+                    if (b == BreakIterator.DONE) {
+                        break;
+                    }
+                }
+                for (int i = 0; i <= text.length(); ++i) {
+                    assertEquals(message + " following(" + i + ")", ciBI.following(i), bi.following(i));
+                    assertEquals(message + " preceding(" + i + ")", ciBI.preceding(i), bi.preceding(i));
+                    assertEquals(message + " isBoundary(" + i + ")", ciBI.isBoundary(i), bi.isBoundary(i));
+                }
+                // A String CharSequence also takes the direct path.
+                bi.setText((CharSequence)text);
+                ciBI.setText(new StringBuilder(text));
+                assertEquals(message + " CharSequence last()", ciBI.last(), bi.last());
+                assertEquals(message + " CharSequence previous()", ciBI.previous(), bi.previous());
+            }
+        }
+    }
+
+    @Test
+    public void TestSetTextSubclass() {
+        // A subclass that overrides setText(CharacterIterator) still sees String text.
+        final int[] calls = new int[1];
+        RuleBasedBreakIterator bi = new RuleBasedBreakIterator("!!forward; .; !!reverse; .;") {
+            @Override
+            public void setText(CharacterIterator newText) {
+                ++calls[0];
+                super.setText(newText);
+            }
+        };
+        bi.setText("abc");
+        bi.setText((CharSequence)"abc");
+        assertEquals("setText(CharacterIterator) calls", 2, calls[0]);
+        assertEquals("next()", 1, bi.next());
+        assertEquals("last()", 3, bi.last());
+    }
+
+    @Test
+    public void TestGetAllBoundaries() {
+        // getAllBoundaries() must match iteration with next() and getRuleStatus(),
+        // including text that is subdivided by the dictionary break engines.
+        List<RuleBasedBreakIterator> breakIterators = getEnglishBreakIterators();
+        Output<int[]> boundaries = new Output<int[]>(new int[1]);
+        Output<int[]> statuses = new Output<int[]>();
+        java.util.Random random = new java.util.Random(43);
+        for (int n = 0; n < 200; ++n) {
+            String text = getRandomText(random, DICTIONARY_TEXT_PIECES);
+            String message = "text \"" + com.ibm.icu.impl.Utility.hex(text) + "\"";
+            for (RuleBasedBreakIterator bi : breakIterators) {
+                List<Integer> expected = new ArrayList<Integer>();
+                List<Integer> expectedStatuses = new ArrayList<Integer>();
+                bi.setText(new java.text.StringCharacterIterator(text));
+                for (int b = bi.first(); b != BreakIterator.DONE; b = bi.next()) {
+                    expected.add(b);
+                    expectedStatuses.add(bi.getRuleStatus());
+                }
+                // Alternate between String and CharacterIterator text,
+                // and between getting and not getting the statuses.
+                if ((n & 1) == 0) {
+                    bi.setText(text);
+                }
+                int count = bi.getAllBoundaries(boundaries, (n & 2) == 0 ? statuses : null);
+                assertEquals(message + " count", expected.size(), count);
+                for (int i = 0; i < Math.min(count, expected.size()); ++i) {
+                    assertEquals(message + " boundary[" + i + "]", (int)expected.get(i), boundaries.value[i]);
+                    if ((n & 2) == 0) {
+                        assertEquals(message + " status[" + i + "]",
+                                (int)expectedStatuses.get(i), statuses.value[i]);
+                    }
+                }
+                assertEquals(message + " current() after getAllBoundaries()", 0, bi.current());
+                assertEquals(message + " next() after getAllBoundaries()",
+                        count > 1 ? boundaries.value[1] : BreakIterator.DONE, bi.next());
+            }
+        }
+    }
+
+    private static List<Integer> getBoundariesAndStatuses(RuleBasedBreakIterator bi, String text) {
+        List<Integer> result = new ArrayList<Integer>();
+        bi.setText(text);
+        for (int b = bi.first(); b != BreakIterator.DONE; b = bi.next()) {
+            result.add(b);
+            result.add(bi.getRuleStatus());
+        }
+        return result;
+    }
+
+    @Test
+    public void TestSegmenter() {
+        final String[] texts = {
+            "Hello, world! It's 3.14 o'clock.\n  Next line.",
+            "\u0e42\u0e14\u0e22\u0e1e\u0e37\u0e49\u0e19\u0e10\u0e32\u0e19\u0e41\u0e25\u0e49\u0e27 abc",
+            "\u30b3\u30f3\u30d4\u30e5\u30fc\u30bf\u30fc\u306f\u3001\u672c\u8cea\u7684\u306b\u306f\u6570\u5b57"
+        };
+        for (int kind = BreakIterator.KIND_CHARACTER; kind <= BreakIterator.KIND_TITLE; ++kind) {
+            RuleBasedBreakIterator.Segmenter segmenter =
+                    RuleBasedBreakIterator.Segmenter.getInstance(ULocale.ENGLISH, kind);
+            assertTrue("getInstance() returns the cached segmenter, kind " + kind,
+                    segmenter == RuleBasedBreakIterator.Segmenter.getInstance(ULocale.ENGLISH, kind));
+            RuleBasedBreakIterator expectedBI =
+                    (RuleBasedBreakIterator)BreakIterator.getBreakInstance(ULocale.ENGLISH, kind);
+            RuleBasedBreakIterator bi = segmenter.newIterator();
+            assertEquals("newIterator() valid locale, kind " + kind,
+                    expectedBI.getLocale(ULocale.VALID_LOCALE), bi.getLocale(ULocale.VALID_LOCALE));
+            assertEquals("newIterator() initial text, kind " + kind, 0, bi.getText().getEndIndex());
+            // The same iterator is reused for several texts.
+            for (String text : texts) {
+                assertEquals("kind " + kind + " text " + text,
+                        getBoundariesAndStatuses(expectedBI, text), getBoundariesAndStatuses(bi, text));
+            }
+        }
+
+        RuleBasedBreakIterator prototype = (RuleBasedBreakIterator)BreakIterator.getLineInstance(ULocale.FRENCH);
+        RuleBasedBreakIterator.Segmenter fromPrototype = RuleBasedBreakIterator.Segmenter.getInstance(prototype);
+        assertEquals("", prototype.getLocale(ULocale.VALID_LOCALE),
+                fromPrototype.newIterator().getLocale(ULocale.VALID_LOCALE));
+
+        // Sentence break suppressions wrap the RuleBasedBreakIterator.
+        ULocale ssLocale = new ULocale("en@ss=standard");
+        if (!(BreakIterator.getSentenceInstance(ssLocale) instanceof RuleBasedBreakIterator)) {
+            try {
+                RuleBasedBreakIterator.Segmenter.getInstance(ssLocale, BreakIterator.KIND_SENTENCE);
+                errln("Segmenter.getInstance(en@ss=standard) did not throw an exception");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void TestSegmenterThreads() {
+        // Iterators from one shared segmenter are used concurrently,
+        // and instantiate the dictionary break engines concurrently.
+        final RuleBasedBreakIterator.Segmenter segmenter =
+                RuleBasedBreakIterator.Segmenter.getInstance(RuleBasedBreakIterator.Segmenter.getInstance(
+                        ULocale.ROOT, BreakIterator.KIND_WORD).newIterator());
+        final String[] texts = {
+            "\u0e42\u0e14\u0e22\u0e1e\u0e37\u0e49\u0e19\u0e10\u0e32\u0e19\u0e41\u0e25\u0e49\u0e27 abc",
+            "\u30b3\u30f3\u30d4\u30e5\u30fc\u30bf\u30fc\u306f\u3001\u672c\u8cea\u7684\u306b\u306f\u6570\u5b57",
+            "Hello, world! It's 3.14 o'clock."
+        };
+        final List<List<Integer>> expected = new ArrayList<List<Integer>>();
+        RuleBasedBreakIterator expectedBI = (RuleBasedBreakIterator)BreakIterator.getWordInstance(ULocale.ROOT);
+        for (String text : texts) {
+            expected.add(getBoundariesAndStatuses(expectedBI, text));
+        }
+        final AssertionError[] assertErr = new AssertionError[1];  // saves an error found from within a thread
+
+        class WorkerThread implements Runnable {
+            private final int fIndex;
+            WorkerThread(int index) {
+                fIndex = index;
+            }
+            @Override
+            public void run() {
+                try {
+                    for (int loop = 0; loop < 200; ++loop) {
+                        RuleBasedBreakIterator bi = segmenter.newIterator();
+                        int i = (fIndex + loop) % texts.length;
+                        assertEquals("", expected.get(i), getBoundariesAndStatuses(bi, texts[i]));
+                    }
+                } catch (AssertionError e) {
+                    assertErr[0] = e;
+                }
+            }
+        }
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int n = 0; n < 4; ++n) {
+            threads.add(new Thread(new WorkerThread(n)));
+        }
+        for (Thread thread: threads) {
+            thread.start();
+        }
+        for (Thread thread: threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                fail(e.toString());
+            }
+        }
+
+        // JUnit wont see failures from within the worker threads, so
+        // check again if one occurred.
+        if (assertErr[0] != null) {
+            throw assertErr[0];
+        }
+    }
+
+    @Test
+    public void TestParallelGetAllBoundaries() {
+        // Segmenting chunks concurrently must yield the same results as sequential segmentation,
+        // including when chunks start inside words or dictionary ranges.
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Output<int[]> boundaries = new Output<int[]>();
+            Output<int[]> statuses = new Output<int[]>();
+            Output<int[]> expectedBoundaries = new Output<int[]>();
+            Output<int[]> expectedStatuses = new Output<int[]>();
+            java.util.Random random = new java.util.Random(45);
+            for (int n = 0; n < 40; ++n) {
+                String text = getRandomText(random, DICTIONARY_TEXT_PIECES, 299);
+                int minChunkLength = 1 + random.nextInt(50);
+                for (int kind = BreakIterator.KIND_CHARACTER; kind <= BreakIterator.KIND_TITLE; ++kind) {
+                    RuleBasedBreakIterator.Segmenter segmenter =
+                            RuleBasedBreakIterator.Segmenter.getInstance(ULocale.ENGLISH, kind);
+                    RuleBasedBreakIterator bi = segmenter.newIterator();
+                    bi.setText(text);
+                    int expectedCount = bi.getAllBoundaries(expectedBoundaries, expectedStatuses);
+                    Output<int[]> statusesOrNull = (n & 1) == 0 ? statuses : null;
+                    int count = segmenter.getAllBoundaries(text, boundaries, statusesOrNull, pool, minChunkLength);
+                    String message = "kind " + kind + " text \"" + com.ibm.icu.impl.Utility.hex(text) + "\"";
+                    assertEquals(message + " count", expectedCount, count);
+                    for (int i = 0; i < Math.min(count, expectedCount); ++i) {
+                        if (boundaries.value[i] != expectedBoundaries.value[i]) {
+                            errln(message + " boundary[" + i + "] expected " + expectedBoundaries.value[i] +
+                                    " got " + boundaries.value[i]);
+                            break;
+                        }
+                        if (statusesOrNull != null && statuses.value[i] != expectedStatuses.value[i]) {
+                            errln(message + " status[" + i + "] expected " + expectedStatuses.value[i] +
+                                    " got " + statuses.value[i]);
+                            break;
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void TestCompiledRulesCache() throws IOException {
+        String rules = "!!chain; !!forward; $v=b c; a b; $v; !!reverse; .*;";
+        String otherRules = "!!forward; .; !!reverse; .;";
+        RuleBasedBreakIterator expected = new RuleBasedBreakIterator(rules);
+        File dir = File.createTempFile("rbbicache", "");
+        assertTrue("delete temp file", dir.delete());
+        try {
+            // The first request compiles the rules and writes them to the directory.
+            RuleBasedBreakIterator.CompiledRulesCache cache = new RuleBasedBreakIterator.CompiledRulesCache(dir);
+            checkCachedRules(expected, cache.getInstance(rules));
+            assertSame("same segmenter", cache.getSegmenter(rules), cache.getSegmenter(rules));
+            File[] files = dir.listFiles();
+            assertEquals("number of files", 1, files.length);
+            File file = files[0];
+            assertTrue("file name " + file.getName(), file.getName().endsWith(".brk"));
+            long length = file.length();
+
+            // A new cache loads the file without writing it again.
+            assertTrue("setLastModified", file.setLastModified(1000000000000L));
+            checkCachedRules(expected, new RuleBasedBreakIterator.CompiledRulesCache(dir).getInstance(rules));
+            assertEquals("file not rewritten", 1000000000000L, file.lastModified());
+
+            // A corrupt file is replaced.
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            raf.setLength(20);
+            raf.close();
+            checkCachedRules(expected, new RuleBasedBreakIterator.CompiledRulesCache(dir).getInstance(rules));
+            assertEquals("file length after replacing a corrupt file", length, file.length());
+
+            // A file with different rules is replaced.
+            OutputStream os = new FileOutputStream(file);
+            RuleBasedBreakIterator.compileRules(otherRules, os);
+            os.close();
+            checkCachedRules(expected, new RuleBasedBreakIterator.CompiledRulesCache(dir).getInstance(rules));
+            assertEquals("file length after replacing other rules", length, file.length());
+
+            assertEquals("number of files", 1, dir.listFiles().length);
+            checkCachedRules(new RuleBasedBreakIterator(otherRules), cache.getInstance(otherRules));
+            assertEquals("number of files", 2, dir.listFiles().length);
+
+            // So is the cache file for other rules under this file's name.
+            File otherFile = dir.listFiles()[0].equals(file) ? dir.listFiles()[1] : dir.listFiles()[0];
+            assertTrue("rename", file.delete() && otherFile.renameTo(file));
+            checkCachedRules(expected, new RuleBasedBreakIterator.CompiledRulesCache(dir).getInstance(rules));
+            assertEquals("file length after replacing another cache file", length, file.length());
+
+            // Rules with comments are loaded from the file, too.
+            String commentedRules = "# comment\n!!chain; !!forward; $v=b c; # more\na b; $v; !!reverse; .*;";
+            RuleBasedBreakIterator expectedCommented = new RuleBasedBreakIterator(commentedRules);
+            List<File> oldFiles = Arrays.asList(dir.listFiles());
+            checkCachedRules(expectedCommented, cache.getInstance(commentedRules));
+            File commentedFile = null;
+            for (File f : dir.listFiles()) {
+                if (!oldFiles.contains(f)) {
+                    commentedFile = f;
+                }
+            }
+            assertNotNull("file for the commented rules", commentedFile);
+            assertTrue("setLastModified", commentedFile.setLastModified(1000000000000L));
+            checkCachedRules(expectedCommented,
+                    new RuleBasedBreakIterator.CompiledRulesCache(dir).getInstance(commentedRules));
+            assertEquals("file with comments not rewritten", 1000000000000L, commentedFile.lastModified());
+        } finally {
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File f : files) {
+                    f.delete();
+                }
+            }
+            dir.delete();
+        }
+
+        RuleBasedBreakIterator.CompiledRulesCache memoryCache = new RuleBasedBreakIterator.CompiledRulesCache();
+        checkCachedRules(expected, memoryCache.getInstance(rules));
+        // Rules that differ only in unpaired surrogates have different entries.
+        assertNotSame("rules with different unpaired surrogates",
+                memoryCache.getSegmenter(rules + "# \ud800\n"),
+                memoryCache.getSegmenter(rules + "# \udfff\n"));
+        try {
+            memoryCache.getInstance("");
+            errln("CompiledRulesCache.getInstance() failed to throw an exception with empty rules.");
+        } catch (IllegalArgumentException e) {
+            // expected exception with empty rules.
+        }
+    }
+
+    private void checkCachedRules(RuleBasedBreakIterator expected, RuleBasedBreakIterator bi) {
+        assertEquals("rules", expected.toString(), bi.toString());
+        String text = "abcab bc ac";
+        expected.setText(text);
+        bi.setText(text);
+        for (int b = expected.first(), c = bi.first();; b = expected.next(), c = bi.next()) {
+            assertEquals("boundary", b, c);
+            if (b == BreakIterator.DONE || c == BreakIterator.DONE) {
+                break;
+            }
+        }
+    }
 }
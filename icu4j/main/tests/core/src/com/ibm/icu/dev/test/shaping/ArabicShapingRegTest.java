@@ -10,6 +10,7 @@
 package com.ibm.icu.dev.test.shaping;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -17,6 +18,7 @@
 
 import com.ibm.icu.dev.test.TestFmwk;
 import com.ibm.icu.text.ArabicShaping;
+import com.ibm.icu.text.ArabicShapingException;
 
 /**
  * Regression test for Arabic shaping.
@@ -187,6 +189,55 @@ public void TestShape(){
         }
     }
 
+    @Test
+    public void TestShapeIntoBuffer() throws ArabicShapingException {
+        // Shaping into a slice of a caller buffer must match shape(String)
+        // and must not touch the buffer outside the output.
+        String text = "\u0644\u0627 \u0628\u0650\u0633\u0652\u0645\u0650 123 " +
+                "\u0627\u0644\u0644\u0651\u064e\u0647\u0650 \u06cc\u06a9\u06f1\u06f2 \ufefb\ufe8d";
+        int[] optionSets = {
+            LETTERS_SHAPE,
+            LETTERS_SHAPE | TEXT_DIRECTION_VISUAL_LTR,
+            LETTERS_SHAPE_TASHKEEL_ISOLATED | DIGITS_EN2AN | DIGIT_TYPE_AN_EXTENDED,
+            LETTERS_SHAPE | LENGTH_FIXED_SPACES_AT_END | DIGITS_EN2AN_INIT_AL,
+            LETTERS_UNSHAPE | DIGITS_AN2EN | DIGIT_TYPE_AN_EXTENDED,
+            LETTERS_UNSHAPE | TEXT_DIRECTION_VISUAL_LTR,
+        };
+        char[] source = ("xx" + text + "yy").toCharArray();
+        for (int options : optionSets) {
+            ArabicShaping shaper = new ArabicShaping(options);
+            String expected = shaper.shape(text);
+            char[] dest = new char[2 * text.length() + 6];
+            Arrays.fill(dest, '#');
+            int length = shaper.shape(source, 2, text.length(), dest, 3, 2 * text.length());
+            assertEquals("shape() into a buffer, options 0x" + Integer.toHexString(options),
+                    expected, new String(dest, 3, length));
+            assertEquals("chars before the destination range, options 0x" + Integer.toHexString(options),
+                    "###", new String(dest, 0, 3));
+            for (int i = 3 + length; i < dest.length; ++i) {
+                assertEquals("dest[" + i + "] after the output, options 0x" + Integer.toHexString(options),
+                        '#', dest[i]);
+            }
+        }
+
+        // Shaping that fails leaves the destination and in-place text unchanged.
+        ArabicShaping unshaper = new ArabicShaping(LETTERS_UNSHAPE | LENGTH_FIXED_SPACES_NEAR);
+        char[] lamAlef = "\u0628\ufefb\u0628".toCharArray();
+        try {
+            unshaper.shape(lamAlef, 0, lamAlef.length);
+            errln("unshaping a lamalef without a space near it should fail");
+        } catch (ArabicShapingException e) {
+            assertEquals("text after failed in-place shaping", "\u0628\ufefb\u0628", new String(lamAlef));
+        }
+        char[] dest = "########".toCharArray();
+        try {
+            unshaper.shape(lamAlef, 0, lamAlef.length, dest, 1, 6);
+            errln("unshaping a lamalef without a space near it should fail");
+        } catch (ArabicShapingException e) {
+            assertEquals("destination after failed shaping", "########", new String(dest));
+        }
+    }
+
     @Test
     public void TestCoverage() {
         ArabicShaping shp = new ArabicShaping(LETTERS_SHAPE | TEXT_DIRECTION_VISUAL_LTR | LENGTH_FIXED_SPACES_NEAR);
@@ -1113,4 +1113,58 @@ public void AgePropertyTest() {
     public void BlockPropertyTest() {
         testIntProperty("block", "[:^blk=No_Block:]", UProperty.BLOCK);
     }
+
+    private static MutableCodePointTrie makePropertyTrie(int property) {
+        MutableCodePointTrie mutableTrie = new MutableCodePointTrie(0, 0xad);
+        for (int c = 0; c <= 0x10ffff; ++c) {
+            int value = UCharacter.getIntPropertyValue(c, property);
+            if (value != 0) {
+                mutableTrie.set(c, value);
+            }
+        }
+        return mutableTrie;
+    }
+
+    private static byte[] toBinary(CodePointTrie trie) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trie.toBinary(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Separate mutable tries can be built into immutable ones in parallel threads,
+     * with the same results as building them one after another.
+     */
+    @Test
+    public void ConcurrentBuildTest() throws InterruptedException {
+        final int[] properties = {
+            UProperty.GENERAL_CATEGORY, UProperty.SCRIPT, UProperty.LINE_BREAK,
+            UProperty.WORD_BREAK, UProperty.BIDI_CLASS, UProperty.CANONICAL_COMBINING_CLASS
+        };
+        byte[][] expected = new byte[properties.length][];
+        final MutableCodePointTrie[] mutableTries = new MutableCodePointTrie[properties.length];
+        for (int i = 0; i < properties.length; ++i) {
+            mutableTries[i] = makePropertyTrie(properties[i]);
+            expected[i] = toBinary(mutableTries[i].clone().buildImmutable(
+                    CodePointTrie.Type.FAST, CodePointTrie.ValueWidth.BITS_16));
+        }
+        final byte[][] actual = new byte[properties.length][];
+        Thread[] threads = new Thread[properties.length];
+        for (int i = 0; i < properties.length; ++i) {
+            final int t = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    actual[t] = toBinary(mutableTries[t].buildImmutable(
+                            CodePointTrie.Type.FAST, CodePointTrie.ValueWidth.BITS_16));
+                }
+            };
+            threads[i].start();
+        }
+        for (int i = 0; i < properties.length; ++i) {
+            threads[i].join();
+            assertTrue("concurrent build of property " + properties[i],
+                    Arrays.equals(expected[i], actual[i]));
+        }
+    }
 }
@@ -0,0 +1,68 @@
+// © 2018 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.text;
+
+import java.io.IOException;
+import java.text.StringCharacterIterator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import com.ibm.icu.dev.test.TestFmwk;
+
+/**
+ * Tests for the package-private dictionary matchers used by the break engines.
+ */
+@RunWith(JUnit4.class)
+public class DictionaryMatcherTest extends TestFmwk {
+    /**
+     * DictionaryMatcher.matches(int[] codePoints, ...) must find the same words as
+     * matches(CharacterIterator, ...), for the UChars trie (CJK) and the bytes trie (Thai).
+     */
+    @Test
+    public void TestMatchesCodePoints() throws IOException {
+        String[][] scriptsAndTexts = {
+            { "Hira", "\u4e2d\u83ef\u4eba\u6c11\u5171\u548c\u56fd\u3068\u65e5\u672c\u8a9e\u306e" +
+                      "\u30c6\u30ad\u30b9\u30c8\u3092\u5206\u5272\u3059\u308b" },
+            { "Thai", "\u0e20\u0e32\u0e29\u0e32\u0e44\u0e17\u0e22\u0e40\u0e1b\u0e47\u0e19" +
+                      "\u0e20\u0e32\u0e29\u0e32\u0e17\u0e35\u0e48\u0e21\u0e35\u0e27\u0e23\u0e23\u0e13\u0e22\u0e38\u0e01\u0e15\u0e4c" },
+        };
+        for (String[] scriptAndText : scriptsAndTexts) {
+            DictionaryMatcher matcher = DictionaryData.loadDictionaryFor(scriptAndText[0]);
+            assertNotNull(scriptAndText[0] + ": dictionary", matcher);
+            String text = scriptAndText[1];
+            int[] codePoints = new int[text.length()];
+            for (int i = 0; i < text.length(); ++i) {
+                codePoints[i] = text.charAt(i);
+            }
+            int found = 0;
+            for (int limit : new int[] { text.length(), text.length() - 3 }) {
+                for (int maxLength : new int[] { 20, 2 }) {
+                    for (int maxCount : new int[] { 20, 1 }) {
+                        for (int start = 0; start <= limit; ++start) {
+                            String where = scriptAndText[0] + " start " + start + " limit " + limit +
+                                    " maxLength " + maxLength + " maxCount " + maxCount;
+                            int[] expectedLengths = new int[20];
+                            int[] expectedValues = new int[20];
+                            int[] count = new int[1];
+                            matcher.matches(new StringCharacterIterator(text.substring(start, limit)),
+                                    maxLength, expectedLengths, count, maxCount, expectedValues);
+                            int[] lengths = new int[20];
+                            int[] values = new int[20];
+                            int n = matcher.matches(codePoints, start, limit,
+                                    maxLength, lengths, maxCount, values);
+                            assertEquals(where + ": count", count[0], n);
+                            for (int i = 0; i < n; ++i) {
+                                assertEquals(where + ": length " + i, expectedLengths[i], lengths[i]);
+                                assertEquals(where + ": value " + i, expectedValues[i], values[i]);
+                            }
+                            found += n;
+                        }
+                    }
+                }
+            }
+            assertTrue(scriptAndText[0] + ": some words found", found > 0);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+// © 2018 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.dev.test.perf;
+
+import com.ibm.icu.text.ArabicShaping;
+import com.ibm.icu.text.ArabicShapingException;
+
+/**
+ * Performance test for Arabic shaping of whole texts:
+ * shape(String), shape(char[]) into a reused buffer, and a new ArabicShaping per call.
+ * Uses Arabic and Persian sample text unless a file is given with -f.
+ *
+ * <code>
+ * java com.ibm.icu.dev.test.perf.ArabicShapingPerf -t 5 -p 3 ShapeCharArray
+ * java com.ibm.icu.dev.test.perf.ArabicShapingPerf -t 5 -p 3 -f text.txt -e UTF-8 UnshapeString
+ * </code>
+ */
+public final class ArabicShapingPerf extends PerfTest
+{
+    private static final String SAMPLE =
+            // Arabic
+            "\u0628\u0650\u0633\u0652\u0645\u0650 \u0627\u0644\u0644\u0651\u064e\u0647\u0650 " +
+            "\u0627\u0644\u0631\u0651\u064e\u062d\u0652\u0645\u064e\u0646\u0650 " +
+            "\u0627\u0644\u0631\u0651\u064e\u062d\u0650\u064a\u0645\u0650. " +
+            "\u0627\u0644\u0644\u063a\u0629 \u0627\u0644\u0639\u0631\u0628\u064a\u0629 " +
+            "\u0647\u064a \u0625\u062d\u062f\u0649 \u0627\u0644\u0644\u063a\u0627\u062a " +
+            "\u0627\u0644\u0633\u0627\u0645\u064a\u0629 \u0648\u064a\u062a\u062d\u062f\u062b\u0647\u0627 " +
+            "\u0623\u0643\u062b\u0631 \u0645\u0646 422 \u0645\u0644\u064a\u0648\u0646 " +
+            "\u0646\u0633\u0645\u0629 \u0641\u064a \u0639\u0627\u0645 2018.\n" +
+            // Persian
+            "\u0632\u0628\u0627\u0646 \u0641\u0627\u0631\u0633\u06cc \u06cc\u06a9\u06cc " +
+            "\u0627\u0632 \u0632\u0628\u0627\u0646\u200c\u0647\u0627\u06cc " +
+            "\u0647\u0646\u062f\u0648\u0627\u0631\u0648\u067e\u0627\u06cc\u06cc " +
+            "\u0627\u0633\u062a \u06a9\u0647 \u062f\u0631 \u0627\u06cc\u0631\u0627\u0646 " +
+            "\u0648 \u0627\u0641\u063a\u0627\u0646\u0633\u062a\u0627\u0646 \u0648 " +
+            "\u062a\u0627\u062c\u06cc\u06a9\u0633\u062a\u0627\u0646 \u0628\u0647 \u0622\u0646 " +
+            "\u0633\u062e\u0646 \u06af\u0641\u062a\u0647 \u0645\u06cc\u200c\u0634\u0648\u062f " +
+            "\u06f1\u06f1\u06f0 \u0645\u06cc\u0644\u06cc\u0648\u0646.\n";
+
+    private static final int SHAPE_OPTIONS =
+            ArabicShaping.LETTERS_SHAPE | ArabicShaping.LENGTH_GROW_SHRINK |
+            ArabicShaping.DIGITS_EN2AN | ArabicShaping.DIGIT_TYPE_AN_EXTENDED;
+    private static final int UNSHAPE_OPTIONS =
+            ArabicShaping.LETTERS_UNSHAPE | ArabicShaping.LENGTH_GROW_SHRINK |
+            ArabicShaping.DIGITS_AN2EN | ArabicShaping.DIGIT_TYPE_AN_EXTENDED;
+
+    public static void main(String[] args) throws Exception
+    {
+        new ArabicShapingPerf().run(args);
+    }
+
+    protected void setup(String[] args) {
+        if (args.length > 0) {
+            throw new RuntimeException("Extra arguments received");
+        }
+        StringBuilder sb = new StringBuilder();
+        if (fileName != null) {
+            for (String line : readLines(fileName, encoding, bulk_mode)) {
+                sb.append(line).append('\n');
+            }
+        } else {
+            while (sb.length() < 10000) {
+                sb.append(SAMPLE);
+            }
+        }
+        text_ = sb.toString();
+        chars_ = text_.toCharArray();
+        shaper_ = new ArabicShaping(SHAPE_OPTIONS);
+        unshaper_ = new ArabicShaping(UNSHAPE_OPTIONS);
+        try {
+            shaped_ = shaper_.shape(text_);
+        } catch (ArabicShapingException e) {
+            throw new RuntimeException(e);
+        }
+        shapedChars_ = shaped_.toCharArray();
+        dest_ = new char[2 * chars_.length];
+    }
+
+    private abstract class TextFunction extends PerfTest.Function {
+        public long getOperationsPerIteration() {
+            return text_.length();
+        }
+
+        public void call() {
+            try {
+                sink_ = shape();
+            } catch (ArabicShapingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        abstract int shape() throws ArabicShapingException;
+    }
+
+    PerfTest.Function testShapeString() {
+        return new TextFunction() {
+            int shape() throws ArabicShapingException {
+                return shaper_.shape(text_).length();
+            }
+        };
+    }
+
+    PerfTest.Function testShapeCharArray() {
+        return new TextFunction() {
+            int shape() throws ArabicShapingException {
+                return shaper_.shape(chars_, 0, chars_.length, dest_, 0, dest_.length);
+            }
+        };
+    }
+
+    PerfTest.Function testNewShaperPerCall() {
+        return new TextFunction() {
+            int shape() throws ArabicShapingException {
+                return new ArabicShaping(SHAPE_OPTIONS).shape(text_).length();
+            }
+        };
+    }
+
+    PerfTest.Function testUnshapeString() {
+        return new TextFunction() {
+            int shape() throws ArabicShapingException {
+                return unshaper_.shape(shaped_).length();
+            }
+        };
+    }
+
+    PerfTest.Function testUnshapeCharArray() {
+        return new TextFunction() {
+            int shape() throws ArabicShapingException {
+                return unshaper_.shape(shapedChars_, 0, shapedChars_.length, dest_, 0, dest_.length);
+            }
+        };
+    }
+
+    private String text_;
+    private char[] chars_;
+    private String shaped_;
+    private char[] shapedChars_;
+    private char[] dest_;
+    private ArabicShaping shaper_;
+    private ArabicShaping unshaper_;
+    private static volatile int sink_;
+}
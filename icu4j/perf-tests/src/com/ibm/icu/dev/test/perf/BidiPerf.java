@@ -0,0 +1,161 @@
+// © 2018 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.dev.test.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ibm.icu.text.ArabicShaping;
+import com.ibm.icu.text.Bidi;
+import com.ibm.icu.text.BidiTransform;
+import com.ibm.icu.text.BidiTransform.Mirroring;
+import com.ibm.icu.text.BidiTransform.Order;
+
+/**
+ * Performance test for Bidi reordering of many short paragraphs, as in a
+ * text layout loop: a new Bidi object and String results for each paragraph
+ * compared with one reused Bidi object writing into caller buffers,
+ * and BidiTransform of the whole text into a String or an Appendable.
+ * Uses mixed English, Hebrew and Arabic sample lines unless a file is given with -f.
+ *
+ * <code>
+ * java com.ibm.icu.dev.test.perf.BidiPerf -t 5 -p 3 ReuseBidiCharArray
+ * java com.ibm.icu.dev.test.perf.BidiPerf -t 5 -p 3 -f text.txt -e UTF-8 NewBidiPerLine
+ * </code>
+ */
+public final class BidiPerf extends PerfTest
+{
+    private static final String[] SAMPLE = {
+        "ICU 64 \u05d1\u05d2\u05e8\u05e1\u05d4 \u05d7\u05d3\u05e9\u05d4 (new version) 2019.",
+        "\u0627\u0644\u0639\u0631\u0628\u064a\u0629 Unicode \u0648 ICU4J [1.2.3] \u0645\u0643\u062a\u0628\u0629.",
+        "Plain left-to-right text with no right-to-left characters at all.",
+        "\u05e9\u05dc\u05d5\u05dd \u05e2\u05d5\u05dc\u05dd: \"hello, world\" - 42%",
+        "Price: 100 \u20aa (\u05de\u05d7\u05d9\u05e8 \u05de\u05d9\u05d5\u05d7\u05d3) until 31/12."
+    };
+
+    public static void main(String[] args) throws Exception
+    {
+        new BidiPerf().run(args);
+    }
+
+    protected void setup(String[] args) {
+        if (args.length > 0) {
+            throw new RuntimeException("Extra arguments received");
+        }
+        List<String> lines = new ArrayList<String>();
+        if (fileName != null) {
+            for (String line : readLines(fileName, encoding, bulk_mode)) {
+                lines.add(line);
+            }
+        } else {
+            while (lines.size() < 1000) {
+                for (String line : SAMPLE) {
+                    lines.add(line);
+                }
+            }
+        }
+        lines_ = lines.toArray(new String[lines.size()]);
+        // All lines in one array, for the char[]-slice API.
+        int maxLength = 0;
+        StringBuilder sb = new StringBuilder();
+        lineStarts_ = new int[lines_.length + 1];
+        for (int i = 0; i < lines_.length; ++i) {
+            lineStarts_[i] = sb.length();
+            sb.append(lines_[i]);
+            maxLength = Math.max(maxLength, lines_[i].length());
+            textLength_ += lines_[i].length();
+        }
+        lineStarts_[lines_.length] = sb.length();
+        chars_ = sb.toString().toCharArray();
+        // All lines as one text with paragraph separators, for BidiTransform.
+        sb.setLength(0);
+        for (String line : lines_) {
+            sb.append(line).append('\n');
+        }
+        text_ = sb.toString();
+        transform_ = new BidiTransform();
+        map_ = new int[2 * maxLength];
+        dest_ = new StringBuilder(2 * maxLength);
+        bidi_ = new Bidi();
+    }
+
+    private abstract class TextFunction extends PerfTest.Function {
+        public long getOperationsPerIteration() {
+            return textLength_;
+        }
+    }
+
+    PerfTest.Function testNewBidiPerLine() {
+        return new TextFunction() {
+            public void call() {
+                int sum = 0;
+                for (String line : lines_) {
+                    Bidi bidi = new Bidi();
+                    bidi.setPara(line, Bidi.LEVEL_DEFAULT_LTR, null);
+                    sum += bidi.writeReordered(Bidi.DO_MIRRORING).length();
+                    sum += bidi.getVisualMap().length;
+                }
+                sink_ = sum;
+            }
+        };
+    }
+
+    PerfTest.Function testReuseBidiString() {
+        return new TextFunction() {
+            public void call() {
+                int sum = 0;
+                for (String line : lines_) {
+                    bidi_.setPara(line, Bidi.LEVEL_DEFAULT_LTR, null);
+                    sum += bidi_.writeReordered(Bidi.DO_MIRRORING).length();
+                    sum += bidi_.getVisualMap().length;
+                }
+                sink_ = sum;
+            }
+        };
+    }
+
+    PerfTest.Function testReuseBidiCharArray() {
+        return new TextFunction() {
+            public void call() {
+                int sum = 0;
+                for (int i = 0; i < lines_.length; ++i) {
+                    bidi_.setPara(chars_, lineStarts_[i], lineStarts_[i + 1], Bidi.LEVEL_DEFAULT_LTR, null);
+                    dest_.setLength(0);
+                    sum += bidi_.writeReordered(Bidi.DO_MIRRORING, dest_).length();
+                    sum += bidi_.getVisualMap(map_);
+                }
+                sink_ = sum;
+            }
+        };
+    }
+
+    PerfTest.Function testBidiTransformString() {
+        return new TextFunction() {
+            public void call() {
+                sink_ = transform_.transform(text_, Bidi.LEVEL_DEFAULT_LTR, Order.LOGICAL,
+                        Bidi.LTR, Order.VISUAL, Mirroring.ON, ArabicShaping.LETTERS_SHAPE).length();
+            }
+        };
+    }
+
+    PerfTest.Function testBidiTransformAppendable() {
+        return new TextFunction() {
+            public void call() {
+                dest_.setLength(0);
+                sink_ = transform_.transform(text_, Bidi.LEVEL_DEFAULT_LTR, Order.LOGICAL,
+                        Bidi.LTR, Order.VISUAL, Mirroring.ON, ArabicShaping.LETTERS_SHAPE, dest_).length();
+            }
+        };
+    }
+
+    private String[] lines_;
+    private String text_;
+    private BidiTransform transform_;
+    private char[] chars_;
+    private int[] lineStarts_;
+    private int textLength_;
+    private int[] map_;
+    private StringBuilder dest_;
+    private Bidi bidi_;
+    private static volatile int sink_;
+}
@@ -11,9 +11,26 @@
 import java.io.FileInputStream;
 import java.util.ArrayList;
 
+import com.ibm.icu.util.ULocale;
+
 public class BreakIteratorPerformanceTest extends PerfTest {
 
+    /**
+     * Japanese and Chinese sample text for the CJK dictionary segmentation test,
+     * which does not depend on the input file.
+     */
+    private static final String CJK_SAMPLE =
+            "コンピューターは、本質的には数字しか扱うことができません。" +
+            "コンピューターは、文字や記号などのそれぞれに番号を割り振ることによって扱えるようにします。" +
+            "ユニコードが出来るまでは、これらの番号を割り振る仕組みが何百種類も存在しました。" +
+            "どの一つをとっても、十分な文字を含んではいませんでした。" +
+            "什么是Unicode（统一码）？Unicode给每个字符提供了一个唯一的数字，" +
+            "不论是什么平台，不论是什么程序，不论是什么语言。" +
+            "基本上，计算机只是处理数字。它们指定一个数字，来储存字母或其他字符。" +
+            "在创造Unicode之前，有数百种指定这些数字的编码系统。\n";
+
     String fileContents;
+    String cjkContents;
 
     com.ibm.icu.text.BreakIterator iSentenceIter;
     com.ibm.icu.text.BreakIterator iWordIter;
@@ -31,6 +48,8 @@ public class BreakIteratorPerformanceTest extends PerfTest {
     String[] jWords;
     String[] jLines;
     String[] jCharacters;
+    com.ibm.icu.text.BreakIterator iCJKWordIter;
+    String[] iCJKWords;
 
     public static void main(String[] args) throws Exception {
         new BreakIteratorPerformanceTest().run(args);
@@ -83,6 +102,14 @@ protected void setup(String[] args) {
             jLines = init(jLineIter);
             jCharacters = init(jCharacterIter);
 
+            StringBuilder sb = new StringBuilder();
+            while (sb.length() < 50000) {
+                sb.append(CJK_SAMPLE);
+            }
+            cjkContents = sb.toString();
+            iCJKWordIter = com.ibm.icu.text.BreakIterator.getWordInstance(ULocale.JAPANESE);
+            iCJKWords = init(iCJKWordIter, cjkContents);
+
         } catch (Exception ex) {
             ex.printStackTrace();
             throw new RuntimeException(ex.getMessage());
@@ -93,14 +120,18 @@ protected void setup(String[] args) {
     }
 
     private String[] init(com.ibm.icu.text.BreakIterator iter) {
+        return init(iter, fileContents);
+    }
+
+    private String[] init(com.ibm.icu.text.BreakIterator iter, String text) {
         // set the string to iterate on
-        iter.setText(fileContents);
+        iter.setText(text);
 
         // produce a token list
         ArrayList tokenList = new ArrayList();
         int start = iter.first();
         for (int end = iter.next(); end != com.ibm.icu.text.BreakIterator.DONE; start = end, end = iter.next())
-            tokenList.add(fileContents.substring(start, end));
+            tokenList.add(text.substring(start, end));
 
         // return the token list as a string array
         return (String[]) tokenList.toArray(new String[0]);
@@ -122,13 +153,18 @@ private String[] init(java.text.BreakIterator iter) {
 
     PerfTest.Function createTestICU(final com.ibm.icu.text.BreakIterator iIter, final String[] correct,
             final String breakType) {
+        return createTestICU(iIter, fileContents, correct, breakType);
+    }
+
+    PerfTest.Function createTestICU(final com.ibm.icu.text.BreakIterator iIter, final String text,
+            final String[] correct, final String breakType) {
         return new PerfTest.Function() {
             public void call() {
                 int k = 0;
                 int start = iIter.first();
                 for (int end = iIter.next(); end != com.ibm.icu.text.BreakIterator.DONE; start = end, end = iIter
                         .next())
-                    if (!correct[k++].equals(fileContents.substring(start, end)))
+                    if (!correct[k++].equals(text.substring(start, end)))
                         throw new RuntimeException("ICU4J BreakIterator gave the wrong answer for " + breakType + " "
                                 + (k - 1) + " during the performance test. Cannot continue the performance test.");
                 if (k != correct.length)
@@ -137,7 +173,7 @@ public void call() {
             }
 
             public long getOperationsPerIteration() {
-                return fileContents.length();
+                return text.length();
             }
         };
     }
@@ -178,6 +214,13 @@ PerfTest.Function TestICUCharacters() {
         return createTestICU(iCharacterIter, iCharacters, "character");
     }
 
+    /**
+     * Word segmentation of Japanese and Chinese text with the CJK dictionary.
+     */
+    PerfTest.Function TestICUWordsCJK() {
+        return createTestICU(iCJKWordIter, cjkContents, iCJKWords, "CJK word");
+    }
+
     PerfTest.Function TestJavaSentences() {
         return createTestJava(jSentenceIter, jSentences, "sentence");
     }
@@ -0,0 +1,160 @@
+// © 2018 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.dev.test.perf;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+import com.ibm.icu.lang.UCharacter;
+import com.ibm.icu.text.CaseMap;
+
+/**
+ * Performance test for case mapping of whole texts:
+ * ICU String, char[] and UTF-8 functions compared with the JDK String functions.
+ * Uses mostly-ASCII English sample text unless a file is given with -f.
+ *
+ * <code>
+ * java com.ibm.icu.dev.test.perf.CaseMapPerf -t 5 -p 3 ToLowerCaseCharArray
+ * java com.ibm.icu.dev.test.perf.CaseMapPerf -t 5 -p 3 -f text.txt -e UTF-8 JDKToLowerCase
+ * </code>
+ */
+public final class CaseMapPerf extends PerfTest
+{
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String SAMPLE =
+            "The Quick Brown Fox Jumps Over The Lazy Dog. " +
+            "ICU is a mature, widely used set of C/C++ and Java libraries providing " +
+            "Unicode and Globalization support for software applications. " +
+            "It Is Widely Portable And Gives Applications The Same Results On All Platforms.\n";
+
+    public static void main(String[] args) throws Exception
+    {
+        new CaseMapPerf().run(args);
+    }
+
+    protected void setup(String[] args) {
+        if (args.length > 0) {
+            throw new RuntimeException("Extra arguments received");
+        }
+        StringBuilder sb = new StringBuilder();
+        if (fileName != null) {
+            for (String line : readLines(fileName, encoding, bulk_mode)) {
+                sb.append(line).append('\n');
+            }
+        } else {
+            while (sb.length() < 10000) {
+                sb.append(SAMPLE);
+            }
+        }
+        text_ = sb.toString();
+        utf8_ = text_.getBytes(UTF_8);
+        dest_ = new char[2 * text_.length()];
+        utf8Dest_ = new ByteArrayOutputStream(2 * utf8_.length);
+    }
+
+    private abstract class TextFunction extends PerfTest.Function {
+        public long getOperationsPerIteration() {
+            return text_.length();
+        }
+    }
+
+    PerfTest.Function testJDKToLowerCase() {
+        return new TextFunction() {
+            public void call() {
+                sink_ = text_.toLowerCase(Locale.ROOT).length();
+            }
+        };
+    }
+
+    PerfTest.Function testToLowerCaseString() {
+        return new TextFunction() {
+            public void call() {
+                sink_ = UCharacter.toLowerCase(Locale.ROOT, text_).length();
+            }
+        };
+    }
+
+    PerfTest.Function testToLowerCaseCharArray() {
+        return new TextFunction() {
+            public void call() {
+                sink_ = CaseMap.toLower().apply(Locale.ROOT, text_, dest_, null);
+            }
+        };
+    }
+
+    PerfTest.Function testJDKToLowerCaseUTF8() {
+        return new TextFunction() {
+            public void call() {
+                sink_ = new String(utf8_, UTF_8).toLowerCase(Locale.ROOT).getBytes(UTF_8).length;
+            }
+        };
+    }
+
+    PerfTest.Function testToLowerCaseUTF8() {
+        return new TextFunction() {
+            public void call() {
+                utf8Dest_.reset();
+                CaseMap.toLower().applyUTF8(Locale.ROOT, utf8_, 0, utf8_.length, utf8Dest_, null);
+                sink_ = utf8Dest_.size();
+            }
+        };
+    }
+
+    PerfTest.Function testJDKToUpperCase() {
+        return new TextFunction() {
+            public void call() {
+                sink_ = text_.toUpperCase(Locale.ROOT).length();
+            }
+        };
+    }
+
+    PerfTest.Function testToUpperCaseString() {
+        return new TextFunction() {
+            public void call() {
+                sink_ = UCharacter.toUpperCase(Locale.ROOT, text_).length();
+            }
+        };
+    }
+
+    PerfTest.Function testToUpperCaseCharArray() {
+        return new TextFunction() {
+            public void call() {
+                sink_ = CaseMap.toUpper().apply(Locale.ROOT, text_, dest_, null);
+            }
+        };
+    }
+
+    PerfTest.Function testToUpperCaseUTF8() {
+        return new TextFunction() {
+            public void call() {
+                utf8Dest_.reset();
+                CaseMap.toUpper().applyUTF8(Locale.ROOT, utf8_, 0, utf8_.length, utf8Dest_, null);
+                sink_ = utf8Dest_.size();
+            }
+        };
+    }
+
+    PerfTest.Function testFoldCaseString() {
+        return new TextFunction() {
+            public void call() {
+                sink_ = UCharacter.foldCase(text_, true).length();
+            }
+        };
+    }
+
+    PerfTest.Function testFoldCaseCharArray() {
+        return new TextFunction() {
+            public void call() {
+                sink_ = CaseMap.fold().apply(text_, dest_, null);
+            }
+        };
+    }
+
+    private String text_;
+    private byte[] utf8_;
+    private char[] dest_;
+    private ByteArrayOutputStream utf8Dest_;
+    private static volatile int sink_;
+}
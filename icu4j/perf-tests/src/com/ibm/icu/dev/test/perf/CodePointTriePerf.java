@@ -0,0 +1,92 @@
+// © 2018 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.dev.test.perf;
+
+import com.ibm.icu.lang.UCharacter;
+import com.ibm.icu.lang.UProperty;
+import com.ibm.icu.util.CodePointTrie;
+import com.ibm.icu.util.MutableCodePointTrie;
+
+/**
+ * Performance test for building immutable CodePointTries from MutableCodePointTries
+ * with realistic Unicode property data.
+ * Each call builds from a clone of a prepared mutable trie,
+ * because buildImmutable() clears the mutable trie.
+ *
+ * <p>The build functions are thread-safe:
+ * Run them with the "-r &lt;threads&gt;" option to build tries in parallel.
+ *
+ * <code>
+ * java com.ibm.icu.dev.test.perf.CodePointTriePerf -t 5 -p 3 BuildGeneralCategory
+ * </code>
+ */
+public final class CodePointTriePerf extends PerfTest
+{
+    public static void main(String[] args) throws Exception
+    {
+        new CodePointTriePerf().run(args);
+    }
+
+    protected void setup(String[] args) {
+        if (args.length > 0) {
+            throw new RuntimeException("Extra arguments received");
+        }
+        generalCategory_ = makeTrie(UProperty.GENERAL_CATEGORY, -1);
+        lineBreak_ = makeTrie(UProperty.LINE_BREAK, -1);
+        // Script and line break values combined: many distinct values.
+        scriptLineBreak_ = makeTrie(UProperty.SCRIPT, UProperty.LINE_BREAK);
+        // A different value for almost every BMP code point:
+        // a map that compacts poorly, like a per-character policy table.
+        distinct_ = new MutableCodePointTrie(0, 0);
+        for (int c = 0; c < 0x10000; ++c) {
+            if (UCharacter.isDefined(c)) {
+                distinct_.set(c, (c * 0x9e3779b1) >>> 8);
+            }
+        }
+    }
+
+    private static MutableCodePointTrie makeTrie(int property, int property2) {
+        MutableCodePointTrie mutableTrie = new MutableCodePointTrie(0, 0);
+        for (int c = 0; c <= 0x10ffff; ++c) {
+            int value = UCharacter.getIntPropertyValue(c, property);
+            if (property2 >= 0) {
+                value = (value << 8) | UCharacter.getIntPropertyValue(c, property2);
+            }
+            if (value != 0) {
+                mutableTrie.set(c, value);
+            }
+        }
+        return mutableTrie;
+    }
+
+    private static PerfTest.Function build(final MutableCodePointTrie mutableTrie,
+            final CodePointTrie.Type type, final CodePointTrie.ValueWidth valueWidth) {
+        return new PerfTest.Function() {
+            public void call() {
+                sink_ = mutableTrie.clone().buildImmutable(type, valueWidth);
+            }
+        };
+    }
+
+    PerfTest.Function testBuildGeneralCategory() {
+        return build(generalCategory_, CodePointTrie.Type.FAST, CodePointTrie.ValueWidth.BITS_8);
+    }
+
+    PerfTest.Function testBuildLineBreak() {
+        return build(lineBreak_, CodePointTrie.Type.SMALL, CodePointTrie.ValueWidth.BITS_8);
+    }
+
+    PerfTest.Function testBuildScriptLineBreak() {
+        return build(scriptLineBreak_, CodePointTrie.Type.FAST, CodePointTrie.ValueWidth.BITS_16);
+    }
+
+    PerfTest.Function testBuildDistinct() {
+        return build(distinct_, CodePointTrie.Type.FAST, CodePointTrie.ValueWidth.BITS_32);
+    }
+
+    private MutableCodePointTrie generalCategory_;
+    private MutableCodePointTrie lineBreak_;
+    private MutableCodePointTrie scriptLineBreak_;
+    private MutableCodePointTrie distinct_;
+    private static volatile CodePointTrie sink_;
+}
@@ -44,6 +44,7 @@ public class CollationPerformanceTest {
         + "-keyhist                   Produce a table sort key size vs. string length\n"
         + "-binsearch                 Binary Search timing test\n"
         + "-keygen                    Sort Key Generation timing test\n"
+        + "-keyhash                   Collation hash vs. CollationKey.hashCode() timing test\n"
         + "-qsort                     Quicksort timing test\n"
         + "-iter                      Iteration Performance Test\n"
         + "-dump                      Display strings, sort keys and CEs.\n"
@@ -69,6 +70,7 @@ public class CollationPerformanceTest {
     static StringBuffer temp_opt_strcmpCPO  = new StringBuffer("");
     static StringBuffer temp_opt_norm       = new StringBuffer("");
     static StringBuffer temp_opt_keygen     = new StringBuffer("");
+    static StringBuffer temp_opt_keyhash    = new StringBuffer("");
     static StringBuffer temp_opt_french     = new StringBuffer("");
     static StringBuffer temp_opt_frenchoff  = new StringBuffer("");
     static StringBuffer temp_opt_shifted    = new StringBuffer("");
@@ -101,6 +103,7 @@ public class CollationPerformanceTest {
     static boolean  opt_strcmpCPO  = false;
     static boolean  opt_norm       = false;
     static boolean  opt_keygen     = false;
+    static boolean  opt_keyhash    = false;
     static boolean  opt_french     = false;
     static boolean  opt_frenchoff  = false;
     static boolean  opt_shifted    = false;
@@ -137,6 +140,7 @@ public class CollationPerformanceTest {
         new OptionSpec("-level", 1, temp_opt_level),
         new OptionSpec("-keyhist", 0, temp_opt_keyhist),
         new OptionSpec("-keygen", 0, temp_opt_keygen),
+        new OptionSpec("-keyhash", 0, temp_opt_keyhash),
         new OptionSpec("-loop", 1, temp_opt_loopCount),
         new OptionSpec("-iloop", 1, temp_opt_iLoopCount),
         new OptionSpec("-terse", 0, temp_opt_terse),
@@ -184,6 +188,10 @@ public static void main(String[] args) {
             collPerf.doKeyGen();
         }
         
+        if (opt_keyhash) {
+            collPerf.doKeyHash();
+        }
+        
         if (opt_keyhist) {
             collPerf.doKeyHist();
         }
@@ -530,6 +538,65 @@ void doKeyGen() {
         }
     }
     
+    /**---------------------------------------------------------------------------------------
+     *
+     *   doKeyHash()     Collation Hash Timing Test
+     *
+     *   Compares RuleBasedCollator.getCollationHash() with hashing a full CollationKey.
+     *
+     *---------------------------------------------------------------------------------------
+     */
+    void doKeyHash() {
+        if (!(icuCol instanceof com.ibm.icu.text.RuleBasedCollator)) {
+            System.out.println("Collation Hash:  requires a RuleBasedCollator");
+            return;
+        }
+        com.ibm.icu.text.RuleBasedCollator rbc = (com.ibm.icu.text.RuleBasedCollator)icuCol;
+        
+        // Adjust loop count to compensate for file size.   Should be order n
+        double dLoopCount = opt_loopCount * (1000.0 /  (double)list.size());
+        int adj_loopCount = (int)dLoopCount;
+        if (adj_loopCount < 1) adj_loopCount = 1;
+        
+        callGC();
+        long keyHashSum = 0;
+        long startTime = System.currentTimeMillis();
+        for (int loops=0; loops<adj_loopCount; loops++) {
+            for (int line=0; line < tests.length; line++) {
+                for (int iLoop=0; iLoop < opt_iLoopCount; iLoop++) {
+                    keyHashSum += rbc.getCollationKey(tests[line]).hashCode();
+                }
+            }
+        }
+        long keyTime = System.currentTimeMillis() - startTime;
+        
+        callGC();
+        long collHashSum = 0;
+        startTime = System.currentTimeMillis();
+        for (int loops=0; loops<adj_loopCount; loops++) {
+            for (int line=0; line < tests.length; line++) {
+                for (int iLoop=0; iLoop < opt_iLoopCount; iLoop++) {
+                    collHashSum += rbc.getCollationHash(tests[line]);
+                }
+            }
+        }
+        long hashTime = System.currentTimeMillis() - startTime;
+        
+        double count = adj_loopCount * tests.length + 0.0;
+        long keyNs = (long)(1000000 * keyTime / count);
+        long hashNs = (long)(1000000 * hashTime / count);
+        if (!opt_terse) {
+            System.out.println("Collation Hash:  total # of strings =" + adj_loopCount * tests.length);
+            System.out.println("Collation Hash:  getCollationKey().hashCode() time per string = " + keyNs + " ns");
+            System.out.println("Collation Hash:  getCollationHash() time per string = " + hashNs + " ns");
+            // Print the checksums so that the loops cannot be optimized away.
+            System.out.println("Collation Hash:  checksums " + keyHashSum + ", " + collHashSum);
+        }
+        else {
+            System.out.println(keyNs + ",  " + hashNs + ", ");
+        }
+    }
+    
     /**---------------------------------------------------------------------------------------
      *
      *    doKeyHist()       Output a table of data for average sort key size vs. string length.
@@ -967,6 +1034,9 @@ static boolean processOptions(String[] args) {
         if (temp_opt_keygen.toString().equalsIgnoreCase("true")) {
             opt_keygen = true;
         }
+        if (temp_opt_keyhash.toString().equalsIgnoreCase("true")) {
+            opt_keyhash = true;
+        }
         if (temp_opt_norm.toString().equalsIgnoreCase("true")) {
             opt_norm = true;
         }
@@ -8,7 +8,11 @@
 */
 package com.ibm.icu.dev.test.perf;
 
+import java.io.IOException;
+
 import com.ibm.icu.text.Normalizer;
+import com.ibm.icu.text.Normalizer2;
+import com.ibm.icu.text.NormalizingWriter;
 
 public class NormalizerPerformanceTest extends PerfTest {
     
@@ -26,6 +30,148 @@ protected void setup(String[] args) {
         NFDFileLines = normalizeInput(fileLines, Normalizer.NFD);
         NFCFileLines = normalizeInput(fileLines, Normalizer.NFC);
     }
+
+    // Built-in corpora for throughput tests, independent of the input file.
+    // ASCII-heavy: English with rare non-ASCII characters.
+    static final String ASCII_CORPUS = makeCorpus(
+            "The quick brown fox jumps over the lazy dog; she said: \"Fine, 42 times.\" " +
+            "Meanwhile the caf\u00E9 next door served 3 espressos to passers-by.\n");
+    // Latin: French and German text in NFC with frequent accented letters.
+    static final String LATIN_CORPUS = makeCorpus(
+            "Le c\u0153ur d\u00E9\u00E7u mais l'\u00E2me plut\u00F4t na\u00EFve, " +
+            "Lou\u00FFs r\u00EAva de crapa\u00FCter en cano\u00EB au del\u00E0 des \u00EEles. " +
+            "Zw\u00F6lf Boxk\u00E4mpfer jagen Viktor quer \u00FCber den gro\u00DFen Sylter Deich.\n");
+    // CJK: Han ideographs with kana and ideographic punctuation.
+    static final String CJK_CORPUS = makeCorpus(
+            "\u5929\u5730\u7384\u9EC4\u3001\u5B87\u5B99\u6D2A\u8352\u3002" +
+            "\u65E5\u6708\u76C8\u6603\u3001\u8FB0\u5BBF\u5217\u5F35\u3002" +
+            "\u3044\u308D\u306F\u306B\u307B\u3078\u3068\u3061\u308A\u306C\u308B\u3092\u3002" +
+            "\u30AB\u30BF\u30AB\u30CA\u3068\u6F22\u5B57\u3092\u6DF7\u305C\u305F\u6587\u3002\n");
+
+    private static String makeCorpus(String sample) {
+        StringBuilder sb = new StringBuilder(CORPUS_LENGTH + sample.length());
+        while (sb.length() < CORPUS_LENGTH) {
+            sb.append(sample);
+        }
+        return sb.toString();
+    }
+
+    private static final int CORPUS_LENGTH = 64 * 1024;
+
+    private static final int IS_NORMALIZED = 0, QUICK_CHECK = 1, SPAN = 2, NORMALIZE = 3;
+
+    /**
+     * Runs one Normalizer2 operation on a corpus.
+     * The operations are the UTF-16 bytes of the corpus,
+     * so that operations per second are bytes per second (divide by 10^6 for MB/s).
+     */
+    private static final class ThroughputFunction extends PerfTest.Function {
+        private final Normalizer2 norm2;
+        private final String text;
+        private final int op;
+        private final StringBuilder dest = new StringBuilder();
+
+        ThroughputFunction(Normalizer2 norm2, String text, int op) {
+            this.norm2 = norm2;
+            this.text = text;
+            this.op = op;
+        }
+
+        public void call() {
+            switch (op) {
+            case IS_NORMALIZED:
+                norm2.isNormalized(text);
+                break;
+            case QUICK_CHECK:
+                norm2.quickCheck(text);
+                break;
+            case SPAN:
+                norm2.spanQuickCheckYes(text);
+                break;
+            default:
+                dest.setLength(0);
+                norm2.normalize(text, dest);
+                break;
+            }
+        }
+
+        public long getOperationsPerIteration() {
+            return 2L * text.length();
+        }
+    }
+
+    // Throughput in bytes/second on the built-in ASCII-heavy, Latin and CJK corpora
+    PerfTest.Function TestMBps_NFC_IsNormalized_ASCII() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), ASCII_CORPUS, IS_NORMALIZED);
+    }
+
+    PerfTest.Function TestMBps_NFC_IsNormalized_Latin() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), LATIN_CORPUS, IS_NORMALIZED);
+    }
+
+    PerfTest.Function TestMBps_NFC_IsNormalized_CJK() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), CJK_CORPUS, IS_NORMALIZED);
+    }
+
+    PerfTest.Function TestMBps_NFC_QuickCheck_ASCII() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), ASCII_CORPUS, QUICK_CHECK);
+    }
+
+    PerfTest.Function TestMBps_NFC_QuickCheck_Latin() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), LATIN_CORPUS, QUICK_CHECK);
+    }
+
+    PerfTest.Function TestMBps_NFC_QuickCheck_CJK() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), CJK_CORPUS, QUICK_CHECK);
+    }
+
+    PerfTest.Function TestMBps_NFC_Span_ASCII() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), ASCII_CORPUS, SPAN);
+    }
+
+    PerfTest.Function TestMBps_NFC_Span_Latin() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), LATIN_CORPUS, SPAN);
+    }
+
+    PerfTest.Function TestMBps_NFC_Span_CJK() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), CJK_CORPUS, SPAN);
+    }
+
+    PerfTest.Function TestMBps_NFC_Normalize_ASCII() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), ASCII_CORPUS, NORMALIZE);
+    }
+
+    PerfTest.Function TestMBps_NFC_Normalize_Latin() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), LATIN_CORPUS, NORMALIZE);
+    }
+
+    PerfTest.Function TestMBps_NFC_Normalize_CJK() {
+        return new ThroughputFunction(Normalizer2.getNFCInstance(), CJK_CORPUS, NORMALIZE);
+    }
+
+    PerfTest.Function TestMBps_NFKC_IsNormalized_ASCII() {
+        return new ThroughputFunction(Normalizer2.getNFKCInstance(), ASCII_CORPUS, IS_NORMALIZED);
+    }
+
+    PerfTest.Function TestMBps_NFKC_IsNormalized_Latin() {
+        return new ThroughputFunction(Normalizer2.getNFKCInstance(), LATIN_CORPUS, IS_NORMALIZED);
+    }
+
+    PerfTest.Function TestMBps_NFKC_IsNormalized_CJK() {
+        return new ThroughputFunction(Normalizer2.getNFKCInstance(), CJK_CORPUS, IS_NORMALIZED);
+    }
+
+    PerfTest.Function TestMBps_NFD_IsNormalized_ASCII() {
+        return new ThroughputFunction(Normalizer2.getNFDInstance(), ASCII_CORPUS, IS_NORMALIZED);
+    }
+
+    PerfTest.Function TestMBps_NFD_Normalize_Latin() {
+        return new ThroughputFunction(Normalizer2.getNFDInstance(), LATIN_CORPUS, NORMALIZE);
+    }
+
+    PerfTest.Function TestMBps_NFD_Normalize_CJK() {
+        return new ThroughputFunction(Normalizer2.getNFDInstance(), CJK_CORPUS, NORMALIZE);
+    }
     
     // Test NFC Performance
     PerfTest.Function TestICU_NFC_NFD_Text() {
@@ -82,6 +228,15 @@ public long getOperationsPerIteration() {
         };
     }
     
+    // Test streaming NFC Performance, in chunks of STREAM_CHUNK_SIZE chars
+    PerfTest.Function TestICU_NFC_Stream_Orig_Text() {
+        return new StreamFunction(Normalizer2.getNFCInstance(), fileLines);
+    }
+
+    PerfTest.Function TestICU_NFC_Stream_NFD_Text() {
+        return new StreamFunction(Normalizer2.getNFCInstance(), NFDFileLines);
+    }
+
     // Test NFD Performance
     PerfTest.Function TestICU_NFD_NFD_Text() {
         return new PerfTest.Function() {
@@ -137,6 +292,55 @@ public long getOperationsPerIteration() {
         };
     }
 
+    PerfTest.Function TestICU_NFD_Stream_Orig_Text() {
+        return new StreamFunction(Normalizer2.getNFDInstance(), fileLines);
+    }
+
+    PerfTest.Function TestICU_NFD_Stream_NFC_Text() {
+        return new StreamFunction(Normalizer2.getNFDInstance(), NFCFileLines);
+    }
+
+    static final int STREAM_CHUNK_SIZE = 1024;
+
+    /**
+     * Pushes the text lines through a NormalizingWriter in fixed-size chunks,
+     * for comparison with normalizing each line in memory.
+     */
+    private static final class StreamFunction extends PerfTest.Function {
+        private final Normalizer2 norm2;
+        private final String[] lines;
+        private final StringBuilder dest = new StringBuilder();
+
+        StreamFunction(Normalizer2 norm2, String[] lines) {
+            this.norm2 = norm2;
+            this.lines = lines;
+        }
+
+        public void call() {
+            try {
+                for (int i = 0; i < lines.length; i++) {
+                    String line = lines[i];
+                    dest.setLength(0);
+                    NormalizingWriter writer = new NormalizingWriter(norm2, dest);
+                    for (int start = 0; start < line.length(); start += STREAM_CHUNK_SIZE) {
+                        writer.write(line, start, Math.min(STREAM_CHUNK_SIZE, line.length() - start));
+                    }
+                    writer.finish();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        public long getOperationsPerIteration() {
+            int totalChars = 0;
+            for (int i = 0; i < lines.length; i++) {
+                totalChars = totalChars + lines[i].length();
+            }
+            return totalChars;
+        }
+    }
+
     // Test NFC Performance
     PerfTest.Function TestJDK_NFC_NFD_Text() {
         return new PerfTest.Function() {
@@ -8,6 +8,8 @@
 */
 package com.ibm.icu.dev.test.perf;
 import com.ibm.icu.text.*;
+import com.ibm.icu.util.Output;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -63,6 +65,8 @@ protected void setup(String[] args) {
                 bi  = (RuleBasedBreakIterator)com.ibm.icu.text.BreakIterator.getWordInstance();
             } else if (args[1].equals("line")) {
                 bi  = (RuleBasedBreakIterator)com.ibm.icu.text.BreakIterator.getLineInstance();
+            } else if (args[1].equals("sentence")) {
+                bi  = (RuleBasedBreakIterator)com.ibm.icu.text.BreakIterator.getSentenceInstance();
             } else if (args[1].equals("jdkline")) {
                 jdkbi  = BreakIterator.getLineInstance();
             }
@@ -155,5 +159,158 @@ public long getOperationsPerIteration() {
     }
 
 
- 
+    /**
+     * Sets the text as a String, which the break rules read directly,
+     * and iterates over all boundaries.
+     */
+    PerfTest.Function testRBBISetTextNext() {
+        return new PerfTest.Function() {
+            public void call() {
+                bi.setText(testString);
+                for (int n = bi.first(); n != BreakIterator.DONE; n = bi.next()) {
+                }
+            }
+
+            public long getOperationsPerIteration() {
+                return testString.length();
+            }
+        };
+    }
+
+    /**
+     * Same as RBBISetTextNext but with the text in a CharacterIterator,
+     * for comparison with the direct String path.
+     */
+    PerfTest.Function testRBBISetTextNextCharacterIterator() {
+        return new PerfTest.Function() {
+            public void call() {
+                bi.setText(new java.text.StringCharacterIterator(testString));
+                for (int n = bi.first(); n != BreakIterator.DONE; n = bi.next()) {
+                }
+            }
+
+            public long getOperationsPerIteration() {
+                return testString.length();
+            }
+        };
+    }
+
+    /**
+     * Collects all boundaries and their rule statuses with next() and getRuleStatus(),
+     * for comparison with RBBIGetAllBoundaries.
+     */
+    PerfTest.Function testRBBINextRuleStatus() {
+        return new PerfTest.Function() {
+            public void call() {
+                int count = 0;
+                for (int n = bi.first(); n != BreakIterator.DONE; n = bi.next()) {
+                    if (count == boundaries.length) {
+                        boundaries = java.util.Arrays.copyOf(boundaries, 2 * count);
+                        statuses = java.util.Arrays.copyOf(statuses, 2 * count);
+                    }
+                    boundaries[count] = n;
+                    statuses[count++] = bi.getRuleStatus();
+                }
+            }
+            public long getOperationsPerIteration() {
+                return testString.length();
+            }
+        };
+    }
+
+    /**
+     * Collects all boundaries and their rule statuses in one call.
+     */
+    PerfTest.Function testRBBIGetAllBoundaries() {
+        return new PerfTest.Function() {
+            Output<int[]> boundariesOut = new Output<int[]>(boundaries);
+            Output<int[]> statusesOut = new Output<int[]>(statuses);
+            public void call() {
+                bi.getAllBoundaries(boundariesOut, statusesOut);
+            }
+            public long getOperationsPerIteration() {
+                return testString.length();
+            }
+        };
+    }
+
+    /**
+     * Creates a break iterator per call by cloning the prototype,
+     * for comparison with RBBISegmenterNewIterator.
+     */
+    PerfTest.Function testRBBIClone() {
+        return new PerfTest.Function() {
+            public void call() {
+                sink = bi.clone();
+            }
+        };
+    }
+
+    /**
+     * Creates a break iterator per call from a shared segmenter.
+     */
+    PerfTest.Function testRBBISegmenterNewIterator() {
+        return new PerfTest.Function() {
+            RuleBasedBreakIterator.Segmenter segmenter = RuleBasedBreakIterator.Segmenter.getInstance(bi);
+            public void call() {
+                sink = segmenter.newIterator();
+            }
+        };
+    }
+
+    /**
+     * Collects all boundaries and their rule statuses, segmenting chunks of the text
+     * concurrently on a pool with one thread per processor.
+     * Compare with RBBIGetAllBoundaries; use a large file.
+     */
+    PerfTest.Function testRBBIParallelGetAllBoundaries() {
+        return new PerfTest.Function() {
+            RuleBasedBreakIterator.Segmenter segmenter = RuleBasedBreakIterator.Segmenter.getInstance(bi);
+            java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool();
+            Output<int[]> boundariesOut = new Output<int[]>(boundaries);
+            Output<int[]> statusesOut = new Output<int[]>(statuses);
+            public void call() {
+                segmenter.getAllBoundaries(testString, boundariesOut, statusesOut, pool);
+            }
+            public long getOperationsPerIteration() {
+                return testString.length();
+            }
+        };
+    }
+
+    /**
+     * Compiles the iterator's source rules per call.
+     */
+    PerfTest.Function testRBBIFromRules() {
+        return new PerfTest.Function() {
+            String rules = bi.toString();
+            public void call() {
+                sink = new RuleBasedBreakIterator(rules);
+            }
+        };
+    }
+
+    /**
+     * Loads the iterator's rules per call from an on-disk compiled rules cache,
+     * as at startup after the first run. Compare with RBBIFromRules.
+     */
+    PerfTest.Function testRBBICompiledRulesCacheFile() throws IOException {
+        final String rules = bi.toString();
+        final File dir = File.createTempFile("rbbiperf", "");
+        dir.delete();
+        dir.deleteOnExit();
+        new RuleBasedBreakIterator.CompiledRulesCache(dir).getInstance(rules);
+        for (File file : dir.listFiles()) {
+            file.deleteOnExit();
+        }
+        return new PerfTest.Function() {
+            public void call() {
+                sink = new RuleBasedBreakIterator.CompiledRulesCache(dir).getInstance(rules);
+            }
+        };
+    }
+
+    private static volatile Object sink;
+    private int[] boundaries = new int[16];
+    private int[] statuses = new int[16];
 }
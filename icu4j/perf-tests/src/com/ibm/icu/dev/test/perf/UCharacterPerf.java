@@ -9,7 +9,12 @@
 
 package com.ibm.icu.dev.test.perf;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ibm.icu.lang.CharacterProperties;
 import com.ibm.icu.lang.UCharacter;
+import com.ibm.icu.lang.UProperty;
 
 /**
  * Base performance test that takes in a method name for testing with JDK.
@@ -40,6 +45,29 @@ protected void setup(String[] args) {
         if (args.length >= 2) {
             MAX_ = Integer.parseInt(args[1], 16);
         }
+        // Text for the per-code point vs. bulk lookup tests:
+        // Latin-1 words with a few characters from MIN_..MAX_ mixed in.
+        StringBuilder sb = new StringBuilder();
+        int other = MIN_;
+        while (sb.length() < 0x10000) {
+            sb.append("Der B\u00e4r l\u00e4uft 42x \u00fcber die Stra\u00dfe, ");
+            if (!Character.isSurrogate((char) other)) {
+                sb.append((char) other).append(' ');
+            }
+            other = other < MAX_ ? other + 1 : MIN_;
+        }
+        TEXT_ = sb.toString().toCharArray();
+        VALUES_ = new byte[TEXT_.length];
+        // Names of every 16th character from MIN_..MAX_
+        // except for the algorithmic Hangul syllable names.
+        List<String> names = new ArrayList<String>();
+        for (int ch = MIN_; ch <= MAX_; ch += 16) {
+            String name = UCharacter.getName(ch);
+            if (name != null && !(0xac00 <= ch && ch <= 0xd7a3)) {
+                names.add(name);
+            }
+        }
+        NAMES_ = names.toArray(new String[names.size()]);
     }
     
     PerfTest.Function testDigit() 
@@ -522,6 +550,291 @@ public long getOperationsPerIteration() {
         };
     }
     
+    // The following tests accumulate their results in sink_ so that the calls cannot be
+    // optimized away. The ...Supplementary tests run over SUPP_MIN_..SUPP_MAX_-1
+    // regardless of the arguments, to measure the supplementary lookup path of the tries.
+
+    PerfTest.Function testGetTypeSupplementary()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int ch = SUPP_MIN_; ch < SUPP_MAX_; ch ++) {
+                    sum += UCharacter.getType(ch);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return SUPP_MAX_ - SUPP_MIN_;
+            }
+        };
+    }
+
+    PerfTest.Function testIsLetterSupplementary()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int ch = SUPP_MIN_; ch < SUPP_MAX_; ch ++) {
+                    sum += UCharacter.isLetter(ch) ? 1 : 0;
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return SUPP_MAX_ - SUPP_MIN_;
+            }
+        };
+    }
+
+    PerfTest.Function testGetNumericValueSupplementary()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int ch = SUPP_MIN_; ch < SUPP_MAX_; ch ++) {
+                    sum += UCharacter.getNumericValue(ch);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return SUPP_MAX_ - SUPP_MIN_;
+            }
+        };
+    }
+
+    PerfTest.Function testToLowerCase()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int ch = MIN_; ch < MAX_; ch ++) {
+                    sum += UCharacter.toLowerCase(ch);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return MAX_ - MIN_ + 1;
+            }
+        };
+    }
+
+    PerfTest.Function testToLowerCaseSupplementary()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int ch = SUPP_MIN_; ch < SUPP_MAX_; ch ++) {
+                    sum += UCharacter.toLowerCase(ch);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return SUPP_MAX_ - SUPP_MIN_;
+            }
+        };
+    }
+
+    PerfTest.Function testGetDirection()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int ch = MIN_; ch < MAX_; ch ++) {
+                    sum += UCharacter.getDirection(ch);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return MAX_ - MIN_ + 1;
+            }
+        };
+    }
+
+    PerfTest.Function testGetDirectionSupplementary()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int ch = SUPP_MIN_; ch < SUPP_MAX_; ch ++) {
+                    sum += UCharacter.getDirection(ch);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return SUPP_MAX_ - SUPP_MIN_;
+            }
+        };
+    }
+
+    PerfTest.Function testGetScript()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int ch = MIN_; ch < MAX_; ch ++) {
+                    sum += UCharacter.getIntPropertyValue(ch, UProperty.SCRIPT);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return MAX_ - MIN_ + 1;
+            }
+        };
+    }
+
+    PerfTest.Function testGetScriptSupplementary()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int ch = SUPP_MIN_; ch < SUPP_MAX_; ch ++) {
+                    sum += UCharacter.getIntPropertyValue(ch, UProperty.SCRIPT);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return SUPP_MAX_ - SUPP_MIN_;
+            }
+        };
+    }
+
+    PerfTest.Function testGetTypeText()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int i = 0; i < TEXT_.length; ++i) {
+                    sum += UCharacter.getType(TEXT_[i]);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return TEXT_.length;
+            }
+        };
+    }
+
+    PerfTest.Function testGetTypeTextBulk()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                sink_ += CharacterProperties.getIntPropertyValues(
+                        UProperty.GENERAL_CATEGORY, TEXT_, 0, TEXT_.length, VALUES_, 0);
+            }
+
+            public long getOperationsPerIteration() {
+                return TEXT_.length;
+            }
+        };
+    }
+
+    PerfTest.Function testGetLineBreakText()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int i = 0; i < TEXT_.length; ++i) {
+                    sum += UCharacter.getIntPropertyValue(TEXT_[i], UProperty.LINE_BREAK);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return TEXT_.length;
+            }
+        };
+    }
+
+    PerfTest.Function testGetLineBreakTextBulk()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                sink_ += CharacterProperties.getIntPropertyValues(
+                        UProperty.LINE_BREAK, TEXT_, 0, TEXT_.length, VALUES_, 0);
+            }
+
+            public long getOperationsPerIteration() {
+                return TEXT_.length;
+            }
+        };
+    }
+
+    PerfTest.Function testGetScriptText()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (int i = 0; i < TEXT_.length; ++i) {
+                    sum += UCharacter.getIntPropertyValue(TEXT_[i], UProperty.SCRIPT);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return TEXT_.length;
+            }
+        };
+    }
+
+    PerfTest.Function testGetScriptTextBulk()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                sink_ += CharacterProperties.getIntPropertyValues(
+                        UProperty.SCRIPT, TEXT_, 0, TEXT_.length, VALUES_, 0);
+            }
+
+            public long getOperationsPerIteration() {
+                return TEXT_.length;
+            }
+        };
+    }
+
+    PerfTest.Function testGetCharFromName()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (String name : NAMES_) {
+                    sum += UCharacter.getCharFromName(name);
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return NAMES_.length;
+            }
+        };
+    }
+
+    PerfTest.Function testGetCharFromNameMiss()
+    {
+        return new PerfTest.Function() {
+            public void call() {
+                int sum = 0;
+                for (String name : NAMES_) {
+                    // Same length, but not a character name.
+                    sum += UCharacter.getCharFromName(name.replace(' ', '_'));
+                }
+                sink_ += sum;
+            }
+
+            public long getOperationsPerIteration() {
+                return NAMES_.length;
+            }
+        };
+    }
+
     // private data member --------------------------------------------------
     
     /**
@@ -532,4 +845,19 @@ public long getOperationsPerIteration() {
      * Minimum codepoint to do test. Test is ran from MIN_ to MAX_
      */
     private static int MAX_;
+    /**
+     * Range of supplementary code points for the ...Supplementary tests
+     */
+    private static final int SUPP_MIN_ = 0x10000;
+    private static final int SUPP_MAX_ = 0x30000;
+    private static int sink_;
+    /**
+     * Text and output buffer for the ...Text tests
+     */
+    private static char[] TEXT_;
+    private static byte[] VALUES_;
+    /**
+     * Character names for the getCharFromName tests
+     */
+    private static String[] NAMES_;
 }
@@ -7,7 +7,11 @@
 **********************************************************************
 */
 package com.ibm.icu.dev.test.perf;
+import com.ibm.icu.lang.UProperty;
 import com.ibm.icu.text.*;
+import com.ibm.icu.text.UnicodeSet.SpanCondition;
+
+import java.nio.charset.Charset;
 import java.util.HashSet;
 import java.util.Iterator;
 
@@ -160,4 +164,177 @@ public long getOperationsPerIteration() {
             }
         };
     }
+
+    PerfTest.Function testNewUnicodeSetPattern() {
+        return new PerfTest.Function() {
+            public void call() {
+                new UnicodeSet(pattern).freeze();
+            }
+        };
+    }
+
+    PerfTest.Function testGetFrozenPattern() {
+        return new PerfTest.Function() {
+            public void call() {
+                UnicodeSet.getFrozen(pattern);
+            }
+        };
+    }
+
+    /**
+     * Builds a text with ranges of set elements and non-elements for the span tests.
+     */
+    private String makeSpanText() {
+        StringBuilder sb = new StringBuilder();
+        UnicodeSet frozen = UnicodeSet.getFrozen(pattern);
+        UnicodeSetIterator elements = new UnicodeSetIterator(frozen);
+        UnicodeSetIterator others = new UnicodeSetIterator(frozen.cloneAsThawed().complement());
+        while (sb.length() < 10000) {
+            for (int i = 0; i < 20 && elements.next(); ++i) {
+                sb.append(elements.getString());
+            }
+            if (others.next()) {
+                sb.append(others.getString());
+            } else if (!elements.next()) {
+                elements.reset();
+            }
+        }
+        return sb.toString();
+    }
+
+    PerfTest.Function testSpan() {
+        final UnicodeSet frozen = UnicodeSet.getFrozen(pattern);
+        final String text = makeSpanText();
+        return new PerfTest.Function() {
+            public void call() {
+                int start = 0;
+                SpanCondition condition = SpanCondition.SIMPLE;
+                while (start < text.length()) {
+                    start = frozen.span(text, start, condition);
+                    condition = condition == SpanCondition.SIMPLE ?
+                            SpanCondition.NOT_CONTAINED : SpanCondition.SIMPLE;
+                }
+            }
+
+            public long getOperationsPerIteration() {
+                return text.length();
+            }
+        };
+    }
+
+    PerfTest.Function testSpanUTF8() {
+        final UnicodeSet frozen = UnicodeSet.getFrozen(pattern);
+        final String text = makeSpanText();
+        final byte[] utf8 = text.getBytes(Charset.forName("UTF-8"));
+        return new PerfTest.Function() {
+            public void call() {
+                int start = 0;
+                SpanCondition condition = SpanCondition.SIMPLE;
+                while (start < utf8.length) {
+                    start = frozen.spanUTF8(utf8, start, utf8.length, condition);
+                    condition = condition == SpanCondition.SIMPLE ?
+                            SpanCondition.NOT_CONTAINED : SpanCondition.SIMPLE;
+                }
+            }
+
+            public long getOperationsPerIteration() {
+                return text.length();
+            }
+        };
+    }
+
+    /**
+     * 50 frozen property sets for the composition tests:
+     * Script sets to be added, and a few sets to be retained or removed.
+     */
+    private UnicodeSet[] makeComposeSets() {
+        UnicodeSet[] sets = new UnicodeSet[50];
+        for (int i = 0; i < 47; ++i) {
+            sets[i] = new UnicodeSet().applyIntPropertyValue(UProperty.SCRIPT, i + 1).freeze();
+        }
+        sets[47] = UnicodeSet.getFrozen("[:^Cn:]");  // retain
+        sets[48] = UnicodeSet.getFrozen("[:Cf:]");  // remove
+        sets[49] = UnicodeSet.getFrozen("[:Co:]");  // remove
+        return sets;
+    }
+
+    PerfTest.Function testCompose50Pairwise() {
+        final UnicodeSet[] sets = makeComposeSets();
+        return new PerfTest.Function() {
+            public void call() {
+                UnicodeSet result = new UnicodeSet();
+                for (int i = 0; i < 47; ++i) {
+                    result.addAll(sets[i]);
+                }
+                result.retainAll(sets[47]).removeAll(sets[48]).removeAll(sets[49]);
+            }
+
+            public long getOperationsPerIteration() {
+                return sets.length;
+            }
+        };
+    }
+
+    PerfTest.Function testCompose50Builder() {
+        final UnicodeSet[] sets = makeComposeSets();
+        return new PerfTest.Function() {
+            public void call() {
+                UnicodeSet.Builder builder = new UnicodeSet.Builder();
+                for (int i = 0; i < 47; ++i) {
+                    builder.addAll(sets[i]);
+                }
+                builder.retainAll(sets[47]).removeAll(sets[48]).removeAll(sets[49]).build();
+            }
+
+            public long getOperationsPerIteration() {
+                return sets.length;
+            }
+        };
+    }
+
+    /**
+     * The code points of the pattern set, in a scrambled order.
+     */
+    private int[] makeUnsortedCodePoints() {
+        int[] cps = new int[testChars.size()];
+        it.reset();
+        for (int i = 0; it.next(); ++i) {
+            cps[i] = it.codepoint;
+        }
+        java.util.Random random = new java.util.Random(1);
+        for (int i = cps.length - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int t = cps[i]; cps[i] = cps[j]; cps[j] = t;
+        }
+        return cps;
+    }
+
+    PerfTest.Function testAddUnsortedCodePoints() {
+        final int[] cps = makeUnsortedCodePoints();
+        return new PerfTest.Function() {
+            public void call() {
+                UnicodeSet set = new UnicodeSet();
+                for (int c : cps) {
+                    set.add(c);
+                }
+            }
+
+            public long getOperationsPerIteration() {
+                return cps.length;
+            }
+        };
+    }
+
+    PerfTest.Function testAddAllUnsortedCodePoints() {
+        final int[] cps = makeUnsortedCodePoints();
+        return new PerfTest.Function() {
+            public void call() {
+                new UnicodeSet().addAll(cps);
+            }
+
+            public long getOperationsPerIteration() {
+                return cps.length;
+            }
+        };
+    }
 }